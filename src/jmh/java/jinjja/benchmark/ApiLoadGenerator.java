@@ -0,0 +1,124 @@
+package jinjja.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jinjja.api.ApiServer;
+import jinjja.engine.JinjjaEngine;
+import jinjja.storage.Storage;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+
+/**
+ * Local load generator for {@link ApiServer}. Starts a server on a free port with a seeded task list, drives it from
+ * several client threads with a mix of page, find and mark requests, then prints throughput and latency percentiles.
+ *
+ * <p>Usage: {@code ApiLoadGenerator [CLIENT_THREADS] [SECONDS] [TASKS]}
+ */
+public class ApiLoadGenerator {
+    private static final int MAX_SAMPLES_PER_THREAD = 1_000_000;
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Optional client thread count, duration in seconds and number of seeded tasks
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int taskCount = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.addTask(new Todo("seeded task " + i + (i % 7 == 0 ? " report" : "")));
+        }
+        Path dataFile = Files.createTempFile("jinjja-load", ".txt");
+        ApiServer server = new ApiServer(new JinjjaEngine(tasks, new Storage(dataFile.toString())));
+        int port = server.start(0);
+        String base = "http://127.0.0.1:" + port + "/tasks";
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] samples = new long[threadCount][];
+        int[] sampleCounts = new int[threadCount];
+        AtomicLong errors = new AtomicLong();
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int threadIndex = t;
+            samples[t] = new long[MAX_SAMPLES_PER_THREAD];
+            threads[t] = new Thread(()-> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline && sampleCounts[threadIndex] < MAX_SAMPLES_PER_THREAD) {
+                    HttpRequest request = nextRequest(base, random, taskCount);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        errors.incrementAndGet();
+                    }
+                    samples[threadIndex][sampleCounts[threadIndex]++] = System.nanoTime() - start;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        server.stop();
+        Files.deleteIfExists(dataFile);
+
+        report(samples, sampleCounts, errors.get(), seconds, threadCount);
+    }
+
+    private static HttpRequest nextRequest(String base, ThreadLocalRandom random, int taskCount) {
+        int choice = random.nextInt(10);
+        if (choice < 6) {
+            int page = 1 + random.nextInt(Math.max(1, taskCount / 20));
+            return HttpRequest.newBuilder(URI.create(base + "?page=" + page + "&size=20")).GET().build();
+        } else if (choice < 7) {
+            return HttpRequest.newBuilder(URI.create(base + "/find?q=report")).GET().build();
+        }
+        int number = 1 + random.nextInt(taskCount);
+        String action = random.nextBoolean() ? "/mark" : "/unmark";
+        return HttpRequest.newBuilder(URI.create(base + "/" + number + action))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static void report(long[][] samples, int[] sampleCounts, long errors, int seconds, int threadCount) {
+        int total = Arrays.stream(sampleCounts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < samples.length; t++) {
+            System.arraycopy(samples[t], 0, all, offset, sampleCounts[t]);
+            offset += sampleCounts[t];
+        }
+        Arrays.sort(all);
+
+        System.out.println("Clients:     " + threadCount);
+        System.out.println("Requests:    " + total + " (" + errors + " errors)");
+        System.out.printf("Throughput:  %.0f req/s%n", total / (double) seconds);
+        System.out.printf("Latency p50: %.3f ms%n", percentile(all, 0.50));
+        System.out.printf("Latency p99: %.3f ms%n", percentile(all, 0.99));
+        System.out.printf("Latency max: %.3f ms%n", percentile(all, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,134 @@
+package jinjja.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH results file with the committed baseline, both in JMH's CSV format, and prints one line per
+ * benchmark with the change in score.
+ *
+ * <p>A benchmark counts as a regression when it is more than {@link #DEFAULT_THRESHOLD} worse than the baseline and
+ * the difference is larger than the two error margins together, so ordinary noise is not reported. The program exits
+ * with status 1 if there is any regression, so it can gate a build.
+ */
+public class BaselineComparison {
+    /** How much worse than the baseline a score may be before it is a regression, as a fraction. */
+    public static final double DEFAULT_THRESHOLD = 0.25;
+
+    /**
+     * One row of a results file.
+     */
+    private record Result(String mode, double score, double error, String unit) {
+        /**
+         * Returns how much worse this result is than the other, as a fraction. Negative means better.
+         */
+        double worseningFrom(Result baseline) {
+            double change = (this.score - baseline.score) / baseline.score;
+            return this.mode.equals("thrpt") ? -change : change;
+        }
+
+        boolean isBeyondError(Result baseline) {
+            return Math.abs(this.score - baseline.score) > this.error + baseline.error;
+        }
+    }
+
+    /**
+     * Compares the results file with the baseline and prints the differences.
+     *
+     * @param args The baseline file, the results file, and optionally the threshold as a fraction
+     * @throws IOException if either file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison BASELINE_CSV RESULTS_CSV [THRESHOLD]");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %12.3f %-6s (new)%n", entry.getKey(), now.score(), now.unit());
+                continue;
+            }
+            double worsening = now.worseningFrom(before);
+            boolean isRegression = worsening > threshold && now.isBeyondError(before);
+            if (isRegression) {
+                regressions++;
+            }
+            System.out.printf("%-70s %12.3f -> %12.3f %-6s %+7.1f%%%s%n", entry.getKey(), before.score(),
+                    now.score(), now.unit(), worsening * 100, isRegression ? "  REGRESSION" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-70s (not run)%n", missing);
+            }
+        }
+
+        System.out.println(regressions + " regression(s) beyond " + Math.round(threshold * 100) + "%");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a JMH CSV results file, keyed by benchmark name and parameter values.
+     */
+    private static Map<String, Result> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        List<String> header = splitCsv(lines.get(0));
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsv(line);
+            Map<String, String> params = new TreeMap<>();
+            for (int i = 7; i < fields.size(); i++) {
+                if (!fields.get(i).isEmpty()) {
+                    params.put(header.get(i).replace("Param: ", ""), fields.get(i));
+                }
+            }
+            String key = fields.get(0) + (params.isEmpty() ? "" : " " + params);
+            results.put(key, new Result(fields.get(1), Double.parseDouble(fields.get(4)),
+                    parseError(fields.get(5)), fields.get(6)));
+        }
+        return results;
+    }
+
+    private static double parseError(String field) {
+        return field.isEmpty() || field.equals("NaN") ? 0 : Double.parseDouble(field);
+    }
+
+    /**
+     * Splits one CSV line into fields, removing the quotes around quoted fields.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                isQuoted = !isQuoted;
+            } else if (c == ',' && !isQuoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,70 @@
+package jinjja.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import jinjja.task.Deadline;
+import jinjja.task.Event;
+import jinjja.task.Task;
+import jinjja.task.Tentative;
+import jinjja.task.Todo;
+
+/**
+ * Builds the task lists the benchmarks run against. The mix is the same in every benchmark, so results can be
+ * compared between them: mostly todos and deadlines, some events and a few tentative events, with every third task
+ * done and one task in ten mentioning a report.
+ */
+final class BenchmarkTasks {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private BenchmarkTasks() {
+    }
+
+    /**
+     * Returns a fresh list of mixed tasks.
+     */
+    static ArrayList<Task> mixed(int count) {
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = (i % 10 == 0 ? "write report " : "task ") + i;
+            LocalDateTime time = START.plusHours(i % 5000);
+            Task task;
+            switch (i % 20) {
+            case 0:
+                task = tentative(description, time);
+                break;
+            case 1:
+            case 2:
+            case 3:
+                task = new Event(description, time, time.plusHours(2));
+                break;
+            default:
+                task = i % 2 == 0 ? new Todo(description) : new Deadline(description, time);
+                break;
+            }
+            task.setDone(i % 3 == 0);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns a tentative event with three slots a day apart.
+     */
+    static Tentative tentative(String description, LocalDateTime from) {
+        Tentative tentative = new Tentative(description);
+        for (int day = 0; day < 3; day++) {
+            tentative.addTentativeSlot(from.plusDays(day), from.plusDays(day).plusHours(1));
+        }
+        return tentative;
+    }
+
+    /**
+     * Discards everything printed to standard output, such as the messages Storage prints on every load and save.
+     */
+    static void silenceStandardOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,60 @@
+package jinjja.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jinjja.command.FindCommand;
+import jinjja.engine.JinjjaEngine;
+import jinjja.storage.Storage;
+import jinjja.task.TaskList;
+import jinjja.ui.Gui;
+
+/**
+ * Measures the find command end to end, from scanning the descriptions to rendering the reply for the GUI. One task in
+ * ten matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindBenchmark {
+    @Param({"1000", "100000"})
+    private int taskCount;
+
+    private JinjjaEngine engine;
+    private Gui ui;
+    private FindCommand command;
+
+    /**
+     * Builds an engine over the requested number of tasks.
+     *
+     * @throws IOException if the temporary save location cannot be created
+     */
+    @Setup
+    public void buildEngine() throws IOException {
+        String saveFile = Files.createTempDirectory("jinjja-jmh").resolve("jinjja.txt").toString();
+        this.engine = new JinjjaEngine(new TaskList(BenchmarkTasks.mixed(this.taskCount)), new Storage(saveFile));
+        this.ui = new Gui();
+        this.command = new FindCommand("report");
+    }
+
+    @Benchmark
+    public String find() {
+        return this.command.execute(this.engine, this.ui);
+    }
+}
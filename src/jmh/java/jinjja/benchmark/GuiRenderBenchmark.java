@@ -0,0 +1,50 @@
+package jinjja.benchmark;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jinjja.task.Task;
+import jinjja.ui.Gui;
+
+/**
+ * Measures rendering the full task list as the GUI's reply text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GuiRenderBenchmark {
+    @Param({"1000", "100000"})
+    private int taskCount;
+
+    private ArrayList<Task> tasks;
+    private Gui ui;
+
+    /**
+     * Creates the tasks to render.
+     */
+    @Setup
+    public void createTasks() {
+        this.tasks = BenchmarkTasks.mixed(this.taskCount);
+        this.ui = new Gui();
+    }
+
+    @Benchmark
+    public String showTaskList() {
+        return this.ui.showTaskList(this.tasks);
+    }
+}
@@ -0,0 +1,57 @@
+package jinjja.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jinjja.command.Command;
+import jinjja.parser.Parser;
+
+/**
+ * Measures parsing one typical input of each command type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private static final Map<String, String> INPUTS = Map.of(
+            "todo", "todo read book",
+            "deadline", "deadline return book /by 2025-06-01 18:00",
+            "event", "event project meeting /from 2025-06-02 14:00 /to 2025-06-02 16:00",
+            "tentative", "tentative team lunch /slots /from 2025-06-03 12:00 /to 2025-06-03 13:00 "
+                    + "/from 2025-06-04 12:00 /to 2025-06-04 13:00",
+            "list", "list page 2 /size 10 /undone /type deadline /before 2025-07-01",
+            "mark", "mark 3",
+            "delete", "delete 3",
+            "find", "find book",
+            "query", "query done=false and type=E and from>=2025-01-01 sort by from limit 20");
+
+    @Param({"todo", "deadline", "event", "tentative", "list", "mark", "delete", "find", "query"})
+    private String commandType;
+
+    private String input;
+
+    @Setup
+    public void chooseInput() {
+        this.input = INPUTS.get(this.commandType);
+    }
+
+    @Benchmark
+    public Command parse() {
+        return Parser.parse(this.input);
+    }
+}
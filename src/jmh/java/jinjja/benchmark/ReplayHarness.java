@@ -0,0 +1,237 @@
+package jinjja.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jinjja.Jinjja;
+import jinjja.ui.Cli;
+
+/**
+ * Replays generated workloads through Jinjja's command line loop, exactly as if the commands were piped in, and
+ * reports throughput and latency percentiles for each kind of command.
+ *
+ * <p>By default the harness generates and replays one workload per scale, with the same number of commands each time
+ * but a save file of a different size, and then checks how the mean latency of each kind of command grows with the
+ * size of the list. Adding and marking should not slow down as the list grows, while commands that may look at every
+ * task, such as find, query, list and delete, may slow down in proportion to it. A kind of command that grows clearly
+ * faster than that is reported, and the harness exits with status 1, since over a whole session that is quadratic or
+ * worse.
+ *
+ * <p>Options are the {@link WorkloadGenerator} options, except {@code tasks}, plus:
+ *
+ * <ul>
+ * <li>{@code scales} - the save file sizes to replay against, separated by commas, 1000,10000,100000 by default</li>
+ * <li>{@code dir} - replay only the workload already generated in this directory, without any scaling check</li>
+ * </ul>
+ *
+ * <p>Usage: {@code ReplayHarness [key=value ...]}
+ */
+public class ReplayHarness {
+    /** How much faster than expected the latency of a command may grow with the list size, as a power of the size. */
+    public static final double GROWTH_ALLOWANCE = 0.5;
+
+    private static final Set<String> SCANNING_KINDS = Set.of("find", "query", "list", "delete");
+    private static final double[] PERCENTILES = {0.50, 0.90, 0.99};
+
+    /**
+     * The latencies and total time of one replay.
+     */
+    private record Replay(int taskCount, Map<String, long[]> latencies, long totalNanos, List<String> errors) {
+        int commandCount() {
+            return this.latencies.values().stream().mapToInt(samples->samples.length).sum();
+        }
+
+        double meanMicros(String kind) {
+            return Arrays.stream(this.latencies.get(kind)).average().orElse(0) / 1000;
+        }
+    }
+
+    /**
+     * Generates and replays the workloads, and prints the results.
+     *
+     * @param args The options, as {@code key=value} arguments
+     * @throws IOException if a workload cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = WorkloadGenerator.parseOptions(args);
+        if (options.containsKey("dir")) {
+            print(replay(Path.of(options.get("dir")), -1));
+            return;
+        }
+
+        int commandCount = Integer.parseInt(options.getOrDefault("commands", "10000"));
+        int[] scales = Arrays.stream(options.getOrDefault("scales", "1000,10000,100000").split(","))
+                .mapToInt(Integer::parseInt).sorted().toArray();
+        Path root = Files.createTempDirectory("jinjja-workload");
+
+        // The first replay only warms up the JIT, so the smallest scale is not measured cold
+        replay(generate(options, root.resolve("warmup"), scales[0], commandCount), scales[0]);
+        List<Replay> replays = new ArrayList<>();
+        for (int scale : scales) {
+            Path dir = generate(options, root.resolve(Integer.toString(scale)), scale, commandCount);
+            Replay replay = replay(dir, scale);
+            print(replay);
+            replays.add(replay);
+        }
+
+        int flagged = scales.length > 1 ? printGrowth(replays.get(0), replays.get(replays.size() - 1)) : 0;
+        if (flagged > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Path generate(Map<String, String> options, Path dir, int taskCount, int commandCount)
+            throws IOException {
+        PrintStream out = System.out;
+        try {
+            BenchmarkTasks.silenceStandardOutput();
+            new WorkloadGenerator(options).write(dir, taskCount, commandCount);
+        } finally {
+            System.setOut(out);
+        }
+        return dir;
+    }
+
+    /**
+     * Replays the workload in the directory through a fresh Jinjja, leaving the generated save file untouched.
+     */
+    private static Replay replay(Path dir, int taskCount) throws IOException {
+        Path saveFile = dir.resolve("replay.txt");
+        Files.copy(dir.resolve(WorkloadGenerator.SAVE_FILE), saveFile, StandardCopyOption.REPLACE_EXISTING);
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        TimedCli cli;
+        long start = System.nanoTime();
+        try (InputStream commands = Files.newInputStream(dir.resolve(WorkloadGenerator.COMMAND_FILE))) {
+            // Storage reports every load and save on standard output, which would only get in the way here
+            BenchmarkTasks.silenceStandardOutput();
+            System.setErr(new PrintStream(errors, true));
+            cli = new TimedCli(commands, OutputStream.nullOutputStream());
+            new Jinjja(cli, saveFile.toString()).run();
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        List<String> errorLines = errors.toString().lines().toList();
+        return new Replay(taskCount, cli.latencies(), totalNanos, errorLines);
+    }
+
+    private static void print(Replay replay) {
+        int commandCount = replay.commandCount();
+        long commandNanos = replay.latencies().values().stream().flatMapToLong(Arrays::stream).sum();
+        System.out.println();
+        System.out.println((replay.taskCount() < 0 ? "Replayed" : "Save file of " + replay.taskCount() + " tasks,")
+                + " " + commandCount + " commands");
+        System.out.printf("Throughput: %.0f commands/s, plus %.0f ms to load and save%n",
+                commandCount / (commandNanos / 1e9), (replay.totalNanos() - commandNanos) / 1e6);
+        if (!replay.errors().isEmpty()) {
+            System.out.println("Errors: " + replay.errors().size() + ", the first being: " + replay.errors().get(0));
+        }
+        System.out.printf("%-10s %7s %10s %10s %10s %10s %10s  (us)%n", "command", "count", "mean", "p50", "p90",
+                "p99", "max");
+        for (Map.Entry<String, long[]> entry : replay.latencies().entrySet()) {
+            long[] sorted = entry.getValue().clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-10s %7d %10.1f", entry.getKey(), sorted.length, replay.meanMicros(entry.getKey()));
+            for (double fraction : PERCENTILES) {
+                System.out.printf(" %10.1f", percentile(sorted, fraction) / 1000.0);
+            }
+            System.out.printf(" %10.1f%n", sorted[sorted.length - 1] / 1000.0);
+        }
+    }
+
+    /**
+     * Prints how the mean latency of each kind of command grew from the smallest to the largest save file, as the
+     * power of the size it grew with, and flags the kinds that grew faster than they should.
+     *
+     * @return The number of kinds flagged
+     */
+    private static int printGrowth(Replay small, Replay large) {
+        double sizeRatio = (double) large.taskCount() / small.taskCount();
+        System.out.println();
+        System.out.println("Growth of mean latency from " + small.taskCount() + " to " + large.taskCount() + " tasks:");
+        int flagged = 0;
+        for (String kind : large.latencies().keySet()) {
+            if (!small.latencies().containsKey(kind)) {
+                continue;
+            }
+            double exponent = Math.log(large.meanMicros(kind) / small.meanMicros(kind)) / Math.log(sizeRatio);
+            double expected = SCANNING_KINDS.contains(kind) ? 1 : 0;
+            boolean isTooFast = exponent > expected + GROWTH_ALLOWANCE;
+            if (isTooFast) {
+                flagged++;
+            }
+            System.out.printf("%-10s n^%.2f (expected at most n^%.0f)%s%n", kind, exponent, expected,
+                    isTooFast ? "  SUPERLINEAR" : "");
+        }
+        return flagged;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * A batch mode Cli that times every command, from the moment it is read until the next one is asked for. That
+     * covers parsing, running the command and formatting its reply, but not waiting for input or flushing output.
+     */
+    private static class TimedCli extends Cli {
+        private final Map<String, long[]> latencies = new LinkedHashMap<>();
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+        private String lastKind;
+        private long lastStart;
+
+        TimedCli(InputStream in, OutputStream out) {
+            super(in, out, false);
+        }
+
+        @Override
+        public String readCommand() {
+            long end = System.nanoTime();
+            if (this.lastKind != null) {
+                record(this.lastKind, end - this.lastStart);
+            }
+            String command = super.readCommand();
+            this.lastKind = command == null ? null : WorkloadGenerator.kindOf(command);
+            this.lastStart = System.nanoTime();
+            return command;
+        }
+
+        private void record(String kind, long nanos) {
+            int count = this.counts.getOrDefault(kind, 0);
+            long[] samples = this.latencies.computeIfAbsent(kind, k->new long[16]);
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+                this.latencies.put(kind, samples);
+            }
+            samples[count] = nanos;
+            this.counts.put(kind, count + 1);
+        }
+
+        /**
+         * Returns the latencies recorded for each kind of command, in nanoseconds.
+         */
+        Map<String, long[]> latencies() {
+            Map<String, long[]> trimmed = new LinkedHashMap<>();
+            this.latencies.forEach((kind, samples)->trimmed.put(kind, Arrays.copyOf(samples, this.counts.get(kind))));
+            return trimmed;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package jinjja.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jinjja.storage.Storage;
+import jinjja.task.Task;
+import jinjja.task.TaskList;
+
+/**
+ * Measures loading and saving the save file, both as text alone and as a task list, which also writes the records and
+ * index file and loads from them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private ArrayList<Task> tasks;
+    private Storage storage;
+    private TaskList taskList;
+    private Storage listStorage;
+
+    /**
+     * Writes a save file with the requested number of tasks, and another with its records and index file.
+     *
+     * @throws IOException if the files cannot be written
+     */
+    @Setup(Level.Trial)
+    public void writeSaveFile() throws IOException {
+        BenchmarkTasks.silenceStandardOutput();
+        Path directory = Files.createTempDirectory("jinjja-jmh");
+        directory.toFile().deleteOnExit();
+        Path file = directory.resolve("jinjja.txt");
+        file.toFile().deleteOnExit();
+        this.tasks = BenchmarkTasks.mixed(this.taskCount);
+        this.storage = new Storage(file.toString());
+        this.storage.saveTasksToFile(this.tasks);
+
+        Path listFile = directory.resolve("jinjja-list.txt");
+        this.listStorage = new Storage(listFile.toString());
+        this.taskList = new TaskList(BenchmarkTasks.mixed(this.taskCount));
+        this.listStorage.saveTaskList(this.taskList);
+        for (Path written : new Path[] {listFile, this.listStorage.getRecordsPath(),
+                this.listStorage.getIndexPath()}) {
+            written.toFile().deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Task> load() throws IOException {
+        return this.storage.loadTasksFromFile();
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        this.storage.saveTasksToFile(this.tasks);
+    }
+
+    @Benchmark
+    public TaskList loadTaskList() throws IOException {
+        return this.listStorage.loadTaskList();
+    }
+
+    @Benchmark
+    public void saveTaskList() throws IOException {
+        this.listStorage.saveTaskList(this.taskList);
+    }
+}
@@ -0,0 +1,59 @@
+package jinjja.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jinjja.task.Tentative;
+
+/**
+ * Measures formatting a tentative event with three slots, for the save file and for display. Display strings are
+ * cached, so display is measured both from the cache and right after a change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TentativeBenchmark {
+    private Tentative tentative;
+    private boolean isDone;
+
+    @Setup
+    public void createTentative() {
+        this.tentative = BenchmarkTasks.tentative("team lunch", LocalDateTime.of(2025, 6, 3, 12, 0));
+    }
+
+    @Benchmark
+    public String toFileFormat() {
+        return this.tentative.toFileFormat();
+    }
+
+    @Benchmark
+    public String toStringCached() {
+        return this.tentative.toString();
+    }
+
+    /**
+     * Changes the event before formatting it, so the cached display string cannot be reused.
+     *
+     * @return The display string
+     */
+    @Benchmark
+    public String toStringAfterChange() {
+        this.isDone = !this.isDone;
+        this.tentative.setDone(this.isDone);
+        return this.tentative.toString();
+    }
+}
@@ -0,0 +1,322 @@
+package jinjja.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import jinjja.storage.Storage;
+import jinjja.task.Deadline;
+import jinjja.task.Event;
+import jinjja.task.Task;
+import jinjja.task.Tentative;
+import jinjja.task.Todo;
+
+/**
+ * Generates synthetic workloads: a save file to start from and a stream of commands to replay against it, in the
+ * formats a user would produce them.
+ *
+ * <p>Everything is driven by a seeded random source, so the same options always produce the same workload. The
+ * options, given as {@code key=value} arguments, are:
+ *
+ * <ul>
+ * <li>{@code tasks} - the number of tasks in the save file, 10000 by default</li>
+ * <li>{@code commands} - the number of commands in the stream, 10000 by default</li>
+ * <li>{@code mix} - the relative weight of each kind of command, as {@code kind:weight} pairs separated by commas.
+ * The kinds are the add commands {@code todo}, {@code deadline}, {@code event} and {@code tentative}, and
+ * {@code mark}, {@code unmark}, {@code delete}, {@code find}, {@code list} (one page) and {@code query}. Kinds not
+ * named are never generated. The same weights of the add commands decide the mix of tasks in the save file.</li>
+ * <li>{@code words} - the range of description lengths in words, as {@code MIN..MAX}. Short descriptions are more
+ * common than long ones.</li>
+ * <li>{@code days} - how many days after 1 January 2025 dates are spread over, 365 by default</li>
+ * <li>{@code seed} - the random seed, 42 by default</li>
+ * <li>{@code dir} - the directory to write {@value #SAVE_FILE} and {@value #COMMAND_FILE} to</li>
+ * </ul>
+ *
+ * <p>Usage: {@code WorkloadGenerator [key=value ...]}
+ */
+public class WorkloadGenerator {
+    /** The name of the generated save file. */
+    public static final String SAVE_FILE = "jinjja.txt";
+    /** The name of the generated command stream. */
+    public static final String COMMAND_FILE = "commands.txt";
+    /** The command mix used when none is given. */
+    public static final String DEFAULT_MIX =
+            "todo:30,deadline:20,event:10,tentative:5,mark:12,unmark:5,delete:3,find:8,list:5,query:2";
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final DateTimeFormatter DATETIME_INPUT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int LIST_PAGE_SIZE = 20;
+    private static final String[] ADD_KINDS = {"todo", "deadline", "event", "tentative"};
+    private static final List<String> KINDS =
+            List.of("todo", "deadline", "event", "tentative", "mark", "unmark", "delete", "find", "list", "query");
+    // Ordered from most to least common, so drawing low indexes more often makes a few words very common
+    private static final String[] WORDS = {
+        "the", "for", "with", "project", "meeting", "report", "review", "call", "team", "email", "plan", "draft",
+        "book", "read", "buy", "weekly", "client", "budget", "doctor", "appointment", "groceries", "submit",
+        "assignment", "lecture", "notes", "tutorial", "presentation", "slides", "update", "website", "invoice",
+        "dentist", "birthday", "gift", "flight", "hotel", "renew", "passport", "library", "laundry", "gym",
+        "workshop", "interview", "prepare", "quarterly", "taxes", "insurance", "garden", "repair", "bicycle",
+        "conference", "deploy", "release", "refactor", "parser", "storage", "benchmark", "hackathon", "recital",
+        "orchestra", "volunteer", "marathon", "pottery", "calligraphy", "astronomy", "origami", "sourdough",
+    };
+
+    private final Random random;
+    private final Map<String, Integer> mix;
+    private final String[] commandKinds;
+    private final int minWords;
+    private final int maxWords;
+    private final int days;
+    private int taskCount;
+
+    /**
+     * Constructs a generator with the given options. Options that are not given take their default values.
+     *
+     * @param options The options, keyed by name
+     * @throws IllegalArgumentException if an option is malformed
+     */
+    public WorkloadGenerator(Map<String, String> options) {
+        this.random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+        this.mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        this.commandKinds = this.mix.keySet().toArray(new String[0]);
+        String[] words = options.getOrDefault("words", "1..8").split("\\.\\.");
+        if (words.length != 2) {
+            throw new IllegalArgumentException("words must be a range such as 1..8");
+        }
+        this.minWords = Integer.parseInt(words[0]);
+        this.maxWords = Integer.parseInt(words[1]);
+        this.days = Integer.parseInt(options.getOrDefault("days", "365"));
+        if (this.minWords < 1 || this.maxWords < this.minWords || this.days < 1) {
+            throw new IllegalArgumentException("words must be a range of at least one word, and days positive");
+        }
+    }
+
+    /**
+     * Writes a workload to the directory given by the {@code dir} option.
+     *
+     * @param args The options, as {@code key=value} arguments
+     * @throws IOException if the files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        Path dir = Path.of(options.getOrDefault("dir", "."));
+        new WorkloadGenerator(options).write(dir, Integer.parseInt(options.getOrDefault("tasks", "10000")),
+                Integer.parseInt(options.getOrDefault("commands", "10000")));
+        System.out.println("Workload written to " + dir.toAbsolutePath());
+    }
+
+    /**
+     * Parses {@code key=value} arguments into a map of options.
+     *
+     * @param args The arguments
+     * @return The options, keyed by name, in the order given
+     * @throws IllegalArgumentException if an argument is not of the form {@code key=value}
+     */
+    public static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Options are given as key=value, not " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Writes a save file with the given number of tasks, then a command stream that starts from it.
+     *
+     * @param dir The directory to write to, created if needed
+     * @param tasks The number of tasks in the save file
+     * @param commands The number of commands in the stream
+     * @throws IOException if the files cannot be written
+     */
+    public void write(Path dir, int tasks, int commands) throws IOException {
+        Files.createDirectories(dir);
+        new Storage(dir.resolve(SAVE_FILE).toString()).saveTasksToFile(tasks(tasks));
+        Files.write(dir.resolve(COMMAND_FILE), commands(commands));
+    }
+
+    /**
+     * Returns new tasks with the mix of the add commands. Commands generated afterwards refer to these tasks.
+     *
+     * @param count The number of tasks
+     * @return The tasks, about one in four of them done
+     */
+    public ArrayList<Task> tasks(int count) {
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String kind = pick(ADD_KINDS);
+            String description = description();
+            LocalDateTime from = dateTime();
+            Task task;
+            switch (kind) {
+            case "todo":
+                task = new Todo(description);
+                break;
+            case "deadline":
+                task = new Deadline(description, from);
+                break;
+            case "event":
+                task = new Event(description, from, from.plusHours(1 + this.random.nextInt(4)));
+                break;
+            default:
+                Tentative tentative = new Tentative(description);
+                int slotCount = 2 + this.random.nextInt(2);
+                for (int day = 0; day < slotCount; day++) {
+                    tentative.addTentativeSlot(from.plusDays(day), from.plusDays(day).plusHours(1));
+                }
+                task = tentative;
+                break;
+            }
+            task.setDone(this.random.nextInt(4) == 0);
+            tasks.add(task);
+        }
+        this.taskCount = count;
+        return tasks;
+    }
+
+    /**
+     * Returns commands with the configured mix. Task numbers in the commands are always valid, taking into account
+     * the tasks added and deleted by earlier commands.
+     *
+     * @param count The number of commands
+     * @return The commands, one per line
+     */
+    public List<String> commands(int count) {
+        List<String> commands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            commands.add(command(pick(this.commandKinds)));
+        }
+        return commands;
+    }
+
+    /**
+     * Returns the kind of a command, which is its first word.
+     *
+     * @param command A generated command
+     * @return The kind, such as {@code todo} or {@code find}
+     */
+    public static String kindOf(String command) {
+        int space = command.indexOf(' ');
+        return space < 0 ? command : command.substring(0, space);
+    }
+
+    private String command(String kind) {
+        boolean needsTask = kind.equals("mark") || kind.equals("unmark") || kind.equals("delete");
+        if (needsTask && this.taskCount == 0) {
+            kind = "todo";
+        }
+        switch (kind) {
+        case "todo":
+            this.taskCount++;
+            return "todo " + description();
+        case "deadline":
+            this.taskCount++;
+            return "deadline " + description() + " /by " + format(dateTime());
+        case "event":
+            this.taskCount++;
+            LocalDateTime from = dateTime();
+            return "event " + description() + " /from " + format(from) + " /to "
+                    + format(from.plusHours(1 + this.random.nextInt(4)));
+        case "tentative":
+            this.taskCount++;
+            LocalDateTime first = dateTime();
+            StringBuilder tentative = new StringBuilder("tentative ").append(description()).append(" /slots");
+            int slotCount = 2 + this.random.nextInt(2);
+            for (int day = 0; day < slotCount; day++) {
+                tentative.append(" /from ").append(format(first.plusDays(day)))
+                        .append(" /to ").append(format(first.plusDays(day).plusHours(1)));
+            }
+            return tentative.toString();
+        case "mark":
+        case "unmark":
+            return kind + " " + (1 + this.random.nextInt(this.taskCount));
+        case "delete":
+            return "delete " + (1 + this.random.nextInt(this.taskCount--));
+        case "find":
+            return "find " + word();
+        case "list":
+            int pageCount = Math.max(1, (this.taskCount + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE);
+            return "list page " + (1 + this.random.nextInt(pageCount));
+        case "query":
+            String after = dateTime().toLocalDate().toString();
+            return this.random.nextBoolean()
+                    ? "query done=false and type=E and from>=" + after + " sort by from limit 20"
+                    : "query type=D and by<" + after + " sort by by desc limit 20";
+        default:
+            throw new AssertionError("The mix only has known kinds");
+        }
+    }
+
+    /**
+     * Returns a description whose length in words is skewed towards the short end of the range.
+     */
+    private String description() {
+        double skewed = Math.pow(this.random.nextDouble(), 2);
+        int wordCount = this.minWords + (int) (skewed * (this.maxWords - this.minWords + 1));
+        StringBuilder description = new StringBuilder(word());
+        for (int i = 1; i < wordCount; i++) {
+            description.append(' ').append(word());
+        }
+        return description.toString();
+    }
+
+    /**
+     * Returns a word, with common words much more likely than rare ones.
+     */
+    private String word() {
+        return WORDS[(int) (Math.pow(this.random.nextDouble(), 3) * WORDS.length)];
+    }
+
+    /**
+     * Returns a time on a quarter hour, spread evenly over the configured days.
+     */
+    private LocalDateTime dateTime() {
+        return START.plusDays(this.random.nextInt(this.days)).plusMinutes(15L * this.random.nextInt(96));
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime.format(DATETIME_INPUT);
+    }
+
+    /**
+     * Picks one of the given kinds with the configured weights. Kinds without a weight are never picked.
+     */
+    private String pick(String[] kinds) {
+        int total = 0;
+        for (String kind : kinds) {
+            total += this.mix.getOrDefault(kind, 0);
+        }
+        if (total == 0) {
+            return kinds[0];
+        }
+        int choice = this.random.nextInt(total);
+        for (String kind : kinds) {
+            choice -= this.mix.getOrDefault(kind, 0);
+            if (choice < 0) {
+                return kind;
+            }
+        }
+        throw new AssertionError("The weights add up to the total");
+    }
+
+    private static Map<String, Integer> parseMix(String text) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String pair : text.split(",")) {
+            String[] parts = pair.split(":");
+            if (parts.length != 2 || !KINDS.contains(parts[0]) || Integer.parseInt(parts[1]) < 0) {
+                throw new IllegalArgumentException("mix must be kind:weight pairs, not " + pair);
+            }
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+}
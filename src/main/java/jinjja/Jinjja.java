@@ -1,9 +1,19 @@
 package jinjja;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
+import jinjja.api.ApiServer;
 import jinjja.command.Command;
+import jinjja.engine.JinjjaEngine;
+import jinjja.metrics.Metrics;
 import jinjja.parser.Parser;
+import jinjja.server.JinjjaServer;
+import jinjja.storage.ExternalChange;
+import jinjja.storage.SaveFileWatcher;
 import jinjja.storage.Storage;
 import jinjja.task.TaskList;
 import jinjja.ui.Cli;
@@ -17,10 +27,17 @@ import jinjja.ui.Ui;
  */
 public class Jinjja {
     private static final String DATA_FILE_PATH = "ip/data/jinjja.txt";
+    private static final String USAGE = "Usage: java -jar jinjja.jar [--cli | --server [PORT] | --api [PORT]]";
+    private static final int MAX_PORT = 65535;
 
+    private final String dataFilePath;
     private Storage storage;
     private TaskList list;
+    private JinjjaEngine engine;
     private Ui ui;
+    private CompletableFuture<TaskList> pendingLoad;
+    private SaveFileWatcher watcher;
+    private volatile Consumer<String> noticeListener;
 
     /**
      * Constructor for the Jinjja chatbot. Separates UI, Storage, and TaskList components. Creates new TaskList file if
@@ -29,11 +46,19 @@ public class Jinjja {
      * @param isGui true if the UI is graphical, false for command-line interface
      */
     public Jinjja(boolean isGui) {
-        if (isGui) {
-            this.ui = new Gui();
-        } else {
-            this.ui = new Cli();
-        }
+        this(isGui ? new Gui() : new Cli(), DATA_FILE_PATH);
+    }
+
+    /**
+     * Constructs a Jinjja chatbot that talks through the given UI and keeps its tasks in the given file. Used by tools
+     * that drive Jinjja headlessly, such as workload replays.
+     *
+     * @param ui The UI to read commands from and show replies on
+     * @param dataFilePath The save file to load tasks from and save them to
+     */
+    public Jinjja(Ui ui, String dataFilePath) {
+        this.ui = ui;
+        this.dataFilePath = dataFilePath;
     }
 
     /**
@@ -45,39 +70,267 @@ public class Jinjja {
         this.ui.showGreeting();
 
         // Initialize storage and load existing tasks
-        this.storage = new Storage(DATA_FILE_PATH);
+        this.storage = new Storage(this.dataFilePath);
         try {
-            this.list = new TaskList(this.storage.loadTasksFromFile());
+            useTaskList(this.storage.loadTaskList());
         } catch (IOException e) {
             this.ui.showError("Error loading tasks from file: " + e.getMessage());
-            this.list = new TaskList();
+            useTaskList(new TaskList());
         }
+        watchSaveFile();
         this.ui.showDivider();
 
-        // Loop to handle user input
+        // Loop to handle user input, until bye or the end of piped input
         boolean canExit = false;
         while (!canExit) {
             String fullCommand = this.ui.readCommand();
+            if (fullCommand == null) {
+                break;
+            }
             Command c = Parser.parse(fullCommand);
-            c.execute(this.list, this.storage, this.ui);
+            this.ui.showReply(()->c.run(this.engine, this.ui));
             canExit = c.canExit();
         }
-        this.ui.close();
+        stopWatching();
         this.ui.showDivider();
         try {
-            storage.saveTasksToFile(this.list.getTasks());
+            engine.save();
         } catch (IOException e) {
             this.ui.showError("Error saving tasks to file: " + e.getMessage());
         }
+        this.storage.close();
         this.ui.showFarewell();
         this.ui.showDivider();
+        this.ui.close();
+    }
+
+    /**
+     * Runs Jinjja as a local daemon that serves the task list to socket clients until the process is stopped. Tasks
+     * are saved when the process shuts down.
+     *
+     * @param port The localhost port to listen on
+     */
+    public void serve(int port) {
+        loadForDaemon();
+        JinjjaServer server = new JinjjaServer(this.engine);
+        saveOnShutdown(server::close);
+
+        try {
+            int boundPort = server.bind(port);
+            System.out.println("Jinjja is serving on localhost:" + boundPort);
+            server.serve();
+        } catch (IOException e) {
+            this.ui.showError("Server stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs Jinjja as a local HTTP/JSON API until the process is stopped. Tasks are saved when the process shuts down.
+     *
+     * @param port The localhost port to listen on
+     */
+    public void serveApi(int port) {
+        loadForDaemon();
+        ApiServer server = new ApiServer(this.engine);
+        saveOnShutdown(server::stop);
+
+        try {
+            int boundPort = server.start(port);
+            System.out.println("Jinjja API is serving on http://localhost:" + boundPort + "/tasks");
+        } catch (IOException e) {
+            this.ui.showError("API server failed to start: " + e.getMessage());
+        }
     }
 
+    /**
+     * Returns the engine behind this chatbot, for callers that want typed results instead of chat replies. The engine
+     * is available once tasks have been loaded.
+     *
+     * @return The engine, or null if tasks have not been loaded yet
+     */
+    public JinjjaEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Starts reading the save file on a background thread, so that a GUI can set itself up in the meantime. The tasks
+     * are picked up by {@link #getGreeting()}.
+     */
+    public void loadTasksInBackground() {
+        this.storage = new Storage(this.dataFilePath);
+        Storage fileStorage = this.storage;
+        this.pendingLoad = CompletableFuture.supplyAsync(()-> {
+            try {
+                return fileStorage.loadTaskList();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the tasks from the save file, waiting for a background load if one was started.
+     */
+    private TaskList loadTaskList() throws IOException {
+        if (this.pendingLoad == null) {
+            return this.storage.loadTaskList();
+        }
+        try {
+            return this.pendingLoad.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        } finally {
+            this.pendingLoad = null;
+        }
+    }
+
+    /**
+     * Uses the given task list from now on, and builds the engine over it.
+     */
+    private void useTaskList(TaskList list) {
+        this.list = list;
+        this.engine = new JinjjaEngine(list, this.storage);
+        this.engine.setMergeListener(merge->showNotice(merge.format()));
+    }
+
+    /**
+     * Loads the task list for one of the daemon modes.
+     */
+    private void loadForDaemon() {
+        this.storage = new Storage(this.dataFilePath);
+        try {
+            useTaskList(this.storage.loadTaskList());
+        } catch (IOException e) {
+            this.ui.showError("Error loading tasks from file: " + e.getMessage());
+            useTaskList(new TaskList());
+        }
+        watchSaveFile();
+    }
+
+    /**
+     * Starts picking up changes made to the save file from elsewhere, such as by a sync tool, so that they are merged
+     * into the task list rather than overwritten by the next save.
+     */
+    private void watchSaveFile() {
+        try {
+            this.watcher = this.storage.watch(this::mergeExternalChange);
+        } catch (IOException e) {
+            this.ui.showError("Changes made to the save file elsewhere will not be picked up: " + e.getMessage());
+        }
+    }
+
+    private void stopWatching() {
+        if (this.watcher != null) {
+            this.watcher.close();
+            this.watcher = null;
+        }
+    }
+
+    /**
+     * Merges a change made to the save file elsewhere, and tells the user what was brought in and what clashed.
+     */
+    private void mergeExternalChange(ExternalChange change) {
+        String notice;
+        try {
+            notice = this.engine.mergeExternalChange(change).format();
+        } catch (IOException e) {
+            notice = "Picked up changes made to your tasks elsewhere, but could not save them: " + e.getMessage();
+        }
+        showNotice(notice);
+    }
+
+    /**
+     * Hands a notice that does not answer a command to the notice listener, or shows it on the UI without one.
+     */
+    private void showNotice(String notice) {
+        Consumer<String> listener = this.noticeListener;
+        if (listener != null) {
+            listener.accept(notice);
+        } else {
+            this.ui.showNotice(notice);
+        }
+    }
+
+    /**
+     * Sets where notices that do not answer a command go, such as changes picked up from the save file. Without one,
+     * they are shown on the UI, which suits the command line but not a GUI, whose UI only formats replies.
+     *
+     * @param listener The listener to hand notices to, on whichever thread they arise
+     */
+    public void setNoticeListener(Consumer<String> listener) {
+        this.noticeListener = listener;
+    }
+
+    /**
+     * Registers a shutdown hook that stops a daemon and then saves the task list.
+     */
+    private void saveOnShutdown(Runnable stopDaemon) {
+        Runtime.getRuntime().addShutdownHook(new Thread(()-> {
+            stopDaemon.run();
+            stopWatching();
+            try {
+                this.engine.save();
+            } catch (IOException e) {
+                System.err.println("Error saving tasks to file: " + e.getMessage());
+            }
+            this.storage.close();
+        }));
+    }
+
+    /**
+     * Starts Jinjja on the command line. Pass {@code --server [PORT]} to run as a socket daemon, or
+     * {@code --api [PORT]} to serve the HTTP/JSON API instead. Any other arguments, such as the {@code --cli} flag
+     * that {@link Launcher} accepts, start the command line. None of these paths load JavaFX.
+     */
     public static void main(String[] args) {
+        Metrics.dumpOnExitIfRequested();
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = parsePort(args, JinjjaServer.DEFAULT_PORT);
+            if (port < 0) {
+                System.exit(2);
+            }
+            new Jinjja(false).serve(port);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--api")) {
+            int port = parsePort(args, ApiServer.DEFAULT_PORT);
+            if (port < 0) {
+                System.exit(2);
+            }
+            new Jinjja(false).serveApi(port);
+            return;
+        }
         // Set isGui to false for CLI, true for GUI
         new Jinjja(false).run();
     }
 
+    /**
+     * Reads the port given after a daemon flag, or returns the default if none is given. A port of 0 picks a free
+     * one, which the daemon prints once it is listening.
+     *
+     * @return The port, or -1 after printing the usage if it is not a number from 0 to 65535
+     */
+    static int parsePort(String[] args, int defaultPort) {
+        if (args.length < 2) {
+            return defaultPort;
+        }
+        try {
+            int port = Integer.parseInt(args[1]);
+            if (port >= 0 && port <= MAX_PORT) {
+                return port;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below, along with ports out of range
+        }
+        System.err.println("Invalid port: " + args[1] + ". Give a number from 0 to " + MAX_PORT
+                + ", or 0 for any free port.");
+        System.err.println(USAGE);
+        return -1;
+    }
+
     /**
      * Returns a greeting message for the GUI, including storage loading status.
      */
@@ -88,7 +341,7 @@ public class Jinjja {
 
         // Initialize storage and load tasks for the greeting
         if (this.storage == null) {
-            this.storage = new Storage(DATA_FILE_PATH);
+            this.storage = new Storage(this.dataFilePath);
         }
 
         String baseGreeting = this.ui.showGreeting();
@@ -96,7 +349,8 @@ public class Jinjja {
         // Try to load tasks and inform user about the result
         if (this.list == null) {
             try {
-                this.list = new TaskList(this.storage.loadTasksFromFile());
+                useTaskList(loadTaskList());
+                watchSaveFile();
                 int taskCount = this.list.getSize();
                 if (taskCount > 0) {
                     return baseGreeting + "\n\nI've loaded " + taskCount + " task(s) from your save file.";
@@ -104,7 +358,7 @@ public class Jinjja {
                     return baseGreeting + "\n\nNo existing save file found. Starting fresh!";
                 }
             } catch (IOException e) {
-                this.list = new TaskList();
+                useTaskList(new TaskList());
                 return baseGreeting + "\n\nCouldn't load save file (it may not exist yet). Starting fresh!";
             }
         }
@@ -118,12 +372,22 @@ public class Jinjja {
     public String getResponse(String input) {
         assert input != null : "Input cannot be null";
         assert this.storage != null : "Storage should be initialized";
-        assert this.list != null : "Task list should be initialized";
+        assert this.engine != null : "Engine should be initialized";
         assert this.ui != null : "UI should be initialized";
 
         Command c = Parser.parse(input);
         assert c != null : "Parser should return a non-null command";
-        return c.execute(this.list, this.storage, this.ui);
+        return getResponse(c);
+    }
+
+    /**
+     * Executes an already parsed command for the GUI, returning the output string. The engine is safe to share
+     * between threads, so this may be called off the JavaFX application thread.
+     */
+    public String getResponse(Command command) {
+        assert command != null : "Command cannot be null";
+        assert this.engine != null : "Engine should be initialized";
+        return command.run(this.engine, this.ui);
     }
 
     /**
@@ -131,22 +395,24 @@ public class Jinjja {
      * window is closed.
      */
     public String shutdown() {
+        stopWatching();
         if (this.storage == null) {
-            this.storage = new Storage(DATA_FILE_PATH);
+            this.storage = new Storage(this.dataFilePath);
         }
         if (this.list == null) {
             try {
-                this.list = new TaskList(this.storage.loadTasksFromFile());
+                useTaskList(this.storage.loadTaskList());
             } catch (IOException e) {
-                this.list = new TaskList();
+                useTaskList(new TaskList());
             }
         }
 
         try {
-            storage.saveTasksToFile(this.list.getTasks());
+            engine.save();
         } catch (IOException e) {
             System.err.println("Error saving tasks to file: " + e.getMessage());
         }
+        this.storage.close();
 
         return this.ui.showFarewell();
     }
@@ -1,13 +1,26 @@
 package jinjja;
 
-import javafx.application.Application;
+import java.util.Set;
+
 import jinjja.javafxui.JavaFxUi;
 
 /**
- * A launcher class to workaround classpath issues.
+ * Entry point of the application jar. Starts the GUI unless the first argument asks for a headless mode:
+ * {@code --cli} for the command line, or {@code --server} or {@code --api} for the daemons.
+ *
+ * <p>This class does not use JavaFX itself, so the headless modes never load or start it.
  */
 public class Launcher {
+    private static final Set<String> HEADLESS_FLAGS = Set.of("--cli", "--server", "--api");
+
+    /**
+     * Starts Jinjja in the mode chosen by the arguments.
+     */
     public static void main(String[] args) {
-        Application.launch(JavaFxUi.class, args);
+        if (args.length > 0 && HEADLESS_FLAGS.contains(args[0])) {
+            Jinjja.main(args);
+            return;
+        }
+        JavaFxUi.launchGui(args);
     }
 }
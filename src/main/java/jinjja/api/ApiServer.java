@@ -0,0 +1,269 @@
+package jinjja.api;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import jinjja.command.AddCommand;
+import jinjja.command.Command;
+import jinjja.engine.JinjjaEngine;
+import jinjja.engine.TaskChange;
+import jinjja.exception.InvalidTaskException;
+import jinjja.parser.Parser;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskFilter;
+import jinjja.task.TaskPage;
+
+/**
+ * Exposes the task list as a small JSON API over HTTP on localhost. Task numbers in paths are 1-indexed, as in the
+ * chat commands.
+ *
+ * <ul>
+ * <li>{@code GET /tasks[?page=N&size=K]} streams all tasks, or one page of them</li>
+ * <li>{@code GET /tasks/find?q=KEYWORD} returns the tasks whose description contains the keyword</li>
+ * <li>{@code POST /tasks} adds the task described by a command line in the body, e.g. {@code todo read book}</li>
+ * <li>{@code POST /tasks/N/mark} and {@code POST /tasks/N/unmark} change a task's completion status</li>
+ * <li>{@code POST /tasks/N/confirm?slot=S} confirms a slot of a tentative event</li>
+ * <li>{@code DELETE /tasks/N} deletes a task</li>
+ * </ul>
+ */
+public class ApiServer {
+    public static final int DEFAULT_PORT = 4922;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+
+    private final JinjjaEngine engine;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructs an API server over the given engine.
+     *
+     * @param engine The engine whose task list is served
+     */
+    public ApiServer(JinjjaEngine engine) {
+        assert engine != null : "Engine cannot be null";
+        this.engine = engine;
+    }
+
+    /**
+     * Starts serving on the given localhost port. Requests are handled on a fixed pool sized to the machine.
+     *
+     * @param port The port to listen on, or 0 to pick a free port
+     * @return The port actually bound
+     * @throws IOException If the port cannot be bound
+     */
+    public int start(int port) throws IOException {
+        // Small JSON replies otherwise stall on Nagle's algorithm; must be set before the first server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/tasks", this::handle);
+        this.server.start();
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server and its request threads.
+     */
+    public void stop() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.executor.shutdown();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (IllegalArgumentException | InvalidTaskException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IndexOutOfBoundsException e) {
+            sendError(exchange, 404, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] segments = exchange.getRequestURI().getPath().split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        // segments[0] is empty and segments[1] is "tasks"
+        if (segments.length == 2) {
+            if (method.equals("GET")) {
+                handleList(exchange, query);
+            } else if (method.equals("POST")) {
+                handleAdd(exchange);
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+        } else if (segments.length == 3 && segments[2].equals("find") && method.equals("GET")) {
+            handleFind(exchange, query);
+        } else if (segments.length == 3 && method.equals("DELETE")) {
+            sendChange(exchange, 200, this.engine.deleteTask(parseTaskNumber(segments[2])));
+        } else if (segments.length == 4 && method.equals("POST")) {
+            handleTaskAction(exchange, parseTaskNumber(segments[2]), segments[3], query);
+        } else {
+            sendError(exchange, 404, "No such endpoint");
+        }
+    }
+
+    /**
+     * Streams the task list with chunked encoding so the first tasks reach the client before the last are written.
+     * The tasks and the total are taken together as one snapshot, so changes made while streaming do not show.
+     */
+    private void handleList(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int page = 1;
+        int size = Integer.MAX_VALUE;
+        if (query.containsKey("page") || query.containsKey("size")) {
+            page = parsePositive(query.getOrDefault("page", "1"), "page");
+            size = parsePositive(query.getOrDefault("size", Integer.toString(DEFAULT_PAGE_SIZE)), "size");
+        }
+        TaskPage tasks = this.engine.listPage(TaskFilter.ALL, page, size);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = openBody(exchange)) {
+            out.append("{\"total\":").append(Integer.toString(tasks.matchCount())).append(",\"tasks\":[");
+            List<TaskEntry> entries = tasks.entries();
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                TaskJson.appendTask(out, entries.get(i).number(), entries.get(i).task());
+            }
+            out.append("]}");
+        }
+    }
+
+    private void handleFind(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String keyword = query.get("q");
+        if (keyword == null || keyword.isEmpty()) {
+            throw new IllegalArgumentException("Search keyword is missing.");
+        }
+        List<TaskEntry> matches = this.engine.findTasks(keyword);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = openBody(exchange)) {
+            out.append("{\"keyword\":");
+            TaskJson.appendString(out, keyword);
+            out.append(",\"tasks\":[");
+            for (int i = 0; i < matches.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                TaskJson.appendTask(out, matches.get(i).number(), matches.get(i).task());
+            }
+            out.append("]}");
+        }
+    }
+
+    private void handleAdd(HttpExchange exchange) throws IOException {
+        String commandLine;
+        try (InputStream in = exchange.getRequestBody()) {
+            commandLine = new String(in.readAllBytes(), StandardCharsets.UTF_8).strip();
+        }
+        Command command = Parser.parse(commandLine);
+        if (!(command instanceof AddCommand)) {
+            throw new IllegalArgumentException("Body must be a todo, deadline, event or tentative command.");
+        }
+        sendChange(exchange, 201, this.engine.addTask(((AddCommand) command).getTask()));
+    }
+
+    private void handleTaskAction(HttpExchange exchange, int number, String action, Map<String, String> query)
+            throws IOException {
+        switch (action) {
+        case "mark":
+            // Fallthrough
+        case "unmark":
+            try {
+                sendChange(exchange, 200, this.engine.markTask(number, action.equals("mark")));
+            } catch (NumberFormatException e) {
+                throw new IndexOutOfBoundsException(e.getMessage());
+            }
+            break;
+        case "confirm":
+            int slot = parsePositive(query.getOrDefault("slot", ""), "slot");
+            sendChange(exchange, 200, this.engine.confirmSlot(number, slot));
+            break;
+        default:
+            sendError(exchange, 404, "No such endpoint");
+        }
+    }
+
+    private static Writer openBody(HttpExchange exchange) {
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                WRITE_BUFFER_SIZE);
+    }
+
+    private static void sendChange(HttpExchange exchange, int status, TaskChange change) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        TaskJson.appendTask(sb, change.number(), change.task());
+        send(exchange, status, sb.toString());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        TaskJson.appendString(sb, String.valueOf(message));
+        send(exchange, status, sb.append('}').toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static int parseTaskNumber(String segment) {
+        return parsePositive(segment, "task number");
+    }
+
+    private static int parsePositive(String value, String name) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + name + ": " + value);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equalsIndex = pair.indexOf('=');
+            String key = equalsIndex == -1 ? pair : pair.substring(0, equalsIndex);
+            String value = equalsIndex == -1 ? "" : pair.substring(equalsIndex + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+}
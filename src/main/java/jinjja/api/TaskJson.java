@@ -0,0 +1,127 @@
+package jinjja.api;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import jinjja.task.Deadline;
+import jinjja.task.Event;
+import jinjja.task.Task;
+import jinjja.task.Tentative;
+import jinjja.task.Todo;
+
+/**
+ * Serializes tasks to JSON straight from their fields. Dates are written in ISO-8601 form, e.g.
+ * {@code 2025-12-31T23:59}, so clients never have to parse display strings.
+ */
+public class TaskJson {
+    private TaskJson() {
+        // Utility class
+    }
+
+    /**
+     * Appends a task as a JSON object.
+     *
+     * @param out The destination to append to
+     * @param number The 1-indexed task number, as used by commands such as mark and delete
+     * @param task The task to serialize
+     * @throws IOException If appending fails
+     */
+    public static void appendTask(Appendable out, int number, Task task) throws IOException {
+        out.append("{\"number\":").append(Integer.toString(number));
+        out.append(",\"type\":\"").append(typeOf(task)).append('"');
+        out.append(",\"done\":").append(Boolean.toString(task.getIsDone()));
+        out.append(",\"description\":");
+        appendString(out, task.getDescription());
+
+        if (task instanceof Deadline) {
+            appendDateField(out, "by", ((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            appendDateField(out, "from", event.getFrom());
+            appendDateField(out, "to", event.getTo());
+        } else if (task instanceof Tentative) {
+            appendTentativeFields(out, (Tentative) task);
+        }
+        out.append('}');
+    }
+
+    /**
+     * Appends a string as a quoted, escaped JSON string.
+     *
+     * @param out The destination to append to
+     * @param value The string to write
+     * @throws IOException If appending fails
+     */
+    public static void appendString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                out.append("\\\"");
+                break;
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    out.append(String.format("\\u%04x", (int) c));
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    private static String typeOf(Task task) {
+        if (task instanceof Todo) {
+            return "todo";
+        } else if (task instanceof Deadline) {
+            return "deadline";
+        } else if (task instanceof Event) {
+            return "event";
+        } else if (task instanceof Tentative) {
+            return "tentative";
+        }
+        return "task";
+    }
+
+    private static void appendDateField(Appendable out, String name, LocalDateTime value) throws IOException {
+        out.append(",\"").append(name).append("\":\"").append(value.toString()).append('"');
+    }
+
+    private static void appendTentativeFields(Appendable out, Tentative tentative) throws IOException {
+        Tentative.TimeSlot confirmed = tentative.getConfirmedSlot();
+        out.append(",\"confirmed\":");
+        if (confirmed == null) {
+            out.append("null");
+        } else {
+            appendSlot(out, confirmed);
+        }
+        out.append(",\"slots\":[");
+        boolean isFirst = true;
+        for (Tentative.TimeSlot slot : tentative.getTentativeSlots()) {
+            if (!isFirst) {
+                out.append(',');
+            }
+            appendSlot(out, slot);
+            isFirst = false;
+        }
+        out.append(']');
+    }
+
+    private static void appendSlot(Appendable out, Tentative.TimeSlot slot) throws IOException {
+        out.append("{\"from\":\"").append(slot.getFrom().toString());
+        out.append("\",\"to\":\"").append(slot.getTo().toString()).append("\"}");
+    }
+}
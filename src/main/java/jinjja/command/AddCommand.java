@@ -1,8 +1,10 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
+import jinjja.engine.JinjjaEngine;
+import jinjja.engine.TaskChange;
+import jinjja.parser.CommandType;
 import jinjja.task.Task;
-import jinjja.task.TaskList;
+import jinjja.task.TaskType;
 import jinjja.ui.Ui;
 
 /**
@@ -21,23 +23,29 @@ public class AddCommand extends Command {
         this.task = task;
     }
 
+    /**
+     * Returns the task this command will add.
+     *
+     * @return The task to be added
+     */
+    public Task getTask() {
+        return this.task;
+    }
+
     /**
      * Executes the add command by adding the task to the task list and displaying a confirmation message to the user.
      *
-     * @param tasks The task list to add the task to
-     * @param storage The storage system (not used in this command)
+     * @param engine The engine holding the task list to add the task to
      * @param ui The user interface for displaying messages
      */
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
-        assert tasks != null : "Task list cannot be null";
+    public String execute(JinjjaEngine engine, Ui ui) {
+        assert engine != null : "Engine cannot be null";
         assert ui != null : "UI cannot be null";
         assert this.task != null : "Task to add should not be null";
 
-        int oldSize = tasks.getSize();
-        tasks.addTask(task);
-        assert tasks.getSize() == oldSize + 1 : "Task list size should increase after adding task";
-        return ui.showTaskAdded(task, tasks.getSize());
+        TaskChange change = engine.addTask(task);
+        return ui.showTaskAdded(change.task(), change.taskCount());
     }
 
     /**
@@ -49,4 +57,14 @@ public class AddCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    /**
+     * Returns the type of this command, which is the type of the task it adds.
+     *
+     * @return The command type named after the task type
+     */
+    @Override
+    public CommandType getType() {
+        return CommandType.valueOf(TaskType.of(this.task).name());
+    }
 }
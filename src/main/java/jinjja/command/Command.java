@@ -1,7 +1,9 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.TaskList;
+import jinjja.engine.JinjjaEngine;
+import jinjja.metrics.CommandEvent;
+import jinjja.metrics.Metrics;
+import jinjja.parser.CommandType;
 import jinjja.ui.Ui;
 
 /**
@@ -10,13 +12,38 @@ import jinjja.ui.Ui;
 public abstract class Command {
 
     /**
-     * Executes the command with the given dependencies.
+     * Executes the command against the engine and renders the outcome with the given UI.
      *
-     * @param tasks The task list to operate on.
-     * @param storage The storage for saving tasks.
+     * @param engine The engine holding the task list and storage.
      * @param ui The user interface for displaying messages.
      */
-    public abstract String execute(TaskList tasks, Storage storage, Ui ui);
+    public abstract String execute(JinjjaEngine engine, Ui ui);
+
+    /**
+     * Executes the command as {@link #execute} does, records how long it took in {@link Metrics#global()}, and emits
+     * a {@link CommandEvent} if a flight recording is taking them. Interfaces run commands through this method, so
+     * that the {@code stats} command and recordings cover all of them.
+     *
+     * @param engine The engine holding the task list and storage.
+     * @param ui The user interface for displaying messages.
+     * @return What {@link #execute} returned.
+     */
+    public final String run(JinjjaEngine engine, Ui ui) {
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return execute(engine, ui);
+        } finally {
+            Metrics.global().recordExecute(getType(), System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setCommandType(getType().name());
+                event.setTaskCount(engine == null ? 0 : engine.getTaskCount());
+                event.commit();
+            }
+        }
+    }
 
     /**
      * Returns whether the application should exit after executing this command.
@@ -24,4 +51,21 @@ public abstract class Command {
      * @return true if the application should exit, false otherwise.
      */
     public abstract boolean canExit();
+
+    /**
+     * Returns the type of this command, under which its running time is recorded.
+     *
+     * @return The command type, or {@link CommandType#UNKNOWN} for a command that could not be parsed.
+     */
+    public abstract CommandType getType();
+
+    /**
+     * Returns whether this command only reads the task list. A read-only command can be abandoned while it runs
+     * without hiding a change it made.
+     *
+     * @return true if the command never changes the task list, false otherwise.
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
 }
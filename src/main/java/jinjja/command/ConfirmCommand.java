@@ -1,9 +1,9 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.Task;
-import jinjja.task.TaskList;
-import jinjja.task.Tentative;
+import jinjja.engine.JinjjaEngine;
+import jinjja.engine.TaskChange;
+import jinjja.exception.InvalidTaskException;
+import jinjja.parser.CommandType;
 import jinjja.ui.Ui;
 
 /**
@@ -27,27 +27,12 @@ public class ConfirmCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
+    public String execute(JinjjaEngine engine, Ui ui) {
         try {
-            if (taskNumber > tasks.getSize() || taskNumber <= 0) {
-                return ui.showError("Invalid task number. Please provide a valid task number.");
-            }
-
-            Task task = tasks.getTask(taskNumber - 1);
-
-            if (!(task instanceof Tentative)) {
-                return ui.showError("Task " + taskNumber + " is not a tentative event.");
-            }
-
-            Tentative tentative = (Tentative) task;
-
-            if (tentative.confirmSlot(slotNumber)) {
-                storage.saveTasksToFile(tasks.getTasks());
-                return ui.showMessage("Confirmed slot " + slotNumber + " for: " + tentative.getDescription());
-            } else {
-                return ui.showError("Invalid slot number. Please provide a valid slot number (1-"
-                        + tentative.getSlotCount() + ").");
-            }
+            TaskChange change = engine.confirmSlot(taskNumber, slotNumber);
+            return ui.showMessage("Confirmed slot " + slotNumber + " for: " + change.task().getDescription());
+        } catch (InvalidTaskException e) {
+            return ui.showError(e.getMessage());
         } catch (Exception e) {
             return ui.showError("Error confirming tentative event: " + e.getMessage());
         }
@@ -57,4 +42,9 @@ public class ConfirmCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.CONFIRM;
+    }
 }
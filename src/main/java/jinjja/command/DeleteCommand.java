@@ -1,8 +1,8 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.Task;
-import jinjja.task.TaskList;
+import jinjja.engine.JinjjaEngine;
+import jinjja.engine.TaskChange;
+import jinjja.parser.CommandType;
 import jinjja.ui.Ui;
 
 /**
@@ -16,10 +16,10 @@ public class DeleteCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
+    public String execute(JinjjaEngine engine, Ui ui) {
         try {
-            Task removedTask = tasks.removeTask(taskNumber - 1);
-            return ui.showTaskDeleted(removedTask, tasks.getSize());
+            TaskChange change = engine.deleteTask(taskNumber);
+            return ui.showTaskDeleted(change.task(), change.taskCount());
         } catch (ArrayIndexOutOfBoundsException e) {
             return ui.showMessageWithDivider(e.getMessage());
         }
@@ -29,4 +29,9 @@ public class DeleteCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.DELETE;
+    }
 }
@@ -1,7 +1,7 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.TaskList;
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.CommandType;
 import jinjja.ui.Ui;
 
 /**
@@ -10,7 +10,7 @@ import jinjja.ui.Ui;
 public class ExitCommand extends Command {
 
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
+    public String execute(JinjjaEngine engine, Ui ui) {
         // No output needed for exit command
         return ui.showFarewell();
     }
@@ -19,4 +19,14 @@ public class ExitCommand extends Command {
     public boolean canExit() {
         return true;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.BYE;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
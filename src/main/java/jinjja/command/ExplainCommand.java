@@ -0,0 +1,50 @@
+package jinjja.command;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.CommandType;
+import jinjja.query.Query;
+import jinjja.ui.Ui;
+
+/**
+ * Command to show how a query would be run: which index finds its candidates, what is checked on them, and how they
+ * are ordered. The query itself is not run.
+ */
+public class ExplainCommand extends Command {
+    private final Query query;
+
+    /**
+     * Constructs an ExplainCommand for the given query.
+     *
+     * @param query The parsed query to explain
+     */
+    public ExplainCommand(Query query) {
+        assert query != null : "Query cannot be null";
+        this.query = query;
+    }
+
+    /**
+     * Executes the explain command by planning the query against the current task list and displaying the plan.
+     *
+     * @param engine The engine holding the task list the query would run against
+     * @param ui The user interface for displaying the plan
+     */
+    @Override
+    public String execute(JinjjaEngine engine, Ui ui) {
+        return ui.showMessageWithDivider(engine.explain(this.query));
+    }
+
+    @Override
+    public boolean canExit() {
+        return false;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.EXPLAIN;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
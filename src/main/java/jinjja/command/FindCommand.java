@@ -1,7 +1,12 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.TaskList;
+import java.util.ArrayList;
+import java.util.List;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.CommandType;
+import jinjja.task.Task;
+import jinjja.task.TaskEntry;
 import jinjja.ui.Ui;
 
 /**
@@ -24,19 +29,17 @@ public class FindCommand extends Command {
      * Executes the find command by searching for tasks that contain the keyword and displaying the matching tasks to
      * the user. Is case-insensitive.
      *
-     * @param tasks The task list to search through
-     * @param storage The storage system (not used in this command)
+     * @param engine The engine holding the task list to search through
      * @param ui The user interface for displaying the search results
      */
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
-        TaskList matchingTasks = new TaskList();
-
-        // Search through all tasks for the keyword using streams and add to matchingTasks
-        tasks.getTasks().stream().filter(task->task.getDescription().toLowerCase().contains(keyword.toLowerCase()))
-                .forEach(matchingTasks::addTask);
+    public String execute(JinjjaEngine engine, Ui ui) {
+        List<TaskEntry> entries = engine.findTasks(keyword);
+        List<Task> matchingTasks = new ArrayList<>(entries.size());
+        for (TaskEntry entry : entries) {
+            matchingTasks.add(entry.task());
+        }
 
-        // Display the results
         return ui.showFindResults(matchingTasks, keyword);
     }
 
@@ -44,4 +47,14 @@ public class FindCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.FIND;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
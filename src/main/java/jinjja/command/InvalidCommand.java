@@ -1,7 +1,7 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.TaskList;
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.CommandType;
 import jinjja.ui.Ui;
 
 /**
@@ -15,7 +15,7 @@ public class InvalidCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
+    public String execute(JinjjaEngine engine, Ui ui) {
         return ui.showMessageWithDivider(errorMessage);
     }
 
@@ -23,4 +23,14 @@ public class InvalidCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.UNKNOWN;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
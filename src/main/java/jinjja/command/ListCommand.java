@@ -1,25 +1,69 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.TaskList;
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.CommandType;
+import jinjja.task.TaskFilter;
+import jinjja.task.TaskPage;
 import jinjja.ui.Ui;
 
 /**
- * Command to display all tasks in the task list. This command shows the user all their current tasks with their
- * completion status.
+ * Command to display the tasks in the task list. Without options, this command shows the user all their current tasks
+ * with their completion status. With a page or filter, it shows one page of the matching tasks instead.
  */
 public class ListCommand extends Command {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final TaskFilter filter;
+    private final int pageNumber;
+    private final int pageSize;
+    private final boolean isPaged;
+
+    /**
+     * Constructs a ListCommand that shows every task.
+     */
+    public ListCommand() {
+        this.filter = TaskFilter.ALL;
+        this.pageNumber = 1;
+        this.pageSize = DEFAULT_PAGE_SIZE;
+        this.isPaged = false;
+    }
+
+    /**
+     * Constructs a ListCommand that shows one page of the tasks matching a filter.
+     *
+     * @param filter The conditions tasks must satisfy
+     * @param pageNumber The 1-indexed page to show
+     * @param pageSize The maximum number of tasks per page
+     */
+    public ListCommand(TaskFilter filter, int pageNumber, int pageSize) {
+        assert filter != null : "Filter cannot be null";
+        assert pageNumber > 0 : "Page number should be positive";
+        assert pageSize > 0 : "Page size should be positive";
+        this.filter = filter;
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.isPaged = true;
+    }
 
     /**
-     * Executes the list command by displaying all tasks to the user.
+     * Executes the list command by displaying all tasks, or the requested page of matching tasks, to the user. A page
+     * past the last one is rejected.
      *
-     * @param tasks The task list to display
-     * @param storage The storage system (not used in this command)
+     * @param engine The engine holding the task list to display
      * @param ui The user interface for displaying the task list
      */
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
-        return ui.showTaskList(tasks);
+    public String execute(JinjjaEngine engine, Ui ui) {
+        if (!this.isPaged) {
+            return ui.showTaskList(engine.listTasks());
+        }
+        TaskPage page = engine.listPage(this.filter, this.pageNumber, this.pageSize);
+        if (page.pageNumber() > page.pageCount()) {
+            return ui.showMessageWithDivider(page.pageCount() == 1
+                    ? "There is only 1 page."
+                    : "There are only " + page.pageCount() + " pages.");
+        }
+        return ui.showTaskPage(page);
     }
 
     /**
@@ -31,4 +75,14 @@ public class ListCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.LIST;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
@@ -1,7 +1,8 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.TaskList;
+import jinjja.engine.JinjjaEngine;
+import jinjja.engine.TaskChange;
+import jinjja.parser.CommandType;
 import jinjja.ui.Ui;
 
 /**
@@ -21,14 +22,14 @@ public class MarkCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
-        assert tasks != null : "Task list cannot be null";
+    public String execute(JinjjaEngine engine, Ui ui) {
+        assert engine != null : "Engine cannot be null";
         assert ui != null : "UI cannot be null";
         assert this.taskNumber > 0 : "Task number should be positive";
 
         try {
-            tasks.markTask(true, taskNumber - 1);
-            return ui.showTaskMarked(tasks.getTask(taskNumber - 1));
+            TaskChange change = engine.markTask(taskNumber, true);
+            return ui.showTaskMarked(change.task());
         } catch (ArrayIndexOutOfBoundsException e) {
             return ui.showMessageWithDivider(e.getMessage());
         }
@@ -38,4 +39,9 @@ public class MarkCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.MARK;
+    }
 }
@@ -0,0 +1,38 @@
+package jinjja.command;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.CommandType;
+import jinjja.ui.Ui;
+
+/**
+ * Command to show roughly how much memory the task list takes: for each type of task, how many there are and the
+ * bytes spent on the tasks, their descriptions, dates, slots and display lines, followed by the list and its index.
+ */
+public class MemoryCommand extends Command {
+
+    /**
+     * Executes the memory command by displaying the estimated footprint of the task list.
+     *
+     * @param engine The engine holding the task list
+     * @param ui The user interface for displaying the estimate
+     */
+    @Override
+    public String execute(JinjjaEngine engine, Ui ui) {
+        return ui.showMessageWithDivider(engine.estimateMemory().format());
+    }
+
+    @Override
+    public boolean canExit() {
+        return false;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.MEMORY;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+package jinjja.command;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.CommandType;
+import jinjja.query.Query;
+import jinjja.ui.Ui;
+
+/**
+ * Command to show the tasks selected by a query, such as {@code query done=false and type=E sort by from limit 20}.
+ */
+public class QueryCommand extends Command {
+    private final Query query;
+
+    /**
+     * Constructs a QueryCommand for the given query.
+     *
+     * @param query The parsed query to run
+     */
+    public QueryCommand(Query query) {
+        assert query != null : "Query cannot be null";
+        this.query = query;
+    }
+
+    /**
+     * Executes the query command by running the query and displaying the matching tasks to the user.
+     *
+     * @param engine The engine holding the task list to query
+     * @param ui The user interface for displaying the results
+     */
+    @Override
+    public String execute(JinjjaEngine engine, Ui ui) {
+        return ui.showQueryResults(engine.query(this.query));
+    }
+
+    @Override
+    public boolean canExit() {
+        return false;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.QUERY;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package jinjja.command;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.metrics.Metrics;
+import jinjja.parser.CommandType;
+import jinjja.ui.Ui;
+
+/**
+ * Command to show where time has gone since Jinjja started: how often each type of command ran, its latency
+ * percentiles and parse time, and how long loading and saving took.
+ */
+public class StatsCommand extends Command {
+
+    /**
+     * Executes the stats command by displaying the process-wide statistics.
+     *
+     * @param engine The engine, which is not used
+     * @param ui The user interface for displaying the statistics
+     */
+    @Override
+    public String execute(JinjjaEngine engine, Ui ui) {
+        return ui.showMessageWithDivider(Metrics.global().format());
+    }
+
+    @Override
+    public boolean canExit() {
+        return false;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.STATS;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
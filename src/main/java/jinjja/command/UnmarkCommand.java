@@ -1,7 +1,8 @@
 package jinjja.command;
 
-import jinjja.storage.Storage;
-import jinjja.task.TaskList;
+import jinjja.engine.JinjjaEngine;
+import jinjja.engine.TaskChange;
+import jinjja.parser.CommandType;
 import jinjja.ui.Ui;
 
 /**
@@ -15,10 +16,10 @@ public class UnmarkCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Storage storage, Ui ui) {
+    public String execute(JinjjaEngine engine, Ui ui) {
         try {
-            tasks.markTask(false, taskNumber - 1);
-            return ui.showTaskUnmarked(tasks.getTask(taskNumber - 1));
+            TaskChange change = engine.markTask(taskNumber, false);
+            return ui.showTaskUnmarked(change.task());
         } catch (ArrayIndexOutOfBoundsException e) {
             return ui.showMessageWithDivider(e.getMessage());
         }
@@ -28,4 +29,9 @@ public class UnmarkCommand extends Command {
     public boolean canExit() {
         return false;
     }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.UNMARK;
+    }
 }
@@ -0,0 +1,96 @@
+package jinjja.engine;
+
+import java.util.List;
+import java.util.Locale;
+
+import jinjja.parser.CommandType;
+import jinjja.task.Keywords;
+import jinjja.task.Task;
+import jinjja.task.TaskType;
+
+/**
+ * Suggests completions for command words and for words in task descriptions.
+ *
+ * <p>Command words are ranked by how many tasks were created with them, so a user who mostly adds deadlines gets
+ * {@code deadline} before {@code delete}. Description words are ranked by how many tasks use them. Both rankings are
+ * kept up to date as tasks are added and removed, without rereading the list.
+ *
+ * <p>An Autocompleter is not thread-safe; {@link JinjjaEngine} guards its own instance.
+ */
+public class Autocompleter {
+    /** Shorter description words are not worth completing and are left out. */
+    public static final int MIN_WORD_LENGTH = 3;
+
+    private final CompletionTrie commandWords = new CompletionTrie();
+    private final CompletionTrie descriptionWords = new CompletionTrie();
+
+    /**
+     * Constructs an Autocompleter that knows every command and the words of the given tasks.
+     *
+     * @param tasks The tasks whose descriptions supply words
+     */
+    public Autocompleter(List<Task> tasks) {
+        for (CommandType type : CommandType.values()) {
+            if (type != CommandType.UNKNOWN) {
+                this.commandWords.add(type.name().toLowerCase(Locale.ROOT));
+            }
+        }
+        for (Task task : tasks) {
+            taskAdded(task);
+        }
+    }
+
+    /**
+     * Counts the words and command of a task that was added.
+     *
+     * @param task The added task
+     */
+    public void taskAdded(Task task) {
+        this.commandWords.add(commandWordOf(task));
+        for (String word : Keywords.of(task.getDescription())) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                this.descriptionWords.add(word);
+            }
+        }
+    }
+
+    /**
+     * Uncounts the words and command of a task that was removed.
+     *
+     * @param task The removed task
+     */
+    public void taskRemoved(Task task) {
+        this.commandWords.remove(commandWordOf(task));
+        for (String word : Keywords.of(task.getDescription())) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                this.descriptionWords.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Returns the commands that start with the prefix, most used first.
+     *
+     * @param prefix The start of a command word, in any case
+     * @param limit The maximum number of commands to return
+     * @return Lowercase command words
+     */
+    public List<String> completeCommand(String prefix, int limit) {
+        return this.commandWords.complete(prefix.toLowerCase(Locale.ROOT), limit);
+    }
+
+    /**
+     * Returns the description words that start with the prefix, most used first.
+     *
+     * @param prefix The start of a word, in any case
+     * @param limit The maximum number of words to return
+     * @return Lowercase words
+     */
+    public List<String> completeWord(String prefix, int limit) {
+        return this.descriptionWords.complete(prefix.toLowerCase(Locale.ROOT), limit);
+    }
+
+    private static String commandWordOf(Task task) {
+        return TaskType.of(task).name().toLowerCase(Locale.ROOT);
+    }
+}
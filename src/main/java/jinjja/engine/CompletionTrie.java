@@ -0,0 +1,210 @@
+package jinjja.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A prefix tree of words with a count for each word, which returns the most frequent words starting with a prefix.
+ *
+ * <p>Each node keeps its children in a sorted character array rather than a map, and remembers the highest count in
+ * its subtree. Completions are found best first: the search always expands the most promising node, so finding the top
+ * few words under a short prefix touches only the paths to those words, however many words share the prefix.
+ *
+ * <p>Counts can go up and down as tasks are added and removed. A word whose count drops to zero is removed, along with
+ * any nodes left without words.
+ */
+public class CompletionTrie {
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingInt(Candidate::score).reversed()
+            .thenComparing(Candidate::text)
+            .thenComparing(Candidate::isWord, Comparator.reverseOrder());
+
+    private final Node root = new Node();
+    private int wordCount;
+
+    /**
+     * Adds one to the count of a word, inserting it if it is new.
+     *
+     * @param word The word to count
+     */
+    public void add(String word) {
+        assert word != null && !word.isEmpty() : "Word cannot be empty";
+        Node[] path = new Node[word.length() + 1];
+        path[0] = this.root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].childOrCreate(word.charAt(i));
+        }
+        Node last = path[word.length()];
+        if (last.count == 0) {
+            this.wordCount++;
+        }
+        last.count++;
+        for (Node node : path) {
+            node.best = Math.max(node.best, last.count);
+        }
+    }
+
+    /**
+     * Takes one off the count of a word, removing it once the count reaches zero. Words that are not in the trie are
+     * ignored.
+     *
+     * @param word The word to uncount
+     */
+    public void remove(String word) {
+        assert word != null : "Word cannot be null";
+        Node[] path = new Node[word.length() + 1];
+        path[0] = this.root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].child(word.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node last = path[word.length()];
+        if (last.count == 0) {
+            return;
+        }
+        last.count--;
+        if (last.count == 0) {
+            this.wordCount--;
+        }
+        for (int i = word.length(); i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.count == 0 && node.childCount == 0) {
+                path[i - 1].removeChild(word.charAt(i - 1));
+            } else {
+                node.recomputeBest();
+            }
+        }
+    }
+
+    /**
+     * Returns how many times a word has been counted.
+     *
+     * @param word The word to look up
+     * @return The word's count, or 0 if it is not in the trie
+     */
+    public int frequency(String word) {
+        Node node = find(word);
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Returns the number of distinct words in the trie.
+     *
+     * @return The number of words
+     */
+    public int size() {
+        return this.wordCount;
+    }
+
+    /**
+     * Returns the most frequent words that start with the prefix, most frequent first. Words with the same count are
+     * in alphabetical order. The prefix itself is included if it is a word.
+     *
+     * @param prefix The prefix to complete
+     * @param limit The maximum number of words to return
+     * @return Up to {@code limit} words
+     */
+    public List<String> complete(String prefix, int limit) {
+        assert prefix != null : "Prefix cannot be null";
+        assert limit >= 0 : "Limit cannot be negative";
+        List<String> words = new ArrayList<>(Math.min(limit, 16));
+        Node start = find(prefix);
+        if (start == null || start.best == 0) {
+            return words;
+        }
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(BEST_FIRST);
+        frontier.add(new Candidate(start, prefix, start.best, false));
+        while (words.size() < limit && !frontier.isEmpty()) {
+            Candidate candidate = frontier.poll();
+            if (candidate.isWord()) {
+                words.add(candidate.text());
+                continue;
+            }
+            Node node = candidate.node();
+            if (node.count > 0) {
+                frontier.add(new Candidate(node, candidate.text(), node.count, true));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                Node child = node.children[i];
+                frontier.add(new Candidate(child, candidate.text() + node.keys[i], child.best, false));
+            }
+        }
+        return words;
+    }
+
+    private Node find(String prefix) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * A node or finished word waiting to be expanded. A node's score is the best count below it, and a word's score
+     * is its own count, so no word still in the queue can beat one already taken. Every word below a node sorts after
+     * the node's text, so ties also come out in alphabetical order.
+     */
+    private record Candidate(Node node, String text, int score, boolean isWord) {
+    }
+
+    /**
+     * One node of the trie. Children are kept in parallel arrays sorted by character.
+     */
+    private static class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        private int count;
+        private int best;
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(this.keys, 0, this.childCount, key);
+            return index >= 0 ? this.children[index] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(this.keys, 0, this.childCount, key);
+            if (index >= 0) {
+                return this.children[index];
+            }
+            int insertAt = -index - 1;
+            if (this.childCount == this.keys.length) {
+                int capacity = Math.max(2, this.childCount * 2);
+                this.keys = Arrays.copyOf(this.keys, capacity);
+                this.children = Arrays.copyOf(this.children, capacity);
+            }
+            System.arraycopy(this.keys, insertAt, this.keys, insertAt + 1, this.childCount - insertAt);
+            System.arraycopy(this.children, insertAt, this.children, insertAt + 1, this.childCount - insertAt);
+            Node child = new Node();
+            this.keys[insertAt] = key;
+            this.children[insertAt] = child;
+            this.childCount++;
+            return child;
+        }
+
+        void removeChild(char key) {
+            int index = Arrays.binarySearch(this.keys, 0, this.childCount, key);
+            assert index >= 0 : "Child to remove should exist";
+            System.arraycopy(this.keys, index + 1, this.keys, index, this.childCount - index - 1);
+            System.arraycopy(this.children, index + 1, this.children, index, this.childCount - index - 1);
+            this.childCount--;
+            this.children[this.childCount] = null;
+        }
+
+        void recomputeBest() {
+            int newBest = this.count;
+            for (int i = 0; i < this.childCount; i++) {
+                newBest = Math.max(newBest, this.children[i].best);
+            }
+            this.best = newBest;
+        }
+    }
+}
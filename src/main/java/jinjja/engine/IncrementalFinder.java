@@ -0,0 +1,195 @@
+package jinjja.engine;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import jinjja.task.Task;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskList;
+
+/**
+ * Finds tasks by keyword as the user types, with the same matching as {@code find}: the description contains the
+ * keyword, ignoring case.
+ *
+ * <p>A task whose description contains a keyword also contains every part of it, so a search for a keyword that
+ * extends an earlier one only rechecks the earlier matches instead of the whole list. The last few results are kept,
+ * so deleting characters goes back to an earlier, wider result without a rescan. Lowercase descriptions are computed
+ * once per snapshot of the list, and a search can be abandoned part-way when the user has typed on.
+ *
+ * <p>Results are numbered by position in the snapshot the finder holds, which it refreshes whenever tasks are added
+ * or removed. Adding tasks only costs the new tasks, so typing stays fast on a large list that keeps growing.
+ */
+public class IncrementalFinder {
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+    private static final int REMEMBERED_RESULTS = 16;
+
+    private final TaskList tasks;
+    private final Map<String, int[]> recentResults = new LinkedHashMap<>(REMEMBERED_RESULTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > REMEMBERED_RESULTS;
+        }
+    };
+
+    private int snapshotModificationCount = -1;
+    private List<Task> snapshot = List.of();
+    private String[] lowerDescriptions = new String[0];
+
+    /**
+     * Constructs a finder over the given task list.
+     *
+     * @param tasks The task list to search
+     */
+    public IncrementalFinder(TaskList tasks) {
+        assert tasks != null : "Task list cannot be null";
+        this.tasks = tasks;
+    }
+
+    /**
+     * The outcome of one search.
+     *
+     * @param keyword The keyword searched for
+     * @param matches The matching tasks with their task numbers, in list order
+     * @param isRefined true if the search only rechecked an earlier result rather than the whole list
+     */
+    public record Result(String keyword, List<TaskEntry> matches, boolean isRefined) {
+    }
+
+    /**
+     * Finds the tasks whose description contains the keyword, ignoring case.
+     *
+     * @param keyword The keyword to search for
+     * @param isCancelled Checked while searching; once it returns true the search stops
+     * @return The result, or null if the search was cancelled
+     */
+    public synchronized Result find(String keyword, BooleanSupplier isCancelled) {
+        assert keyword != null : "Keyword cannot be null";
+        refreshSnapshot();
+        String lowerKeyword = keyword.toLowerCase();
+
+        int[] candidates = null;
+        String widerKeyword = null;
+        for (Map.Entry<String, int[]> entry : this.recentResults.entrySet()) {
+            boolean isNarrower = lowerKeyword.contains(entry.getKey());
+            if (isNarrower && (candidates == null || entry.getValue().length < candidates.length)) {
+                widerKeyword = entry.getKey();
+                candidates = entry.getValue();
+            }
+        }
+
+        int[] matches = candidates == null
+                ? scanAll(lowerKeyword, isCancelled)
+                : scan(candidates, lowerKeyword, isCancelled);
+        if (matches == null) {
+            return null;
+        }
+        this.recentResults.put(lowerKeyword, matches);
+        if (widerKeyword != null) {
+            // Touch the wider result too, so the way back while deleting characters stays remembered
+            this.recentResults.get(widerKeyword);
+        }
+        return new Result(keyword, new EntryList(this.snapshot, matches), candidates != null);
+    }
+
+    /**
+     * Takes a new snapshot of the list if tasks were added or removed since the last one. If tasks were only added,
+     * the earlier positions still hold, so only the new tasks are lowercased and checked against remembered keywords.
+     * Otherwise every remembered result is forgotten.
+     */
+    private void refreshSnapshot() {
+        if (this.tasks.getModificationCount() == this.snapshotModificationCount) {
+            return;
+        }
+        int modificationCount;
+        List<Task> latest;
+        do {
+            modificationCount = this.tasks.getModificationCount();
+            latest = this.tasks.getTasks();
+        } while (modificationCount != this.tasks.getModificationCount());
+
+        // Each add grows the list by one and each remove shrinks it by one, but both count as one modification
+        int oldSize = this.lowerDescriptions.length;
+        boolean isOnlyAdded = this.snapshotModificationCount >= 0
+                && latest.size() - oldSize == modificationCount - this.snapshotModificationCount;
+        this.snapshot = latest;
+        this.lowerDescriptions = Arrays.copyOf(this.lowerDescriptions, latest.size());
+        int firstNew = isOnlyAdded ? oldSize : 0;
+        for (int i = firstNew; i < this.lowerDescriptions.length; i++) {
+            this.lowerDescriptions[i] = latest.get(i).getDescription().toLowerCase();
+        }
+        if (isOnlyAdded) {
+            this.recentResults.replaceAll((keyword, matches)->appendMatches(matches, keyword, oldSize));
+        } else {
+            this.recentResults.clear();
+        }
+        this.snapshotModificationCount = modificationCount;
+    }
+
+    private int[] appendMatches(int[] matches, String lowerKeyword, int firstNew) {
+        int[] extended = Arrays.copyOf(matches, matches.length + this.lowerDescriptions.length - firstNew);
+        int count = matches.length;
+        for (int i = firstNew; i < this.lowerDescriptions.length; i++) {
+            if (this.lowerDescriptions[i].contains(lowerKeyword)) {
+                extended[count++] = i;
+            }
+        }
+        return Arrays.copyOf(extended, count);
+    }
+
+    private int[] scanAll(String lowerKeyword, BooleanSupplier isCancelled) {
+        int[] matches = new int[this.lowerDescriptions.length];
+        int count = 0;
+        for (int i = 0; i < this.lowerDescriptions.length; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && isCancelled.getAsBoolean()) {
+                return null;
+            }
+            if (this.lowerDescriptions[i].contains(lowerKeyword)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private int[] scan(int[] candidates, String lowerKeyword, BooleanSupplier isCancelled) {
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && isCancelled.getAsBoolean()) {
+                return null;
+            }
+            if (this.lowerDescriptions[candidates[i]].contains(lowerKeyword)) {
+                matches[count++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * A read-only list of task entries that creates each entry when it is asked for, so a result with many matches
+     * costs one int per match until it is shown.
+     */
+    private static class EntryList extends AbstractList<TaskEntry> {
+        private final List<Task> snapshot;
+        private final int[] positions;
+
+        EntryList(List<Task> snapshot, int[] positions) {
+            this.snapshot = snapshot;
+            this.positions = positions;
+        }
+
+        @Override
+        public TaskEntry get(int index) {
+            int position = this.positions[index];
+            return new TaskEntry(position + 1, this.snapshot.get(position));
+        }
+
+        @Override
+        public int size() {
+            return this.positions.length;
+        }
+    }
+}
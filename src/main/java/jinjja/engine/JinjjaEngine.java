@@ -0,0 +1,387 @@
+package jinjja.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import jinjja.exception.InvalidTaskException;
+import jinjja.query.Query;
+import jinjja.query.QueryPlanner;
+import jinjja.storage.ExternalChange;
+import jinjja.storage.SaveConflictException;
+import jinjja.storage.SaveFileMerge;
+import jinjja.storage.Storage;
+import jinjja.task.MemoryFootprint;
+import jinjja.task.Task;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskFilter;
+import jinjja.task.TaskList;
+import jinjja.task.TaskPage;
+import jinjja.task.Tentative;
+
+/**
+ * Typed facade over the task list and its storage. Every operation returns tasks, numbers and counts rather than
+ * display text, so Jinjja can be embedded in another service without parsing chat replies. The chat commands are
+ * thin renderers on top of this class.
+ *
+ * <p>Completions are built from the task list the first time they are asked for, and kept up to date by every add
+ * and delete made through this engine from then on.
+ *
+ * <p>Task numbers are 1-indexed, as in the chat commands. Invalid numbers are reported with the same exceptions and
+ * messages as {@link TaskList}.
+ *
+ * <p>A save that finds the save file saved by another Jinjja meanwhile merges the other's changes into the task list
+ * and tries again, and tells the merge listener what it brought in.
+ */
+public class JinjjaEngine {
+    /** How many times a save is tried while other Jinjjas keep saving in between. */
+    private static final int SAVE_ATTEMPTS = 3;
+    /** How many tasks a search visits between checks for the calling thread being interrupted. */
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private final TaskList tasks;
+    private final Storage storage;
+    private final Object completionLock = new Object();
+    private Autocompleter autocompleter;
+    /** Changes to the completions made while an autocompleter is being built, or null if none is being built. */
+    private List<Consumer<Autocompleter>> changesWhileBuilding;
+    private volatile Consumer<SaveFileMerge> mergeListener;
+
+    /**
+     * Constructs an engine over the given task list and storage.
+     *
+     * @param tasks The task list to operate on
+     * @param storage The storage used to save the task list
+     */
+    public JinjjaEngine(TaskList tasks, Storage storage) {
+        assert tasks != null : "Task list cannot be null";
+        assert storage != null : "Storage cannot be null";
+        this.tasks = tasks;
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the underlying task list.
+     *
+     * @return The task list
+     */
+    public TaskList getTaskList() {
+        return this.tasks;
+    }
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return The task count
+     */
+    public int getTaskCount() {
+        return this.tasks.getSize();
+    }
+
+    /**
+     * Returns the task with the given number.
+     *
+     * @param number The 1-indexed task number
+     * @return The task
+     * @throws ArrayIndexOutOfBoundsException if the number is out of range
+     */
+    public Task getTask(int number) {
+        return this.tasks.getTask(number - 1);
+    }
+
+    /**
+     * Returns a snapshot of all tasks, in list order.
+     *
+     * @return The tasks
+     */
+    public List<Task> listTasks() {
+        return this.tasks.getTasks();
+    }
+
+    /**
+     * Estimates the heap retained by the task list, broken down by task type, for the {@code memory} command.
+     *
+     * @return The estimate
+     */
+    public MemoryFootprint estimateMemory() {
+        return this.tasks.estimateMemory();
+    }
+
+    /**
+     * Returns one page of the tasks that satisfy the filter. Answered from the task list's indexes, so only the tasks
+     * on the page are read.
+     *
+     * @param filter The conditions tasks must satisfy
+     * @param pageNumber The 1-indexed page to return
+     * @param pageSize The maximum number of tasks per page
+     * @return The requested page
+     */
+    public TaskPage listPage(TaskFilter filter, int pageNumber, int pageSize) {
+        return this.tasks.select(filter, pageNumber, pageSize);
+    }
+
+    /**
+     * Runs a query against the task list, using whichever index the planner finds cheapest.
+     *
+     * @param query The parsed query
+     * @return The matching tasks with their task numbers, in the query's order
+     * @throws CancellationException if the calling thread is interrupted while the query runs
+     */
+    public List<TaskEntry> query(Query query) {
+        assert query != null : "Query cannot be null";
+        return this.tasks.readIndexed(view->QueryPlanner.plan(query, view).execute(view));
+    }
+
+    /**
+     * Describes how a query would be run against the task list as it is now, without running it.
+     *
+     * @param query The parsed query
+     * @return The plan, one step per line
+     */
+    public String explain(Query query) {
+        assert query != null : "Query cannot be null";
+        return this.tasks.readIndexed(view->QueryPlanner.plan(query, view).explain());
+    }
+
+    /**
+     * Finds the tasks whose description contains the keyword, ignoring case.
+     *
+     * @param keyword The keyword to search for
+     * @return The matching tasks with their task numbers, in list order
+     * @throws CancellationException if the calling thread is interrupted while searching
+     */
+    public List<TaskEntry> findTasks(String keyword) {
+        assert keyword != null : "Keyword cannot be null";
+        String lowerKeyword = keyword.toLowerCase();
+        ArrayList<Task> snapshot = this.tasks.getTasks();
+        List<TaskEntry> matches = new ArrayList<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Search cancelled");
+            }
+            Task task = snapshot.get(i);
+            if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+                matches.add(new TaskEntry(i + 1, task));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Creates a finder for searching this engine's tasks as the user types. Each finder keeps its own recent results,
+     * so a window should keep one for as long as it is open.
+     *
+     * @return A new finder over the task list
+     */
+    public IncrementalFinder newIncrementalFinder() {
+        return new IncrementalFinder(this.tasks);
+    }
+
+    /**
+     * Returns the commands that start with the prefix, most used first.
+     *
+     * @param prefix The start of a command word, in any case
+     * @param limit The maximum number of commands to return
+     * @return Lowercase command words
+     */
+    public List<String> completeCommand(String prefix, int limit) {
+        Autocompleter completer = autocompleter();
+        synchronized (this.completionLock) {
+            return completer.completeCommand(prefix, limit);
+        }
+    }
+
+    /**
+     * Returns the words from task descriptions that start with the prefix, most used first.
+     *
+     * @param prefix The start of a word, in any case
+     * @param limit The maximum number of words to return
+     * @return Lowercase words
+     */
+    public List<String> completeWord(String prefix, int limit) {
+        Autocompleter completer = autocompleter();
+        synchronized (this.completionLock) {
+            return completer.completeWord(prefix, limit);
+        }
+    }
+
+    /**
+     * Returns the autocompleter, building it from the task list on first use. The build reads every task, so it runs
+     * on a snapshot outside the completion lock, and the tasks added and deleted meanwhile are replayed into it as it
+     * is swapped in. Must be called without the completion lock held; the autocompleter may only be used with it held.
+     */
+    private Autocompleter autocompleter() {
+        List<Task> snapshot;
+        int replayFrom;
+        synchronized (this.completionLock) {
+            if (this.autocompleter != null) {
+                return this.autocompleter;
+            }
+            snapshot = this.tasks.getTasks();
+            if (this.changesWhileBuilding == null) {
+                this.changesWhileBuilding = new ArrayList<>();
+            }
+            replayFrom = this.changesWhileBuilding.size();
+        }
+        Autocompleter built = new Autocompleter(snapshot);
+        synchronized (this.completionLock) {
+            if (this.autocompleter == null) {
+                List<Consumer<Autocompleter>> changes = this.changesWhileBuilding;
+                changes.subList(replayFrom, changes.size()).forEach(change->change.accept(built));
+                this.autocompleter = built;
+                this.changesWhileBuilding = null;
+            }
+            return this.autocompleter;
+        }
+    }
+
+    /**
+     * Passes a change to the autocompleter if it is built, or records it for the one being built. Must be called
+     * with the completion lock held.
+     */
+    private void updateCompletions(Consumer<Autocompleter> change) {
+        if (this.autocompleter != null) {
+            change.accept(this.autocompleter);
+        } else if (this.changesWhileBuilding != null) {
+            this.changesWhileBuilding.add(change);
+        }
+    }
+
+    /**
+     * Adds a task to the end of the list.
+     *
+     * @param task The task to add
+     * @return The added task, its number and the new task count
+     */
+    public TaskChange addTask(Task task) {
+        assert task != null : "Task to be added cannot be null";
+        int number;
+        synchronized (this.completionLock) {
+            number = this.tasks.addTask(task) + 1;
+            updateCompletions(completer->completer.taskAdded(task));
+        }
+        return new TaskChange(number, task, number);
+    }
+
+    /**
+     * Marks a task as done or not done.
+     *
+     * @param number The 1-indexed task number
+     * @param isDone true to mark the task as done, false to mark it as not done
+     * @return The changed task and the task count
+     * @throws ArrayIndexOutOfBoundsException if the task list is empty
+     * @throws NumberFormatException if the number is out of range
+     */
+    public TaskChange markTask(int number, boolean isDone) {
+        Task marked = this.tasks.markTask(isDone, number - 1);
+        return new TaskChange(number, marked, this.tasks.getSize());
+    }
+
+    /**
+     * Deletes a task.
+     *
+     * @param number The 1-indexed task number
+     * @return The removed task and the new task count
+     * @throws ArrayIndexOutOfBoundsException if the number is out of range
+     */
+    public TaskChange deleteTask(int number) {
+        Task removed;
+        synchronized (this.completionLock) {
+            Task task = this.tasks.removeTask(number - 1);
+            updateCompletions(completer->completer.taskRemoved(task));
+            removed = task;
+        }
+        return new TaskChange(number, removed, this.tasks.getSize());
+    }
+
+    /**
+     * Confirms one slot of a tentative event and saves the task list.
+     *
+     * @param number The 1-indexed task number of the tentative event
+     * @param slotNumber The 1-indexed slot to confirm
+     * @return The confirmed tentative event and the task count
+     * @throws InvalidTaskException if the task or slot number is invalid, or the task is not a tentative event
+     * @throws IOException if saving fails
+     */
+    public TaskChange confirmSlot(int number, int slotNumber) throws IOException {
+        if (number > this.tasks.getSize() || number <= 0) {
+            throw new InvalidTaskException("Invalid task number. Please provide a valid task number.");
+        }
+        Task task = this.tasks.getTask(number - 1);
+        if (!(task instanceof Tentative)) {
+            throw new InvalidTaskException("Task " + number + " is not a tentative event.");
+        }
+        Tentative tentative = (Tentative) task;
+        if (!tentative.confirmSlot(slotNumber)) {
+            throw new InvalidTaskException("Invalid slot number. Please provide a valid slot number (1-"
+                    + tentative.getSlotCount() + ").");
+        }
+        save();
+        return new TaskChange(number, tentative, this.tasks.getSize());
+    }
+
+    /**
+     * Brings in a change made to the save file from elsewhere: merges it into the task list, keeping the changes made
+     * here that it does not clash with, and saves the result, so the save file holds the changes from both sides.
+     *
+     * @param change The change, as found by {@link Storage#watch}
+     * @return What was brought in, and what clashed
+     * @throws IOException if saving fails, in which case the list has still been merged
+     */
+    public SaveFileMerge mergeExternalChange(ExternalChange change) throws IOException {
+        assert change != null : "Change cannot be null";
+        SaveFileMerge merge = applyChange(change);
+        save();
+        return merge;
+    }
+
+    /**
+     * Merges a change into the task list and the completions.
+     */
+    private SaveFileMerge applyChange(ExternalChange change) {
+        synchronized (this.completionLock) {
+            SaveFileMerge merge = change.merge(this.tasks.getTasks());
+            List<Task> removed = this.tasks.applyChanges(merge.getMarks(), merge.getRemovals(), merge.getAdditions());
+            updateCompletions(completer-> {
+                removed.forEach(completer::taskRemoved);
+                merge.getAdditions().forEach(completer::taskAdded);
+            });
+            return merge;
+        }
+    }
+
+    /**
+     * Sets who is told about changes brought in from another Jinjja's save when saving.
+     *
+     * @param listener The listener, called on the saving thread, or null for none
+     */
+    public void setMergeListener(Consumer<SaveFileMerge> listener) {
+        this.mergeListener = listener;
+    }
+
+    /**
+     * Saves the task list to storage, with a snapshot for the next load. If another Jinjja saved the file since it
+     * was last loaded or saved here, its changes are merged into the task list first.
+     *
+     * @throws IOException if saving fails, or other Jinjjas kept saving in between
+     */
+    public void save() throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                this.storage.saveTaskList(this.tasks);
+                return;
+            } catch (SaveConflictException e) {
+                if (attempt == SAVE_ATTEMPTS) {
+                    throw e;
+                }
+                SaveFileMerge merge = applyChange(e.getChange());
+                Consumer<SaveFileMerge> listener = this.mergeListener;
+                if (listener != null && !merge.isEmpty()) {
+                    listener.accept(merge);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package jinjja.engine;
+
+import jinjja.task.Task;
+
+/**
+ * The outcome of an operation that changed one task.
+ *
+ * @param number The 1-indexed number the task had when it was changed
+ * @param task The task that was added, changed or removed
+ * @param taskCount The number of tasks in the list after the change
+ */
+public record TaskChange(int number, Task task, int taskCount) {
+}
@@ -0,0 +1,10 @@
+package jinjja.exception;
+
+/**
+ * Exception thrown when a query cannot be parsed.
+ */
+public class InvalidQueryException extends RuntimeException {
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
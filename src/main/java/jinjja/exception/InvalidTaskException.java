@@ -0,0 +1,10 @@
+package jinjja.exception;
+
+/**
+ * Exception thrown when an operation refers to a task or slot that cannot be used for it.
+ */
+public class InvalidTaskException extends RuntimeException {
+    public InvalidTaskException(String message) {
+        super(message);
+    }
+}
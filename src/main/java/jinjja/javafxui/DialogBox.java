@@ -1,52 +1,68 @@
 package jinjja.javafxui;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
-import jinjja.javafxui.window.MainWindow;
+import javafx.scene.layout.Region;
 
 /**
  * Custom control representing a dialog box consisting of an ImageView to represent the speaker's face and a label
- * containing text from the speaker.
+ * containing text from the speaker. A dialog box can be refilled with another message, which lets the conversation
+ * list reuse a few boxes for any number of messages.
+ *
+ * <p>The box is built in code rather than loaded from FXML, since parsing FXML for every chat bubble costs far more
+ * than creating the two nodes it describes.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    /** The width and height of the speaker's picture. */
+    public static final double PICTURE_SIZE = 99.0;
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private static final double DEFAULT_WIDTH = 400.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+
+    /**
+     * Constructs an empty dialog box. Call {@link #show(String, Image, boolean)} to fill it.
+     */
+    public DialogBox() {
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setPreserveRatio(true);
+        displayPicture.setPickOnBounds(true);
+
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(DEFAULT_WIDTH);
+        setPadding(PADDING);
+        getChildren().setAll(dialog, displayPicture);
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Fills the dialog box with a message. Jinjja's messages have the ImageView on the left and text on the right;
+     * the user's are the other way round.
+     *
+     * @param text The message text
+     * @param img The speaker's picture
+     * @param isFromJinjja true if Jinjja is the speaker
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    public void show(String text, Image img, boolean isFromJinjja) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        if (isFromJinjja) {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        }
     }
 
     /**
@@ -57,7 +73,9 @@ public class DialogBox extends HBox {
      * @return DialogBox for a user
      */
     public static DialogBox getUserDialog(String s, Image i) {
-        return new DialogBox(s, i);
+        var db = new DialogBox();
+        db.show(s, i, false);
+        return db;
     }
 
     /**
@@ -68,8 +86,8 @@ public class DialogBox extends HBox {
      * @return DialogBox for Jinjja
      */
     public static DialogBox getJinjjaDialog(String s, Image i) {
-        var db = new DialogBox(s, i);
-        db.flip();
+        var db = new DialogBox();
+        db.show(s, i, true);
         return db;
     }
 }
@@ -0,0 +1,28 @@
+package jinjja.javafxui;
+
+import javafx.scene.image.Image;
+
+/**
+ * The speakers' pictures, shared by every dialog box. Each image is decoded once, already scaled to
+ * {@link DialogBox#PICTURE_SIZE}, so image views never have to rescale the full-size picture.
+ */
+public final class DialogImages {
+    public static final Image USER = load("/images/userLogo.jpeg");
+    public static final Image JINJJA = load("/images/jinjjaLogo.jpeg");
+
+    private DialogImages() {
+    }
+
+    /**
+     * Decodes the pictures now, if they have not been decoded yet. Calling this from a background thread takes the
+     * decoding off the JavaFX thread.
+     */
+    public static void preload() {
+        // Calling any method initializes the class, which decodes the pictures
+    }
+
+    private static Image load(String path) {
+        return new Image(DialogImages.class.getResourceAsStream(path), DialogBox.PICTURE_SIZE, DialogBox.PICTURE_SIZE,
+                true, true);
+    }
+}
@@ -1,6 +1,7 @@
 package jinjja.javafxui;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -9,13 +10,39 @@ import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 import jinjja.Jinjja;
 import jinjja.javafxui.window.MainWindow;
+import jinjja.metrics.Metrics;
 
 /**
  * JavaFX UI for Jinjja chatbot.
+ *
+ * <p>Started through {@link #launchGui(String[])}, the save file is read while the JavaFX toolkit starts, and the
+ * speakers' pictures are decoded while the window is built, rather than one after another on the JavaFX thread.
  */
 public class JavaFxUi extends Application {
+    private static Jinjja preloaded;
 
-    private Jinjja jinjja = new Jinjja(true);
+    private final Jinjja jinjja = preloaded != null ? preloaded : new Jinjja(true);
+
+    /**
+     * Starts the GUI, reading the save file on a background thread in the meantime.
+     *
+     * @param args The command line arguments
+     */
+    public static void launchGui(String[] args) {
+        Metrics.dumpOnExitIfRequested();
+        preloaded = new Jinjja(true);
+        preloaded.loadTasksInBackground();
+        launch(JavaFxUi.class, args);
+    }
+
+    /**
+     * Starts decoding the speakers' pictures on a background thread. The window only waits for them if it needs them
+     * before they are ready.
+     */
+    @Override
+    public void init() {
+        CompletableFuture.runAsync(DialogImages::preload);
+    }
 
     @Override
     public void start(Stage stage) {
@@ -31,7 +58,8 @@ public class JavaFxUi extends Application {
 
             // Handle window close request
             stage.setOnCloseRequest(event-> {
-                // Save tasks and show farewell message before closing
+                // Let the running command finish, then save tasks and show farewell message before closing
+                controller.shutdown();
                 String farewellMessage = jinjja.shutdown();
                 System.out.println(farewellMessage); // Print to console for debugging
                 // The window will close automatically after this handler completes
@@ -44,6 +72,6 @@ public class JavaFxUi extends Application {
     }
 
     public static void main(String[] args) {
-        launch(args);
+        launchGui(args);
     }
 }
@@ -0,0 +1,25 @@
+package jinjja.javafxui;
+
+/**
+ * One message of the conversation shown in the main window. The transcript is kept as a list of these, and dialog
+ * nodes are only created for the messages on screen.
+ *
+ * @param speaker Who sent the message
+ * @param text The text of the message
+ */
+public record Message(Speaker speaker, String text) {
+    /**
+     * The sides of the conversation.
+     */
+    public enum Speaker {
+        USER, JINJJA
+    }
+
+    public static Message fromUser(String text) {
+        return new Message(Speaker.USER, text);
+    }
+
+    public static Message fromJinjja(String text) {
+        return new Message(Speaker.JINJJA, text);
+    }
+}
@@ -0,0 +1,51 @@
+package jinjja.javafxui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Region;
+
+/**
+ * A row of the conversation list. Each cell owns one {@link DialogBox} and refills it whenever the list view reuses
+ * the cell for another message, so the number of dialog nodes depends on the window height rather than on the length
+ * of the conversation.
+ */
+public class MessageCell extends ListCell<Message> {
+    /** Room left for the list's vertical scroll bar and cell padding, so bubbles never need a horizontal scroll. */
+    private static final double SCROLL_BAR_ALLOWANCE = 20.0;
+
+    private final DialogBox dialogBox = new DialogBox();
+    private final Image userImage;
+    private final Image jinjjaImage;
+
+    /**
+     * Constructs a cell for the given list view.
+     *
+     * @param listView The list view the cell belongs to, whose width the bubbles wrap to
+     * @param userImage The picture shown beside the user's messages
+     * @param jinjjaImage The picture shown beside Jinjja's messages
+     */
+    public MessageCell(ListView<Message> listView, Image userImage, Image jinjjaImage) {
+        this.userImage = userImage;
+        this.jinjjaImage = jinjjaImage;
+        setPrefWidth(0);
+        this.dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_ALLOWANCE));
+        this.dialogBox.setMaxWidth(Region.USE_PREF_SIZE);
+        setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+    }
+
+    @Override
+    protected void updateItem(Message message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        if (message.speaker() == Message.Speaker.USER) {
+            this.dialogBox.show(message.text(), this.userImage, false);
+        } else {
+            this.dialogBox.show(message.text(), this.jinjjaImage, true);
+        }
+        setGraphic(this.dialogBox);
+    }
+}
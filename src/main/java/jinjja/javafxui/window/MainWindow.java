@@ -1,58 +1,273 @@
 package jinjja.javafxui.window;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 import jinjja.Jinjja;
-import jinjja.javafxui.DialogBox;
+import jinjja.engine.IncrementalFinder;
+import jinjja.javafxui.DialogImages;
+import jinjja.javafxui.Message;
+import jinjja.javafxui.MessageCell;
+import jinjja.parser.Parser;
+import jinjja.task.TaskEntry;
 
 /**
- * Controller for the main GUI.
+ * Controller for the main GUI. The conversation is kept as a list of {@link Message}s and shown in a virtualized
+ * list view, which only creates dialog nodes for the messages in view.
+ *
+ * <p>Commands run one at a time on a worker thread, so a slow command never freezes the window. Replies are shown in
+ * the order the commands were sent. While commands are outstanding for more than a moment a progress indicator is
+ * shown, and Esc cancels every command that has not started, as well as a running command that only reads tasks.
+ *
+ * <p>While the input reads {@code find KEYWORD}, matching tasks are shown live above it. Searches start once typing
+ * pauses briefly, run on their own thread, and are abandoned as soon as the input changes again.
+ *
+ * <p>Tab completes the word being typed: the first word as a command, later words from task descriptions.
  */
 public class MainWindow extends AnchorPane {
+    private static final Duration PROGRESS_DELAY = Duration.millis(200);
+    private static final long SHUTDOWN_WAIT_SECONDS = 5;
+    private static final Duration LIVE_FIND_DELAY = Duration.millis(60);
+    private static final String FIND_PREFIX = "find ";
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Message> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator progressIndicator;
+    @FXML
+    private ListView<TaskEntry> liveResults;
 
     private Jinjja jinjja;
+    private IncrementalFinder finder;
+    private TabCompletion tabCompletion;
 
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/userLogo.jpeg"));
-    private Image jinjjaImage = new Image(this.getClass().getResourceAsStream("/images/jinjjaLogo.jpeg"));
+    private final ObservableList<Message> messages = FXCollections.observableArrayList();
+    private final ArrayDeque<PendingCommand> pendingCommands = new ArrayDeque<>();
+    private final PauseTransition progressDelay = new PauseTransition(PROGRESS_DELAY);
+    private final ExecutorService worker = newDaemonExecutor("jinjja-gui-worker");
+    private final PauseTransition liveFindDelay = new PauseTransition(LIVE_FIND_DELAY);
+    private final AtomicLong liveFindGeneration = new AtomicLong();
+    private final ExecutorService liveFindWorker = newDaemonExecutor("jinjja-live-find");
 
+    /**
+     * Connects the conversation list to the message history, installs the reusable message cells, binds Esc to
+     * cancellation and Tab to completion, and starts watching the input for live find.
+     */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(list->new MessageCell(list, DialogImages.USER, DialogImages.JINJJA));
+        dialogList.setFocusTraversable(false);
+
+        progressIndicator.setVisible(false);
+        progressDelay.setOnFinished(event->progressIndicator.setVisible(!pendingCommands.isEmpty()));
+        userInput.setOnKeyPressed(event-> {
+            if (event.getCode() == KeyCode.ESCAPE) {
+                cancelPendingCommands();
+            }
+        });
+        // Filter rather than handle Tab, so the key completes a word instead of moving focus
+        userInput.addEventFilter(KeyEvent.KEY_PRESSED, event-> {
+            if (event.getCode() == KeyCode.TAB && tabCompletion != null) {
+                event.consume();
+                userInput.setText(tabCompletion.complete(userInput.getText()));
+                userInput.end();
+            }
+        });
+
+        liveResults.setVisible(false);
+        liveResults.setFocusTraversable(false);
+        liveResults.setPlaceholder(new Label("No matching tasks."));
+        liveResults.setCellFactory(list->new ListCell<>() {
+            @Override
+            protected void updateItem(TaskEntry entry, boolean isEmpty) {
+                super.updateItem(entry, isEmpty);
+                setText(isEmpty || entry == null ? null : entry.number() + "." + entry.task());
+            }
+        });
+        liveFindDelay.setOnFinished(event->startLiveFind());
+        userInput.textProperty().addListener((observable, oldText, newText)-> {
+            if (liveFindKeyword(newText) == null) {
+                hideLiveResults();
+            } else {
+                liveFindDelay.playFromStart();
+            }
+        });
+    }
+
+    private static ExecutorService newDaemonExecutor(String threadName) {
+        return Executors.newSingleThreadExecutor(runnable-> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /** Injects the Jinjja instance */
     public void setJinjja(Jinjja j) {
         jinjja = j;
-        dialogContainer.getChildren().add(
-            DialogBox.getJinjjaDialog(jinjja.getGreeting(), jinjjaImage)
-        );
+        jinjja.setNoticeListener(notice->Platform.runLater(()->addMessages(Message.fromJinjja(notice))));
+        addMessages(Message.fromJinjja(jinjja.getGreeting()));
+        finder = jinjja.getEngine().newIncrementalFinder();
+        tabCompletion = new TabCompletion(jinjja.getEngine());
+        // Build the completions in the background, so the first Tab does not wait for it
+        liveFindWorker.execute(()->jinjja.getEngine().completeCommand("", 0));
     }
 
     /**
-     * Creates a dialog box containing user input, and appends it to the dialog container. Clears the user input after
-     * processing.
+     * Appends messages to the conversation and scrolls to the newest one.
+     */
+    private void addMessages(Message... newMessages) {
+        messages.addAll(newMessages);
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * Adds the user input to the conversation and sends it to the worker thread. Jinjja's reply is added when it is
+     * ready. Clears the user input.
      */
     @FXML
     private void handleUserInput() {
         String userText = userInput.getText();
-        String jinjjaText = jinjja.getResponse(userText);
-        dialogContainer.getChildren().addAll(
-            DialogBox.getUserDialog(userInput.getText(), userImage),
-            DialogBox.getJinjjaDialog(jinjjaText, jinjjaImage)
-        );
+        addMessages(Message.fromUser(userText));
         userInput.clear();
+
+        PendingCommand pending = new PendingCommand(userText, Parser.parse(userText));
+        if (pendingCommands.isEmpty()) {
+            progressDelay.playFromStart();
+        }
+        pendingCommands.add(pending);
+        pending.setRun(worker.submit(()->run(pending)));
+    }
+
+    /**
+     * Runs a command on the worker thread and hands its reply back to the JavaFX thread.
+     */
+    private void run(PendingCommand pending) {
+        if (!pending.start()) {
+            return;
+        }
+        String reply;
+        try {
+            reply = jinjja.getResponse(pending.getCommand());
+        } catch (CancellationException e) {
+            // Cancelled while running; the window has already shown that
+            return;
+        } catch (RuntimeException e) {
+            reply = "Sorry, something went wrong: " + e.getMessage();
+        }
+        String finalReply = reply;
+        Platform.runLater(()-> {
+            pending.finish(finalReply);
+            showSettledReplies();
+        });
+    }
+
+    /**
+     * Cancels every outstanding command that can still be cancelled, and shows the outcome.
+     */
+    private void cancelPendingCommands() {
+        for (PendingCommand pending : pendingCommands) {
+            pending.cancel();
+        }
+        showSettledReplies();
+    }
+
+    /**
+     * Shows the replies of the oldest outstanding commands, stopping at the first one that is still running, so
+     * replies always appear in the order the commands were sent.
+     */
+    private void showSettledReplies() {
+        while (!pendingCommands.isEmpty() && pendingCommands.peek().isSettled()) {
+            addMessages(Message.fromJinjja(pendingCommands.poll().getReply()));
+        }
+        if (pendingCommands.isEmpty()) {
+            progressDelay.stop();
+            progressIndicator.setVisible(false);
+        }
+    }
+
+    /**
+     * Returns the keyword of a find command being typed, parsed the way the find command parses it.
+     *
+     * @return The keyword, or null if the input is not a find command with a keyword
+     */
+    private static String liveFindKeyword(String input) {
+        if (input.length() <= FIND_PREFIX.length() || !input.regionMatches(true, 0, FIND_PREFIX, 0,
+                FIND_PREFIX.length())) {
+            return null;
+        }
+        String keyword = input.substring(FIND_PREFIX.length()).replaceAll(" +$", "");
+        return keyword.isEmpty() ? null : keyword;
+    }
+
+    /**
+     * Searches for the keyword now in the input, abandoning any search still running for earlier input.
+     */
+    private void startLiveFind() {
+        String keyword = liveFindKeyword(userInput.getText());
+        if (keyword == null || finder == null) {
+            return;
+        }
+        long generation = liveFindGeneration.incrementAndGet();
+        liveFindWorker.execute(()-> {
+            IncrementalFinder.Result result = finder.find(keyword, ()->liveFindGeneration.get() != generation);
+            if (result == null) {
+                return;
+            }
+            Platform.runLater(()-> {
+                if (liveFindGeneration.get() == generation) {
+                    liveResults.setItems(FXCollections.observableList(result.matches()));
+                    liveResults.setVisible(true);
+                }
+            });
+        });
+    }
+
+    /**
+     * Hides the live results and abandons any search in progress.
+     */
+    private void hideLiveResults() {
+        liveFindGeneration.incrementAndGet();
+        liveFindDelay.stop();
+        liveResults.setVisible(false);
+        liveResults.setItems(FXCollections.observableArrayList());
+    }
+
+    /**
+     * Stops accepting commands and waits briefly for the current one to finish, so that it is not cut off by the
+     * final save.
+     */
+    public void shutdown() {
+        liveFindWorker.shutdownNow();
+        worker.shutdown();
+        try {
+            worker.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
@@ -0,0 +1,100 @@
+package jinjja.javafxui.window;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jinjja.command.Command;
+
+/**
+ * A command the user has sent that has not been answered on screen yet. The worker thread and the JavaFX thread
+ * race to move it out of the queued state: the worker to run it, the window to cancel it. Whichever wins decides
+ * whether it runs at all. A read-only command can also be cancelled while it runs, which interrupts the worker so
+ * that a long search stops.
+ */
+class PendingCommand {
+    /**
+     * The stages of a pending command.
+     */
+    enum State {
+        QUEUED, RUNNING, FINISHED, CANCELLED
+    }
+
+    private final String input;
+    private final Command command;
+    private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+    private String reply;
+    private Future<?> run;
+
+    PendingCommand(String input, Command command) {
+        this.input = input;
+        this.command = command;
+    }
+
+    /**
+     * Records the worker's run of the command, so that cancelling it can interrupt the run. Called on the JavaFX
+     * thread as the command is sent.
+     */
+    void setRun(Future<?> run) {
+        this.run = run;
+    }
+
+    String getInput() {
+        return this.input;
+    }
+
+    Command getCommand() {
+        return this.command;
+    }
+
+    /**
+     * Claims the command for running. Called by the worker thread.
+     *
+     * @return true if the command should run, false if it was cancelled first
+     */
+    boolean start() {
+        return this.state.compareAndSet(State.QUEUED, State.RUNNING);
+    }
+
+    /**
+     * Cancels the command if it has not started, or if it is running but only reads the task list, so abandoning it
+     * hides no change. A running command is interrupted, and the searches it may be running stop at their next check.
+     *
+     * @return true if the command was cancelled
+     */
+    boolean cancel() {
+        if (this.state.compareAndSet(State.QUEUED, State.CANCELLED)) {
+            return true;
+        }
+        if (this.command.isReadOnly() && this.state.compareAndSet(State.RUNNING, State.CANCELLED)) {
+            if (this.run != null) {
+                this.run.cancel(true);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the reply of a command that ran to the end. Ignored if the command was abandoned meanwhile.
+     */
+    void finish(String reply) {
+        if (this.state.compareAndSet(State.RUNNING, State.FINISHED)) {
+            this.reply = reply;
+        }
+    }
+
+    /**
+     * Checks if the command's outcome is known, so its reply can be shown.
+     */
+    boolean isSettled() {
+        State current = this.state.get();
+        return current == State.FINISHED || current == State.CANCELLED;
+    }
+
+    /**
+     * Returns the text to show for the command once it is settled.
+     */
+    String getReply() {
+        return this.state.get() == State.CANCELLED ? "Cancelled: " + this.input : this.reply;
+    }
+}
@@ -0,0 +1,57 @@
+package jinjja.javafxui.window;
+
+import java.util.List;
+
+import jinjja.engine.JinjjaEngine;
+
+/**
+ * Completes the word being typed when Tab is pressed. The first word of the input is completed as a command, and any
+ * later word as a word from task descriptions. Pressing Tab again straight away moves on to the next suggestion, and
+ * past the last one back to the first.
+ */
+class TabCompletion {
+    static final int SUGGESTION_LIMIT = 5;
+
+    private final JinjjaEngine engine;
+    private List<String> suggestions = List.of();
+    private int shown = -1;
+
+    TabCompletion(JinjjaEngine engine) {
+        assert engine != null : "Engine cannot be null";
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the input with its last word completed, or the next suggestion if the input is the suggestion this
+     * method returned last time. The part of the word already typed keeps its case.
+     *
+     * @param input The text in the input box
+     * @return The completed text, or the input unchanged if there is nothing to suggest
+     */
+    String complete(String input) {
+        if (this.shown >= 0 && input.equals(this.suggestions.get(this.shown))) {
+            this.shown = (this.shown + 1) % this.suggestions.size();
+            return this.suggestions.get(this.shown);
+        }
+
+        int wordStart = input.lastIndexOf(' ') + 1;
+        String typed = input.substring(wordStart);
+        this.shown = -1;
+        if (typed.isEmpty()) {
+            return input;
+        }
+        boolean isCommand = wordStart == 0;
+        List<String> words = isCommand
+                ? this.engine.completeCommand(typed, SUGGESTION_LIMIT)
+                : this.engine.completeWord(typed, SUGGESTION_LIMIT);
+        if (words.isEmpty()) {
+            return input;
+        }
+        String before = input.substring(0, wordStart);
+        this.suggestions = words.stream()
+                .map(word->before + typed + word.substring(typed.length()) + (isCommand ? " " : ""))
+                .toList();
+        this.shown = 0;
+        return this.suggestions.get(0);
+    }
+}
@@ -0,0 +1,34 @@
+package jinjja.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one command, from the moment it starts running until its reply is rendered. Like every
+ * flight recorder event, it costs nothing beyond a disabled check unless a recording has it enabled.
+ */
+@Name("jinjja.Command")
+@Label("Command")
+@Description("A command run against the task list, including rendering its reply")
+@Category("Jinjja")
+@StackTrace(false)
+public class CommandEvent extends Event {
+    @Label("Command Type")
+    private String commandType;
+
+    @Label("Task Count")
+    @Description("Number of tasks in the list after the command ran")
+    private int taskCount;
+
+    public void setCommandType(String commandType) {
+        this.commandType = commandType;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+}
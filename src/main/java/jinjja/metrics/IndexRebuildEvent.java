@@ -0,0 +1,33 @@
+package jinjja.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a full rebuild of the task index, which a query or filtered listing does when the index
+ * has fallen behind the list. The stack trace shows which command needed it.
+ */
+@Name("jinjja.IndexRebuild")
+@Label("Index Rebuild")
+@Description("A full rebuild of the task index before a query")
+@Category("Jinjja")
+public class IndexRebuildEvent extends Event {
+    @Label("Task Count")
+    private int taskCount;
+
+    @Label("Reason")
+    @Description("invalidated (never built, or a completion change it could not follow), "
+            + "size changed, or completion changed")
+    private String reason;
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
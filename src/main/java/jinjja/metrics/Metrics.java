@@ -0,0 +1,202 @@
+package jinjja.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import jinjja.parser.CommandType;
+
+/**
+ * Counts and times what Jinjja spends its time on: parsing and running each type of command, and loading and saving
+ * the task list. One instance, {@link #global()}, is shared by the whole process, so that every interface reports
+ * into it and the {@code stats} command can show all of it.
+ *
+ * <p>Recording only touches lock-free counters, so it is safe from any thread and costs well under a microsecond.
+ */
+public class Metrics {
+    /** The system property naming a file to write the statistics to when Jinjja exits. */
+    public static final String DUMP_FILE_PROPERTY = "jinjja.stats.file";
+
+    private static final Metrics GLOBAL = new Metrics();
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<CommandType, LatencyHistogram> parseTimes = new EnumMap<>(CommandType.class);
+    private final Map<CommandType, LatencyHistogram> executeTimes = new EnumMap<>(CommandType.class);
+    private final LatencyHistogram loadTimes = new LatencyHistogram();
+    private final LatencyHistogram saveTimes = new LatencyHistogram();
+    private final LongAdder bytesLoaded = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Constructs an empty set of metrics. Jinjja itself records into {@link #global()}.
+     */
+    public Metrics() {
+        // Every histogram exists up front, so the maps are only ever read after construction
+        for (CommandType type : CommandType.values()) {
+            this.parseTimes.put(type, new LatencyHistogram());
+            this.executeTimes.put(type, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns the metrics shared by the whole process.
+     *
+     * @return The global metrics
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records how long it took to parse a command.
+     *
+     * @param type The type named by the command's first word
+     * @param nanos The time taken in nanoseconds
+     */
+    public void recordParse(CommandType type, long nanos) {
+        this.parseTimes.get(type).record(nanos);
+    }
+
+    /**
+     * Records how long it took to run a command and render its reply.
+     *
+     * @param type The type of the command
+     * @param nanos The time taken in nanoseconds
+     */
+    public void recordExecute(CommandType type, long nanos) {
+        this.executeTimes.get(type).record(nanos);
+    }
+
+    /**
+     * Records one load of the save file.
+     *
+     * @param nanos The time taken in nanoseconds
+     * @param bytes The size of the file read
+     */
+    public void recordLoad(long nanos, long bytes) {
+        this.loadTimes.record(nanos);
+        this.bytesLoaded.add(bytes);
+    }
+
+    /**
+     * Records one save of the task list.
+     *
+     * @param nanos The time taken in nanoseconds
+     * @param bytes The size of the file written
+     */
+    public void recordSave(long nanos, long bytes) {
+        this.saveTimes.record(nanos);
+        this.bytesSaved.add(bytes);
+    }
+
+    /**
+     * Returns the parse times of one type of command.
+     *
+     * @param type The type of command
+     * @return The histogram of parse times
+     */
+    public LatencyHistogram getParseTimes(CommandType type) {
+        return this.parseTimes.get(type);
+    }
+
+    /**
+     * Returns the run times of one type of command.
+     *
+     * @param type The type of command
+     * @return The histogram of run times
+     */
+    public LatencyHistogram getExecuteTimes(CommandType type) {
+        return this.executeTimes.get(type);
+    }
+
+    /**
+     * Returns the load times of the save file.
+     *
+     * @return The histogram of load times
+     */
+    public LatencyHistogram getLoadTimes() {
+        return this.loadTimes;
+    }
+
+    /**
+     * Returns the save times of the task list.
+     *
+     * @return The histogram of save times
+     */
+    public LatencyHistogram getSaveTimes() {
+        return this.saveTimes;
+    }
+
+    /**
+     * Formats the statistics as a table: for each type of command used, how often it ran and its latency
+     * percentiles, followed by a line each for loading and saving.
+     *
+     * @return The statistics, one line per row
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "%-9s %6s %9s %9s %9s %9s %9s%n", "command", "count", "p50 us",
+                "p90 us", "p99 us", "max us", "parse us"));
+        boolean hasCommands = false;
+        for (CommandType type : CommandType.values()) {
+            LatencyHistogram times = this.executeTimes.get(type);
+            if (times.getCount() == 0) {
+                continue;
+            }
+            hasCommands = true;
+            text.append(String.format(Locale.ROOT, "%-9s %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    type.name().toLowerCase(Locale.ROOT), times.getCount(), micros(times.getPercentile(0.5)),
+                    micros(times.getPercentile(0.9)), micros(times.getPercentile(0.99)), micros(times.getMax()),
+                    micros(this.parseTimes.get(type).getPercentile(0.5))));
+        }
+        if (!hasCommands) {
+            text.append("No commands run yet.").append(System.lineSeparator());
+        }
+        appendStorageLine(text, "Loads", this.loadTimes, this.bytesLoaded.sum());
+        appendStorageLine(text, "Saves", this.saveTimes, this.bytesSaved.sum());
+        return text.toString().stripTrailing();
+    }
+
+    private static void appendStorageLine(StringBuilder text, String name, LatencyHistogram times, long bytes) {
+        text.append(String.format(Locale.ROOT, "%s: %d, p50 %.1f ms, max %.1f ms, %d bytes in total%n", name,
+                times.getCount(), times.getPercentile(0.5) / NANOS_PER_MILLI, times.getMax() / NANOS_PER_MILLI,
+                bytes));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Writes the statistics to a file, replacing it.
+     *
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void dump(Path file) throws IOException {
+        Files.writeString(file, format() + System.lineSeparator());
+    }
+
+    /**
+     * Arranges for the global statistics to be written when the process exits, if the {@value #DUMP_FILE_PROPERTY}
+     * system property names a file. Does nothing otherwise.
+     */
+    public static void dumpOnExitIfRequested() {
+        String file = System.getProperty(DUMP_FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(()-> {
+            try {
+                GLOBAL.dump(Path.of(file));
+            } catch (IOException e) {
+                System.err.println("Error writing statistics to " + file + ": " + e.getMessage());
+            }
+        }));
+    }
+}
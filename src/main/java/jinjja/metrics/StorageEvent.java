@@ -0,0 +1,49 @@
+package jinjja.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one load or save of the save file or its snapshot.
+ */
+@Name("jinjja.Storage")
+@Label("Storage")
+@Description("A load or save of the task list")
+@Category("Jinjja")
+@StackTrace(false)
+public class StorageEvent extends Event {
+    @Label("Operation")
+    @Description("One of load, save, load records, save records or save index")
+    private String operation;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Task Count")
+    private int taskCount;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
@@ -4,7 +4,8 @@ package jinjja.parser;
  * Enum representing the different types of commands that the application can handle.
  */
 public enum CommandType {
-    BYE, LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, TENTATIVE, CONFIRM, DELETE, FIND, UNKNOWN;
+    BYE, LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, TENTATIVE, CONFIRM, DELETE, FIND, QUERY, EXPLAIN, STATS, MEMORY,
+    UNKNOWN;
 
     /**
      * Converts a string input to the corresponding CommandType enum.
@@ -1,5 +1,6 @@
 package jinjja.parser;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -12,14 +13,24 @@ import jinjja.command.Command;
 import jinjja.command.ConfirmCommand;
 import jinjja.command.DeleteCommand;
 import jinjja.command.ExitCommand;
+import jinjja.command.ExplainCommand;
 import jinjja.command.FindCommand;
 import jinjja.command.InvalidCommand;
 import jinjja.command.ListCommand;
 import jinjja.command.MarkCommand;
+import jinjja.command.MemoryCommand;
+import jinjja.command.QueryCommand;
+import jinjja.command.StatsCommand;
 import jinjja.command.UnmarkCommand;
+import jinjja.exception.InvalidQueryException;
+import jinjja.metrics.Metrics;
+import jinjja.query.Query;
+import jinjja.query.QueryParser;
 import jinjja.task.Deadline;
 import jinjja.task.Event;
 import jinjja.task.Task;
+import jinjja.task.TaskFilter;
+import jinjja.task.TaskType;
 import jinjja.task.Tentative;
 import jinjja.task.Todo;
 
@@ -56,6 +67,7 @@ public class Parser {
      */
     public static Command parse(String input) {
         assert input != null : "Input cannot be null";
+        long start = System.nanoTime();
 
         // Split input into parts using streams
         List<String> parts = Arrays.stream(input.split(" ")).collect(Collectors.toList());
@@ -68,11 +80,20 @@ public class Parser {
         assert action != null : "First part of input should not be null";
         CommandType commandType = CommandType.fromString(action);
 
+        Command command = parse(commandType, parts);
+        Metrics.global().recordParse(commandType, System.nanoTime() - start);
+        return command;
+    }
+
+    /**
+     * Parses the parts of a command whose type is already known from its first word.
+     */
+    private static Command parse(CommandType commandType, List<String> parts) {
         switch (commandType) {
         case BYE:
             return new ExitCommand();
         case LIST:
-            return new ListCommand();
+            return parseListCommand(parts);
         case MARK:
             return parseMarkCommand(parts);
         case UNMARK:
@@ -91,6 +112,14 @@ public class Parser {
             return parseDeleteCommand(parts);
         case FIND:
             return parseFindCommand(parts);
+        case QUERY:
+            // Fallthrough
+        case EXPLAIN:
+            return parseQueryCommand(parts, commandType == CommandType.EXPLAIN);
+        case STATS:
+            return new StatsCommand();
+        case MEMORY:
+            return new MemoryCommand();
         case UNKNOWN:
             // Fallthrough
         default:
@@ -98,6 +127,83 @@ public class Parser {
         }
     }
 
+    /**
+     * Parses a list command from the input parts. Format: list [page N] [/size K] [/done | /undone] [/type TYPE]
+     * [/before DATE [TIME]]. Without any of these options the whole list is shown, and other words are ignored.
+     *
+     * @param parts The input split into parts
+     * @return A ListCommand if valid, InvalidCommand otherwise
+     */
+    private static Command parseListCommand(List<String> parts) {
+        int pageNumber = 1;
+        int pageSize = ListCommand.DEFAULT_PAGE_SIZE;
+        Boolean isDone = null;
+        TaskType type = null;
+        LocalDateTime before = null;
+        boolean isPaged = false;
+
+        for (int i = 1; i < parts.size(); i++) {
+            String option = parts.get(i);
+            switch (option) {
+            case "page":
+                // Fallthrough
+            case "/size":
+                if (i + 1 >= parts.size()) {
+                    return new InvalidCommand("Missing number after " + option + ".");
+                }
+                int number;
+                try {
+                    number = Integer.parseInt(parts.get(++i));
+                } catch (NumberFormatException e) {
+                    return new InvalidCommand("Invalid number after " + option + ".");
+                }
+                if (number <= 0) {
+                    return new InvalidCommand("The number after " + option + " must be positive.");
+                }
+                if (option.equals("page")) {
+                    pageNumber = number;
+                } else {
+                    pageSize = number;
+                }
+                break;
+            case "/done":
+                // Fallthrough
+            case "/undone":
+                isDone = option.equals("/done");
+                break;
+            case "/type":
+                type = i + 1 < parts.size() ? TaskType.fromString(parts.get(++i)) : null;
+                if (type == null) {
+                    return new InvalidCommand("Task type must be one of todo, deadline, event or tentative.");
+                }
+                break;
+            case "/before":
+                if (i + 1 >= parts.size()) {
+                    return new InvalidCommand("Missing date after /before.");
+                }
+                try {
+                    boolean hasTime = i + 2 < parts.size() && parts.get(i + 2).contains(":");
+                    before = hasTime
+                            ? LocalDateTime.parse(parts.get(i + 1) + " " + parts.get(i + 2), DATETIME_FILE)
+                            : LocalDate.parse(parts.get(i + 1)).atStartOfDay();
+                    i += hasTime ? 2 : 1;
+                } catch (DateTimeParseException e) {
+                    return new InvalidCommand("Invalid date format. Please use yyyy-MM-dd or yyyy-MM-dd HH:mm.");
+                }
+                break;
+            default:
+                // Extraneous words are ignored, as they always have been
+                continue;
+            }
+            isPaged = true;
+        }
+
+        if (!isPaged) {
+            return new ListCommand();
+        }
+        return new ListCommand(new TaskFilter(isDone, type, before), pageNumber, pageSize);
+    }
+
     /**
      * Parses a mark command from the input parts.
      *
@@ -269,6 +375,26 @@ public class Parser {
         return new FindCommand(keyword);
     }
 
+    /**
+     * Parses a query or explain command from the input parts. Format: query QUERY, or explain [query] QUERY.
+     *
+     * @param parts The input split into parts
+     * @param isExplain true to describe the query's plan instead of running it
+     * @return A QueryCommand or ExplainCommand if the query is valid, InvalidCommand otherwise
+     */
+    private static Command parseQueryCommand(List<String> parts, boolean isExplain) {
+        int start = 1;
+        if (isExplain && parts.size() > 1 && parts.get(1).equalsIgnoreCase("query")) {
+            start = 2;
+        }
+        try {
+            Query query = QueryParser.parse(buildStringFromParts(parts, start, parts.size()));
+            return isExplain ? new ExplainCommand(query) : new QueryCommand(query);
+        } catch (InvalidQueryException e) {
+            return new InvalidCommand(e.getMessage());
+        }
+    }
+
     /**
      * Parses a tentative event command from the input parts. Format: tentative DESCRIPTION /slots /from DATE /to DATE
      * [/from DATE /to DATE ...]
@@ -0,0 +1,20 @@
+package jinjja.query;
+
+/**
+ * The ways a query plan can find its candidate tasks.
+ */
+public enum AccessPath {
+    FULL_SCAN("full scan"), DONE_BITSET("done bitset"), TYPE_BITSET("type bitset"), KEYWORD_INDEX("keyword index"),
+    TIME_INDEX("time index");
+
+    private final String description;
+
+    AccessPath(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return this.description;
+    }
+}
@@ -0,0 +1,29 @@
+package jinjja.query;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jinjja.task.Task;
+
+/**
+ * A condition satisfied when every one of its parts is.
+ *
+ * @param parts The conditions to combine, at least two
+ */
+public record AndCondition(List<Condition> parts) implements Condition {
+    @Override
+    public boolean matches(Task task) {
+        for (Condition part : this.parts) {
+            if (!part.matches(task)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return this.parts.stream().map(part->part instanceof OrCondition ? "(" + part + ")" : part.toString())
+                .collect(Collectors.joining(" and "));
+    }
+}
@@ -0,0 +1,52 @@
+package jinjja.query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the first k items, in a given order, out of a stream of items. The heap's head is the worst item kept, so
+ * each new item costs one comparison when it does not make the cut and O(log k) when it does, and memory stays
+ * proportional to k rather than to the number of items seen.
+ *
+ * @param <T> The type of item
+ */
+class BoundedHeap<T> {
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final int capacity;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * Constructs an empty heap that keeps the first {@code capacity} items in the given order.
+     */
+    BoundedHeap(int capacity, Comparator<? super T> order) {
+        assert capacity > 0 : "Capacity should be positive";
+        this.capacity = capacity;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.min(capacity, MAX_INITIAL_CAPACITY) + 1, order.reversed());
+    }
+
+    /**
+     * Offers an item, keeping it if it is among the first k seen so far.
+     */
+    void offer(T item) {
+        if (this.heap.size() < this.capacity) {
+            this.heap.add(item);
+        } else if (this.order.compare(item, this.heap.peek()) < 0) {
+            this.heap.poll();
+            this.heap.add(item);
+        }
+    }
+
+    /**
+     * Returns the kept items in order.
+     */
+    List<T> toSortedList() {
+        List<T> items = new ArrayList<>(this.heap);
+        items.sort(this.order);
+        return items;
+    }
+}
@@ -0,0 +1,54 @@
+package jinjja.query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jinjja.task.Keywords;
+import jinjja.task.Task;
+import jinjja.task.TaskType;
+
+/**
+ * A condition comparing one field of a task with a value, such as {@code from >= 2025-01-01}. The {@code ~}
+ * operator matches descriptions that contain every word of the value.
+ *
+ * @param field The field to read from each task
+ * @param operator The comparison to apply
+ * @param value The value to compare with, already parsed for the field
+ */
+public record Comparison(QueryField field, Operator operator, Comparable<?> value) implements Condition {
+    /**
+     * Returns the words a {@code ~} comparison looks for.
+     *
+     * @return The lowercase words of the value
+     */
+    public List<String> keywords() {
+        return Keywords.of((String) this.value);
+    }
+
+    @Override
+    public boolean matches(Task task) {
+        Comparable<?> taskValue = this.field.valueOf(task);
+        if (taskValue == null) {
+            return false;
+        }
+        if (this.operator == Operator.CONTAINS) {
+            return Keywords.of((String) taskValue).containsAll(keywords());
+        }
+        return this.operator.accepts(this.field.compare(taskValue, this.value));
+    }
+
+    @Override
+    public String toString() {
+        String text;
+        if (this.value instanceof String) {
+            text = "\"" + this.value + "\"";
+        } else if (this.value instanceof TaskType) {
+            text = ((TaskType) this.value).getCode();
+        } else if (this.value instanceof LocalDateTime) {
+            text = this.value.toString().replace('T', ' ');
+        } else {
+            text = this.value.toString();
+        }
+        return this.field + " " + this.operator.getSymbol() + " " + text;
+    }
+}
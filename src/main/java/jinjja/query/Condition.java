@@ -0,0 +1,17 @@
+package jinjja.query;
+
+import jinjja.task.Task;
+
+/**
+ * A node of a query's condition tree. Conditions print back as query text, which {@code explain} uses to show how
+ * a query was understood.
+ */
+public interface Condition {
+    /**
+     * Checks a single task against this condition.
+     *
+     * @param task The task to check
+     * @return true if the task satisfies the condition
+     */
+    boolean matches(Task task);
+}
@@ -0,0 +1,79 @@
+package jinjja.query;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+import jinjja.task.IndexedTasks;
+import jinjja.task.TaskType;
+
+/**
+ * One way of using an index to find the candidates for a comparison, with the planner's estimate of how many tasks
+ * it yields.
+ *
+ * @param path The index used
+ * @param driver The comparison the index answers
+ * @param estimatedRows How many candidate tasks the index is expected to yield
+ * @param isExact true if every candidate satisfies the driver, so it need not be checked again
+ */
+record IndexAccess(AccessPath path, Comparison driver, int estimatedRows, boolean isExact) {
+    /**
+     * Returns the positions of the candidate tasks.
+     */
+    BitSet fetch(IndexedTasks view) {
+        switch (this.path) {
+        case DONE_BITSET:
+            return includeDone() ? view.done() : complement(view.done(), view.size());
+        case TYPE_BITSET:
+            BitSet ofType = view.ofType((TaskType) this.driver.value());
+            return this.driver.operator() == Operator.EQUAL ? ofType : complement(ofType, view.size());
+        case KEYWORD_INDEX:
+            return view.withKeywords(this.driver.keywords());
+        case TIME_INDEX:
+            BitSet inRange = view.inRange(this.driver.field().getTimeKey(), lowerBound(), isLowerInclusive(),
+                    upperBound(), isUpperInclusive());
+            if (this.driver.field() != QueryField.BY) {
+                // Confirmed tentative slots also have from and to times, but are not in the time index
+                inRange.or(view.ofType(TaskType.TENTATIVE));
+            }
+            return inRange;
+        default:
+            throw new IllegalStateException("A full scan has no index to fetch from");
+        }
+    }
+
+    boolean includeDone() {
+        return (this.driver.operator() == Operator.EQUAL) == (Boolean) this.driver.value();
+    }
+
+    LocalDateTime lowerBound() {
+        Operator operator = this.driver.operator();
+        boolean hasLower = operator == Operator.GREATER || operator == Operator.GREATER_OR_EQUAL
+                || operator == Operator.EQUAL;
+        return hasLower ? (LocalDateTime) this.driver.value() : null;
+    }
+
+    LocalDateTime upperBound() {
+        Operator operator = this.driver.operator();
+        boolean hasUpper = operator == Operator.LESS || operator == Operator.LESS_OR_EQUAL
+                || operator == Operator.EQUAL;
+        return hasUpper ? (LocalDateTime) this.driver.value() : null;
+    }
+
+    boolean isLowerInclusive() {
+        return this.driver.operator() != Operator.GREATER;
+    }
+
+    boolean isUpperInclusive() {
+        return this.driver.operator() != Operator.LESS;
+    }
+
+    private static BitSet complement(BitSet bits, int size) {
+        bits.flip(0, size);
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        return this.path + " on " + this.driver + " (about " + this.estimatedRows + " tasks)";
+    }
+}
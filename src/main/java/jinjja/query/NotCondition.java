@@ -0,0 +1,20 @@
+package jinjja.query;
+
+import jinjja.task.Task;
+
+/**
+ * A condition satisfied when its inner condition is not.
+ *
+ * @param inner The condition to negate
+ */
+public record NotCondition(Condition inner) implements Condition {
+    @Override
+    public boolean matches(Task task) {
+        return !this.inner.matches(task);
+    }
+
+    @Override
+    public String toString() {
+        return this.inner instanceof Comparison ? "not " + this.inner : "not (" + this.inner + ")";
+    }
+}
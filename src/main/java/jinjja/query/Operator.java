@@ -0,0 +1,68 @@
+package jinjja.query;
+
+/**
+ * The comparison operators of the query language.
+ */
+public enum Operator {
+    EQUAL("="), NOT_EQUAL("!="), LESS("<"), LESS_OR_EQUAL("<="), GREATER(">"), GREATER_OR_EQUAL(">="),
+    CONTAINS("~");
+
+    private final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return this.symbol;
+    }
+
+    /**
+     * Returns the operator written with the given symbol.
+     *
+     * @param symbol The symbol, e.g. "&gt;="
+     * @return The operator, or null if there is none
+     */
+    public static Operator fromSymbol(String symbol) {
+        for (Operator operator : values()) {
+            if (operator.symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if this operator orders values rather than just comparing them for equality.
+     *
+     * @return true for &lt;, &lt;=, &gt; and &gt;=
+     */
+    public boolean isOrdering() {
+        return this == LESS || this == LESS_OR_EQUAL || this == GREATER || this == GREATER_OR_EQUAL;
+    }
+
+    /**
+     * Applies this operator to the result of comparing a task's value with the query's value.
+     *
+     * @param comparison A negative number, zero or a positive number, as returned by {@code compareTo}
+     * @return true if the comparison satisfies this operator
+     */
+    boolean accepts(int comparison) {
+        switch (this) {
+        case EQUAL:
+            return comparison == 0;
+        case NOT_EQUAL:
+            return comparison != 0;
+        case LESS:
+            return comparison < 0;
+        case LESS_OR_EQUAL:
+            return comparison <= 0;
+        case GREATER:
+            return comparison > 0;
+        case GREATER_OR_EQUAL:
+            return comparison >= 0;
+        default:
+            throw new IllegalStateException("Operator " + this + " does not compare values");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package jinjja.query;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jinjja.task.Task;
+
+/**
+ * A condition satisfied when any one of its parts is.
+ *
+ * @param parts The conditions to combine, at least two
+ */
+public record OrCondition(List<Condition> parts) implements Condition {
+    @Override
+    public boolean matches(Task task) {
+        for (Condition part : this.parts) {
+            if (part.matches(task)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return this.parts.stream().map(Condition::toString).collect(Collectors.joining(" or "));
+    }
+}
@@ -0,0 +1,34 @@
+package jinjja.query;
+
+/**
+ * A parsed query: which tasks to select, how to order them and how many to return.
+ *
+ * @param where The condition tasks must satisfy, or null to select every task
+ * @param sortField The field to order by, or null to keep list order
+ * @param isDescending true to order from the largest value down
+ * @param limit The maximum number of tasks to return
+ */
+public record Query(Condition where, QueryField sortField, boolean isDescending, int limit) {
+    /** The limit of a query that returns every matching task. */
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    public boolean hasLimit() {
+        return this.limit != NO_LIMIT;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (this.where != null) {
+            sb.append(this.where);
+        }
+        if (this.sortField != null) {
+            sb.append(sb.length() > 0 ? " " : "").append("sort by ").append(this.sortField)
+                    .append(this.isDescending ? " desc" : " asc");
+        }
+        if (hasLimit()) {
+            sb.append(sb.length() > 0 ? " " : "").append("limit ").append(this.limit);
+        }
+        return sb.length() > 0 ? sb.toString() : "(all tasks)";
+    }
+}
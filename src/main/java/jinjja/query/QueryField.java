@@ -0,0 +1,187 @@
+package jinjja.query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import jinjja.exception.InvalidQueryException;
+import jinjja.task.Deadline;
+import jinjja.task.Event;
+import jinjja.task.IndexedTasks.TimeKey;
+import jinjja.task.Task;
+import jinjja.task.TaskType;
+import jinjja.task.Tentative;
+
+/**
+ * The task fields a query can filter and sort on. Each field reads its value through the task's own accessors; a
+ * task that does not have the field, such as a todo asked for its deadline, has no value and never satisfies a
+ * comparison on it.
+ */
+public enum QueryField {
+    DONE("done"), TYPE("type"), DESCRIPTION("description"), BY("by"), FROM("from"), TO("to");
+
+    private static final DateTimeFormatter DATETIME_INPUT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final String name;
+
+    QueryField(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the field with the given name, in any case. "desc" is accepted for the description.
+     *
+     * @param name The field name
+     * @return The field, or null if there is none
+     */
+    public static QueryField fromString(String name) {
+        if (name.equalsIgnoreCase("desc")) {
+            return DESCRIPTION;
+        }
+        for (QueryField field : values()) {
+            if (field.name.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if this field holds a time, and so can be compared with &lt;, &lt;=, &gt; and &gt;=.
+     *
+     * @return true for by, from and to
+     */
+    public boolean isTime() {
+        return this == BY || this == FROM || this == TO;
+    }
+
+    /**
+     * Returns the time index that holds this field.
+     *
+     * @return The time key, or null if this field is not a time
+     */
+    public TimeKey getTimeKey() {
+        switch (this) {
+        case BY:
+            return TimeKey.BY;
+        case FROM:
+            return TimeKey.FROM;
+        case TO:
+            return TimeKey.TO;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the operator can be applied to this field.
+     *
+     * @param operator The operator
+     * @return true if the combination is meaningful
+     */
+    public boolean supports(Operator operator) {
+        if (operator == Operator.CONTAINS) {
+            return this == DESCRIPTION;
+        }
+        return !operator.isOrdering() || isTime();
+    }
+
+    /**
+     * Returns the value of this field for a task.
+     *
+     * @param task The task
+     * @return The value, or null if the task does not have this field
+     */
+    public Comparable<?> valueOf(Task task) {
+        switch (this) {
+        case DONE:
+            return task.getIsDone();
+        case TYPE:
+            return TaskType.of(task);
+        case DESCRIPTION:
+            return task.getDescription();
+        case BY:
+            return task instanceof Deadline ? ((Deadline) task).getBy() : null;
+        case FROM:
+            if (task instanceof Event) {
+                return ((Event) task).getFrom();
+            }
+            return confirmedSlotOf(task) == null ? null : confirmedSlotOf(task).getFrom();
+        case TO:
+            if (task instanceof Event) {
+                return ((Event) task).getTo();
+            }
+            return confirmedSlotOf(task) == null ? null : confirmedSlotOf(task).getTo();
+        default:
+            throw new IllegalStateException("Unknown field " + this);
+        }
+    }
+
+    private static Tentative.TimeSlot confirmedSlotOf(Task task) {
+        return task instanceof Tentative ? ((Tentative) task).getConfirmedSlot() : null;
+    }
+
+    /**
+     * Parses a literal written in a query into a value of this field.
+     *
+     * @param literal The literal text. Times are yyyy-MM-dd, meaning the start of that day, or yyyy-MM-dd HH:mm
+     * @return The value
+     * @throws InvalidQueryException if the literal is not a valid value of this field
+     */
+    public Comparable<?> parseValue(String literal) {
+        switch (this) {
+        case DONE:
+            if (literal.equalsIgnoreCase("true") || literal.equalsIgnoreCase("false")) {
+                return Boolean.parseBoolean(literal);
+            }
+            throw new InvalidQueryException("done must be true or false, not '" + literal + "'.");
+        case TYPE:
+            TaskType type = TaskType.fromString(literal);
+            if (type == null) {
+                throw new InvalidQueryException("type must be one of todo, deadline, event or tentative (or T, D, E,"
+                        + " TE), not '" + literal + "'.");
+            }
+            return type;
+        case DESCRIPTION:
+            return literal;
+        default:
+            return parseTime(literal);
+        }
+    }
+
+    private LocalDateTime parseTime(String literal) {
+        try {
+            if (literal.contains(" ")) {
+                return LocalDateTime.parse(literal, DATETIME_INPUT);
+            }
+            return LocalDate.parse(literal).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new InvalidQueryException(this.name + " must be a date as yyyy-MM-dd or yyyy-MM-dd HH:mm, not '"
+                    + literal + "'.");
+        }
+    }
+
+    /**
+     * Compares two values of this field. Descriptions compare without regard to case.
+     *
+     * @return A negative number, zero or a positive number as the first value is less than, equal to or greater
+     *     than the second
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    int compare(Comparable<?> first, Comparable<?> second) {
+        if (this == DESCRIPTION) {
+            return ((String) first).compareToIgnoreCase((String) second);
+        }
+        return ((Comparable) first).compareTo(second);
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
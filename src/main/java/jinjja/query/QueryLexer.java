@@ -0,0 +1,70 @@
+package jinjja.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jinjja.exception.InvalidQueryException;
+
+/**
+ * Splits query text into tokens. Words run until whitespace, a parenthesis, a quote or an operator character, so
+ * {@code done=false} and {@code done = false} lex the same way. Quoted strings may contain any of these.
+ */
+class QueryLexer {
+    private static final String OPERATOR_CHARS = "=!<>~";
+
+    private QueryLexer() {
+    }
+
+    /**
+     * Returns the tokens in the text, ending with an {@link Token.Kind#END} token.
+     *
+     * @param text The query text
+     * @return The tokens
+     * @throws InvalidQueryException if the text has an unterminated string or an unknown operator
+     */
+    static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(Token.Kind.LEFT_PAREN, "(", i++));
+            } else if (c == ')') {
+                tokens.add(new Token(Token.Kind.RIGHT_PAREN, ")", i++));
+            } else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new InvalidQueryException("Missing closing quote for the string at position " + (i + 1)
+                            + ".");
+                }
+                tokens.add(new Token(Token.Kind.STRING, text.substring(i + 1, end), i));
+                i = end + 1;
+            } else if (OPERATOR_CHARS.indexOf(c) >= 0) {
+                int start = i;
+                while (i < text.length() && OPERATOR_CHARS.indexOf(text.charAt(i)) >= 0) {
+                    i++;
+                }
+                String symbol = text.substring(start, i);
+                if (Operator.fromSymbol(symbol) == null) {
+                    throw new InvalidQueryException("Unknown operator '" + symbol + "' at position " + (start + 1)
+                            + ".");
+                }
+                tokens.add(new Token(Token.Kind.OPERATOR, symbol, start));
+            } else {
+                int start = i;
+                while (i < text.length() && isWordChar(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(Token.Kind.WORD, text.substring(start, i), start));
+            }
+        }
+        tokens.add(new Token(Token.Kind.END, "", text.length()));
+        return tokens;
+    }
+
+    private static boolean isWordChar(char c) {
+        return !Character.isWhitespace(c) && c != '(' && c != ')' && c != '"' && OPERATOR_CHARS.indexOf(c) < 0;
+    }
+}
@@ -0,0 +1,171 @@
+package jinjja.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jinjja.exception.InvalidQueryException;
+
+/**
+ * Parses query text into a {@link Query}. The grammar, with keywords in any case, is:
+ *
+ * <pre>
+ * query      := [condition] ["sort" "by" FIELD ["asc" | "desc"]] ["limit" NUMBER]
+ * condition  := term ("or" term)*
+ * term       := factor ("and" factor)*
+ * factor     := "not" factor | "(" condition ")" | FIELD OPERATOR value
+ * value      := WORD [TIME] | "quoted string"
+ * </pre>
+ *
+ * <p>For example: {@code done=false and type=E and from>=2025-01-01 sort by from limit 20}.
+ */
+public class QueryParser {
+    private final List<Token> tokens;
+    private int next;
+
+    private QueryParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses the text of a query.
+     *
+     * @param text The query text, without the leading command word
+     * @return The parsed query
+     * @throws InvalidQueryException if the text is not a valid query
+     */
+    public static Query parse(String text) {
+        assert text != null : "Query text cannot be null";
+        return new QueryParser(QueryLexer.tokenize(text)).parseQuery();
+    }
+
+    private Query parseQuery() {
+        Condition where = null;
+        if (!peek().isKeyword("sort") && !peek().isKeyword("limit") && peek().kind() != Token.Kind.END) {
+            where = parseOr();
+        }
+
+        QueryField sortField = null;
+        boolean isDescending = false;
+        if (peek().isKeyword("sort")) {
+            advance();
+            expectKeyword("by");
+            sortField = parseField();
+            if (peek().isKeyword("asc") || peek().isKeyword("desc")) {
+                isDescending = advance().isKeyword("desc");
+            }
+        }
+
+        int limit = Query.NO_LIMIT;
+        if (peek().isKeyword("limit")) {
+            advance();
+            Token number = advance();
+            try {
+                limit = Integer.parseInt(number.text());
+            } catch (NumberFormatException e) {
+                throw error("Expected a number after limit", number);
+            }
+            if (limit <= 0) {
+                throw error("The limit must be positive", number);
+            }
+        }
+
+        if (peek().kind() != Token.Kind.END) {
+            throw error("Unexpected '" + peek().text() + "'", peek());
+        }
+        return new Query(where, sortField, isDescending, limit);
+    }
+
+    private Condition parseOr() {
+        List<Condition> parts = new ArrayList<>();
+        parts.add(parseAnd());
+        while (peek().isKeyword("or")) {
+            advance();
+            parts.add(parseAnd());
+        }
+        return parts.size() == 1 ? parts.get(0) : new OrCondition(List.copyOf(parts));
+    }
+
+    private Condition parseAnd() {
+        List<Condition> parts = new ArrayList<>();
+        parts.add(parseFactor());
+        while (peek().isKeyword("and")) {
+            advance();
+            parts.add(parseFactor());
+        }
+        return parts.size() == 1 ? parts.get(0) : new AndCondition(List.copyOf(parts));
+    }
+
+    private Condition parseFactor() {
+        if (peek().isKeyword("not")) {
+            advance();
+            return new NotCondition(parseFactor());
+        }
+        if (peek().kind() == Token.Kind.LEFT_PAREN) {
+            advance();
+            Condition inner = parseOr();
+            if (peek().kind() != Token.Kind.RIGHT_PAREN) {
+                throw error("Expected ')'", peek());
+            }
+            advance();
+            return inner;
+        }
+        return parseComparison();
+    }
+
+    private Condition parseComparison() {
+        QueryField field = parseField();
+        Token operatorToken = advance();
+        if (operatorToken.kind() != Token.Kind.OPERATOR) {
+            throw error("Expected an operator after " + field, operatorToken);
+        }
+        Operator operator = Operator.fromSymbol(operatorToken.text());
+        if (!field.supports(operator)) {
+            throw error(field + " cannot be compared with " + operator.getSymbol(), operatorToken);
+        }
+
+        Token valueToken = advance();
+        if (valueToken.kind() != Token.Kind.WORD && valueToken.kind() != Token.Kind.STRING) {
+            throw error("Expected a value after " + field + " " + operator.getSymbol(), valueToken);
+        }
+        String literal = valueToken.text();
+        if (field.isTime() && valueToken.kind() == Token.Kind.WORD && peek().kind() == Token.Kind.WORD
+                && peek().text().matches("\\d{1,2}:\\d{2}")) {
+            literal = literal + " " + advance().text();
+        }
+        return new Comparison(field, operator, field.parseValue(literal));
+    }
+
+    private QueryField parseField() {
+        Token token = advance();
+        QueryField field = token.kind() == Token.Kind.WORD ? QueryField.fromString(token.text()) : null;
+        if (field == null) {
+            throw error("Expected a field (done, type, description, by, from or to)", token);
+        }
+        return field;
+    }
+
+    private void expectKeyword(String keyword) {
+        Token token = advance();
+        if (!token.isKeyword(keyword)) {
+            throw error("Expected '" + keyword + "'", token);
+        }
+    }
+
+    private Token peek() {
+        return this.tokens.get(this.next);
+    }
+
+    private Token advance() {
+        Token token = this.tokens.get(this.next);
+        if (token.kind() != Token.Kind.END) {
+            this.next++;
+        }
+        return token;
+    }
+
+    private static InvalidQueryException error(String message, Token token) {
+        String where = token.kind() == Token.Kind.END ? "at the end of the query" : "at position "
+                + (token.position() + 1);
+        return new InvalidQueryException(message + " " + where + ".");
+    }
+}
@@ -0,0 +1,155 @@
+package jinjja.query;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+
+import jinjja.task.IndexedTasks;
+import jinjja.task.Task;
+import jinjja.task.TaskEntry;
+
+/**
+ * A query together with the way the planner chose to run it. A plan is made for one state of the task list and
+ * should be executed against that same state.
+ */
+public class QueryPlan {
+    /** How many tasks are visited between checks for the running thread being interrupted. */
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private final Query query;
+    private final int taskCount;
+    private final IndexAccess access;
+    private final List<IndexAccess> alternatives;
+    private final Condition residual;
+
+    QueryPlan(Query query, int taskCount, IndexAccess access, List<IndexAccess> alternatives, Condition residual) {
+        this.query = query;
+        this.taskCount = taskCount;
+        this.access = access;
+        this.alternatives = alternatives;
+        this.residual = residual;
+    }
+
+    public AccessPath getAccessPath() {
+        return this.access == null ? AccessPath.FULL_SCAN : this.access.path();
+    }
+
+    /**
+     * Runs the plan and returns the matching tasks, numbered by their positions in the full list.
+     *
+     * @param view The indexed task list the plan was made for
+     * @return The matching tasks, in the query's order and no more than its limit
+     * @throws CancellationException if the running thread is interrupted, such as by the user cancelling the query
+     */
+    public List<TaskEntry> execute(IndexedTasks view) {
+        BitSet candidates = this.access == null ? null : this.access.fetch(view);
+        QueryField sortField = this.query.sortField();
+        int limit = this.query.limit();
+
+        List<TaskEntry> inListOrder = new ArrayList<>();
+        List<Ranked> ranked = new ArrayList<>();
+        BoundedHeap<Ranked> topK = sortField != null && this.query.hasLimit()
+                ? new BoundedHeap<>(limit, rankOrder(sortField, this.query.isDescending()))
+                : null;
+
+        int position = candidates == null ? 0 : candidates.nextSetBit(0);
+        for (int visited = 0; position >= 0 && position < view.size(); visited++) {
+            if (visited % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Query cancelled");
+            }
+            Task task = view.getTask(position);
+            if (this.residual == null || this.residual.matches(task)) {
+                TaskEntry entry = new TaskEntry(position + 1, task);
+                if (sortField == null) {
+                    inListOrder.add(entry);
+                    if (inListOrder.size() == limit) {
+                        break;
+                    }
+                } else if (topK != null) {
+                    topK.offer(new Ranked(sortField.valueOf(task), entry));
+                } else {
+                    ranked.add(new Ranked(sortField.valueOf(task), entry));
+                }
+            }
+            position = candidates == null ? position + 1 : candidates.nextSetBit(position + 1);
+        }
+
+        if (sortField == null) {
+            return inListOrder;
+        }
+        if (topK != null) {
+            ranked = topK.toSortedList();
+        } else {
+            ranked.sort(rankOrder(sortField, this.query.isDescending()));
+        }
+        return ranked.stream().map(Ranked::entry).collect(Collectors.toList());
+    }
+
+    /**
+     * Orders tasks by their sort key, with tasks that lack the field last in either direction, and ties in list
+     * order.
+     */
+    private static Comparator<Ranked> rankOrder(QueryField field, boolean isDescending) {
+        Comparator<Comparable<?>> byValue = field::compare;
+        if (isDescending) {
+            byValue = byValue.reversed();
+        }
+        return Comparator.comparing(Ranked::key, Comparator.nullsLast(byValue))
+                .thenComparingInt(ranked->ranked.entry().number());
+    }
+
+    /**
+     * Describes the plan, one step per line.
+     *
+     * @return The description shown by {@code explain}
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Query: ").append(this.query);
+        if (this.access == null) {
+            sb.append("\nAccess: full scan of ").append(this.taskCount).append(" tasks");
+        } else {
+            sb.append("\nAccess: ").append(this.access.path()).append(" on ").append(this.access.driver())
+                    .append(", about ").append(this.access.estimatedRows()).append(" of ").append(this.taskCount)
+                    .append(" tasks");
+        }
+        List<String> others = new ArrayList<>();
+        if (this.access != null) {
+            others.add("full scan (" + this.taskCount + " tasks)");
+        }
+        for (IndexAccess alternative : this.alternatives) {
+            if (alternative != this.access) {
+                others.add(alternative.toString());
+            }
+        }
+        if (!others.isEmpty()) {
+            sb.append("\nRejected: ").append(String.join(", ", others));
+        }
+        sb.append("\nFilter: ").append(this.residual == null ? "none" : this.residual);
+
+        QueryField sortField = this.query.sortField();
+        String direction = this.query.isDescending() ? " desc" : " asc";
+        sb.append("\nOrder: ");
+        if (sortField == null) {
+            sb.append("list order");
+            if (this.query.hasLimit()) {
+                sb.append(", stopping after ").append(this.query.limit()).append(" matches");
+            }
+        } else if (this.query.hasLimit()) {
+            sb.append("top ").append(this.query.limit()).append(" by ").append(sortField).append(direction)
+                    .append(", kept in a bounded heap");
+        } else {
+            sb.append("all matches sorted by ").append(sortField).append(direction);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A matching task with its sort key, read once.
+     */
+    private record Ranked(Comparable<?> key, TaskEntry entry) {
+    }
+}
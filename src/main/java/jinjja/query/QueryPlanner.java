@@ -0,0 +1,114 @@
+package jinjja.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jinjja.task.IndexedTasks;
+import jinjja.task.TaskType;
+
+/**
+ * Chooses how to run a query against an indexed task list. Every top-level conjunct that an index can answer is
+ * costed from the index's own counts; the cheapest one drives the query and the rest of the condition is checked on
+ * its candidates. A query with no usable conjunct, or whose best index would yield nearly every task, is answered
+ * with a full scan.
+ *
+ * <p>A full scan costs one condition check per task. An index costs a pass over its bitset, about one operation per
+ * 64 tasks, plus one check per candidate.
+ */
+public class QueryPlanner {
+    private static final int TASKS_PER_BITSET_WORD = 64;
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * Plans a query against the current contents of an indexed task list.
+     *
+     * @param query The query to plan
+     * @param view The indexed task list the plan will run against
+     * @return The chosen plan
+     */
+    public static QueryPlan plan(Query query, IndexedTasks view) {
+        assert query != null : "Query cannot be null";
+        int taskCount = view.size();
+        List<Condition> conjuncts = conjunctsOf(query.where());
+
+        List<IndexAccess> candidates = new ArrayList<>();
+        for (Condition conjunct : conjuncts) {
+            if (conjunct instanceof Comparison) {
+                IndexAccess access = accessFor((Comparison) conjunct, view);
+                if (access != null) {
+                    candidates.add(access);
+                }
+            }
+        }
+
+        IndexAccess chosen = null;
+        long bestCost = taskCount;
+        for (IndexAccess access : candidates) {
+            long cost = (long) taskCount / TASKS_PER_BITSET_WORD + access.estimatedRows();
+            if (cost < bestCost) {
+                bestCost = cost;
+                chosen = access;
+            }
+        }
+
+        Condition residual = query.where();
+        if (chosen != null && chosen.isExact()) {
+            List<Condition> rest = new ArrayList<>(conjuncts);
+            rest.remove(chosen.driver());
+            residual = rest.isEmpty() ? null : rest.size() == 1 ? rest.get(0) : new AndCondition(List.copyOf(rest));
+        }
+        return new QueryPlan(query, taskCount, chosen, candidates, residual);
+    }
+
+    private static List<Condition> conjunctsOf(Condition where) {
+        if (where == null) {
+            return List.of();
+        }
+        if (where instanceof AndCondition) {
+            return ((AndCondition) where).parts();
+        }
+        return List.of(where);
+    }
+
+    /**
+     * Returns the index that can answer a comparison, with its estimated yield, or null if no index can.
+     */
+    private static IndexAccess accessFor(Comparison comparison, IndexedTasks view) {
+        Operator operator = comparison.operator();
+        switch (comparison.field()) {
+        case DONE:
+            boolean isDone = (operator == Operator.EQUAL) == (Boolean) comparison.value();
+            int doneCount = view.countDone();
+            return new IndexAccess(AccessPath.DONE_BITSET, comparison,
+                    isDone ? doneCount : view.size() - doneCount, true);
+        case TYPE:
+            int typeCount = view.countOfType((TaskType) comparison.value());
+            return new IndexAccess(AccessPath.TYPE_BITSET, comparison,
+                    operator == Operator.EQUAL ? typeCount : view.size() - typeCount, true);
+        case DESCRIPTION:
+            if (operator == Operator.NOT_EQUAL || comparison.keywords().isEmpty()) {
+                return null;
+            }
+            int fewest = Integer.MAX_VALUE;
+            for (String keyword : comparison.keywords()) {
+                fewest = Math.min(fewest, view.countWithKeyword(keyword));
+            }
+            // An exact description match has all of its words, so the keyword index can narrow it down too
+            return new IndexAccess(AccessPath.KEYWORD_INDEX, comparison, fewest, operator == Operator.CONTAINS);
+        default:
+            if (operator == Operator.NOT_EQUAL) {
+                return null;
+            }
+            IndexAccess probe = new IndexAccess(AccessPath.TIME_INDEX, comparison, 0, false);
+            int inRange = view.countInRange(comparison.field().getTimeKey(), probe.lowerBound(),
+                    probe.isLowerInclusive(), probe.upperBound(), probe.isUpperInclusive());
+            if (comparison.field() == QueryField.BY) {
+                return new IndexAccess(AccessPath.TIME_INDEX, comparison, inRange, true);
+            }
+            return new IndexAccess(AccessPath.TIME_INDEX, comparison,
+                    inRange + view.countOfType(TaskType.TENTATIVE), false);
+        }
+    }
+}
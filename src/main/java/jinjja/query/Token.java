@@ -0,0 +1,24 @@
+package jinjja.query;
+
+/**
+ * A token of the query language.
+ *
+ * @param kind The kind of token
+ * @param text The text of the token, without quotes for strings
+ * @param position The 0-based position of the token in the query text
+ */
+record Token(Kind kind, String text, int position) {
+    /**
+     * The kinds of token in the query language.
+     */
+    enum Kind {
+        WORD, STRING, OPERATOR, LEFT_PAREN, RIGHT_PAREN, END
+    }
+
+    /**
+     * Checks if this token is a word equal to the given keyword, ignoring case.
+     */
+    boolean isKeyword(String keyword) {
+        return this.kind == Kind.WORD && this.text.equalsIgnoreCase(keyword);
+    }
+}
@@ -0,0 +1,254 @@
+package jinjja.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import jinjja.command.Command;
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.Parser;
+
+/**
+ * Serves one shared task list to many local clients over a line-based protocol. Each line a client sends is run
+ * through {@link Parser#parse(String)} and {@link Command#run}, and the reply is sent back followed by a
+ * {@link SocketUi#END_OF_REPLY} line. A {@code bye} ends that client's session but leaves the server running.
+ *
+ * <p>All sockets are non-blocking and multiplexed on a single selector thread, so hundreds of idle clients cost no
+ * threads, and commands from different clients are naturally applied one at a time.
+ *
+ * <p>A client is only read from while its replies are being taken. Once a reply cannot be sent straight away, the
+ * rest of its commands wait until the reply has gone, so a client that sends commands without reading the replies
+ * cannot make the server hold them all.
+ */
+public class JinjjaServer implements Closeable {
+    public static final int DEFAULT_PORT = 4921;
+
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final JinjjaEngine engine;
+    private final SocketUi ui = new SocketUi();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean isRunning;
+
+    /**
+     * Per-client state: the bytes received but not run yet, the bytes of a partially received line and the replies
+     * still waiting to be written.
+     */
+    private static class Connection {
+        private final ByteBuffer unread = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+        private final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+        private boolean isClosing;
+    }
+
+    /**
+     * Constructs a server over the given engine.
+     *
+     * @param engine The engine whose task list is shared by all clients
+     */
+    public JinjjaServer(JinjjaEngine engine) {
+        assert engine != null : "Engine cannot be null";
+        this.engine = engine;
+    }
+
+    /**
+     * Binds the server to the given port on the loopback interface.
+     *
+     * @param port The port to listen on, or 0 to pick a free port
+     * @return The port actually bound
+     * @throws IOException If the port cannot be bound
+     */
+    public int bind(int port) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.isRunning = true;
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Runs the selector loop until {@link #close()} is called. Must be called after {@link #bind(int)}.
+     *
+     * @throws IOException If the selector fails
+     */
+    public void serve() throws IOException {
+        assert this.selector != null : "Server should be bound before serving";
+        while (this.isRunning) {
+            this.selector.select();
+            Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    handleKey(key);
+                } catch (IOException e) {
+                    closeQuietly(key);
+                }
+            }
+        }
+        closeAll();
+    }
+
+    /**
+     * Stops the selector loop. Client connections are closed by the serving thread once the loop exits.
+     */
+    @Override
+    public void close() {
+        this.isRunning = false;
+        if (this.selector != null) {
+            this.selector.wakeup();
+        }
+    }
+
+    private void handleKey(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        if (key.isReadable()) {
+            read(key);
+        }
+        if (key.isValid() && key.isWritable()) {
+            write(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel client = this.serverChannel.accept();
+        if (client == null) {
+            return;
+        }
+        client.configureBlocking(false);
+        Connection connection = new Connection();
+        SelectionKey key = client.register(this.selector, SelectionKey.OP_READ, connection);
+        queueReply(key, ui.frame(ui.showGreeting()));
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel client = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        int bytesRead = client.read(connection.unread);
+        if (bytesRead == -1) {
+            closeQuietly(key);
+            return;
+        }
+        handleLines(key, connection);
+    }
+
+    /**
+     * Runs the complete lines received so far, stopping when a reply cannot be sent straight away. Reading from the
+     * client resumes once the replies have been sent and the lines left over have run.
+     */
+    private void handleLines(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer buffer = connection.unread;
+        buffer.flip();
+        while (buffer.hasRemaining() && !connection.isClosing && connection.pendingWrites.isEmpty()) {
+            byte b = buffer.get();
+            if (b != '\n') {
+                connection.partialLine.write(b);
+                if (connection.partialLine.size() > MAX_LINE_LENGTH) {
+                    throw new IOException("Line too long");
+                }
+                continue;
+            }
+            String line = connection.partialLine.toString(StandardCharsets.UTF_8);
+            connection.partialLine.reset();
+            handleLine(key, connection, line);
+            writePending(key, connection);
+        }
+        buffer.compact();
+
+        if (!connection.pendingWrites.isEmpty()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (connection.isClosing) {
+            closeQuietly(key);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Executes one command line from a client and queues the framed reply.
+     */
+    private void handleLine(SelectionKey key, Connection connection, String line) {
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        Command command = Parser.parse(line);
+        String reply;
+        try {
+            reply = command.run(this.engine, this.ui);
+        } catch (RuntimeException e) {
+            reply = ui.showError(String.valueOf(e.getMessage()));
+        }
+        queueReply(key, ui.frame(reply));
+        if (command.canExit()) {
+            connection.isClosing = true;
+        }
+    }
+
+    private void queueReply(SelectionKey key, String framedReply) {
+        Connection connection = (Connection) key.attachment();
+        connection.pendingWrites.add(ByteBuffer.wrap(framedReply.getBytes(StandardCharsets.UTF_8)));
+        key.interestOps(SelectionKey.OP_WRITE);
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        if (writePending(key, connection)) {
+            handleLines(key, connection);
+        }
+    }
+
+    /**
+     * Writes as much of the queued replies as the socket takes without waiting.
+     *
+     * @return true if every queued reply has been written
+     */
+    private boolean writePending(SelectionKey key, Connection connection) throws IOException {
+        SocketChannel client = (SocketChannel) key.channel();
+        while (!connection.pendingWrites.isEmpty()) {
+            ByteBuffer next = connection.pendingWrites.peek();
+            client.write(next);
+            if (next.hasRemaining()) {
+                return false; // Socket buffer is full; wait for the next writable event
+            }
+            connection.pendingWrites.poll();
+        }
+        return true;
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Nothing more to do for a connection that is already broken
+        }
+    }
+
+    private void closeAll() throws IOException {
+        for (SelectionKey key : this.selector.keys()) {
+            closeQuietly(key);
+        }
+        this.selector.close();
+    }
+}
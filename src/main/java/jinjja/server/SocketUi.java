@@ -0,0 +1,28 @@
+package jinjja.server;
+
+import jinjja.ui.Gui;
+
+/**
+ * Headless UI for socket clients. Replies use the same wording as the GUI, since neither needs dividers, and are framed
+ * for the line-based protocol spoken by {@link JinjjaServer}.
+ */
+public class SocketUi extends Gui {
+    /** Line sent after every reply so clients know when a reply is complete. */
+    public static final String END_OF_REPLY = ".";
+
+    /**
+     * Frames a reply for sending over the socket. Every reply ends with a newline followed by the
+     * {@link #END_OF_REPLY} line.
+     *
+     * @param reply The reply returned by a command
+     * @return The framed reply
+     */
+    public String frame(String reply) {
+        StringBuilder sb = new StringBuilder(reply.length() + 4);
+        sb.append(reply);
+        if (!reply.isEmpty() && !reply.endsWith("\n")) {
+            sb.append('\n');
+        }
+        return sb.append(END_OF_REPLY).append('\n').toString();
+    }
+}
@@ -0,0 +1,24 @@
+package jinjja.storage;
+
+import java.util.List;
+
+import jinjja.task.Task;
+
+/**
+ * A change to the save file made by something other than this Jinjja: by a sync tool bringing in edits from another
+ * machine, found by {@link Storage#watch}, or by another Jinjja saving the same file, found when saving.
+ *
+ * @param baseLines The save file lines as this Jinjja last loaded or saved them, without checksums
+ * @param tasks The tasks in the save file as it is now
+ */
+public record ExternalChange(List<String> baseLines, List<Task> tasks) {
+    /**
+     * Merges the change with the tasks as they are here.
+     *
+     * @param ours The tasks in the list, which may have changed since the save file was last loaded or saved
+     * @return The changes to make to the list
+     */
+    public SaveFileMerge merge(List<Task> ours) {
+        return SaveFileMerge.of(this.baseLines, this.tasks, ours);
+    }
+}
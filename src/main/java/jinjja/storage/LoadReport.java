@@ -0,0 +1,136 @@
+package jinjja.storage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a load recovered and what it dropped. A task is dropped when its line or record fails its checksum or cannot
+ * be read, and the load carries on with the next one, so damage costs only the tasks it touches. Lines written before
+ * save files had checksums, or added by hand without one, are loaded as they are and counted as unchecked.
+ */
+public final class LoadReport {
+    /** The most damaged tasks {@link #format()} lists one by one. */
+    private static final int MAX_LISTED = 10;
+
+    private final String source;
+    private final List<Damage> damage = new ArrayList<>();
+    private int loadedCount;
+    private int uncheckedCount;
+    private Path quarantineFile;
+
+    /**
+     * A task that could not be loaded.
+     *
+     * @param location Where it was, such as "line 12"
+     * @param reason Why it could not be loaded
+     * @param content What was there, as near to the original as can be written to a text file
+     */
+    public record Damage(String location, String reason, String content) {
+    }
+
+    LoadReport(String source) {
+        this.source = source;
+    }
+
+    void addLoaded(boolean isChecked) {
+        this.loadedCount++;
+        if (!isChecked) {
+            this.uncheckedCount++;
+        }
+    }
+
+    void addDamage(String location, String reason, String content) {
+        this.damage.add(new Damage(location, reason, content));
+    }
+
+    void setQuarantineFile(Path quarantineFile) {
+        this.quarantineFile = quarantineFile;
+    }
+
+    /**
+     * Returns the file the tasks were loaded from.
+     *
+     * @return The file's path
+     */
+    public String getSource() {
+        return this.source;
+    }
+
+    /**
+     * Returns the number of tasks loaded, checked or not.
+     *
+     * @return The loaded count
+     */
+    public int getLoadedCount() {
+        return this.loadedCount;
+    }
+
+    /**
+     * Returns the number of tasks loaded without a checksum to check them against.
+     *
+     * @return The unchecked count
+     */
+    public int getUncheckedCount() {
+        return this.uncheckedCount;
+    }
+
+    /**
+     * Returns the tasks that were dropped, in file order.
+     *
+     * @return The damaged tasks
+     */
+    public List<Damage> getDamage() {
+        return Collections.unmodifiableList(this.damage);
+    }
+
+    /**
+     * Returns the file the dropped tasks were copied to.
+     *
+     * @return The quarantine file, or null if nothing was dropped or it could not be written
+     */
+    public Path getQuarantineFile() {
+        return this.quarantineFile;
+    }
+
+    /**
+     * Returns whether any task was dropped or loaded unchecked, and so whether the report is worth showing.
+     *
+     * @return true if the load was not clean
+     */
+    public boolean hasProblems() {
+        return !this.damage.isEmpty() || this.uncheckedCount > 0;
+    }
+
+    /**
+     * Formats the report for the user.
+     *
+     * @return The report, one line per fact
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Recovered ").append(this.loadedCount).append(" of ").append(this.loadedCount + this.damage.size())
+                .append(" tasks from ").append(this.source).append('.');
+        if (!this.damage.isEmpty()) {
+            sb.append("\nDropped ").append(this.damage.size()).append(" damaged ")
+                    .append(this.damage.size() == 1 ? "task:" : "tasks:");
+            for (int i = 0; i < Math.min(this.damage.size(), MAX_LISTED); i++) {
+                Damage dropped = this.damage.get(i);
+                sb.append("\n  ").append(dropped.location()).append(": ").append(dropped.reason());
+            }
+            if (this.damage.size() > MAX_LISTED) {
+                sb.append("\n  and ").append(this.damage.size() - MAX_LISTED).append(" more");
+            }
+            if (this.quarantineFile != null) {
+                sb.append("\nThey were copied to ").append(this.quarantineFile).append('.');
+            }
+        }
+        if (this.uncheckedCount > 0) {
+            sb.append('\n').append(this.uncheckedCount).append(this.uncheckedCount == 1 ? " task had" : " tasks had")
+                    .append(" no checksum and ").append(this.uncheckedCount == 1 ? "was" : "were")
+                    .append(" loaded as written.");
+        }
+        return sb.toString();
+    }
+}
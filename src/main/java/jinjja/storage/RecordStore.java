@@ -0,0 +1,592 @@
+package jinjja.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import jinjja.task.Deadline;
+import jinjja.task.Event;
+import jinjja.task.Task;
+import jinjja.task.TaskListListener;
+import jinjja.task.TaskType;
+import jinjja.task.Tentative;
+import jinjja.task.Todo;
+
+/**
+ * Keeps a task list on disk as fixed-size records in a memory-mapped file, one per task, with descriptions and
+ * tentative slots in a separate append-only heap file. A record holds a task's type, completion and times, and where
+ * the rest of it is in the heap. Marking a task writes one byte and the record's checksum into the mapped records,
+ * adding one appends to both files, and deleting one moves the later records up without touching the heap. Loading
+ * reads records and heap entries directly, with no text to parse. A delete moves the records one at a time, noting in
+ * the header how far it has got, so that one cut short by a crash is finished when the records are next opened.
+ *
+ * <p>The records are stamped with the size and modification time of the save file they were written with, and are
+ * only used while the save file still has them. Changes made since then are in the records but not yet in the save
+ * file, which catches up at the next full save. Until then the heap only grows; a full save writes both files afresh,
+ * without the entries of deleted tasks. Tasks hold exactly what their save file lines hold, with times to the minute
+ * and the confirmed slot of a tentative event first, so loading the records gives the same list as loading the text.
+ *
+ * <p>Each record carries a CRC32C checksum of its other bytes, and each heap entry one of itself, so a task damaged
+ * on disk is dropped on load rather than read wrong, and the tasks around it still load.
+ *
+ * <p>Writes reach the operating system as they are made, so they survive Jinjja crashing, but are not forced to the
+ * disk. A write that fails stops the store and marks the records unusable, so the next load reads the save file.
+ */
+public class RecordStore implements TaskListListener {
+    /** The suffix added to the save file's name to name the records file. */
+    public static final String RECORDS_SUFFIX = ".records";
+    /** The suffix added to the save file's name to name the heap file. */
+    public static final String HEAP_SUFFIX = ".descriptions";
+
+    /** "JNJR" in ASCII, marking a records file. */
+    private static final int RECORDS_MAGIC = 0x4A4E4A52;
+    /** "JNJH" in ASCII, marking a heap file. */
+    private static final int HEAP_MAGIC = 0x4A4E4A48;
+    private static final int VERSION = 2;
+
+    // Records file header: magic, version, save file size and time, heap identity, generation, count, heap length,
+    // then for a delete under way, one more than the next record to fill and the count it leaves
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int TEXT_SIZE_AT = 8;
+    private static final int TEXT_MODIFIED_AT = 16;
+    private static final int HEAP_ID_AT = 24;
+    private static final int GENERATION_AT = 32;
+    private static final int COUNT_AT = 40;
+    private static final int HEAP_LENGTH_AT = 48;
+    private static final int REMOVING_AT = 56;
+    private static final int COUNT_AFTER_REMOVAL_AT = 60;
+    private static final int HEADER_BYTES = 64;
+
+    // Record: type, done, whether a slot is confirmed, slot count, heap entry offset, description length, checksum,
+    // two times
+    private static final int TYPE_AT = 0;
+    private static final int DONE_AT = 1;
+    private static final int HAS_CONFIRMED_AT = 2;
+    private static final int SLOT_COUNT_AT = 4;
+    private static final int HEAP_OFFSET_AT = 8;
+    private static final int DESCRIPTION_LENGTH_AT = 16;
+    private static final int CHECKSUM_AT = 20;
+    private static final int FIRST_TIME_AT = 24;
+    private static final int SECOND_TIME_AT = 32;
+    private static final int RECORD_BYTES = 40;
+
+    // Heap file header: magic, version and heap identity. Each entry then starts with its checksum.
+    private static final int HEAP_HEADER_BYTES = 16;
+    private static final int HEAP_CHECKSUM_BYTES = Integer.BYTES;
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    private final Path recordsFile;
+    private final FileChannel recordsChannel;
+    private final FileChannel heapChannel;
+    private MappedByteBuffer records;
+    private int count;
+    private long heapLength;
+    private long generation;
+    private boolean isStopped;
+
+    private RecordStore(Path recordsFile, FileChannel recordsChannel, FileChannel heapChannel) throws IOException {
+        this.recordsFile = recordsFile;
+        this.recordsChannel = recordsChannel;
+        this.heapChannel = heapChannel;
+        this.records = recordsChannel.map(FileChannel.MapMode.READ_WRITE, 0, recordsChannel.size());
+        this.count = this.records.getInt(COUNT_AT);
+        this.heapLength = this.records.getLong(HEAP_LENGTH_AT);
+        this.generation = this.records.getLong(GENERATION_AT);
+    }
+
+    /**
+     * Returns the path of the records file kept next to a save file.
+     *
+     * @param saveFile The save file
+     * @return The records path
+     */
+    public static Path recordsPathOf(Path saveFile) {
+        return saveFile.resolveSibling(saveFile.getFileName() + RECORDS_SUFFIX);
+    }
+
+    /**
+     * Returns the path of the heap file kept next to a save file.
+     *
+     * @param saveFile The save file
+     * @return The heap path
+     */
+    public static Path heapPathOf(Path saveFile) {
+        return saveFile.resolveSibling(saveFile.getFileName() + HEAP_SUFFIX);
+    }
+
+    /**
+     * Writes both files afresh for the given tasks, stamped with the save file as it is now, and opens them. Each
+     * file replaces the old one in one step, and a records file is never used with a heap written for another.
+     *
+     * @param saveFile The save file, already written with the same tasks
+     * @param tasks The tasks, which must not change while they are written
+     * @return The opened store
+     * @throws IOException if either file cannot be written
+     */
+    public static RecordStore write(Path saveFile, List<Task> tasks) throws IOException {
+        long heapId = ThreadLocalRandom.current().nextLong();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        ByteBuffer recordBuffer = ByteBuffer.allocate(tasks.size() * RECORD_BYTES);
+        List<ByteBuffer> entries = new ArrayList<>(tasks.size() + 1);
+        ByteBuffer heapHeader = ByteBuffer.allocate(HEAP_HEADER_BYTES).putInt(HEAP_MAGIC).putInt(VERSION)
+                .putLong(heapId);
+        entries.add(heapHeader.flip());
+        long offset = HEAP_HEADER_BYTES;
+        for (int i = 0; i < tasks.size(); i++) {
+            ByteBuffer entry = heapEntryOf(tasks.get(i));
+            putRecord(recordBuffer, i * RECORD_BYTES, tasks.get(i), offset);
+            entries.add(entry);
+            offset += entry.remaining();
+        }
+        header.putInt(MAGIC_AT, RECORDS_MAGIC).putInt(VERSION_AT, VERSION)
+                .putLong(TEXT_SIZE_AT, Files.size(saveFile)).putLong(TEXT_MODIFIED_AT, modifiedTimeOf(saveFile))
+                .putLong(HEAP_ID_AT, heapId).putLong(GENERATION_AT, ThreadLocalRandom.current().nextLong())
+                .putInt(COUNT_AT, tasks.size()).putLong(HEAP_LENGTH_AT, offset);
+
+        Path heapFile = heapPathOf(saveFile);
+        Path recordsFile = recordsPathOf(saveFile);
+        replace(heapFile, entries.toArray(new ByteBuffer[0]));
+        replace(recordsFile, new ByteBuffer[] {header, recordBuffer});
+        return open(recordsFile, heapFile);
+    }
+
+    private static void replace(Path file, ByteBuffer[] contents) throws IOException {
+        Path partFile = file.resolveSibling(file.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer buffer : contents) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+        Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Opens the records kept next to a save file, if they were written with the save file as it is now.
+     *
+     * @param saveFile The save file
+     * @return The opened store, or null if there are no records or the save file has changed since
+     * @throws IOException if the records or heap are damaged
+     */
+    public static RecordStore openIfCurrent(Path saveFile) throws IOException {
+        Path recordsFile = recordsPathOf(saveFile);
+        if (!Files.isRegularFile(recordsFile) || !Files.isRegularFile(saveFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(recordsFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read until the header is full or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(MAGIC_AT) != RECORDS_MAGIC
+                    || header.getInt(VERSION_AT) != VERSION) {
+                // Left unusable by a failed write, or written by another version of Jinjja
+                return null;
+            }
+            if (header.getLong(TEXT_SIZE_AT) != Files.size(saveFile)
+                    || header.getLong(TEXT_MODIFIED_AT) != modifiedTimeOf(saveFile)) {
+                // The save file was changed since, e.g. edited by hand
+                return null;
+            }
+        }
+        return open(recordsFile, heapPathOf(saveFile));
+    }
+
+    private static RecordStore open(Path recordsFile, Path heapFile) throws IOException {
+        FileChannel recordsChannel = FileChannel.open(recordsFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel heapChannel = null;
+        try {
+            heapChannel = FileChannel.open(heapFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            RecordStore store = new RecordStore(recordsFile, recordsChannel, heapChannel);
+            store.checkConsistent();
+            store.finishRemoval();
+            return store;
+        } catch (IOException e) {
+            recordsChannel.close();
+            if (heapChannel != null) {
+                heapChannel.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks that the records fit in their file and refer to the heap written with them.
+     */
+    private void checkConsistent() throws IOException {
+        if (this.count < 0 || HEADER_BYTES + (long) this.count * RECORD_BYTES > this.records.capacity()) {
+            throw new IOException("it holds fewer records than its header says");
+        }
+        ByteBuffer heapHeader = ByteBuffer.allocate(HEAP_HEADER_BYTES);
+        while (heapHeader.hasRemaining() && this.heapChannel.read(heapHeader, heapHeader.position()) >= 0) {
+            // Read until the header is full or the file ends
+        }
+        if (heapHeader.hasRemaining() || heapHeader.getInt(0) != HEAP_MAGIC
+                || heapHeader.getLong(8) != this.records.getLong(HEAP_ID_AT)) {
+            throw new IOException("its descriptions were written with other records");
+        }
+        if (this.heapLength < HEAP_HEADER_BYTES || this.heapLength > this.heapChannel.size()) {
+            throw new IOException("its descriptions are shorter than its header says");
+        }
+    }
+
+    /**
+     * Reads every task that is intact, in list order. Damaged records are noted in the report and skipped, so the
+     * tasks returned only line up with the records if the report has no damage.
+     *
+     * @param report The report to note each loaded and damaged task in
+     * @return The intact tasks
+     * @throws IOException if the heap cannot be mapped
+     */
+    public ArrayList<Task> readTasks(LoadReport report) throws IOException {
+        ByteBuffer heap = this.heapChannel.map(FileChannel.MapMode.READ_ONLY, 0, this.heapLength);
+        ArrayList<Task> tasks = new ArrayList<>(this.count);
+        for (int i = 0; i < this.count; i++) {
+            int at = recordOffsetOf(i);
+            try {
+                tasks.add(readTask(at, heap));
+                report.addLoaded(true);
+            } catch (IOException | DateTimeException e) {
+                report.addDamage("record " + (i + 1), e.getMessage(), describeRecord(at, heap));
+            }
+        }
+        return tasks;
+    }
+
+    private Task readTask(int at, ByteBuffer heap) throws IOException {
+        if (this.records.getInt(at + CHECKSUM_AT) != checksumOf(this.records, at)) {
+            throw new IOException("its checksum does not match");
+        }
+        int typeIndex = this.records.get(at + TYPE_AT);
+        int slotCount = this.records.getInt(at + SLOT_COUNT_AT);
+        boolean hasConfirmed = this.records.get(at + HAS_CONFIRMED_AT) != 0;
+        long heapOffset = this.records.getLong(at + HEAP_OFFSET_AT);
+        int descriptionLength = this.records.getInt(at + DESCRIPTION_LENGTH_AT);
+        long entryLength = descriptionLength + (slotCount + (hasConfirmed ? 1 : 0)) * 2L * Long.BYTES;
+        if (typeIndex < 0 || typeIndex >= TaskType.values().length || slotCount < 0 || descriptionLength < 0
+                || heapOffset < HEAP_HEADER_BYTES || heapOffset + HEAP_CHECKSUM_BYTES + entryLength > this.heapLength) {
+            throw new IOException("it refers outside its descriptions");
+        }
+        int entryAt = (int) heapOffset + HEAP_CHECKSUM_BYTES;
+        CRC32C checksum = new CRC32C();
+        checksum.update(heap.slice(entryAt, (int) entryLength));
+        if (heap.getInt((int) heapOffset) != (int) checksum.getValue()) {
+            throw new IOException("the checksum of its description does not match");
+        }
+        byte[] description = new byte[descriptionLength];
+        heap.get(entryAt, description);
+        String text = new String(description, StandardCharsets.UTF_8);
+
+        Task task;
+        switch (TaskType.values()[typeIndex]) {
+        case DEADLINE:
+            task = new Deadline(text, timeOf(this.records.getLong(at + FIRST_TIME_AT)));
+            break;
+        case EVENT:
+            task = new Event(text, timeOf(this.records.getLong(at + FIRST_TIME_AT)),
+                    timeOf(this.records.getLong(at + SECOND_TIME_AT)));
+            break;
+        case TENTATIVE:
+            // Replays the slot additions of loading the save file line
+            Tentative tentative = new Tentative(text);
+            int slotAt = entryAt + descriptionLength;
+            if (hasConfirmed) {
+                tentative.addTentativeSlot(timeOf(heap.getLong(slotAt)), timeOf(heap.getLong(slotAt + Long.BYTES)));
+                tentative.confirmSlot(1);
+                slotAt += 2 * Long.BYTES;
+            }
+            for (int i = 0; i < slotCount; i++, slotAt += 2 * Long.BYTES) {
+                tentative.addTentativeSlot(timeOf(heap.getLong(slotAt)), timeOf(heap.getLong(slotAt + Long.BYTES)));
+            }
+            task = tentative;
+            break;
+        default:
+            task = new Todo(text);
+            break;
+        }
+        task.setDone(this.records.get(at + DONE_AT) != 0);
+        return task;
+    }
+
+    /**
+     * Describes a damaged record for the quarantine file: its bytes in hex, and its description if it can be found.
+     */
+    private String describeRecord(int at, ByteBuffer heap) {
+        StringBuilder sb = new StringBuilder("record");
+        for (int i = 0; i < RECORD_BYTES; i++) {
+            sb.append(i % Long.BYTES == 0 ? " " : "").append(String.format("%02x", this.records.get(at + i)));
+        }
+        long heapOffset = this.records.getLong(at + HEAP_OFFSET_AT);
+        int descriptionLength = this.records.getInt(at + DESCRIPTION_LENGTH_AT);
+        if (heapOffset >= HEAP_HEADER_BYTES && descriptionLength >= 0
+                && heapOffset + HEAP_CHECKSUM_BYTES + descriptionLength <= this.heapLength) {
+            byte[] description = new byte[descriptionLength];
+            heap.get((int) heapOffset + HEAP_CHECKSUM_BYTES, description);
+            sb.append(" description ").append(new String(description, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a task's heap entry: its checksum, then its description, then the confirmed slot of a tentative event,
+     * if any, and its slots.
+     */
+    private static ByteBuffer heapEntryOf(Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        Tentative.TimeSlot confirmed = null;
+        List<Tentative.TimeSlot> slots = List.of();
+        if (task instanceof Tentative) {
+            confirmed = ((Tentative) task).getConfirmedSlot();
+            slots = ((Tentative) task).getTentativeSlots();
+        }
+        ByteBuffer entry = ByteBuffer.allocate(HEAP_CHECKSUM_BYTES + description.length
+                + (slots.size() + (confirmed != null ? 1 : 0)) * 2 * Long.BYTES);
+        entry.position(HEAP_CHECKSUM_BYTES);
+        entry.put(description);
+        if (confirmed != null) {
+            entry.putLong(minutesOf(confirmed.getFrom())).putLong(minutesOf(confirmed.getTo()));
+        }
+        for (Tentative.TimeSlot slot : slots) {
+            entry.putLong(minutesOf(slot.getFrom())).putLong(minutesOf(slot.getTo()));
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(entry.array(), HEAP_CHECKSUM_BYTES, entry.capacity() - HEAP_CHECKSUM_BYTES);
+        return entry.putInt(0, (int) checksum.getValue()).flip();
+    }
+
+    private static void putRecord(ByteBuffer buffer, int at, Task task, long heapOffset) {
+        TaskType type = TaskType.of(task);
+        buffer.put(at + TYPE_AT, (byte) type.ordinal());
+        buffer.put(at + DONE_AT, (byte) (task.getIsDone() ? 1 : 0));
+        buffer.putLong(at + HEAP_OFFSET_AT, heapOffset);
+        buffer.putInt(at + DESCRIPTION_LENGTH_AT, task.getDescription().getBytes(StandardCharsets.UTF_8).length);
+        switch (type) {
+        case DEADLINE:
+            buffer.putLong(at + FIRST_TIME_AT, minutesOf(((Deadline) task).getBy()));
+            break;
+        case EVENT:
+            buffer.putLong(at + FIRST_TIME_AT, minutesOf(((Event) task).getFrom()));
+            buffer.putLong(at + SECOND_TIME_AT, minutesOf(((Event) task).getTo()));
+            break;
+        case TENTATIVE:
+            Tentative tentative = (Tentative) task;
+            buffer.put(at + HAS_CONFIRMED_AT, (byte) (tentative.isConfirmed() ? 1 : 0));
+            buffer.putInt(at + SLOT_COUNT_AT, tentative.getSlotCount());
+            break;
+        default:
+            break;
+        }
+        buffer.putInt(at + CHECKSUM_AT, checksumOf(buffer, at));
+    }
+
+    /**
+     * Returns the checksum of a record: every byte of it but the checksum itself.
+     */
+    private static int checksumOf(ByteBuffer buffer, int at) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(at, CHECKSUM_AT));
+        int afterChecksum = CHECKSUM_AT + Integer.BYTES;
+        checksum.update(buffer.slice(at + afterChecksum, RECORD_BYTES - afterChecksum));
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Writes the done flag of one record, and its checksum.
+     */
+    @Override
+    public synchronized void taskMarked(int position, boolean isDone) {
+        if (this.isStopped) {
+            return;
+        }
+        if (position < 0 || position >= this.count) {
+            stop("record " + (position + 1) + " does not exist");
+            return;
+        }
+        int at = recordOffsetOf(position);
+        this.records.put(at + DONE_AT, (byte) (isDone ? 1 : 0));
+        this.records.putInt(at + CHECKSUM_AT, checksumOf(this.records, at));
+    }
+
+    /**
+     * Appends the task's heap entry and record. The count is written last, so a crash part way leaves the store as it
+     * was before.
+     */
+    @Override
+    public synchronized void taskAdded(int position, Task task) {
+        if (this.isStopped) {
+            return;
+        }
+        if (position != this.count) {
+            stop("a task was added at " + (position + 1) + " instead of the end");
+            return;
+        }
+        try {
+            ByteBuffer entry = heapEntryOf(task);
+            long offset = this.heapLength;
+            while (entry.hasRemaining()) {
+                offset += this.heapChannel.write(entry, offset);
+            }
+            ensureCapacity(this.count + 1);
+            int at = recordOffsetOf(this.count);
+            this.records.put(at, new byte[RECORD_BYTES]);
+            putRecord(this.records, at, task, this.heapLength);
+            this.heapLength = offset;
+            this.records.putLong(HEAP_LENGTH_AT, this.heapLength);
+            this.records.putLong(GENERATION_AT, ++this.generation);
+            this.records.putInt(COUNT_AT, ++this.count);
+        } catch (IOException e) {
+            stop(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the later records up over the removed one. The heap entry stays until the next full save.
+     */
+    @Override
+    public synchronized void taskRemoved(int position) {
+        if (this.isStopped) {
+            return;
+        }
+        if (position < 0 || position >= this.count) {
+            stop("record " + (position + 1) + " does not exist");
+            return;
+        }
+        this.records.putInt(COUNT_AFTER_REMOVAL_AT, this.count - 1);
+        this.records.putInt(REMOVING_AT, position + 1);
+        moveUp(position, this.count - 1);
+    }
+
+    /**
+     * Finishes a delete cut short by a crash, if the header notes one.
+     */
+    private void finishRemoval() throws IOException {
+        int removing = this.records.getInt(REMOVING_AT);
+        if (removing == 0) {
+            return;
+        }
+        int countAfter = this.records.getInt(COUNT_AFTER_REMOVAL_AT);
+        if (removing < 1 || countAfter < 0 || countAfter > this.count || removing - 1 > countAfter) {
+            throw new IOException("its header notes a delete it cannot finish");
+        }
+        moveUp(removing - 1, countAfter);
+    }
+
+    /**
+     * Fills the records from a position up to the count a delete leaves, each from the one after it, then drops the
+     * count. The record after has not been overwritten yet, and the header notes the next record to fill once each is
+     * done, so a delete cut short anywhere, even partway through a record, is finished by starting again from the
+     * record noted.
+     */
+    private void moveUp(int from, int countAfter) {
+        for (int i = from; i < countAfter; i++) {
+            this.records.put(recordOffsetOf(i), this.records, recordOffsetOf(i + 1), RECORD_BYTES);
+            this.records.putInt(REMOVING_AT, i + 2);
+        }
+        this.records.putLong(GENERATION_AT, ++this.generation);
+        this.count = countAfter;
+        this.records.putInt(COUNT_AT, this.count);
+        this.records.putInt(REMOVING_AT, 0);
+    }
+
+    private void ensureCapacity(int recordCount) throws IOException {
+        long needed = HEADER_BYTES + (long) recordCount * RECORD_BYTES;
+        if (needed > this.records.capacity()) {
+            // Grows the file along with the mapping, doubling so that appends stay cheap
+            long size = Math.max(needed, 2L * this.records.capacity());
+            this.records = this.recordsChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Stops writing, and marks the records unusable so that the next load reads the save file instead.
+     */
+    private void stop(String reason) {
+        System.out.println("Stopped updating " + this.recordsFile + " because " + reason
+                + ". Changes will be saved in full on exit.");
+        this.records.putInt(MAGIC_AT, 0);
+        close();
+    }
+
+    /**
+     * Returns the generation of the records, which changes whenever a task is added or removed, but not when one is
+     * marked. Anything derived from the records' positions, like the index, is current while this is unchanged.
+     *
+     * @return The generation
+     */
+    public synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Returns the number of tasks in the records.
+     *
+     * @return The task count
+     */
+    public synchronized int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the bytes in use in both files.
+     *
+     * @return The size in bytes
+     */
+    public synchronized long getSizeOnDisk() {
+        return HEADER_BYTES + (long) this.count * RECORD_BYTES + this.heapLength;
+    }
+
+    /**
+     * Returns the path of the records file.
+     *
+     * @return The records path
+     */
+    public Path getRecordsFile() {
+        return this.recordsFile;
+    }
+
+    /**
+     * Stops writing and closes both files. Changes after this are ignored.
+     */
+    public synchronized void close() {
+        this.isStopped = true;
+        try {
+            this.recordsChannel.close();
+            this.heapChannel.close();
+        } catch (IOException e) {
+            // Nothing more will be written, so there is nothing to lose
+        }
+    }
+
+    private static int recordOffsetOf(int position) {
+        return HEADER_BYTES + position * RECORD_BYTES;
+    }
+
+    private static long minutesOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
+    private static LocalDateTime timeOf(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    static long modifiedTimeOf(Path file) throws IOException {
+        return Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS);
+    }
+}
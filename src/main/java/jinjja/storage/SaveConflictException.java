@@ -0,0 +1,31 @@
+package jinjja.storage;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when a save is refused because another Jinjja saved the same file since it was last loaded or
+ * saved here. Saving anyway would lose the other's changes, so they are handed back to be merged first.
+ */
+public class SaveConflictException extends IOException {
+    private final transient ExternalChange change;
+
+    /**
+     * Constructs the exception for a save file and the other's save found in it.
+     *
+     * @param filePath The save file
+     * @param change The other's save
+     */
+    public SaveConflictException(String filePath, ExternalChange change) {
+        super(filePath + " was saved by another Jinjja since it was last loaded here");
+        this.change = change;
+    }
+
+    /**
+     * Returns the other's save, to merge before saving again.
+     *
+     * @return The save file as the other left it, and as it was when last loaded or saved here
+     */
+    public ExternalChange getChange() {
+        return this.change;
+    }
+}
@@ -0,0 +1,310 @@
+package jinjja.storage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serializes access to a save file between Jinjja instances, through a lock file next to it. Readers share the lock
+ * and writers hold it alone, using {@link FileChannel#lock} so that it works across processes, with a lock within
+ * this process too, since a process cannot hold two overlapping file locks.
+ *
+ * <p>The lock file also holds the save file's generation, which goes up by one with every save, so an instance can
+ * tell whether another has saved since it last read the save file, and the lease of its current writer: who it is,
+ * and until when it holds the lock. The writer renews its lease while it writes, and clears it when done. The
+ * operating system releases the locks of a process that ends, but not always those of a process that hangs, or on
+ * every network file system; a lock that cannot be had for {@link #WAIT_MILLIS}, and is held by a writer whose lease
+ * has run out, is broken by replacing the lock file. Readers hold no lease, so a lock held only by readers, however
+ * slow, is waited for and never broken.
+ *
+ * <p>The records kept next to the save file are claimed by whichever instance uses them first, for as long as it
+ * runs, through a claim file of their own, so that breaking the lock cannot release the claim; see
+ * {@link #claimRecords()}.
+ */
+final class SaveFileLock {
+    /** The suffix added to the save file's name to name the lock file. */
+    static final String LOCK_SUFFIX = ".lock";
+    /** The suffix added to the save file's name to name the file the records are claimed through. */
+    static final String CLAIM_SUFFIX = ".records.lock";
+
+    /** How long a writer's lease lasts unless renewed. */
+    static final long LEASE_MILLIS = 10_000;
+    /** How long to wait for a lock by default before giving up on it, or breaking it if its lease has run out. */
+    static final long WAIT_MILLIS = 15_000;
+    /**
+     * The byte locked, well past the contents, so that the contents can be read while the lock is held on systems
+     * where locks are mandatory.
+     */
+    static final long LOCKED_AT = 1L << 40;
+    private static final long RENEW_MILLIS = LEASE_MILLIS / 3;
+    private static final long RETRY_MILLIS = 20;
+
+    /** "JNJL" in ASCII, marking a lock file. */
+    private static final int MAGIC = 0x4A4E4A4C;
+    private static final int VERSION = 1;
+    // Lock file: magic, version, generation, lease end, owner length, then the owner
+    private static final int GENERATION_AT = 8;
+    private static final int LEASE_END_AT = 16;
+    private static final int OWNER_LENGTH_AT = 24;
+    private static final int OWNER_AT = 28;
+    private static final int MAX_OWNER_BYTES = 100;
+
+    private static final String OWNER = ManagementFactory.getRuntimeMXBean().getName();
+    private static final Map<Path, ReadWriteLock> LOCKS_IN_PROCESS = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService RENEWER = Executors.newSingleThreadScheduledExecutor(runnable-> {
+        Thread thread = new Thread(runnable, "jinjja-lease-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path lockFile;
+    private final Path claimFile;
+    private final ReadWriteLock lockInProcess;
+    private final long waitMillis;
+
+    /**
+     * Something to do while holding the lock.
+     *
+     * @param <T> What it returns
+     */
+    @FunctionalInterface
+    interface Action<T> {
+        /**
+         * Does it.
+         *
+         * @param generation The save file's generation as the lock was taken
+         * @return The result
+         * @throws IOException if it fails
+         */
+        T run(long generation) throws IOException;
+    }
+
+    SaveFileLock(Path saveFile) {
+        this(saveFile, WAIT_MILLIS);
+    }
+
+    SaveFileLock(Path saveFile, long waitMillis) {
+        this.lockFile = saveFile.resolveSibling(saveFile.getFileName() + LOCK_SUFFIX);
+        this.claimFile = saveFile.resolveSibling(saveFile.getFileName() + CLAIM_SUFFIX);
+        this.lockInProcess = LOCKS_IN_PROCESS.computeIfAbsent(this.lockFile.toAbsolutePath().normalize(),
+                path->new ReentrantReadWriteLock());
+        this.waitMillis = waitMillis;
+    }
+
+    Path getLockFile() {
+        return this.lockFile;
+    }
+
+    /**
+     * Runs an action sharing the lock with other readers.
+     */
+    <T> T read(Action<T> action) throws IOException {
+        return hold(true, action);
+    }
+
+    /**
+     * Runs an action holding the lock alone, under a lease renewed until it is done. If the action completes, the
+     * save file's generation goes up by one.
+     */
+    <T> T write(Action<T> action) throws IOException {
+        return hold(false, action);
+    }
+
+    /**
+     * Claims the records kept next to the save file until the claim is released, so that two instances never keep
+     * them up to date at once. Unlike the lock, a claim is not waited for.
+     *
+     * @return The claim, whose channel is closed to release it, or null if another has the records
+     */
+    FileLock claimRecords() throws IOException {
+        Files.createDirectories(this.claimFile.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(this.claimFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            FileLock claim = channel.tryLock(LOCKED_AT, 1, false);
+            if (claim != null) {
+                return claim;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Claimed by another Storage in this process
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return null;
+    }
+
+    private <T> T hold(boolean isShared, Action<T> action) throws IOException {
+        Lock lock = isShared ? this.lockInProcess.readLock() : this.lockInProcess.writeLock();
+        lock.lock();
+        try {
+            Files.createDirectories(this.lockFile.toAbsolutePath().getParent());
+            FileChannel channel = openLocked(isShared);
+            try {
+                long generation = readLong(channel, GENERATION_AT);
+                if (isShared) {
+                    return action.run(generation);
+                }
+                writeLease(channel, generation, System.currentTimeMillis() + LEASE_MILLIS);
+                ScheduledFuture<?> renewal = RENEWER.scheduleAtFixedRate(()->renew(channel, generation),
+                        RENEW_MILLIS, RENEW_MILLIS, TimeUnit.MILLISECONDS);
+                T result;
+                try {
+                    result = action.run(generation);
+                } finally {
+                    renewal.cancel(false);
+                }
+                writeLease(channel, generation + 1, 0);
+                return result;
+            } finally {
+                // Closing the channel releases the file lock
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens the lock file and locks it, waiting for other instances, and breaking their lock if it is stale.
+     */
+    private FileChannel openLocked(boolean isShared) throws IOException {
+        long deadline = System.currentTimeMillis() + this.waitMillis;
+        while (true) {
+            FileChannel channel = FileChannel.open(this.lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                boolean isHeldHere = false;
+                try {
+                    if (channel.tryLock(LOCKED_AT, 1, isShared) != null) {
+                        return channel;
+                    }
+                } catch (OverlappingFileLockException e) {
+                    // Held in this process under another path to the same file, so not by a hung process
+                    isHeldHere = true;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    if (isHeldHere || !isHeldByExpiredWriter(channel)) {
+                        long leaseEnd = readLong(channel, LEASE_END_AT);
+                        throw new IOException(this.lockFile + " is held by "
+                                + (leaseEnd > System.currentTimeMillis() ? readOwner(channel) : "another Jinjja"));
+                    }
+                    System.out.println("Breaking the stale lock " + this.lockFile + " of " + readOwner(channel));
+                    breakLock(channel);
+                    deadline = System.currentTimeMillis() + this.waitMillis;
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            channel.close();
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for " + this.lockFile, e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the lock, held by another process, is held by a writer whose lease has run out. A lease of zero
+     * is left by a completed write, or belongs to a writer that has only just taken the lock, and a lock that can be
+     * shared is held only by readers, so neither is stale.
+     */
+    private static boolean isHeldByExpiredWriter(FileChannel channel) throws IOException {
+        long leaseEnd = readLong(channel, LEASE_END_AT);
+        if (leaseEnd == 0 || leaseEnd > System.currentTimeMillis()) {
+            return false;
+        }
+        try {
+            FileLock probe = channel.tryLock(LOCKED_AT, 1, true);
+            if (probe != null) {
+                probe.release();
+                return false;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Taken in this process meanwhile
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the lock file with a fresh one that keeps its generation, leaving the stale lock on a file no one else
+     * will open.
+     */
+    private void breakLock(FileChannel staleChannel) throws IOException {
+        long generation = readLong(staleChannel, GENERATION_AT);
+        Path freshFile = this.lockFile.resolveSibling(this.lockFile.getFileName() + ".part");
+        try (FileChannel fresh = FileChannel.open(freshFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeLease(fresh, generation, 0);
+        }
+        Files.move(freshFile, this.lockFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void renew(FileChannel channel, long generation) {
+        try {
+            writeLease(channel, generation, System.currentTimeMillis() + LEASE_MILLIS);
+        } catch (IOException | OverlappingFileLockException e) {
+            // The lease runs out, and the lock may be broken, only if the writer hangs for as long
+        }
+    }
+
+    static void writeLease(FileChannel channel, long generation, long leaseEnd) throws IOException {
+        byte[] owner = OWNER.getBytes(StandardCharsets.UTF_8);
+        int ownerLength = Math.min(owner.length, MAX_OWNER_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(OWNER_AT + ownerLength);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(generation).putLong(leaseEnd).putInt(ownerLength)
+                .put(owner, 0, ownerLength).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    /**
+     * Reads a number from the lock file's header, or 0 if the file is new or not a lock file.
+     */
+    private static long readLong(FileChannel channel, int at) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(OWNER_AT);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Read until the header is full or the file ends
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            return 0;
+        }
+        return header.getLong(at);
+    }
+
+    private static String readOwner(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(OWNER_AT + MAX_OWNER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Read until the buffer is full or the file ends
+        }
+        int ownerLength = header.position() >= OWNER_AT ? header.getInt(OWNER_LENGTH_AT) : 0;
+        if (ownerLength <= 0 || ownerLength > header.position() - OWNER_AT) {
+            return "another Jinjja";
+        }
+        return new String(header.array(), OWNER_AT, ownerLength, StandardCharsets.UTF_8);
+    }
+}
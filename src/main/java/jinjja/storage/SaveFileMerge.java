@@ -0,0 +1,189 @@
+package jinjja.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jinjja.task.Task;
+
+/**
+ * A three-way merge of the save file as changed elsewhere into the task list as changed here, against the save file
+ * as it was when both last agreed. Tasks are matched by identity: everything in their save file line but whether
+ * they are done, with repeats told apart by how many came before them. Matched tasks can only differ in whether they
+ * are done, so a task edited elsewhere, such as a tentative event with a slot confirmed, counts as one task deleted
+ * and another added.
+ *
+ * <p>A change made on only one side is kept. Two sides agreeing need nothing done. The clashes are a task marked on
+ * one side and deleted on the other; the change made here wins, and the clash is reported.
+ */
+public final class SaveFileMerge {
+    /** Where a tentative event's slots start among its line's fields, after its confirmed slot and slot count. */
+    private static final int TENTATIVE_SLOTS_AT = 5;
+
+    private final Map<Task, Boolean> marks = new IdentityHashMap<>();
+    private final List<Task> removals = new ArrayList<>();
+    private final List<Task> additions = new ArrayList<>();
+    private final List<String> conflicts = new ArrayList<>();
+
+    private SaveFileMerge() {
+    }
+
+    /**
+     * Works out what to change in the task list to bring in the changes made elsewhere.
+     *
+     * @param baseLines The save file lines as they were when both sides last agreed, without checksums
+     * @param theirs The tasks in the save file as changed elsewhere
+     * @param ours The tasks in the list as changed here
+     * @return The changes to make to the list
+     */
+    public static SaveFileMerge of(List<String> baseLines, List<Task> theirs, List<Task> ours) {
+        Map<String, Boolean> base = new HashMap<>();
+        Map<String, Integer> baseRepeats = new HashMap<>();
+        for (String line : baseLines) {
+            base.put(identityOf(line, baseRepeats), isDone(line));
+        }
+        Map<String, Task> ourTasks = byIdentity(ours);
+
+        SaveFileMerge merge = new SaveFileMerge();
+        Map<String, Task> theirTasks = byIdentity(theirs);
+        for (Map.Entry<String, Task> entry : theirTasks.entrySet()) {
+            Task their = entry.getValue();
+            Boolean wasDone = base.get(entry.getKey());
+            Task our = ourTasks.get(entry.getKey());
+            if (wasDone == null) {
+                if (our == null) {
+                    merge.additions.add(their);
+                }
+            } else if (our == null) {
+                if (their.getIsDone() != wasDone) {
+                    merge.conflicts.add(quote(their) + " was marked elsewhere but deleted here, so it stays deleted.");
+                }
+            } else if (their.getIsDone() != wasDone && our.getIsDone() == wasDone) {
+                merge.marks.put(our, their.getIsDone());
+            }
+        }
+        for (Map.Entry<String, Boolean> entry : base.entrySet()) {
+            Task our = ourTasks.get(entry.getKey());
+            if (theirTasks.containsKey(entry.getKey()) || our == null) {
+                continue;
+            }
+            if (our.getIsDone() == entry.getValue()) {
+                merge.removals.add(our);
+            } else {
+                merge.conflicts.add(quote(our) + " was deleted elsewhere but marked here, so it was kept.");
+            }
+        }
+        return merge;
+    }
+
+    private static Map<String, Task> byIdentity(List<Task> tasks) {
+        Map<String, Task> byIdentity = new LinkedHashMap<>();
+        Map<String, Integer> repeats = new HashMap<>();
+        for (Task task : tasks) {
+            byIdentity.put(identityOf(task.toFileFormat(), repeats), task);
+        }
+        return byIdentity;
+    }
+
+    /**
+     * Returns the identity of a save file line: the line without its done field, and how many times the same has
+     * come before it. The slots of a tentative event are taken in sorted order, since loading its line can reorder
+     * them.
+     */
+    private static String identityOf(String line, Map<String, Integer> repeats) {
+        int doneAt = doneFieldOf(line);
+        String withoutDone = doneAt < 0 ? line : line.substring(0, doneAt) + line.substring(doneAt + 1);
+        if (withoutDone.startsWith("TE | ")) {
+            String[] parts = withoutDone.split(" \\| ", -1);
+            if (parts.length > TENTATIVE_SLOTS_AT) {
+                Arrays.sort(parts, TENTATIVE_SLOTS_AT, parts.length);
+                withoutDone = String.join(" | ", parts);
+            }
+        }
+        int repeat = repeats.merge(withoutDone, 1, Integer::sum);
+        return withoutDone + '\n' + repeat;
+    }
+
+    private static boolean isDone(String line) {
+        int doneAt = doneFieldOf(line);
+        return doneAt >= 0 && line.charAt(doneAt) == '1';
+    }
+
+    private static int doneFieldOf(String line) {
+        int separator = line.indexOf(" | ");
+        return separator < 0 || separator + 3 >= line.length() ? -1 : separator + 3;
+    }
+
+    private static String quote(Task task) {
+        return "\"" + task.getDescription() + "\"";
+    }
+
+    /**
+     * Returns the tasks to mark, with whether each is to be done.
+     *
+     * @return The marks, keyed by task identity
+     */
+    public Map<Task, Boolean> getMarks() {
+        return this.marks;
+    }
+
+    /**
+     * Returns the tasks to remove from the list.
+     *
+     * @return The tasks, from the list
+     */
+    public List<Task> getRemovals() {
+        return this.removals;
+    }
+
+    /**
+     * Returns the tasks to add to the end of the list, in save file order.
+     *
+     * @return The tasks, from the save file
+     */
+    public List<Task> getAdditions() {
+        return this.additions;
+    }
+
+    /**
+     * Returns a description of each clash with a change made here, for the user.
+     *
+     * @return One sentence per clash
+     */
+    public List<String> getConflicts() {
+        return this.conflicts;
+    }
+
+    /**
+     * Returns whether the merge changes nothing and clashes with nothing, as when the change was already merged.
+     *
+     * @return true if there is nothing to apply or report
+     */
+    public boolean isEmpty() {
+        return this.marks.isEmpty() && this.removals.isEmpty() && this.additions.isEmpty() && this.conflicts.isEmpty();
+    }
+
+    /**
+     * Formats the merge for the user.
+     *
+     * @return What was brought in, and what clashed
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Picked up changes made to your tasks elsewhere: ").append(this.additions.size()).append(" added, ")
+                .append(this.removals.size()).append(" deleted, ").append(this.marks.size()).append(" marked.");
+        if (!this.conflicts.isEmpty()) {
+            sb.append('\n').append(this.conflicts.size())
+                    .append(this.conflicts.size() == 1 ? " change clashes" : " changes clash")
+                    .append(" with changes made here:");
+            for (String conflict : this.conflicts) {
+                sb.append("\n  ").append(conflict);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package jinjja.storage;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a save file for being written, created or replaced, and runs a check once the writes have settled. The
+ * file's directory is watched rather than the file, so a file replaced by renaming another over it is still seen, as
+ * sync tools and Jinjja's own saves both do. Runs on a daemon thread of its own until closed.
+ */
+public class SaveFileWatcher {
+    /** How long the file must go without being written before it is checked, so it is not read half written. */
+    private static final long SETTLE_MILLIS = 300;
+
+    private final Path fileName;
+    private final WatchService watchService;
+    private final Runnable onChange;
+    private final Thread thread;
+
+    /**
+     * Starts watching, but not checking. Changes from now on are checked once {@link #start()} is called.
+     */
+    SaveFileWatcher(Path saveFile, Runnable onChange) throws IOException {
+        Path directory = saveFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        this.fileName = saveFile.getFileName();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            directory.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException e) {
+            this.watchService.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "jinjja-save-file-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                boolean isChanged = drain(this.watchService.take());
+                while (isChanged) {
+                    WatchKey next = this.watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    drain(next);
+                }
+                if (isChanged) {
+                    this.onChange.run();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Takes the events of a key and readies it for more.
+     *
+     * @return true if any event was for the save file, or events were lost
+     */
+    private boolean drain(WatchKey key) {
+        boolean isSaveFile = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            isSaveFile |= event.kind() == OVERFLOW || this.fileName.equals(event.context());
+        }
+        key.reset();
+        return isSaveFile;
+    }
+
+    /**
+     * Stops watching. A check already under way runs to the end.
+     */
+    public void close() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            // Nothing more will be watched, so there is nothing to lose
+        }
+    }
+}
@@ -1,27 +1,95 @@
 package jinjja.storage;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
 
+import jinjja.metrics.Metrics;
+import jinjja.metrics.StorageEvent;
 import jinjja.task.Deadline;
 import jinjja.task.Event;
 import jinjja.task.Task;
+import jinjja.task.TaskList;
+import jinjja.task.TaskListSnapshot;
 import jinjja.task.Tentative;
 import jinjja.task.Todo;
 
 /**
  * Handles the storage and retrieval of tasks from a file. This class provides functionality to save tasks to a file and
  * load them back, maintaining data persistence across application sessions.
+ *
+ * <p>Alongside the text save file, {@link #saveTaskList} writes the tasks to a {@link RecordStore}, which then keeps
+ * them up to date as they change, and an index file: a checksummed image of the task index, stamped with the records'
+ * generation. {@link #loadTaskList} reads the records and restores the index from the image, without parsing or
+ * indexing anything, as long as the save file has not been changed since the records were written. Otherwise, or if
+ * the records are damaged, the save file is loaded as before. Every file but the save file can be deleted at any time.
+ *
+ * <p>Each line of the save file ends with a CRC32C checksum of the rest of it, as records do. A load drops any task
+ * that fails its checksum or cannot be read, copies it to a quarantine file next to the save file, and carries on
+ * with the next, then reports what it recovered and saves the tasks it kept. Lines without a checksum, such as ones
+ * added by hand, are loaded as they are.
+ *
+ * <p>{@link #watch} picks up changes made to the save file from elsewhere, such as by a sync tool, while Jinjja runs.
+ * The save file is always replaced in one step, and Storage remembers what it last loaded or saved, so a watcher can
+ * tell such changes from Jinjja's own saves, and never reads half of one.
+ *
+ * <p>Two Jinjjas can share a save file, such as the command line and the GUI. Loads and saves take turns through a
+ * {@link SaveFileLock}, and each save is refused with a {@link SaveConflictException} if the other has saved since
+ * the file was last loaded or saved here, so that the other's changes are merged rather than lost. The records are
+ * used by whichever Jinjja gets them first, until it calls {@link #close()}; the other makes do with the save file.
  */
 public class Storage {
+    /** The suffix added to the save file's name to name its index file. */
+    public static final String INDEX_SUFFIX = ".index";
+    /** The suffix added to the save file's name to name the file damaged tasks are copied to. */
+    public static final String QUARANTINE_SUFFIX = ".quarantine";
+
     private static final DateTimeFormatter DATETIME_FILE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    /** Ends each save file line, followed by eight hex digits of the checksum of the line before it. */
+    private static final String CHECKSUM_PREFIX = " | crc:";
+    private static final int CHECKSUM_DIGITS = 8;
+    /** "JNJI" in ASCII, marking a Jinjja index file. */
+    private static final int INDEX_MAGIC = 0x4A4E4A49;
+    private static final int INDEX_VERSION = 1;
+    /** Magic, version, records generation, task count, image length and checksum. */
+    private static final int INDEX_HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
 
     private String filePath;
+    private final SaveFileLock lock;
+    private RecordStore recordStore;
+    /** This Storage's claim on the records, held from when it first uses them until it is closed. */
+    private FileLock recordsClaim;
+    private LoadReport lastLoadReport;
+    /**
+     * The save file as last loaded, saved or seen by a watcher, to tell changes made elsewhere from Jinjja's own; null
+     * if unknown.
+     */
+    private List<String> savedLines;
+    /** The save file's generation as last loaded or saved here, to tell saves made by another Jinjja; -1 if unknown. */
+    private long knownGeneration = -1;
+    /** The save file as of the known generation, to merge another Jinjja's saves against; null if unknown. */
+    private List<String> knownLines;
 
     /**
      * Constructs a Storage object with the specified file path.
@@ -32,11 +100,13 @@ public class Storage {
         assert filePath != null : "File path cannot be null";
         assert !filePath.trim().isEmpty() : "File path cannot be empty";
         this.filePath = filePath;
+        this.lock = new SaveFileLock(Path.of(filePath));
     }
 
     /**
      * Saves the list of tasks to a file in a specific format. Creates the data directory if it doesn't exist.
-     * Overwrites existing file content.
+     * Overwrites existing file content, even if another Jinjja has saved it since. Deletes any records and index file,
+     * since they no longer match the file, unless another Jinjja is using them.
      *
      * @param tasks The list of tasks to save
      * @throws IOException If an error occurs while saving tasks to the file
@@ -44,90 +114,654 @@ public class Storage {
     public void saveTasksToFile(ArrayList<Task> tasks) throws IOException {
         assert tasks != null : "Task list cannot be null when saving";
         assert this.filePath != null : "File path should be initialized";
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long start = System.nanoTime();
 
+        List<String> lines = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            assert task != null : "Individual task in list should not be null";
+            lines.add(task.toFileFormat());
+        }
+        this.lock.write(generation-> {
+            closeRecordStore();
+            if (claimRecords()) {
+                Files.deleteIfExists(getRecordsPath());
+                Files.deleteIfExists(getIndexPath());
+            }
+            writeTextFile(lines, generation);
+            return null;
+        });
+        long bytes = new File(this.filePath).length();
+        Metrics.global().recordSave(System.nanoTime() - start, bytes);
+        commitEvent(event, "save", this.filePath, tasks.size(), bytes);
+        System.out.println("Tasks saved to " + this.filePath);
+    }
+
+    /**
+     * Saves a task list to the save file, then writes its records and index file for the next load. Changes to the
+     * list are not held off while they are written: the three are written from a copy taken at the start, and the
+     * records are then caught up on the changes made meanwhile and kept up to date from then on. Failing to write the
+     * records or index file is not an error, since the next load falls back to the save file.
+     *
+     * @param list The task list to save
+     * @throws SaveConflictException If another Jinjja has saved since the file was last loaded or saved here, in
+     *     which case nothing was written, and the list should be merged with the other's save and saved again
+     * @throws IOException If an error occurs while saving tasks to the file
+     */
+    public void saveTaskList(TaskList list) throws IOException {
+        assert list != null : "Task list cannot be null when saving";
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long start = System.nanoTime();
+        TaskListSnapshot.save(list, snapshot->writeSaveFiles(snapshot, event, start));
+    }
+
+    /**
+     * Writes the save file, records and index file for a snapshot, and returns the records to keep up to date.
+     */
+    private RecordStore writeSaveFiles(TaskListSnapshot snapshot, StorageEvent event, long start)
+            throws IOException {
+        return this.lock.write(generation-> {
+            checkGeneration(generation);
+            writeTextFile(snapshot.getFileLines(), generation);
+            return writeRecords(snapshot, event, start);
+        });
+    }
+
+    /**
+     * Refuses to save over a save made by another Jinjja since the save file was last loaded or saved here, handing
+     * back what the other saved. Loading and saving bring the known generation up to date, so a save that finds the
+     * other's is refused once, and the save after the merge goes ahead.
+     */
+    private void checkGeneration(long generation) throws IOException {
+        ExternalChange change;
+        synchronized (this) {
+            if (this.knownGeneration < 0 || generation == this.knownGeneration) {
+                return;
+            }
+            File dataFile = new File(this.filePath);
+            List<String> lines = new ArrayList<>();
+            List<Task> tasks = dataFile.exists()
+                    ? readTextFile(dataFile, new LoadReport(this.filePath), lines)
+                    : new ArrayList<>();
+            // Without a base, which records do not keep, the merge can add and mark tasks but not delete them
+            change = new ExternalChange(this.knownLines == null ? List.of() : this.knownLines, tasks);
+            this.knownLines = lines;
+            this.knownGeneration = generation;
+        }
+        throw new SaveConflictException(this.filePath, change);
+    }
+
+    /**
+     * Writes the records and index file for a snapshot already in the save file, and returns the records to keep up
+     * to date, or null if they could not be written or another Jinjja has them.
+     */
+    private RecordStore writeRecords(TaskListSnapshot snapshot, StorageEvent event, long start) throws IOException {
+        long bytes = new File(this.filePath).length();
+        commitEvent(event, "save", this.filePath, snapshot.getTaskCount(), bytes);
+        System.out.println("Tasks saved to " + this.filePath);
+
+        closeRecordStore();
+        StorageEvent recordsEvent = new StorageEvent();
+        recordsEvent.begin();
+        try {
+            if (!claimRecords()) {
+                Metrics.global().recordSave(System.nanoTime() - start, bytes);
+                return null;
+            }
+            this.recordStore = RecordStore.write(Path.of(this.filePath), snapshot.getTasks());
+            commitEvent(recordsEvent, "save records", getRecordsPath().toString(), snapshot.getTaskCount(),
+                    this.recordStore.getSizeOnDisk());
+            bytes += this.recordStore.getSizeOnDisk();
+        } catch (IOException e) {
+            System.out.println("Could not write " + getRecordsPath() + ": " + e.getMessage());
+            Metrics.global().recordSave(System.nanoTime() - start, bytes);
+            return null;
+        }
+
+        StorageEvent indexEvent = new StorageEvent();
+        indexEvent.begin();
+        try {
+            long indexBytes = writeIndex(snapshot, this.recordStore.getGeneration());
+            commitEvent(indexEvent, "save index", getIndexPath().toString(), snapshot.getTaskCount(), indexBytes);
+            bytes += indexBytes;
+        } catch (IOException e) {
+            System.out.println("Could not write " + getIndexPath() + ": " + e.getMessage());
+        }
+        Metrics.global().recordSave(System.nanoTime() - start, bytes);
+        return this.recordStore;
+    }
+
+    /**
+     * Writes the given lines to the save file, replacing it in one step so a watcher never reads half of it. Creates
+     * its directory if it doesn't exist. Must be called holding the lock for writing, at the given generation.
+     */
+    private synchronized void writeTextFile(List<String> lines, long generation) throws IOException {
         // Create directory if it doesn't exist
-        File dataDir = new File("ip/data");
+        File dataDir = new File(this.filePath).getAbsoluteFile().getParentFile();
         if (!dataDir.exists()) {
             boolean dirCreated = dataDir.mkdirs();
             assert dirCreated || dataDir.exists() : "Data directory should be created or already exist";
         }
 
-        // Write all current tasks into the file
-        // Will override existing data if file already exists
-        FileWriter writer = new FileWriter(this.filePath);
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.get(i);
-            assert task != null : "Individual task in list should not be null";
-            String fileFormat = task.toFileFormat();
-            assert fileFormat != null && !fileFormat.trim().isEmpty() : "Task file format should not be null or empty";
-            writer.write(fileFormat + "\n");
+        // Write all current tasks into a new file, then put it in place of any existing one. Always UTF-8, which the
+        // checksums are computed over, whatever the platform's default charset
+        Path partFile = Path.of(this.filePath + ".part");
+        try (BufferedWriter writer = Files.newBufferedWriter(partFile, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                assert line != null && !line.trim().isEmpty() : "Task file format should not be null or empty";
+                writer.write(line + checksumFieldOf(line) + "\n");
+            }
         }
-        writer.close();
-        System.out.println("Tasks saved to " + this.filePath);
+        Files.move(partFile, Path.of(this.filePath), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.savedLines = List.copyOf(lines);
+        this.knownLines = this.savedLines;
+        this.knownGeneration = generation + 1;
+    }
+
+    /**
+     * Writes the index image of a snapshot, stamped with the generation of the records it indexes, replacing any
+     * earlier index file in one step so a reader never sees half of one.
+     *
+     * @return The size of the index file written
+     */
+    private long writeIndex(TaskListSnapshot snapshot, long generation) throws IOException {
+        byte[] image = snapshot.getIndexImage();
+        CRC32C checksum = new CRC32C();
+        checksum.update(image);
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+        header.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putLong(generation).putInt(snapshot.getTaskCount())
+                .putInt(image.length).putInt((int) checksum.getValue());
+        header.flip();
+
+        Path indexFile = getIndexPath();
+        Path partFile = indexFile.resolveSibling(indexFile.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer body = ByteBuffer.wrap(image);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[] {header, body});
+            }
+        }
+        Files.move(partFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return INDEX_HEADER_BYTES + image.length;
+    }
+
+    /**
+     * Loads the task list, from its records if the save file has not changed since they were written and they are
+     * intact, or else from the save file. A list loaded from records has its index restored too, if the index file
+     * matches them, and is kept up to date in the records as it changes.
+     *
+     * @return The loaded task list, empty if there is no save file
+     * @throws IOException If an error occurs while reading the save file
+     */
+    public TaskList loadTaskList() throws IOException {
+        TaskList list = this.lock.read(generation-> {
+            TaskList loaded = loadRecords(generation);
+            return loaded != null ? loaded : new TaskList(readSaveFile(generation));
+        });
+        if (!this.lastLoadReport.getDamage().isEmpty()) {
+            // The damaged tasks are quarantined, so save without them rather than find them again on the next load
+            try {
+                saveTaskList(list);
+            } catch (SaveConflictException e) {
+                SaveFileMerge merge = e.getChange().merge(list.getTasks());
+                list.applyChanges(merge.getMarks(), merge.getRemovals(), merge.getAdditions());
+                System.out.println(merge.format());
+                saveTaskList(list);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Reads the tasks from the records, if they are current, and restores their index.
+     *
+     * @return The restored list, or null if the save file must be loaded instead
+     */
+    private TaskList loadRecords(long generation) {
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long start = System.nanoTime();
+        RecordStore store = null;
+        try {
+            if (!claimRecords()) {
+                // Another Jinjja is using the records, so the save file is loaded instead
+                return null;
+            }
+            store = RecordStore.openIfCurrent(Path.of(this.filePath));
+            if (store == null) {
+                return null;
+            }
+            LoadReport report = new LoadReport(getRecordsPath().toString());
+            TaskList list = new TaskList(store.readTasks(report));
+            long bytes = store.getSizeOnDisk();
+            if (report.getDamage().isEmpty()) {
+                restoreIndex(list, store.getGeneration());
+                list.setListener(store);
+                closeRecordStore();
+                this.recordStore = store;
+                synchronized (this) {
+                    // Only known once watching starts, which reads the save file for it
+                    this.savedLines = null;
+                    this.knownLines = null;
+                    this.knownGeneration = generation;
+                }
+            } else {
+                // The tasks no longer line up with the records, which are written afresh once the load is done
+                store.close();
+            }
+            Metrics.global().recordLoad(System.nanoTime() - start, bytes);
+            commitEvent(event, "load records", getRecordsPath().toString(), list.getSize(), bytes);
+            System.out.println("Tasks loaded from " + this.filePath);
+            finishLoad(report);
+            return list;
+        } catch (IOException e) {
+            System.out.println("Ignoring " + getRecordsPath() + " because " + e.getMessage());
+            if (store != null) {
+                store.close();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Maps the index file and restores the list's index from it, if it was written for records of the given
+     * generation. Otherwise the list rebuilds its index when first queried.
+     */
+    private void restoreIndex(TaskList list, long generation) {
+        Path indexFile = getIndexPath();
+        if (!Files.isRegularFile(indexFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes < INDEX_HEADER_BYTES) {
+                throw new IOException("it is shorter than its header");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+            if (buffer.getInt() != INDEX_MAGIC || buffer.getInt() != INDEX_VERSION || buffer.getLong() != generation
+                    || buffer.getInt() != list.getSize()) {
+                // Written by another version of Jinjja, or before tasks were added or deleted
+                return;
+            }
+            int imageLength = buffer.getInt();
+            int expectedChecksum = buffer.getInt();
+            if (imageLength != buffer.remaining()) {
+                throw new IOException("its length does not match its header");
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.slice());
+            if ((int) checksum.getValue() != expectedChecksum) {
+                throw new IOException("its checksum does not match");
+            }
+            TaskListSnapshot.restoreIndex(list, buffer.slice());
+        } catch (IOException e) {
+            System.out.println("Ignoring " + indexFile + " because " + e.getMessage());
+        }
+    }
+
+    /**
+     * Claims the records for this Storage, unless it already has them.
+     *
+     * @return true if this Storage has the records, false if another Jinjja does
+     */
+    private synchronized boolean claimRecords() throws IOException {
+        if (this.recordsClaim == null) {
+            this.recordsClaim = this.lock.claimRecords();
+        }
+        return this.recordsClaim != null;
+    }
+
+    /**
+     * Closes the records and gives them up, so that another Jinjja sharing the save file can use them. The save file
+     * can still be loaded and saved afterwards.
+     */
+    public synchronized void close() {
+        closeRecordStore();
+        if (this.recordsClaim != null) {
+            try {
+                this.recordsClaim.channel().close();
+            } catch (IOException e) {
+                // Closing the channel releases the claim even if it fails
+            }
+            this.recordsClaim = null;
+        }
+    }
+
+    private void closeRecordStore() {
+        if (this.recordStore != null) {
+            this.recordStore.close();
+            this.recordStore = null;
+        }
+    }
+
+    /**
+     * Returns the path of the file damaged tasks are copied to.
+     *
+     * @return The quarantine file path
+     */
+    public Path getQuarantinePath() {
+        return Path.of(this.filePath + QUARANTINE_SUFFIX);
+    }
+
+    /**
+     * Returns what the last load recovered and dropped.
+     *
+     * @return The report, or null if nothing has been loaded
+     */
+    public LoadReport getLastLoadReport() {
+        return this.lastLoadReport;
+    }
+
+    /**
+     * Starts watching the save file for changes made by something other than this Storage, such as a sync tool
+     * bringing in edits from another machine, and hands each one to the handler on the watcher's own thread. Writes
+     * that leave the tasks as they were last loaded or saved, including this Storage's own saves, are ignored, as are
+     * the file being deleted and writes that leave it damaged, which are most likely still under way.
+     *
+     * @param handler The handler to merge changes into the task list
+     * @return The watcher, to close when done
+     * @throws IOException if the save file's directory cannot be watched
+     */
+    public SaveFileWatcher watch(Consumer<ExternalChange> handler) throws IOException {
+        assert handler != null : "Handler cannot be null";
+        SaveFileWatcher watcher = new SaveFileWatcher(Path.of(this.filePath), ()->checkForExternalChange(handler));
+        try {
+            this.lock.read(generation-> {
+                synchronized (this) {
+                    if (this.savedLines == null) {
+                        // Loaded from records, so the save file still holds what was last saved, unless changed since
+                        File dataFile = new File(this.filePath);
+                        List<String> lines = new ArrayList<>();
+                        if (dataFile.exists()) {
+                            readTextFile(dataFile, new LoadReport(this.filePath), lines);
+                        }
+                        this.savedLines = lines;
+                        if (generation == this.knownGeneration) {
+                            this.knownLines = lines;
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+        watcher.start();
+        return watcher;
+    }
+
+    /**
+     * Reads the save file after a watcher saw it written, and hands it to the handler if it changed.
+     */
+    private void checkForExternalChange(Consumer<ExternalChange> handler) {
+        ExternalChange change;
+        try {
+            change = this.lock.read(generation->readExternalChange());
+        } catch (IOException e) {
+            System.out.println("Could not read " + this.filePath + " after it changed: " + e.getMessage());
+            return;
+        }
+        if (change == null) {
+            return;
+        }
+        try {
+            handler.accept(change);
+        } catch (RuntimeException e) {
+            System.out.println("Could not pick up the changes to " + this.filePath + ": " + e);
+        }
+    }
+
+    /**
+     * Reads the save file and compares it with what was last loaded, saved or seen here. The known generation is left
+     * alone, so a save made before the change is merged still checks for another Jinjja's save.
+     *
+     * @return The change, or null if there is none to hand over
+     */
+    private synchronized ExternalChange readExternalChange() throws IOException {
+        File dataFile = new File(this.filePath);
+        if (!dataFile.exists()) {
+            return null;
+        }
+        LoadReport report = new LoadReport(this.filePath);
+        List<String> lines = new ArrayList<>();
+        List<Task> tasks = readTextFile(dataFile, report, lines);
+        if (!report.getDamage().isEmpty()) {
+            System.out.println(this.filePath + " changed, but not all of it could be read. Waiting for the rest.");
+            return null;
+        }
+        if (lines.equals(this.savedLines)) {
+            return null;
+        }
+        ExternalChange change = new ExternalChange(this.savedLines, tasks);
+        this.savedLines = lines;
+        return change;
+    }
+
+    /**
+     * Returns the path of the records kept next to the save file.
+     *
+     * @return The records path
+     */
+    public Path getRecordsPath() {
+        return RecordStore.recordsPathOf(Path.of(this.filePath));
+    }
+
+    /**
+     * Returns the path of the index file kept next to the save file.
+     *
+     * @return The index file path
+     */
+    public Path getIndexPath() {
+        return Path.of(this.filePath + INDEX_SUFFIX);
     }
 
     /**
      * Loads tasks from the specified file path. If the file doesn't exist, returns an empty list. Parses each line to
-     * recreate Todo, Deadline, and Event tasks.
+     * recreate Todo, Deadline, and Event tasks. A line that fails its checksum or cannot be parsed is dropped and
+     * quarantined, and the load carries on; {@link #getLastLoadReport()} tells what was dropped.
      *
      * @return The list of tasks loaded from the file
      * @throws IOException If an error occurs while reading the file
      */
     public ArrayList<Task> loadTasksFromFile() throws IOException {
+        return this.lock.read(this::readSaveFile);
+    }
+
+    /**
+     * Loads tasks from the save file, which must not change meanwhile, at the given generation.
+     */
+    private ArrayList<Task> readSaveFile(long generation) throws IOException {
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long start = System.nanoTime();
         File dataFile = new File(this.filePath);
-        ArrayList<Task> tasks = new ArrayList<>();
+        LoadReport report = new LoadReport(this.filePath);
+        this.lastLoadReport = report;
 
         if (!dataFile.exists()) {
             System.out.println("No existing task list found. Starting a new list.");
-            return tasks;
+            synchronized (this) {
+                this.savedLines = List.of();
+                this.knownLines = this.savedLines;
+                this.knownGeneration = generation;
+            }
+            return new ArrayList<>();
         }
 
-        Scanner fileScanner = new Scanner(dataFile);
-        while (fileScanner.hasNextLine()) {
-            String line = fileScanner.nextLine();
-            Task task = parseTaskFromLine(line);
-            if (task != null) {
-                tasks.add(task);
-            }
+        ArrayList<Task> tasks;
+        synchronized (this) {
+            List<String> lines = new ArrayList<>();
+            tasks = readTextFile(dataFile, report, lines);
+            this.savedLines = lines;
+            this.knownLines = lines;
+            this.knownGeneration = generation;
         }
-        fileScanner.close();
+        long bytes = dataFile.length();
+        Metrics.global().recordLoad(System.nanoTime() - start, bytes);
+        commitEvent(event, "load", this.filePath, tasks.size(), bytes);
         System.out.println("Tasks loaded from " + this.filePath);
+        finishLoad(report);
+        return tasks;
+    }
+
+    /**
+     * Reads the tasks in the save file, noting each loaded and damaged one in the report, and collecting the lines of
+     * the loaded ones, without checksums.
+     */
+    private static ArrayList<Task> readTextFile(File dataFile, LoadReport report, List<String> lines)
+            throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        // Damaged bytes become replacement characters, which then fail the line's checksum, instead of ending the load
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(dataFile),
+                decoder))) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Task task = readLine(line, lineNumber, report, lines);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        }
         return tasks;
     }
 
+    /**
+     * Checks a save file line against its checksum, if it has one, and parses it.
+     *
+     * @return The task, or null if the line is damaged, in which case it is noted in the report
+     */
+    private static Task readLine(String line, int lineNumber, LoadReport report, List<String> lines) {
+        String text = line;
+        boolean isChecked = false;
+        int checksumAt = line.length() - CHECKSUM_PREFIX.length() - CHECKSUM_DIGITS;
+        if (checksumAt >= 0 && line.startsWith(CHECKSUM_PREFIX, checksumAt)) {
+            text = line.substring(0, checksumAt);
+            isChecked = true;
+        }
+        try {
+            if (isChecked && Integer.parseUnsignedInt(line, checksumAt + CHECKSUM_PREFIX.length(), line.length(), 16)
+                    != checksumOf(text)) {
+                throw new IllegalArgumentException("its checksum does not match");
+            }
+            Task task = parseTaskFromLine(text);
+            report.addLoaded(isChecked);
+            lines.add(text);
+            return task;
+        } catch (DateTimeException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            report.addDamage("line " + lineNumber, e.getMessage(), line);
+            return null;
+        }
+    }
+
+    private static int checksumOf(String line) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(line.getBytes(StandardCharsets.UTF_8));
+        return (int) checksum.getValue();
+    }
+
+    private static String checksumFieldOf(String line) {
+        String digits = Integer.toHexString(checksumOf(line));
+        return CHECKSUM_PREFIX + "0".repeat(CHECKSUM_DIGITS - digits.length()) + digits;
+    }
+
+    /**
+     * Copies the damaged tasks of a load to the quarantine file, and tells the user about any damage.
+     */
+    private void finishLoad(LoadReport report) {
+        this.lastLoadReport = report;
+        if (!report.getDamage().isEmpty()) {
+            Path quarantineFile = getQuarantinePath();
+            List<String> lines = new ArrayList<>();
+            String heading = "# " + LocalDateTime.now().format(DATETIME_FILE) + " " + report.getSource() + " ";
+            for (LoadReport.Damage damage : report.getDamage()) {
+                lines.add(heading + damage.location() + ": " + damage.reason());
+                lines.add(damage.content());
+            }
+            try {
+                Files.write(quarantineFile, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                report.setQuarantineFile(quarantineFile);
+            } catch (IOException e) {
+                System.out.println("Could not write " + quarantineFile + ": " + e.getMessage());
+            }
+        }
+        if (report.hasProblems()) {
+            System.out.println(report.format());
+        }
+    }
+
+    /**
+     * Ends a storage event and commits it if a flight recording is taking storage events.
+     */
+    private static void commitEvent(StorageEvent event, String operation, String path, int taskCount, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setOperation(operation);
+            event.setPath(path);
+            event.setTaskCount(taskCount);
+            event.setBytes(bytes);
+            event.commit();
+        }
+    }
+
     /**
      * Parses a single line from the file and creates the corresponding Task object.
      *
      * @param line The line from the file to parse
-     * @return The Task object created from the line, or null if parsing fails
+     * @return The Task object created from the line
+     * @throws IllegalArgumentException if a field is missing or malformed
+     * @throws DateTimeException if a date cannot be parsed
      */
-    private Task parseTaskFromLine(String line) {
+    private static Task parseTaskFromLine(String line) {
         assert line != null : "File line should not be null";
         String[] parts = line.split(" \\| ");
-        assert parts.length >= 3 : "File format should have at least 3 parts";
+        checkFields(parts, 3);
 
         String taskType = parts[0];
-        assert taskType != null && !taskType.trim().isEmpty() : "Task type should not be null or empty";
+        if (!parts[1].equals("0") && !parts[1].equals("1")) {
+            throw new IllegalArgumentException("its done field is " + parts[1]);
+        }
         boolean isDone = parts[1].equals("1");
         String description = parts[2];
         assert description != null : "Task description should not be null";
 
         Task task = createTaskByType(taskType, description, parts);
-        if (task != null) {
-            task.setDone(isDone);
-        }
+        task.setDone(isDone);
         return task;
     }
 
+    /**
+     * Checks that a line has at least the given number of fields.
+     *
+     * @throws IllegalArgumentException if it has fewer
+     */
+    private static void checkFields(String[] parts, int count) {
+        if (parts.length < count) {
+            throw new IllegalArgumentException("it has " + parts.length + " fields instead of " + count);
+        }
+    }
+
     /**
      * Creates a Task object based on the task type and parsed parts.
      *
      * @param taskType The type of task (T, D, E, TE)
      * @param description The task description
      * @param parts The complete parsed parts from the file line
-     * @return The created Task object, or null if task type is unknown
+     * @return The created Task object
+     * @throws IllegalArgumentException if the task type is unknown
      */
-    private Task createTaskByType(String taskType, String description, String[] parts) {
+    private static Task createTaskByType(String taskType, String description, String[] parts) {
         switch (taskType) {
         case "T":
             return new Todo(description);
@@ -138,8 +772,7 @@ public class Storage {
         case "TE":
             return createTentativeTask(description, parts);
         default:
-            System.out.println("Unknown task type in file: " + taskType);
-            return null;
+            throw new IllegalArgumentException("its task type " + taskType + " is unknown");
         }
     }
 
@@ -150,10 +783,9 @@ public class Storage {
      * @param parts The parsed parts from the file line
      * @return The created Deadline task
      */
-    private Task createDeadlineTask(String description, String[] parts) {
-        assert parts.length >= 4 : "Deadline task should have at least 4 parts";
+    private static Task createDeadlineTask(String description, String[] parts) {
+        checkFields(parts, 4);
         String byDateString = parts[3];
-        assert byDateString != null && !byDateString.trim().isEmpty() : "Deadline date should not be null or empty";
         LocalDateTime byDate = LocalDateTime.parse(byDateString, DATETIME_FILE);
         return new Deadline(description, byDate);
     }
@@ -165,17 +797,16 @@ public class Storage {
      * @param parts The parsed parts from the file line
      * @return The created Event task
      */
-    private Task createEventTask(String description, String[] parts) {
-        assert parts.length >= 5 : "Event task should have at least 5 parts";
+    private static Task createEventTask(String description, String[] parts) {
+        checkFields(parts, 5);
         String fromDateString = parts[3];
         String toDateString = parts[4];
-        assert fromDateString != null
-                && !fromDateString.trim().isEmpty() : "Event from date should not be null or empty";
-        assert toDateString != null && !toDateString.trim().isEmpty() : "Event to date should not be null or empty";
 
         LocalDateTime fromDate = LocalDateTime.parse(fromDateString, DATETIME_FILE);
         LocalDateTime toDate = LocalDateTime.parse(toDateString, DATETIME_FILE);
-        assert !fromDate.isAfter(toDate) : "Event start time should not be after end time";
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("its event ends before it starts");
+        }
         return new Event(description, fromDate, toDate);
     }
 
@@ -186,8 +817,8 @@ public class Storage {
      * @param parts The parsed parts from the file line
      * @return The created Tentative task
      */
-    private Task createTentativeTask(String description, String[] parts) {
-        assert parts.length >= 5 : "Tentative task should have at least 5 parts";
+    private static Task createTentativeTask(String description, String[] parts) {
+        checkFields(parts, 5);
         Tentative tentative = new Tentative(description);
 
         parseConfirmedSlot(tentative, parts[3]);
@@ -202,7 +833,7 @@ public class Storage {
      * @param tentative The Tentative task to add the confirmed slot to
      * @param confirmedSlotString The confirmed slot string from the file
      */
-    private void parseConfirmedSlot(Tentative tentative, String confirmedSlotString) {
+    private static void parseConfirmedSlot(Tentative tentative, String confirmedSlotString) {
         if (!confirmedSlotString.isEmpty()) {
             String[] confirmedSlotParts = confirmedSlotString.split("\\|");
             if (confirmedSlotParts.length == 2) {
@@ -220,9 +851,12 @@ public class Storage {
      * @param tentative The Tentative task to add slots to
      * @param parts The parsed parts from the file line
      */
-    private void parseTentativeSlots(Tentative tentative, String[] parts) {
+    private static void parseTentativeSlots(Tentative tentative, String[] parts) {
         int slotCount = Integer.parseInt(parts[4]);
-        assert parts.length >= 5 + slotCount : "Tentative should have all slots data";
+        if (slotCount < 0) {
+            throw new IllegalArgumentException("its slot count is " + slotCount);
+        }
+        checkFields(parts, 5 + slotCount);
 
         for (int i = 0; i < slotCount; i++) {
             String slotString = parts[5 + i];
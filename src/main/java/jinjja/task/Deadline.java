@@ -25,6 +25,15 @@ public class Deadline extends Task {
         this.by = by;
     }
 
+    /**
+     * Returns the date and time by which the task should be completed.
+     *
+     * @return The deadline
+     */
+    public LocalDateTime getBy() {
+        return this.by;
+    }
+
     /**
      * Converts the deadline task to a format suitable for saving to a file. The format is "D | [completion status] |
      * [description] | [deadline]".
@@ -43,7 +52,7 @@ public class Deadline extends Task {
      * @return A string representation of the deadline task
      */
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + this.by.format(DATETIME_OUTPUT) + ")";
+    protected String renderDisplayString() {
+        return "[D]" + super.renderDisplayString() + " (by: " + this.by.format(DATETIME_OUTPUT) + ")";
     }
 }
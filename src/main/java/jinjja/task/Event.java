@@ -29,6 +29,24 @@ public class Event extends Task {
         this.to = to;
     }
 
+    /**
+     * Returns the date and time at which the event starts.
+     *
+     * @return The start time
+     */
+    public LocalDateTime getFrom() {
+        return this.from;
+    }
+
+    /**
+     * Returns the date and time at which the event ends.
+     *
+     * @return The end time
+     */
+    public LocalDateTime getTo() {
+        return this.to;
+    }
+
     @Override
     public String toFileFormat() {
         return "E | " + super.toFileFormat() + " | " + this.from.format(DATETIME_FILE) + " | "
@@ -36,8 +54,8 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[E]" + super.toString() + " (from: " + this.from.format(DATETIME_OUTPUT) + " to: "
+    protected String renderDisplayString() {
+        return "[E]" + super.renderDisplayString() + " (from: " + this.from.format(DATETIME_OUTPUT) + " to: "
                 + this.to.format(DATETIME_OUTPUT) + ")";
     }
 }
@@ -0,0 +1,107 @@
+package jinjja.task;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Sizes of objects on this JVM's heap, for estimating what the task list costs without a heap dump. The sizes follow
+ * the HotSpot object layout: a header, then the fields packed together, then padding to the object alignment. The
+ * layout flags are read from the running JVM, falling back to the defaults of a 64-bit JVM with a heap under 32 GB.
+ */
+final class HeapLayout {
+    /** The size of a reference field or array element. */
+    static final int REFERENCE;
+    /** The size of an object header. */
+    static final int HEADER;
+    /** The size of an array header, including its length. */
+    static final int ARRAY_HEADER;
+    /** The size every object is padded to a multiple of. */
+    static final int ALIGNMENT;
+
+    /** The initial capacity ArrayList grows to on its first add. */
+    private static final int ARRAY_LIST_DEFAULT_CAPACITY = 10;
+
+    static {
+        boolean hasCompressedOops = true;
+        boolean hasCompressedClassPointers = true;
+        int alignment = 8;
+        try {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            hasCompressedOops = Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+            hasCompressedClassPointers =
+                    Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedClassPointers").getValue());
+            alignment = Integer.parseInt(hotSpot.getVMOption("ObjectAlignmentInBytes").getValue());
+        } catch (RuntimeException e) {
+            // Not HotSpot, or the flags are not readable: keep the usual defaults
+        }
+        REFERENCE = hasCompressedOops ? 4 : 8;
+        HEADER = hasCompressedClassPointers ? 12 : 16;
+        ARRAY_HEADER = HEADER + 4;
+        ALIGNMENT = alignment;
+    }
+
+    private HeapLayout() {
+    }
+
+    /**
+     * Returns the size of an object with the given number of reference fields and bytes of primitive fields.
+     */
+    static long object(int referenceFields, int primitiveBytes) {
+        return align(HEADER + (long) referenceFields * REFERENCE + primitiveBytes);
+    }
+
+    /**
+     * Returns the size of an array with the given length and element size.
+     */
+    static long array(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+
+    /**
+     * Returns the size of an array of references with the given length.
+     */
+    static long referenceArray(int length) {
+        return array(length, REFERENCE);
+    }
+
+    /**
+     * Returns the size of a string and its characters. Strings of Latin-1 characters take one byte per character,
+     * others two.
+     */
+    static long string(String text) {
+        boolean isLatin1 = true;
+        for (int i = 0; i < text.length() && isLatin1; i++) {
+            isLatin1 = text.charAt(i) <= 0xFF;
+        }
+        // A reference to the byte array, the cached hash, the coder and the flag marking a zero hash
+        return object(1, 4 + 1 + 1) + array(text.length(), isLatin1 ? 1 : 2);
+    }
+
+    /**
+     * Returns the capacity an ArrayList reaches after the given number of adds, starting empty.
+     */
+    static int arrayListCapacity(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        int capacity = ARRAY_LIST_DEFAULT_CAPACITY;
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the size of an ArrayList that had the given number of elements added, without its elements.
+     */
+    static long arrayList(int size) {
+        // The elements array, the size, and the modification count inherited from AbstractList
+        long list = object(1, 4 + 4);
+        return list + (size == 0 ? 0 : referenceArray(arrayListCapacity(size)));
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
@@ -0,0 +1,64 @@
+package jinjja.task;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A read-only view of a task list together with its secondary indexes, for query planners. Tasks are addressed by
+ * their 0-based position in the list. Every method that returns a BitSet returns a new one that the caller owns.
+ *
+ * <p>A view is only valid inside {@link TaskList#readIndexed}, while the list is locked against writers.
+ */
+public interface IndexedTasks {
+    /**
+     * The task times that are kept in a time index. {@link #BY} covers deadlines; {@link #FROM} and {@link #TO}
+     * cover events. Tentative events are not time-indexed, because confirming a slot changes their times.
+     */
+    enum TimeKey {
+        BY, FROM, TO
+    }
+
+    int size();
+
+    Task getTask(int position);
+
+    /**
+     * Returns the positions of the tasks that are done.
+     */
+    BitSet done();
+
+    int countDone();
+
+    /**
+     * Returns the positions of the tasks of the given type.
+     */
+    BitSet ofType(TaskType type);
+
+    int countOfType(TaskType type);
+
+    /**
+     * Returns the positions of the tasks whose descriptions contain every one of the given words.
+     *
+     * @param keywords Lowercase words, as produced by {@link Keywords#of(String)}
+     */
+    BitSet withKeywords(List<String> keywords);
+
+    /**
+     * Returns the number of tasks whose descriptions contain the given lowercase word.
+     */
+    int countWithKeyword(String keyword);
+
+    /**
+     * Returns the positions of the indexed tasks whose time falls within a range. A null bound leaves that side of
+     * the range open.
+     */
+    BitSet inRange(TimeKey key, LocalDateTime lower, boolean isLowerInclusive, LocalDateTime upper,
+            boolean isUpperInclusive);
+
+    /**
+     * Returns the number of indexed tasks whose time falls within a range, without building the result.
+     */
+    int countInRange(TimeKey key, LocalDateTime lower, boolean isLowerInclusive, LocalDateTime upper,
+            boolean isUpperInclusive);
+}
@@ -0,0 +1,38 @@
+package jinjja.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits task descriptions into the lowercase words used by the keyword index and by keyword queries.
+ */
+public final class Keywords {
+    private Keywords() {
+    }
+
+    /**
+     * Returns the distinct lowercase words in the text, in order of first appearance. Words are runs of letters and
+     * digits; everything else separates them.
+     *
+     * @param text The text to split
+     * @return The words in the text
+     */
+    public static List<String> of(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,237 @@
+package jinjja.task;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An estimate of the heap a task list retains, broken down by task type and by what the bytes hold. It is worked out
+ * from the structure of the tasks and the sizes in {@link HeapLayout}, so it needs no heap dump and takes about as
+ * long as listing the tasks.
+ *
+ * <p>Each object is counted once, by whatever owns it: dates by the task that holds them, keywords by the index.
+ * Times on the hour are the JDK's shared constants and cost nothing. The per-type sizes below must follow the fields
+ * of the task classes; the heap measurement in the tests catches them drifting apart.
+ */
+public class MemoryFootprint {
+    /**
+     * What the bytes of a task type are spent on.
+     */
+    public enum Part {
+        TASKS("tasks"), DESCRIPTIONS("descr."), DATES("dates"), SLOTS("slots"), DISPLAY("display");
+
+        private final String heading;
+
+        Part(String heading) {
+            this.heading = heading;
+        }
+    }
+
+    /**
+     * The parts of the task index.
+     */
+    public enum IndexPart {
+        DONE("done"), TYPES("types"), TIMES("times"), KEYWORDS("keywords");
+
+        private final String label;
+
+        IndexPart(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final int KILOBYTE = 1024;
+
+    private final int[] counts = new int[TaskType.values().length];
+    private final long[][] bytes = new long[TaskType.values().length][Part.values().length];
+    private final long[] indexBytes = new long[IndexPart.values().length];
+    private long listBytes;
+
+    MemoryFootprint() {
+    }
+
+    /**
+     * Accounts for one task and everything it alone refers to.
+     */
+    void addTask(Task task) {
+        TaskType type = TaskType.of(task);
+        long[] typeBytes = this.bytes[type.ordinal()];
+        this.counts[type.ordinal()]++;
+        // Every task has its description and cached display line, a done flag and a display version
+        int referenceFields = 2;
+        switch (type) {
+        case DEADLINE:
+            referenceFields += 1;
+            typeBytes[Part.DATES.ordinal()] += dateTime(((Deadline) task).getBy());
+            break;
+        case EVENT:
+            referenceFields += 2;
+            typeBytes[Part.DATES.ordinal()] += dateTime(((Event) task).getFrom()) + dateTime(((Event) task).getTo());
+            break;
+        case TENTATIVE:
+            // The slot list and the confirmed slot, which is one of the listed slots
+            referenceFields += 2;
+            List<Tentative.TimeSlot> slots = ((Tentative) task).getTentativeSlots();
+            typeBytes[Part.SLOTS.ordinal()] += HeapLayout.arrayList(slots.size())
+                    + slots.size() * HeapLayout.object(2, 0);
+            for (Tentative.TimeSlot slot : slots) {
+                typeBytes[Part.DATES.ordinal()] += dateTime(slot.getFrom()) + dateTime(slot.getTo());
+            }
+            break;
+        default:
+            break;
+        }
+        typeBytes[Part.TASKS.ordinal()] += HeapLayout.object(referenceFields, 1 + 4);
+        typeBytes[Part.DESCRIPTIONS.ordinal()] += HeapLayout.string(task.getDescription());
+        String display = task.peekCachedDisplay();
+        if (display != null) {
+            // The cache record holds the line and the version it was rendered from
+            typeBytes[Part.DISPLAY.ordinal()] += HeapLayout.object(1, 4) + HeapLayout.string(display);
+        }
+    }
+
+    private static long dateTime(LocalDateTime dateTime) {
+        // A LocalDateTime refers to a LocalDate, with its year, month and day, and a LocalTime
+        long size = HeapLayout.object(2, 0) + HeapLayout.object(0, 4 + 2 + 2);
+        LocalTime time = dateTime.toLocalTime();
+        if (time != LocalTime.of(time.getHour(), 0)) {
+            // Hour, minute and second as bytes, and nanoseconds
+            size += HeapLayout.object(0, 3 + 4);
+        }
+        return size;
+    }
+
+    void addList(long bytes) {
+        this.listBytes += bytes;
+    }
+
+    void addIndex(IndexPart part, long bytes) {
+        this.indexBytes[part.ordinal()] += bytes;
+    }
+
+    /**
+     * Returns the number of tasks of a type.
+     *
+     * @param type The task type
+     * @return The number of tasks of that type
+     */
+    public int getCount(TaskType type) {
+        return this.counts[type.ordinal()];
+    }
+
+    /**
+     * Returns the bytes spent on one part of the tasks of a type.
+     *
+     * @param type The task type
+     * @param part What the bytes hold
+     * @return The estimated bytes
+     */
+    public long getBytes(TaskType type, Part part) {
+        return this.bytes[type.ordinal()][part.ordinal()];
+    }
+
+    /**
+     * Returns the bytes spent on the tasks of a type, all parts together.
+     *
+     * @param type The task type
+     * @return The estimated bytes
+     */
+    public long getBytes(TaskType type) {
+        long total = 0;
+        for (long partBytes : this.bytes[type.ordinal()]) {
+            total += partBytes;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the bytes spent on the list that holds the tasks, without the tasks.
+     *
+     * @return The estimated bytes
+     */
+    public long getListBytes() {
+        return this.listBytes;
+    }
+
+    /**
+     * Returns the bytes spent on one part of the task index.
+     *
+     * @param part The part of the index
+     * @return The estimated bytes
+     */
+    public long getIndexBytes(IndexPart part) {
+        return this.indexBytes[part.ordinal()];
+    }
+
+    /**
+     * Returns the bytes spent on the task index, all parts together.
+     *
+     * @return The estimated bytes
+     */
+    public long getIndexBytes() {
+        long total = 0;
+        for (long partBytes : this.indexBytes) {
+            total += partBytes;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the estimated heap retained by the whole task list.
+     *
+     * @return The estimated bytes
+     */
+    public long getTotal() {
+        long total = this.listBytes + getIndexBytes();
+        for (TaskType type : TaskType.values()) {
+            total += getBytes(type);
+        }
+        return total;
+    }
+
+    /**
+     * Formats the estimate as a table with a row per task type, followed by the list and the index.
+     *
+     * @return The estimate, one line per row
+     */
+    public String format() {
+        int taskCount = 0;
+        for (int count : this.counts) {
+            taskCount += count;
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Estimated heap retained by ").append(taskCount).append(" tasks: ").append(size(getTotal()))
+                .append(System.lineSeparator());
+        text.append(String.format(Locale.ROOT, "%-9s %6s", "type", "count"));
+        for (Part part : Part.values()) {
+            text.append(String.format(Locale.ROOT, " %9s", part.heading));
+        }
+        text.append(String.format(Locale.ROOT, " %9s %9s%n", "total", "per task"));
+        for (TaskType type : TaskType.values()) {
+            int count = getCount(type);
+            text.append(String.format(Locale.ROOT, "%-9s %6d", type.name().toLowerCase(Locale.ROOT), count));
+            for (Part part : Part.values()) {
+                text.append(String.format(Locale.ROOT, " %9s", size(getBytes(type, part))));
+            }
+            text.append(String.format(Locale.ROOT, " %9s %9s%n", size(getBytes(type)),
+                    count == 0 ? "-" : size(getBytes(type) / count)));
+        }
+        text.append("Task list: ").append(size(this.listBytes)).append(System.lineSeparator());
+        text.append("Index: ").append(size(getIndexBytes())).append(" (");
+        for (IndexPart part : IndexPart.values()) {
+            text.append(part == IndexPart.DONE ? "" : ", ").append(part.label).append(' ')
+                    .append(size(getIndexBytes(part)));
+        }
+        return text.append(')').toString();
+    }
+
+    private static String size(long bytes) {
+        if (bytes < 10 * KILOBYTE) {
+            return bytes + " B";
+        } else if (bytes < 10L * KILOBYTE * KILOBYTE) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / (double) KILOBYTE);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (double) (KILOBYTE * KILOBYTE));
+    }
+}
@@ -0,0 +1,93 @@
+package jinjja.task;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A growable, ascending list of task positions. Used for index entries that usually hold only a few tasks, where a
+ * BitSet would be sized by the highest position rather than by the number of entries.
+ */
+class PositionList {
+    private int[] positions = new int[2];
+    private int size;
+
+    /**
+     * Appends a position. Positions must be added in ascending order.
+     */
+    void add(int position) {
+        assert this.size == 0 || this.positions[this.size - 1] < position : "Positions should be added in order";
+        if (this.size == this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions, this.size * 2);
+        }
+        this.positions[this.size++] = position;
+    }
+
+    /**
+     * Removes the given positions, given in ascending order, and moves every later position up by the number removed
+     * before it.
+     */
+    void remove(int[] removed) {
+        int from = Arrays.binarySearch(this.positions, 0, this.size, removed[0]);
+        int kept = from >= 0 ? from : -from - 1;
+        for (int i = kept; i < this.size; i++) {
+            int at = Arrays.binarySearch(removed, this.positions[i]);
+            if (at < 0) {
+                this.positions[kept++] = this.positions[i] - (-at - 1);
+            }
+        }
+        this.size = kept;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the lowest position in this list, which must not be empty.
+     */
+    int first() {
+        assert this.size > 0 : "List should not be empty";
+        return this.positions[0];
+    }
+
+    /**
+     * Writes the positions as a count followed by each position.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(this.size);
+        for (int i = 0; i < this.size; i++) {
+            out.writeInt(this.positions[i]);
+        }
+    }
+
+    /**
+     * Reads a list written by {@link #writeTo}, sized to fit exactly.
+     */
+    static PositionList readFrom(ByteBuffer in) {
+        PositionList list = new PositionList();
+        list.size = in.getInt();
+        list.positions = new int[Math.max(list.size, 1)];
+        in.asIntBuffer().get(list.positions, 0, list.size);
+        in.position(in.position() + list.size * Integer.BYTES);
+        return list;
+    }
+
+    /**
+     * Returns the estimated heap size of this list, including its array.
+     */
+    long estimateBytes() {
+        return HeapLayout.object(1, 4) + HeapLayout.array(this.positions.length, Integer.BYTES);
+    }
+
+    /**
+     * Sets the bit of every position in this list.
+     */
+    void addTo(BitSet bits) {
+        for (int i = 0; i < this.size; i++) {
+            bits.set(this.positions[i]);
+        }
+    }
+}
@@ -1,12 +1,30 @@
 package jinjja.task;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents a task with a description and completion status. This is the base class for all task types in the Jinjja
  * application.
+ *
+ * <p>The completion flag is volatile so that a task marked on one thread is immediately visible to readers such as an
+ * autosave or a reminder running on another.
+ *
+ * <p>The display line returned by {@link #toString()} is rendered once and cached, since formatting dates for every
+ * task on every listing dominates the cost of showing a large list. Subclasses render their line in
+ * {@link #renderDisplayString()} and call {@link #invalidateDisplayString()} whenever they change what it shows.
  */
 public class Task {
-    private boolean isDone;
+    /**
+     * Counts completion changes on tasks that have been in more than one list, which every list's index watches,
+     * since such a task cannot tell which of its lists still holds it.
+     */
+    static final AtomicInteger SHARED_DONE_CHANGES = new AtomicInteger();
+
+    private volatile boolean isDone;
+    private volatile AtomicInteger doneChanges;
     private String description;
+    private volatile int displayVersion;
+    private volatile CachedDisplay cachedDisplay;
 
     /**
      * Constructs a new Task with the specified description. The task is initially marked as not done.
@@ -28,10 +46,27 @@ public class Task {
      */
     public boolean setDone(boolean isDone) {
         this.isDone = isDone;
+        invalidateDisplayString();
+        AtomicInteger changes = this.doneChanges;
+        if (changes != null) {
+            changes.incrementAndGet();
+        }
         assert this.isDone == isDone : "Task completion status should be updated correctly";
         return true; // Indicate that the status was changed
     }
 
+    /**
+     * Makes completion changes count towards the given list's counter, so that its index can tell when a status
+     * changed behind its back. A task that joins a second list counts towards {@link #SHARED_DONE_CHANGES} instead.
+     * Counters are incremented after the status is written.
+     *
+     * @param listDoneChanges The counter of the list the task joins
+     */
+    void joinList(AtomicInteger listDoneChanges) {
+        AtomicInteger current = this.doneChanges;
+        this.doneChanges = current == null || current == listDoneChanges ? listDoneChanges : SHARED_DONE_CHANGES;
+    }
+
     /**
      * Returns the completion status of the task.
      *
@@ -59,8 +94,54 @@ public class Task {
         return (this.isDone ? 1 : 0) + " | " + this.description;
     }
 
+    /**
+     * Returns the display line of the task. The line is rendered on first use and reused until the task changes.
+     *
+     * @return The display line
+     */
     @Override
     public String toString() {
+        // Read the version before rendering, so a change made during rendering leaves the result stale
+        int version = this.displayVersion;
+        CachedDisplay cached = this.cachedDisplay;
+        if (cached != null && cached.version() == version) {
+            return cached.text();
+        }
+        String text = renderDisplayString();
+        this.cachedDisplay = new CachedDisplay(version, text);
+        return text;
+    }
+
+    /**
+     * Renders the display line of the task. Subclasses extend this instead of {@link #toString()}.
+     *
+     * @return A freshly built display line
+     */
+    protected String renderDisplayString() {
         return "[" + (this.isDone ? "X" : " ") + "] " + this.description;
     }
+
+    /**
+     * Returns the cached display line, even if it is out of date, since it stays on the heap until replaced.
+     *
+     * @return The cached line, or null if none has been rendered
+     */
+    String peekCachedDisplay() {
+        CachedDisplay cached = this.cachedDisplay;
+        return cached == null ? null : cached.text();
+    }
+
+    /**
+     * Discards the cached display line. Must be called after any change that affects the display line, once the
+     * change is visible to other threads.
+     */
+    protected synchronized void invalidateDisplayString() {
+        this.displayVersion++;
+    }
+
+    /**
+     * A rendered display line and the version of the task it was rendered from.
+     */
+    private record CachedDisplay(int version, String text) {
+    }
 }
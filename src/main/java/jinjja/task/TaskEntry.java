@@ -0,0 +1,10 @@
+package jinjja.task;
+
+/**
+ * A task together with its 1-indexed position in the task list, as used by commands such as mark and delete.
+ *
+ * @param number The 1-indexed task number
+ * @param task The task
+ */
+public record TaskEntry(int number, Task task) {
+}
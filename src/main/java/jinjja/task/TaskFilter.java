@@ -0,0 +1,68 @@
+package jinjja.task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conditions used to select tasks for a filtered listing. A null condition matches every task.
+ */
+public class TaskFilter {
+    /** A filter that matches every task. */
+    public static final TaskFilter ALL = new TaskFilter(null, null, null);
+
+    private final Boolean isDone;
+    private final TaskType type;
+    private final LocalDateTime before;
+
+    /**
+     * Constructs a filter from the given conditions.
+     *
+     * @param isDone The required completion status, or null for any
+     * @param type The required task type, or null for any
+     * @param before Only deadlines due strictly before this time match, or null for no time condition
+     */
+    public TaskFilter(Boolean isDone, TaskType type, LocalDateTime before) {
+        this.isDone = isDone;
+        this.type = type;
+        this.before = before;
+    }
+
+    public Boolean getIsDone() {
+        return this.isDone;
+    }
+
+    public TaskType getType() {
+        return this.type;
+    }
+
+    public LocalDateTime getBefore() {
+        return this.before;
+    }
+
+    /**
+     * Checks if this filter has no conditions.
+     *
+     * @return true if every task matches
+     */
+    public boolean isEmpty() {
+        return this.isDone == null && this.type == null && this.before == null;
+    }
+
+    /**
+     * Checks a single task against this filter without using any index.
+     *
+     * @param task The task to check
+     * @return true if the task satisfies every condition
+     */
+    public boolean matches(Task task) {
+        if (this.isDone != null && task.getIsDone() != this.isDone) {
+            return false;
+        }
+        if (this.type != null && TaskType.of(task) != this.type) {
+            return false;
+        }
+        if (this.before != null) {
+            return task instanceof Deadline && ((Deadline) task).getBy().isBefore(this.before);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,445 @@
+package jinjja.task;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jinjja.metrics.IndexRebuildEvent;
+
+/**
+ * Secondary indexes over the positions in a {@link TaskList}: a bitset of done tasks, one bitset per task type, the
+ * words in each description, and the positions of deadlines and events ordered by their times. Filters are answered
+ * with word-wide bitset operations and range lookups instead of a scan over every task.
+ *
+ * <p>Adds, marks and deletes are applied incrementally. A delete moves every later position up, which costs time in
+ * proportion to the entries after it, but far less than a rebuild. A task marked other than through the list
+ * invalidates the index, and the next query rebuilds it. The owning TaskList guards every call with its lock.
+ */
+class TaskIndex implements IndexedTasks {
+    private final List<Task> tasks;
+    private final AtomicInteger listDoneChanges;
+    private final BitSet done = new BitSet();
+    private final EnumMap<TaskType, BitSet> byType = new EnumMap<>(TaskType.class);
+    private final EnumMap<TimeKey, TreeMap<LocalDateTime, PositionList>> byTime = new EnumMap<>(TimeKey.class);
+    private final Map<String, PositionList> byKeyword = new HashMap<>();
+
+    private int size;
+    private boolean isValid;
+    private int doneChangeCount;
+
+    /**
+     * Constructs an index over the given list, which the owning TaskList keeps up to date.
+     *
+     * @param listDoneChanges The counter the list's tasks count their completion changes towards
+     */
+    TaskIndex(List<Task> tasks, AtomicInteger listDoneChanges) {
+        this.tasks = tasks;
+        this.listDoneChanges = listDoneChanges;
+        for (TaskType type : TaskType.values()) {
+            this.byType.put(type, new BitSet());
+        }
+        for (TimeKey key : TimeKey.values()) {
+            this.byTime.put(key, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Checks if the index reflects the list, with no completion changes it has not seen.
+     */
+    boolean isCurrent() {
+        return this.isValid && this.size == this.tasks.size() && this.doneChangeCount == currentDoneChangeCount();
+    }
+
+    /**
+     * Returns how many completion changes the list's tasks have counted, whether made through the list or not.
+     */
+    private int currentDoneChangeCount() {
+        return this.listDoneChanges.get() + Task.SHARED_DONE_CHANGES.get();
+    }
+
+    /**
+     * Discards the index contents. The next query will rebuild them.
+     */
+    void invalidate() {
+        this.isValid = false;
+    }
+
+    /**
+     * Rebuilds the index from scratch.
+     */
+    void rebuild() {
+        IndexRebuildEvent event = new IndexRebuildEvent();
+        event.begin();
+        String reason = !this.isValid ? "invalidated"
+                : this.size != this.tasks.size() ? "size changed" : "completion changed";
+        this.doneChangeCount = currentDoneChangeCount();
+        this.done.clear();
+        this.byType.values().forEach(BitSet::clear);
+        this.byTime.values().forEach(TreeMap::clear);
+        this.byKeyword.clear();
+        this.size = 0;
+        for (Task task : this.tasks) {
+            append(task);
+        }
+        this.isValid = true;
+        event.end();
+        if (event.shouldCommit()) {
+            event.setTaskCount(this.size);
+            event.setReason(reason);
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a task appended at the end of the list. Does nothing if the index is already stale.
+     */
+    void onAdd(Task task) {
+        if (this.isValid) {
+            append(task);
+        }
+    }
+
+    /**
+     * Records a completion change made through the list. If any other completion change happened since the index
+     * last caught up, the index is invalidated instead, since it cannot tell which task that was.
+     *
+     * @param position The 0-based position of the changed task
+     * @param isDone The new completion status
+     */
+    void onMark(int position, boolean isDone) {
+        if (!this.isValid) {
+            return;
+        }
+        int currentCount = currentDoneChangeCount();
+        if (currentCount != this.doneChangeCount + 1) {
+            invalidate();
+            return;
+        }
+        this.doneChangeCount = currentCount;
+        this.done.set(position, isDone);
+    }
+
+    /**
+     * Records tasks removed from the list, moving every later position up by the number removed before it. Does
+     * nothing if the index is already stale.
+     *
+     * @param removed The 0-based positions the tasks were at, in ascending order
+     */
+    void onRemove(int[] removed) {
+        if (!this.isValid || removed.length == 0) {
+            return;
+        }
+        BitSet remainingDone = without(this.done, removed);
+        this.done.clear();
+        this.done.or(remainingDone);
+        for (TaskType type : TaskType.values()) {
+            this.byType.put(type, without(this.byType.get(type), removed));
+        }
+        for (TreeMap<LocalDateTime, PositionList> times : this.byTime.values()) {
+            times.values().removeIf(positions->removeFrom(positions, removed));
+        }
+        this.byKeyword.values().removeIf(positions->removeFrom(positions, removed));
+        this.size -= removed.length;
+    }
+
+    /**
+     * Returns the bits left once the given positions are taken out and the later ones moved up.
+     */
+    private static BitSet without(BitSet bits, int[] removed) {
+        BitSet result = bits.get(0, removed[0]);
+        for (int i = bits.nextSetBit(removed[0]); i >= 0; i = bits.nextSetBit(i + 1)) {
+            int at = Arrays.binarySearch(removed, i);
+            if (at < 0) {
+                result.set(i - (-at - 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the given positions from a list, and returns whether it is left empty.
+     */
+    private static boolean removeFrom(PositionList positions, int[] removed) {
+        positions.remove(removed);
+        return positions.size() == 0;
+    }
+
+    /**
+     * Returns the positions of the tasks that satisfy the filter. The caller owns the returned bitset.
+     */
+    BitSet matching(TaskFilter filter) {
+        assert this.isValid : "Index should be rebuilt before it is queried";
+        BitSet result = new BitSet(this.size);
+        result.set(0, this.size);
+        if (filter.getType() != null) {
+            result.and(this.byType.get(filter.getType()));
+        }
+        if (filter.getIsDone() != null) {
+            if (filter.getIsDone()) {
+                result.and(this.done);
+            } else {
+                result.andNot(this.done);
+            }
+        }
+        if (filter.getBefore() != null) {
+            result.and(inRange(TimeKey.BY, null, false, filter.getBefore(), false));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the index contents, which must be current. Completion is left out, since marking a task changes it
+     * without changing anything else; it is read back from the tasks instead. Time entries are written as positions
+     * only, since each key is the time of the first task listed under it.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        assert isCurrent() : "Index should be current when written";
+        for (TaskType type : TaskType.values()) {
+            writeBits(out, this.byType.get(type));
+        }
+        for (TimeKey key : TimeKey.values()) {
+            TreeMap<LocalDateTime, PositionList> times = this.byTime.get(key);
+            out.writeInt(times.size());
+            for (PositionList positions : times.values()) {
+                positions.writeTo(out);
+            }
+        }
+        out.writeInt(this.byKeyword.size());
+        for (Map.Entry<String, PositionList> entry : this.byKeyword.entrySet()) {
+            byte[] word = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(word.length);
+            out.write(word);
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * Replaces the index contents with those written by {@link #writeTo} for the tasks now in the list, and marks the
+     * index current, so no rebuild is needed. If the contents turn out not to fit, the index is left stale, and the
+     * next query rebuilds it.
+     *
+     * @throws IllegalArgumentException if the contents do not fit the tasks
+     */
+    void readFrom(ByteBuffer in) {
+        this.done.clear();
+        for (int i = 0; i < this.tasks.size(); i++) {
+            this.done.set(i, this.tasks.get(i).getIsDone());
+        }
+        for (TaskType type : TaskType.values()) {
+            this.byType.put(type, readBits(in));
+        }
+        for (TimeKey key : TimeKey.values()) {
+            TreeMap<LocalDateTime, PositionList> times = this.byTime.get(key);
+            times.clear();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                PositionList positions = PositionList.readFrom(in);
+                times.put(timeOf(this.tasks.get(positions.first()), key), positions);
+            }
+            if (times.size() != count) {
+                // Times that differed by seconds collapsed when written to the minute
+                throw new IllegalArgumentException("Snapshot has duplicate " + key + " times");
+            }
+        }
+        this.byKeyword.clear();
+        int keywordCount = in.getInt();
+        for (int i = 0; i < keywordCount; i++) {
+            byte[] word = new byte[in.getInt()];
+            in.get(word);
+            this.byKeyword.put(new String(word, StandardCharsets.UTF_8), PositionList.readFrom(in));
+        }
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Snapshot has " + in.remaining() + " bytes after the index");
+        }
+        this.size = this.tasks.size();
+        this.doneChangeCount = currentDoneChangeCount();
+        this.isValid = true;
+    }
+
+    private static void writeBits(DataOutput out, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private static BitSet readBits(ByteBuffer in) {
+        long[] words = new long[in.getInt()];
+        in.asLongBuffer().get(words);
+        in.position(in.position() + words.length * Long.BYTES);
+        return BitSet.valueOf(words);
+    }
+
+    private static LocalDateTime timeOf(Task task, TimeKey key) {
+        switch (key) {
+        case BY:
+            return ((Deadline) task).getBy();
+        case FROM:
+            return ((Event) task).getFrom();
+        default:
+            return ((Event) task).getTo();
+        }
+    }
+
+    /**
+     * Adds the estimated heap size of the index to a footprint. Stale contents count too, since they stay on the heap
+     * until the next rebuild. Times are keyed by the tasks' own LocalDateTimes, which the tasks already account for.
+     */
+    void estimateMemory(MemoryFootprint footprint) {
+        footprint.addIndex(MemoryFootprint.IndexPart.DONE, bitSet(this.done));
+        long types = enumMap(this.byType.size());
+        for (BitSet positions : this.byType.values()) {
+            types += bitSet(positions);
+        }
+        footprint.addIndex(MemoryFootprint.IndexPart.TYPES, types);
+        long times = enumMap(this.byTime.size());
+        for (TreeMap<LocalDateTime, PositionList> entries : this.byTime.values()) {
+            // The comparator, root, entry set and key set views, descending map and size and modification count
+            times += HeapLayout.object(7, 4 + 4);
+            for (PositionList positions : entries.values()) {
+                // Key, value, left, right and parent, and the colour
+                times += HeapLayout.object(5, 1) + positions.estimateBytes();
+            }
+        }
+        footprint.addIndex(MemoryFootprint.IndexPart.TIMES, times);
+        int capacity = 16;
+        while (this.byKeyword.size() > capacity * 3 / 4) {
+            capacity *= 2;
+        }
+        // The table and views, then the size, modification count, resize threshold and load factor
+        long keywords = HeapLayout.object(4, 4 * 4) + HeapLayout.referenceArray(capacity);
+        for (Map.Entry<String, PositionList> entry : this.byKeyword.entrySet()) {
+            // Key, value and next node, and the cached hash
+            keywords += HeapLayout.object(3, 4) + HeapLayout.string(entry.getKey()) + entry.getValue().estimateBytes();
+        }
+        footprint.addIndex(MemoryFootprint.IndexPart.KEYWORDS, keywords);
+    }
+
+    private static long bitSet(BitSet bits) {
+        // The words, the number of words in use and whether the size was set by the caller
+        return HeapLayout.object(1, 4 + 1) + HeapLayout.array(bits.size() / Long.SIZE, Long.BYTES);
+    }
+
+    private static long enumMap(int keyCount) {
+        // The key type, key universe, values and three views, and the size
+        return HeapLayout.object(6, 4) + HeapLayout.referenceArray(keyCount);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Task getTask(int position) {
+        return this.tasks.get(position);
+    }
+
+    @Override
+    public BitSet done() {
+        return (BitSet) this.done.clone();
+    }
+
+    @Override
+    public int countDone() {
+        return this.done.cardinality();
+    }
+
+    @Override
+    public BitSet ofType(TaskType type) {
+        return (BitSet) this.byType.get(type).clone();
+    }
+
+    @Override
+    public int countOfType(TaskType type) {
+        return this.byType.get(type).cardinality();
+    }
+
+    @Override
+    public BitSet withKeywords(List<String> keywords) {
+        BitSet result = null;
+        for (String keyword : keywords) {
+            BitSet positions = new BitSet();
+            PositionList list = this.byKeyword.get(keyword);
+            if (list != null) {
+                list.addTo(positions);
+            }
+            if (result == null) {
+                result = positions;
+            } else {
+                result.and(positions);
+            }
+        }
+        return result == null ? new BitSet() : result;
+    }
+
+    @Override
+    public int countWithKeyword(String keyword) {
+        PositionList list = this.byKeyword.get(keyword);
+        return list == null ? 0 : list.size();
+    }
+
+    @Override
+    public BitSet inRange(TimeKey key, LocalDateTime lower, boolean isLowerInclusive, LocalDateTime upper,
+            boolean isUpperInclusive) {
+        BitSet result = new BitSet(this.size);
+        for (PositionList positions : range(key, lower, isLowerInclusive, upper, isUpperInclusive).values()) {
+            positions.addTo(result);
+        }
+        return result;
+    }
+
+    @Override
+    public int countInRange(TimeKey key, LocalDateTime lower, boolean isLowerInclusive, LocalDateTime upper,
+            boolean isUpperInclusive) {
+        int count = 0;
+        for (PositionList positions : range(key, lower, isLowerInclusive, upper, isUpperInclusive).values()) {
+            count += positions.size();
+        }
+        return count;
+    }
+
+    private NavigableMap<LocalDateTime, PositionList> range(TimeKey key, LocalDateTime lower,
+            boolean isLowerInclusive, LocalDateTime upper, boolean isUpperInclusive) {
+        assert this.isValid : "Index should be rebuilt before it is queried";
+        NavigableMap<LocalDateTime, PositionList> times = this.byTime.get(key);
+        if (lower != null) {
+            times = times.tailMap(lower, isLowerInclusive);
+        }
+        if (upper != null) {
+            times = times.headMap(upper, isUpperInclusive);
+        }
+        return times;
+    }
+
+    private void append(Task task) {
+        int position = this.size++;
+        this.done.set(position, task.getIsDone());
+        this.byType.get(TaskType.of(task)).set(position);
+        if (task instanceof Deadline) {
+            addTime(TimeKey.BY, ((Deadline) task).getBy(), position);
+        } else if (task instanceof Event) {
+            addTime(TimeKey.FROM, ((Event) task).getFrom(), position);
+            addTime(TimeKey.TO, ((Event) task).getTo(), position);
+        }
+        for (String keyword : Keywords.of(task.getDescription())) {
+            this.byKeyword.computeIfAbsent(keyword, word->new PositionList()).add(position);
+        }
+    }
+
+    private void addTime(TimeKey key, LocalDateTime time, int position) {
+        this.byTime.get(key).computeIfAbsent(time, unused->new PositionList()).add(position);
+    }
+}
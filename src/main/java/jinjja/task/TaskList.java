@@ -1,19 +1,47 @@
 package jinjja.task;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Manages a list of tasks. Provides operations to add, remove, mark, and query tasks. This class serves as the main
  * data structure for storing and manipulating tasks in the Jinjja application.
+ *
+ * <p>A TaskList is safe to share between threads. Writers are serialized by a {@link StampedLock}, while size and
+ * index lookups use optimistic reads so they never block behind other readers. Bulk reads such as
+ * {@link #getTasks()} and {@link #findTasks(Predicate)} copy out a snapshot, so a long save or render works on its own
+ * copy and does not hold the lock while it runs.
+ *
+ * <p>Filtered, paged listings are answered from a {@link TaskIndex} kept alongside the list, so a page costs time in
+ * proportion to the page rather than to the whole list.
  */
 public class TaskList {
-    private ArrayList<Task> tasks;
+    private final ArrayList<Task> tasks;
+    private final StampedLock lock = new StampedLock();
+    private final TaskIndex taskIndex;
+    private final AtomicInteger doneChanges = new AtomicInteger();
+    private volatile int modificationCount;
+    private volatile TaskListListener listener;
+    private final Object saveLock = new Object();
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
         this.tasks = new ArrayList<>();
+        this.taskIndex = new TaskIndex(this.tasks, this.doneChanges);
     }
 
     /**
@@ -24,6 +52,10 @@ public class TaskList {
     public TaskList(ArrayList<Task> tasks) {
         assert tasks != null : "Task list cannot be null";
         this.tasks = tasks;
+        for (Task task : tasks) {
+            task.joinList(this.doneChanges);
+        }
+        this.taskIndex = new TaskIndex(this.tasks, this.doneChanges);
     }
 
     /**
@@ -35,35 +67,90 @@ public class TaskList {
      */
     public Task getTask(int index) throws ArrayIndexOutOfBoundsException {
         assert this.tasks != null : "Tasks list should not be null";
-        if (index >= 0 && index < this.getSize()) {
-            Task task = this.tasks.get(index);
-            assert task != null : "Retrieved task should not be null";
-            return task;
-        } else {
+        long stamp = lock.tryOptimisticRead();
+        Task task = readTaskOrNull(index);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                task = readTaskOrNull(index);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (task == null) {
             throw new ArrayIndexOutOfBoundsException("Task number is out of range.");
         }
+        return task;
+    }
+
+    /**
+     * Reads the task at the given index without locking. The result is only meaningful once the caller has validated
+     * its stamp, so any exception caused by a concurrent resize is treated as a miss.
+     */
+    private Task readTaskOrNull(int index) {
+        try {
+            return index >= 0 && index < this.tasks.size() ? this.tasks.get(index) : null;
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
     }
 
     /**
-     * Returns the underlying list of tasks.
+     * Returns a snapshot of the tasks in this list. Changes to the returned list do not affect this TaskList.
      *
-     * @return The ArrayList containing all tasks
+     * @return An ArrayList containing all tasks at the time of the call
      */
     public ArrayList<Task> getTasks() {
-        return this.tasks;
+        long stamp = lock.readLock();
+        try {
+            return new ArrayList<>(this.tasks);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the tasks that satisfy the given predicate, in list order. The predicate is evaluated
+     * outside the lock, so a slow match does not hold up writers.
+     *
+     * @param predicate The condition a task must satisfy to be included
+     * @return The matching tasks
+     */
+    public ArrayList<Task> findTasks(Predicate<Task> predicate) {
+        assert predicate != null : "Predicate cannot be null";
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Task task : getTasks()) {
+            if (predicate.test(task)) {
+                matches.add(task);
+            }
+        }
+        return matches;
     }
 
     /**
      * Adds a new task to the list.
      *
      * @param task The task to be added
+     * @return The 0-based position the task was added at, which is one less than the new task count
      */
-    public void addTask(Task task) {
+    public int addTask(Task task) {
         assert task != null : "Cannot add null task to the list";
         assert this.tasks != null : "Tasks list should be initialized";
-        int oldSize = this.getSize();
-        this.tasks.add(task);
-        assert this.getSize() == oldSize + 1 : "Task list size should increase by 1 after adding a task";
+        long stamp = lock.writeLock();
+        try {
+            int oldSize = this.tasks.size();
+            task.joinList(this.doneChanges);
+            this.tasks.add(task);
+            this.modificationCount++;
+            this.taskIndex.onAdd(task);
+            if (this.listener != null) {
+                this.listener.taskAdded(oldSize, task);
+            }
+            assert this.tasks.size() == oldSize + 1 : "Task list size should increase by 1 after adding a task";
+            return oldSize;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -75,14 +162,83 @@ public class TaskList {
      */
     public Task removeTask(int index) throws ArrayIndexOutOfBoundsException {
         assert this.tasks != null : "Tasks list should not be null";
-        int oldSize = this.getSize();
-        if (index >= 0 && index < this.getSize()) {
-            Task removedTask = this.tasks.remove(index);
-            assert removedTask != null : "Removed task should not be null";
-            assert this.getSize() == oldSize - 1 : "Task list size should decrease by 1 after removing a task";
-            return removedTask;
-        } else {
-            throw new ArrayIndexOutOfBoundsException("Task number is out of range.");
+        long stamp = lock.writeLock();
+        try {
+            int oldSize = this.tasks.size();
+            if (index >= 0 && index < oldSize) {
+                Task removedTask = this.tasks.remove(index);
+                this.modificationCount++;
+                this.taskIndex.onRemove(new int[] {index});
+                if (this.listener != null) {
+                    this.listener.taskRemoved(index);
+                }
+                assert removedTask != null : "Removed task should not be null";
+                assert this.tasks.size() == oldSize - 1 : "Task list size should decrease by 1 after removing a task";
+                return removedTask;
+            } else {
+                throw new ArrayIndexOutOfBoundsException("Task number is out of range.");
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Applies a batch of changes in one step, so no reader sees only part of it: marks tasks, removes tasks, then adds
+     * new ones to the end. Tasks to mark or remove are given by identity rather than position, so the batch can be
+     * worked out from a copy of the list while others go on changing it; any no longer in the list are skipped.
+     *
+     * @param marks The tasks to mark, with whether each is to be done
+     * @param removals The tasks to remove
+     * @param additions The tasks to add, in order
+     * @return The tasks that were removed
+     */
+    public List<Task> applyChanges(Map<Task, Boolean> marks, Collection<Task> removals, List<Task> additions) {
+        assert marks != null && removals != null && additions != null : "Changes cannot be null";
+        Set<Task> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        toRemove.addAll(removals);
+        List<Task> removed = new ArrayList<>();
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < this.tasks.size() && !marks.isEmpty(); i++) {
+                Task task = this.tasks.get(i);
+                Boolean isDone = marks.get(task);
+                if (isDone != null && task.getIsDone() != isDone) {
+                    task.setDone(isDone);
+                    this.taskIndex.onMark(i, isDone);
+                    if (this.listener != null) {
+                        this.listener.taskMarked(i, isDone);
+                    }
+                }
+            }
+            // From the end, so each removal leaves the positions still to visit where they were
+            int[] removedAt = new int[toRemove.size()];
+            for (int i = this.tasks.size() - 1; i >= 0 && removed.size() < toRemove.size(); i--) {
+                if (toRemove.contains(this.tasks.get(i))) {
+                    removed.add(this.tasks.remove(i));
+                    removedAt[removedAt.length - removed.size()] = i;
+                    if (this.listener != null) {
+                        this.listener.taskRemoved(i);
+                    }
+                }
+            }
+            if (!removed.isEmpty()) {
+                this.modificationCount++;
+                this.taskIndex.onRemove(Arrays.copyOfRange(removedAt, removedAt.length - removed.size(),
+                        removedAt.length));
+            }
+            for (Task task : additions) {
+                task.joinList(this.doneChanges);
+                this.tasks.add(task);
+                this.modificationCount++;
+                this.taskIndex.onAdd(task);
+                if (this.listener != null) {
+                    this.listener.taskAdded(this.tasks.size() - 1, task);
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -91,32 +247,239 @@ public class TaskList {
      *
      * @param isDone true to mark the task as done, false to mark as not done
      * @param index The index of the task to mark/unmark
+     * @return The task marked
      * @throws ArrayIndexOutOfBoundsException if the task list is empty
      * @throws NumberFormatException if the index is out of range
      */
-    public void markTask(boolean isDone, int index) throws ArrayIndexOutOfBoundsException, NumberFormatException {
+    public Task markTask(boolean isDone, int index) throws ArrayIndexOutOfBoundsException, NumberFormatException {
         assert this.tasks != null : "Tasks list should not be null";
-        if (this.isEmpty()) {
-            throw new ArrayIndexOutOfBoundsException("No tasks available.");
+        long stamp = lock.writeLock();
+        try {
+            if (this.tasks.isEmpty()) {
+                throw new ArrayIndexOutOfBoundsException("No tasks available.");
+            }
+            if (index >= 0 && index < this.tasks.size()) {
+                Task task = this.tasks.get(index);
+                assert task != null : "Task at valid index should not be null";
+                task.setDone(isDone);
+                this.taskIndex.onMark(index, isDone);
+                if (this.listener != null) {
+                    this.listener.taskMarked(index, isDone);
+                }
+                assert task.getIsDone() == isDone : "Task status should be updated correctly";
+                return task;
+            } else {
+                throw new NumberFormatException("Task number is out of range. \n"
+                        + "Please enter a number between 1 and " + this.tasks.size() + ".");
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns one page of the tasks that satisfy the filter. Only the tasks on the requested page are read.
+     *
+     * @param filter The conditions tasks must satisfy
+     * @param pageNumber The 1-indexed page to return
+     * @param pageSize The maximum number of tasks per page
+     * @return The requested page, which is empty if the page number is past the last page
+     */
+    public TaskPage select(TaskFilter filter, int pageNumber, int pageSize) {
+        assert filter != null : "Filter cannot be null";
+        assert pageNumber > 0 && pageSize > 0 : "Page number and size should be positive";
+        long stamp = lock.readLock();
+        try {
+            stamp = ensureIndexCurrent(stamp);
+            BitSet matches = this.taskIndex.matching(filter);
+            long skip = (long) (pageNumber - 1) * pageSize;
+            List<TaskEntry> entries = new ArrayList<>(Math.min(pageSize, 64));
+            int position = matches.nextSetBit(0);
+            for (long skipped = 0; skipped < skip && position >= 0; skipped++) {
+                position = matches.nextSetBit(position + 1);
+            }
+            while (position >= 0 && entries.size() < pageSize) {
+                entries.add(new TaskEntry(position + 1, this.tasks.get(position)));
+                position = matches.nextSetBit(position + 1);
+            }
+            return new TaskPage(entries, pageNumber, pageSize, matches.cardinality());
+        } finally {
+            lock.unlock(stamp);
         }
-        if (index >= 0 && index < this.getSize()) {
-            Task task = this.tasks.get(index);
-            assert task != null : "Task at valid index should not be null";
-            task.setDone(isDone);
-            assert task.getIsDone() == isDone : "Task status should be updated correctly";
-        } else {
-            throw new NumberFormatException(
-                    "Task number is out of range. \n" + "Please enter a number between 1 and " + this.getSize() + ".");
+    }
+
+    /**
+     * Estimates the heap retained by this list, its tasks and its index. The index is measured as it stands, without
+     * rebuilding it, so the estimate matches what is on the heap.
+     *
+     * @return The estimate, broken down by task type
+     */
+    public MemoryFootprint estimateMemory() {
+        long stamp = lock.readLock();
+        try {
+            MemoryFootprint footprint = new MemoryFootprint();
+            // This list, the ArrayList and its array, at the capacity it reaches when filled one add at a time
+            footprint.addList(HeapLayout.object(3, 4) + HeapLayout.arrayList(this.tasks.size()));
+            for (Task task : this.tasks) {
+                footprint.addTask(task);
+            }
+            this.taskIndex.estimateMemory(footprint);
+            return footprint;
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
+    /**
+     * Runs a reader against this list and its indexes. Writers are held off until the reader returns, so it should
+     * copy out what it needs rather than keep the view.
+     *
+     * @param reader The function to run against the indexed view
+     * @param <R> The type of the reader's result
+     * @return The reader's result
+     */
+    public <R> R readIndexed(Function<IndexedTasks, R> reader) {
+        assert reader != null : "Reader cannot be null";
+        return readWithIndex(reader::apply);
+    }
+
+    /**
+     * Runs a reader against the index itself, brought up to date, with writers held off until it returns.
+     */
+    <R> R readWithIndex(Function<TaskIndex, R> reader) {
+        long stamp = lock.readLock();
+        try {
+            stamp = ensureIndexCurrent(stamp);
+            return reader.apply(this.taskIndex);
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    /**
+     * Makes the given listener the one told of changes from now on, replacing any earlier one.
+     *
+     * @param listener The listener, or null for none
+     */
+    public void setListener(TaskListListener listener) {
+        long stamp = lock.writeLock();
+        try {
+            this.listener = listener;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Makes the given listener the one told of changes from now on. Must be called with the lock held, so that no
+     * change falls between the state the listener starts from and the first change it hears of.
+     */
+    void setListenerLocked(TaskListListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the listener told of changes. Must be called with the lock held.
+     */
+    TaskListListener getListenerLocked() {
+        return this.listener;
+    }
+
+    /**
+     * Runs an action with the lock held for writing, such as catching a listener up before it takes over.
+     */
+    void runLocked(Runnable action) {
+        long stamp = lock.writeLock();
+        try {
+            action.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the lock saves of this list hold from capturing it until their listener takes over, so that one save
+     * never replaces the listener of another partway.
+     */
+    Object getSaveLock() {
+        return this.saveLock;
+    }
+
+    /**
+     * Replaces the index with one read from a snapshot of this list, so that it need not be rebuilt.
+     */
+    void restoreIndex(ByteBuffer in) {
+        long stamp = lock.writeLock();
+        try {
+            this.taskIndex.readFrom(in);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks if the index is up to date, without rebuilding it.
+     */
+    boolean isIndexCurrent() {
+        long stamp = lock.readLock();
+        try {
+            return this.taskIndex.isCurrent();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Rebuilds the index if it is stale. Takes a read stamp and returns a read stamp, which may be a new one if the
+     * lock had to be upgraded for the rebuild.
+     */
+    private long ensureIndexCurrent(long readStamp) {
+        if (this.taskIndex.isCurrent()) {
+            return readStamp;
+        }
+        long stamp = upgradeToWriteLock(readStamp);
+        if (!this.taskIndex.isCurrent()) {
+            this.taskIndex.rebuild();
+        }
+        return lock.tryConvertToReadLock(stamp);
+    }
+
+    private long upgradeToWriteLock(long readStamp) {
+        long writeStamp = lock.tryConvertToWriteLock(readStamp);
+        if (writeStamp == 0L) {
+            lock.unlockRead(readStamp);
+            writeStamp = lock.writeLock();
+        }
+        return writeStamp;
+    }
+
+    /**
+     * Returns how many times tasks have been added to or removed from this list. Callers that keep results by task
+     * position can compare counts to tell whether the positions still hold. Marking a task does not count.
+     *
+     * @return The number of adds and removes so far
+     */
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
     /**
      * Returns the number of tasks in the list.
      *
      * @return The size of the task list
      */
     public int getSize() {
-        return this.tasks.size();
+        long stamp = lock.tryOptimisticRead();
+        int size = this.tasks.size();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                size = this.tasks.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return size;
     }
 
     /**
@@ -125,6 +488,6 @@ public class TaskList {
      * @return true if the list contains no tasks, false otherwise
      */
     public boolean isEmpty() {
-        return this.tasks.isEmpty();
+        return this.getSize() == 0;
     }
 }
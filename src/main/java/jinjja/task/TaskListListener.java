@@ -0,0 +1,32 @@
+package jinjja.task;
+
+/**
+ * Receives every change made through a {@link TaskList}, in the order the changes were made. Used to keep a copy of
+ * the list, such as one on disk, in step with it.
+ *
+ * <p>Each method is called with the list's write lock held, so it must be quick and must not call back into the list.
+ */
+public interface TaskListListener {
+    /**
+     * Called after a task is appended to the list.
+     *
+     * @param position The 0-based position of the new task, which is the last one
+     * @param task The task added
+     */
+    void taskAdded(int position, Task task);
+
+    /**
+     * Called after a task is removed, moving every later task up one position.
+     *
+     * @param position The 0-based position the task was at
+     */
+    void taskRemoved(int position);
+
+    /**
+     * Called after a task is marked or unmarked.
+     *
+     * @param position The 0-based position of the task
+     * @param isDone The new completion status
+     */
+    void taskMarked(int position, boolean isDone);
+}
@@ -0,0 +1,190 @@
+package jinjja.task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A consistent copy of a task list for saving: the save file lines of its tasks, the tasks themselves, and a binary
+ * image of its index, so that the index can be restored at startup instead of rebuilt. The image leaves out which
+ * tasks are done, which is read back from the tasks, so marking a task does not make a saved image stale.
+ *
+ * <p>The image has no header or checksum of its own. {@link jinjja.storage.Storage} frames it with both, and decides
+ * when it is fresh enough to use.
+ */
+public final class TaskListSnapshot {
+    private final List<String> fileLines;
+    private final List<Task> tasks;
+    private final byte[] indexImage;
+
+    /**
+     * Writes a snapshot somewhere, such as to disk, and returns what should hear of changes made after it.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        /**
+         * Writes the snapshot.
+         *
+         * @param snapshot The snapshot to write
+         * @return The listener to tell of changes from now on, or null for none
+         * @throws IOException if the snapshot cannot be written
+         */
+        TaskListListener write(TaskListSnapshot snapshot) throws IOException;
+    }
+
+    private TaskListSnapshot(List<String> fileLines, List<Task> tasks, byte[] indexImage) {
+        this.fileLines = fileLines;
+        this.tasks = tasks;
+        this.indexImage = indexImage;
+    }
+
+    /**
+     * Captures a task list, bringing its index up to date first if it is stale.
+     *
+     * @param list The list to capture
+     * @return The captured list
+     */
+    public static TaskListSnapshot capture(TaskList list) {
+        assert list != null : "Task list cannot be null";
+        return list.readWithIndex(TaskListSnapshot::of);
+    }
+
+    /**
+     * Captures a task list and hands it to a writer. The list is only locked while it is captured, so it can go on
+     * changing while the writer runs; the changes are queued meanwhile. The listener the writer returns is then caught
+     * up on them and replaces any earlier one, so it hears of every change made after the state it wrote, and of
+     * nothing before. Saves of the same list take turns.
+     *
+     * @param list The list to save
+     * @param writer The writer to save it with
+     * @throws IOException if the writer fails, in which case the earlier listener is caught up and stays
+     */
+    public static void save(TaskList list, Writer writer) throws IOException {
+        assert list != null : "Task list cannot be null";
+        assert writer != null : "Writer cannot be null";
+        synchronized (list.getSaveLock()) {
+            ChangeQueue queue = new ChangeQueue();
+            TaskListListener[] earlier = new TaskListListener[1];
+            TaskListSnapshot snapshot = list.readWithIndex(index-> {
+                earlier[0] = list.getListenerLocked();
+                list.setListenerLocked(queue);
+                return of(index);
+            });
+            TaskListListener next = earlier[0];
+            try {
+                next = writer.write(snapshot);
+            } finally {
+                TaskListListener catchingUp = next;
+                list.runLocked(()-> {
+                    queue.replayInto(catchingUp);
+                    list.setListenerLocked(catchingUp);
+                });
+            }
+        }
+    }
+
+    private static TaskListSnapshot of(TaskIndex index) {
+        List<String> lines = new ArrayList<>(index.size());
+        List<Task> tasks = new ArrayList<>(index.size());
+        for (int i = 0; i < index.size(); i++) {
+            Task task = index.getTask(i);
+            lines.add(task.toFileFormat());
+            tasks.add(task);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        } catch (IOException e) {
+            throw new AssertionError("Writing to memory should not fail", e);
+        }
+        return new TaskListSnapshot(lines, tasks, bytes.toByteArray());
+    }
+
+    /**
+     * Holds the changes made to a list while it is being saved, to replay to whichever listener takes over.
+     */
+    private static final class ChangeQueue implements TaskListListener {
+        private final List<Consumer<TaskListListener>> changes = new ArrayList<>();
+
+        @Override
+        public void taskAdded(int position, Task task) {
+            this.changes.add(listener->listener.taskAdded(position, task));
+        }
+
+        @Override
+        public void taskRemoved(int position) {
+            this.changes.add(listener->listener.taskRemoved(position));
+        }
+
+        @Override
+        public void taskMarked(int position, boolean isDone) {
+            this.changes.add(listener->listener.taskMarked(position, isDone));
+        }
+
+        void replayInto(TaskListListener listener) {
+            if (listener != null) {
+                this.changes.forEach(change->change.accept(listener));
+            }
+        }
+    }
+
+    /**
+     * Returns the save file lines of the captured tasks, in list order.
+     *
+     * @return The lines, without line separators
+     */
+    public List<String> getFileLines() {
+        return this.fileLines;
+    }
+
+    /**
+     * Returns the captured tasks, in list order. The tasks are the list's own, so one marked since the capture reads
+     * as marked; the mark is also queued for the listener that takes over.
+     *
+     * @return The tasks
+     */
+    public List<Task> getTasks() {
+        return this.tasks;
+    }
+
+    /**
+     * Returns the binary image of the captured index.
+     *
+     * @return The image, which the caller must not change
+     */
+    public byte[] getIndexImage() {
+        return this.indexImage;
+    }
+
+    /**
+     * Returns the number of tasks captured.
+     *
+     * @return The task count
+     */
+    public int getTaskCount() {
+        return this.fileLines.size();
+    }
+
+    /**
+     * Restores the index of a task list from an image made by {@link #capture} of a list with the same tasks, so that
+     * the list's first query does not rebuild it. The image is read from its current position to its limit. If it
+     * cannot be restored, the list is still usable, and rebuilds its index when first queried.
+     *
+     * @param list The list to restore the index of
+     * @param indexImage The image, such as a mapped file
+     * @throws IOException if the image is malformed or does not fit the list
+     */
+    public static void restoreIndex(TaskList list, ByteBuffer indexImage) throws IOException {
+        try {
+            list.restoreIndex(indexImage);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | ClassCastException e) {
+            throw new IOException("Index image is malformed: " + e, e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package jinjja.task;
+
+import java.util.List;
+
+/**
+ * One page of a filtered task listing.
+ *
+ * @param entries The tasks on this page with their task numbers, in list order
+ * @param pageNumber The 1-indexed page number
+ * @param pageSize The maximum number of tasks per page
+ * @param matchCount The number of tasks matching the filter across all pages
+ */
+public record TaskPage(List<TaskEntry> entries, int pageNumber, int pageSize, int matchCount) {
+    /**
+     * Returns the number of pages needed to show every matching task.
+     *
+     * @return The page count, at least 1
+     */
+    public int pageCount() {
+        return Math.max(1, (matchCount + pageSize - 1) / pageSize);
+    }
+}
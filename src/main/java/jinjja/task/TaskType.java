@@ -0,0 +1,58 @@
+package jinjja.task;
+
+/**
+ * Enum representing the kinds of task, with the short codes used in the save file and in task listings.
+ */
+public enum TaskType {
+    TODO("T"), DEADLINE("D"), EVENT("E"), TENTATIVE("TE");
+
+    private final String code;
+
+    TaskType(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the short code of this type, e.g. "D" for deadlines.
+     *
+     * @return The short code
+     */
+    public String getCode() {
+        return this.code;
+    }
+
+    /**
+     * Returns the type of the given task.
+     *
+     * @param task The task
+     * @return The task's type
+     */
+    public static TaskType of(Task task) {
+        if (task instanceof Deadline) {
+            return DEADLINE;
+        } else if (task instanceof Event) {
+            return EVENT;
+        } else if (task instanceof Tentative) {
+            return TENTATIVE;
+        }
+        return TODO;
+    }
+
+    /**
+     * Converts a type name or short code, in any case, to the corresponding TaskType.
+     *
+     * @param input The name or code, e.g. "deadline" or "D"
+     * @return The matching TaskType, or null if there is none
+     */
+    public static TaskType fromString(String input) {
+        if (input == null) {
+            return null;
+        }
+        for (TaskType type : values()) {
+            if (type.name().equalsIgnoreCase(input) || type.code.equalsIgnoreCase(input)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -8,6 +8,8 @@ import java.util.List;
 /**
  * Represents a tentatively scheduled event that can have multiple possible time slots. Only one slot can be confirmed
  * at a time.
+ *
+ * <p>Slot changes and renderings are synchronized on the instance so a slot list is never seen half-updated.
  */
 public class Tentative extends Task {
     private static final DateTimeFormatter DATETIME_OUTPUT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mma");
@@ -83,7 +85,7 @@ public class Tentative extends Task {
      * @param from The start time of the slot
      * @param to The end time of the slot
      */
-    public void addTentativeSlot(LocalDateTime from, LocalDateTime to) {
+    public synchronized void addTentativeSlot(LocalDateTime from, LocalDateTime to) {
         assert from != null : "Start time cannot be null";
         assert to != null : "End time cannot be null";
         assert !from.isAfter(to) : "Start time should not be after end time";
@@ -91,6 +93,7 @@ public class Tentative extends Task {
         TimeSlot slot = new TimeSlot(from, to);
         if (!tentativeSlots.contains(slot)) {
             tentativeSlots.add(slot);
+            invalidateDisplayString();
         }
     }
 
@@ -100,12 +103,13 @@ public class Tentative extends Task {
      * @param slotIndex The 1-based index of the slot to confirm
      * @return true if confirmation was successful, false if index is invalid
      */
-    public boolean confirmSlot(int slotIndex) {
+    public synchronized boolean confirmSlot(int slotIndex) {
         if (slotIndex < 1 || slotIndex > tentativeSlots.size()) {
             return false;
         }
 
         confirmedSlot = tentativeSlots.get(slotIndex - 1);
+        invalidateDisplayString();
         return true;
     }
 
@@ -115,7 +119,7 @@ public class Tentative extends Task {
      * @param slotIndex The 1-based index of the slot to remove
      * @return true if removal was successful, false if index is invalid
      */
-    public boolean removeTentativeSlot(int slotIndex) {
+    public synchronized boolean removeTentativeSlot(int slotIndex) {
         if (slotIndex < 1 || slotIndex > tentativeSlots.size()) {
             return false;
         }
@@ -124,6 +128,7 @@ public class Tentative extends Task {
         if (confirmedSlot != null && confirmedSlot.equals(removedSlot)) {
             confirmedSlot = null;
         }
+        invalidateDisplayString();
         return true;
     }
 
@@ -132,7 +137,7 @@ public class Tentative extends Task {
      *
      * @return A copy of the tentative slots list
      */
-    public List<TimeSlot> getTentativeSlots() {
+    public synchronized List<TimeSlot> getTentativeSlots() {
         return new ArrayList<>(tentativeSlots);
     }
 
@@ -141,7 +146,7 @@ public class Tentative extends Task {
      *
      * @return The confirmed slot, or null if no slot is confirmed
      */
-    public TimeSlot getConfirmedSlot() {
+    public synchronized TimeSlot getConfirmedSlot() {
         return confirmedSlot;
     }
 
@@ -150,7 +155,7 @@ public class Tentative extends Task {
      *
      * @return true if a slot is confirmed, false otherwise
      */
-    public boolean isConfirmed() {
+    public synchronized boolean isConfirmed() {
         return confirmedSlot != null;
     }
 
@@ -159,12 +164,12 @@ public class Tentative extends Task {
      *
      * @return The number of tentative slots
      */
-    public int getSlotCount() {
+    public synchronized int getSlotCount() {
         return tentativeSlots.size();
     }
 
     @Override
-    public String toFileFormat() {
+    public synchronized String toFileFormat() {
         StringBuilder sb = new StringBuilder();
         sb.append("TE | ").append(super.toFileFormat());
 
@@ -184,9 +189,9 @@ public class Tentative extends Task {
     }
 
     @Override
-    public String toString() {
+    protected synchronized String renderDisplayString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("[TE]").append(super.toString());
+        sb.append("[TE]").append(super.renderDisplayString());
 
         if (isConfirmed()) {
             sb.append(" (CONFIRMED: ").append(confirmedSlot.toDisplayString()).append(")");
@@ -33,7 +33,7 @@ public class Todo extends Task {
      * @return A string representation of the todo task
      */
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String renderDisplayString() {
+        return "[T]" + super.renderDisplayString();
     }
 }
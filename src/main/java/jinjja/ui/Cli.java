@@ -1,18 +1,82 @@
 package jinjja.ui;
 
-import java.util.Scanner;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 import jinjja.task.Task;
-import jinjja.task.TaskList;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskPage;
 
 /**
  * Handles user interface operations including printing messages and reading user input.
+ *
+ * <p>Output goes through one large buffer rather than one system call per line. When a person is typing, the buffer is
+ * flushed after every reply. When commands are piped in from a file or another program, it is only flushed when the
+ * next command has not arrived yet, or when the buffer fills, so a long script is written in a few big chunks. In
+ * that case the buffer also becomes {@link System#out}, so messages printed elsewhere, such as by storage, stay in
+ * order.
+ *
+ * <p>Notices, which can arrive on another thread, are printed between replies rather than inside one, and flushed
+ * straight away.
  */
 public class Cli implements Ui {
-    private Scanner scanner;
+    private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final String DIVIDER = "____________________________________________________________";
+    private static final String NEWLINE = System.lineSeparator();
 
+    private final BufferedReader reader;
+    private final PrintStream out;
+    private final boolean isInteractive;
+    private final Object replyLock = new Object();
+
+    /**
+     * Constructs a Cli on standard input and output. If there is no console, input is taken to be piped in and
+     * output is only flushed when waiting for the next command.
+     */
     public Cli() {
-        this.scanner = new Scanner(System.in);
+        this.reader = new BufferedReader(new InputStreamReader(System.in), INPUT_BUFFER_SIZE);
+        this.isInteractive = System.console() != null;
+        if (this.isInteractive) {
+            this.out = new PrintStream(new BufferedOutputStream(System.out, OUTPUT_BUFFER_SIZE), false);
+        } else {
+            this.out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                    OUTPUT_BUFFER_SIZE), false);
+            System.setOut(this.out);
+        }
+    }
+
+    /**
+     * Constructs a Cli that reads commands from the given input and writes each reply to the given output as soon as
+     * it is ready.
+     *
+     * @param in The stream to read commands from.
+     * @param out The stream to write replies to.
+     */
+    public Cli(InputStream in, OutputStream out) {
+        this(in, out, true);
+    }
+
+    /**
+     * Constructs a Cli that reads commands from the given input and writes replies to the given output.
+     *
+     * @param in The stream to read commands from.
+     * @param out The stream to write replies to.
+     * @param isInteractive true to flush after every reply, false to flush only when waiting for the next command.
+     */
+    public Cli(InputStream in, OutputStream out, boolean isInteractive) {
+        this.reader = new BufferedReader(new InputStreamReader(in), INPUT_BUFFER_SIZE);
+        this.out = new PrintStream(new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE), false);
+        this.isInteractive = isInteractive;
     }
 
     /**
@@ -22,9 +86,9 @@ public class Cli implements Ui {
      */
     @Override
     public String showGreeting() {
-        System.out.println("Hello! I'm Jinjja");
-        System.out.println("What can I do for you?");
-        return "";
+        println("Hello! I'm Jinjja");
+        println("What can I do for you?");
+        return endReply();
     }
 
     /**
@@ -34,8 +98,8 @@ public class Cli implements Ui {
      */
     @Override
     public String showFarewell() {
-        System.out.println("Bye. Hope to see you again soon!");
-        return "";
+        println("Bye. Hope to see you again soon!");
+        return endReply();
     }
 
     /**
@@ -45,8 +109,8 @@ public class Cli implements Ui {
      */
     @Override
     public String showDivider() {
-        System.out.println("____________________________________________________________");
-        return "";
+        println(DIVIDER);
+        return endReply();
     }
 
     /**
@@ -57,8 +121,8 @@ public class Cli implements Ui {
      */
     @Override
     public String showMessage(String message) {
-        System.out.println(message);
-        return "";
+        println(message);
+        return endReply();
     }
 
     /**
@@ -69,6 +133,7 @@ public class Cli implements Ui {
      */
     @Override
     public String showError(String errorMessage) {
+        this.out.flush();
         System.err.println(errorMessage);
         return "";
     }
@@ -81,10 +146,10 @@ public class Cli implements Ui {
      */
     @Override
     public String showMessageWithDivider(String message) {
-        showDivider();
-        showMessage(message);
-        showDivider();
-        return "";
+        println(DIVIDER);
+        println(message);
+        println(DIVIDER);
+        return endReply();
     }
 
     /**
@@ -96,12 +161,12 @@ public class Cli implements Ui {
      */
     @Override
     public String showTaskAdded(Task task, int totalTasks) {
-        showDivider();
-        showMessage("Got it. I've added this task:");
-        showMessage("  " + task);
-        showMessage("Now you have " + totalTasks + " tasks in the list.");
-        showDivider();
-        return "";
+        println(DIVIDER);
+        println("Got it. I've added this task:");
+        println("  " + task);
+        println("Now you have " + totalTasks + " tasks in the list.");
+        println(DIVIDER);
+        return endReply();
     }
 
     /**
@@ -113,12 +178,12 @@ public class Cli implements Ui {
      */
     @Override
     public String showTaskDeleted(Task task, int totalTasks) {
-        showDivider();
-        showMessage("Noted. I've removed this task:");
-        showMessage("  " + task);
-        showMessage("Now you have " + totalTasks + " tasks in the list.");
-        showDivider();
-        return "";
+        println(DIVIDER);
+        println("Noted. I've removed this task:");
+        println("  " + task);
+        println("Now you have " + totalTasks + " tasks in the list.");
+        println(DIVIDER);
+        return endReply();
     }
 
     /**
@@ -129,11 +194,11 @@ public class Cli implements Ui {
      */
     @Override
     public String showTaskMarked(Task task) {
-        showDivider();
-        showMessage("Nice! I've marked this task as done:");
-        showMessage("  " + task);
-        showDivider();
-        return "";
+        println(DIVIDER);
+        println("Nice! I've marked this task as done:");
+        println("  " + task);
+        println(DIVIDER);
+        return endReply();
     }
 
     /**
@@ -144,66 +209,211 @@ public class Cli implements Ui {
      */
     @Override
     public String showTaskUnmarked(Task task) {
-        showDivider();
-        showMessage("OK, I've marked this task as not done yet:");
-        showMessage("  " + task);
-        showDivider();
-        return "";
+        println(DIVIDER);
+        println("OK, I've marked this task as not done yet:");
+        println("  " + task);
+        println(DIVIDER);
+        return endReply();
     }
 
     /**
      * Shows the list of tasks.
      *
-     * @param tasks The task list to display.
+     * @param tasks The tasks to display.
      * @return An empty string.
      */
     @Override
-    public String showTaskList(TaskList tasks) {
-        showDivider();
-        for (int i = 0; i < tasks.getSize(); i++) {
-            showMessage((i + 1) + "." + tasks.getTask(i));
+    public String showTaskList(List<Task> tasks) {
+        try {
+            renderTaskList(tasks, this.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        showDivider();
-        return "";
+        return endReply();
     }
 
     /**
      * Shows the results of a find operation.
      *
-     * @param matchingTasks The task list containing tasks that match the search criteria
+     * @param matchingTasks The tasks that match the search criteria
      * @param keyword The keyword that was searched for
      * @return An empty string.
      */
     @Override
-    public String showFindResults(TaskList matchingTasks, String keyword) {
-        showDivider();
-        if (matchingTasks.isEmpty()) {
-            showMessage("No matching tasks found for keyword: " + keyword);
+    public String showFindResults(List<Task> matchingTasks, String keyword) {
+        try {
+            renderFindResults(matchingTasks, keyword, this.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return endReply();
+    }
+
+    /**
+     * Shows one page of a filtered task listing. Tasks keep their numbers from the full list.
+     *
+     * @param page The page to display.
+     * @return An empty string.
+     */
+    @Override
+    public String showTaskPage(TaskPage page) {
+        println(DIVIDER);
+        if (page.matchCount() == 0) {
+            println("No matching tasks.");
         } else {
-            showMessage("Here are the matching tasks in your list:");
-            for (int i = 0; i < matchingTasks.getSize(); i++) {
-                showMessage((i + 1) + "." + matchingTasks.getTask(i));
+            println("Page " + page.pageNumber() + " of " + page.pageCount() + " (" + page.matchCount()
+                    + " matching tasks):");
+            for (TaskEntry entry : page.entries()) {
+                println(entry.number() + "." + entry.task());
             }
         }
-        showDivider();
+        println(DIVIDER);
+        return endReply();
+    }
+
+    /**
+     * Shows the results of a query. Tasks keep their numbers from the full list.
+     *
+     * @param results The matching tasks, in the query's order.
+     * @return An empty string.
+     */
+    @Override
+    public String showQueryResults(List<TaskEntry> results) {
+        println(DIVIDER);
+        if (results.isEmpty()) {
+            println("No tasks match your query.");
+        } else {
+            println("Here are the tasks matching your query:");
+            for (TaskEntry entry : results) {
+                println(entry.number() + "." + entry.task());
+            }
+        }
+        println(DIVIDER);
+        return endReply();
+    }
+
+    /**
+     * Renders the list of tasks between dividers, one numbered task per line.
+     *
+     * @param tasks The tasks to render.
+     * @param out The destination to append to.
+     * @throws IOException If appending fails.
+     */
+    @Override
+    public void renderTaskList(List<Task> tasks, Appendable out) throws IOException {
+        out.append(DIVIDER).append(NEWLINE);
+        appendNumbered(tasks, out);
+        out.append(DIVIDER).append(NEWLINE);
+    }
+
+    /**
+     * Renders the results of a find operation between dividers.
+     *
+     * @param matchingTasks The tasks that matched.
+     * @param keyword The keyword that was searched for.
+     * @param out The destination to append to.
+     * @throws IOException If appending fails.
+     */
+    @Override
+    public void renderFindResults(List<Task> matchingTasks, String keyword, Appendable out) throws IOException {
+        out.append(DIVIDER).append(NEWLINE);
+        if (matchingTasks.isEmpty()) {
+            out.append("No matching tasks found for keyword: ").append(keyword).append(NEWLINE);
+        } else {
+            out.append("Here are the matching tasks in your list:").append(NEWLINE);
+            appendNumbered(matchingTasks, out);
+        }
+        out.append(DIVIDER).append(NEWLINE);
+    }
+
+    private static void appendNumbered(List<Task> tasks, Appendable out) throws IOException {
+        for (int i = 0; i < tasks.size(); i++) {
+            out.append(Integer.toString(i + 1)).append('.').append(tasks.get(i).toString()).append(NEWLINE);
+        }
+    }
+
+    /**
+     * Prints a notice once any reply being printed is done, and flushes it straight away, even when commands are
+     * piped in, since no command may follow to flush it.
+     *
+     * @param notice The notice to print.
+     * @return An empty string.
+     */
+    @Override
+    public String showNotice(String notice) {
+        synchronized (this.replyLock) {
+            println(notice);
+            this.out.flush();
+        }
         return "";
     }
 
     /**
-     * Reads a line of input from the user.
+     * Runs something that prints a whole reply, so that notices wait until it is done. If it fails, the output held
+     * back so far is flushed before the failure is passed on, so the replies to the commands before it are not lost.
+     *
+     * @param reply The code that prints the reply.
+     */
+    @Override
+    public void showReply(Runnable reply) {
+        synchronized (this.replyLock) {
+            try {
+                reply.run();
+            } catch (RuntimeException | Error e) {
+                this.out.flush();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads a line of input from the user. Output still held back is flushed first unless the next command has
+     * already arrived, so whoever is sending commands sees every reply before it has to wait for more.
      *
-     * @return The user's input as a string.
+     * @return The user's input as a string, or null if the input has ended.
      */
     @Override
     public String readCommand() {
-        return scanner.nextLine();
+        try {
+            if (this.isInteractive || !this.reader.ready()) {
+                this.out.flush();
+            }
+            return this.reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
-     * Closes the scanner to free resources.
+     * Flushes any remaining output and closes the input.
      */
     @Override
     public void close() {
-        scanner.close();
+        this.out.flush();
+        try {
+            this.reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes one line to the output buffer without flushing it.
+     */
+    private void println(String line) {
+        this.out.print(line);
+        this.out.print(NEWLINE);
+    }
+
+    /**
+     * Ends a reply, flushing it straight away if a person is waiting for it.
+     *
+     * @return An empty string, as every Cli reply is printed rather than returned.
+     */
+    private String endReply() {
+        if (this.isInteractive) {
+            this.out.flush();
+        }
+        return "";
     }
 }
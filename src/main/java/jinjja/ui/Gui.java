@@ -1,12 +1,20 @@
 package jinjja.ui;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 import jinjja.task.Task;
-import jinjja.task.TaskList;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskPage;
 
 /**
  * Handles GUI interface operations for Jinjja chatbot, returning messages for display in the JavaFX window.
  */
 public class Gui implements Ui {
+    /** Rough length of one rendered task line, used to size the reply buffer up front. */
+    private static final int ESTIMATED_LINE_LENGTH = 64;
+
     public Gui() {
         // No scanner needed for GUI
     }
@@ -118,37 +126,114 @@ public class Gui implements Ui {
     /**
      * Returns the list of tasks as a string.
      *
-     * @param tasks The task list to display.
+     * @param tasks The tasks to display.
      * @return The formatted task list string.
      */
     @Override
-    public String showTaskList(TaskList tasks) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tasks.getSize(); i++) {
-            sb.append((i + 1)).append(".").append(tasks.getTask(i)).append("\n");
+    public String showTaskList(List<Task> tasks) {
+        StringBuilder sb = new StringBuilder(tasks.size() * ESTIMATED_LINE_LENGTH);
+        try {
+            renderTaskList(tasks, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return sb.toString().trim();
+        return sb.toString();
     }
 
     /**
      * Returns the results of a find operation as a string.
      *
-     * @param matchingTasks The task list containing tasks that match the search criteria.
+     * @param matchingTasks The tasks that match the search criteria.
      * @param keyword The keyword that was searched for.
      * @return The formatted find results string.
      */
     @Override
-    public String showFindResults(TaskList matchingTasks, String keyword) {
-        StringBuilder sb = new StringBuilder();
+    public String showFindResults(List<Task> matchingTasks, String keyword) {
+        StringBuilder sb = new StringBuilder((matchingTasks.size() + 1) * ESTIMATED_LINE_LENGTH);
+        try {
+            renderFindResults(matchingTasks, keyword, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns one page of a filtered task listing. Tasks keep their numbers from the full list.
+     *
+     * @param page The page to display.
+     * @return The formatted page string.
+     */
+    @Override
+    public String showTaskPage(TaskPage page) {
+        if (page.matchCount() == 0) {
+            return "No matching tasks.";
+        }
+        StringBuilder sb = new StringBuilder((page.entries().size() + 1) * ESTIMATED_LINE_LENGTH);
+        sb.append("Page ").append(page.pageNumber()).append(" of ").append(page.pageCount())
+                .append(" (").append(page.matchCount()).append(" matching tasks):");
+        for (TaskEntry entry : page.entries()) {
+            sb.append('\n').append(entry.number()).append('.').append(entry.task());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the results of a query. Tasks keep their numbers from the full list.
+     *
+     * @param results The matching tasks, in the query's order.
+     * @return The formatted results string.
+     */
+    @Override
+    public String showQueryResults(List<TaskEntry> results) {
+        if (results.isEmpty()) {
+            return "No tasks match your query.";
+        }
+        StringBuilder sb = new StringBuilder((results.size() + 1) * ESTIMATED_LINE_LENGTH);
+        sb.append("Here are the tasks matching your query:");
+        for (TaskEntry entry : results) {
+            sb.append('\n').append(entry.number()).append('.').append(entry.task());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Renders the list of tasks, one numbered task per line, without a trailing newline.
+     *
+     * @param tasks The tasks to render.
+     * @param out The destination to append to.
+     * @throws IOException If appending fails.
+     */
+    @Override
+    public void renderTaskList(List<Task> tasks, Appendable out) throws IOException {
+        appendNumbered(tasks, out);
+    }
+
+    /**
+     * Renders the results of a find operation, without a trailing newline.
+     *
+     * @param matchingTasks The tasks that matched.
+     * @param keyword The keyword that was searched for.
+     * @param out The destination to append to.
+     * @throws IOException If appending fails.
+     */
+    @Override
+    public void renderFindResults(List<Task> matchingTasks, String keyword, Appendable out) throws IOException {
         if (matchingTasks.isEmpty()) {
-            sb.append("No matching tasks found for keyword: ").append(keyword);
+            out.append("No matching tasks found for keyword: ").append(keyword.trim());
         } else {
-            sb.append("Here are the matching tasks in your list:\n");
-            for (int i = 0; i < matchingTasks.getSize(); i++) {
-                sb.append((i + 1)).append(".").append(matchingTasks.getTask(i)).append("\n");
+            out.append("Here are the matching tasks in your list:\n");
+            appendNumbered(matchingTasks, out);
+        }
+    }
+
+    private static void appendNumbered(List<Task> tasks, Appendable out) throws IOException {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) {
+                out.append('\n');
             }
+            out.append(Integer.toString(i + 1)).append('.').append(tasks.get(i).toString());
         }
-        return sb.toString().trim();
     }
 
     /**
@@ -162,6 +247,27 @@ public class Gui implements Ui {
         return "";
     }
 
+    /**
+     * Returns the notice as is, for the window to show.
+     *
+     * @param notice The notice to show.
+     * @return The notice.
+     */
+    @Override
+    public String showNotice(String notice) {
+        return notice;
+    }
+
+    /**
+     * Runs the reply straight away, since GUI replies are returned rather than printed.
+     *
+     * @param reply The code that shows the reply.
+     */
+    @Override
+    public void showReply(Runnable reply) {
+        reply.run();
+    }
+
     /**
      * Nothing to close for GUI, so this method does nothing.
      */
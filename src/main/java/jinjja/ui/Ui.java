@@ -1,7 +1,11 @@
 package jinjja.ui;
 
+import java.io.IOException;
+import java.util.List;
+
 import jinjja.task.Task;
-import jinjja.task.TaskList;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskPage;
 
 /**
  * Interface for different UI implementations (CLI and GUI).
@@ -27,11 +31,59 @@ public interface Ui {
 
     String showTaskUnmarked(Task task);
 
-    String showTaskList(TaskList tasks);
+    String showTaskList(List<Task> tasks);
+
+    String showFindResults(List<Task> matchingTasks, String keyword);
+
+    String showTaskPage(TaskPage page);
+
+    String showQueryResults(List<TaskEntry> results);
+
+    /**
+     * Renders the task list into the given destination, one line at a time, so large lists can be streamed without
+     * building the whole reply in memory.
+     *
+     * @param tasks The tasks to render.
+     * @param out The destination to append to.
+     * @throws IOException If appending fails.
+     */
+    void renderTaskList(List<Task> tasks, Appendable out) throws IOException;
+
+    /**
+     * Renders the results of a find operation into the given destination.
+     *
+     * @param matchingTasks The tasks that matched.
+     * @param keyword The keyword that was searched for.
+     * @param out The destination to append to.
+     * @throws IOException If appending fails.
+     */
+    void renderFindResults(List<Task> matchingTasks, String keyword, Appendable out) throws IOException;
+
+    /**
+     * Shows a notice that does not answer a command, such as a change picked up from the save file. May be called on
+     * any thread, while a reply is being shown on another.
+     *
+     * @param notice The notice to show.
+     * @return The notice as shown, or an empty string if it was printed.
+     */
+    String showNotice(String notice);
 
-    String showFindResults(TaskList matchingTasks, String keyword);
+    /**
+     * Runs something that shows a whole reply, keeping notices from other threads out of the middle of it.
+     *
+     * @param reply The code that shows the reply.
+     */
+    void showReply(Runnable reply);
 
+    /**
+     * Reads the next command.
+     *
+     * @return The command text, or null if there is no more input.
+     */
     String readCommand();
 
+    /**
+     * Releases the interface's resources once the last reply has been shown.
+     */
     void close();
 }
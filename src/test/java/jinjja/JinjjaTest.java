@@ -0,0 +1,26 @@
+package jinjja;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for Jinjja. Tests reading the command-line arguments that start a daemon.
+ */
+public class JinjjaTest {
+
+    @Test
+    public void parsePort_givenOrDefault_returnsPort() {
+        assertEquals(4921, Jinjja.parsePort(new String[] {"--server"}, 4921));
+        assertEquals(8080, Jinjja.parsePort(new String[] {"--api", "8080"}, 4922));
+        assertEquals(0, Jinjja.parsePort(new String[] {"--api", "0"}, 4922));
+        assertEquals(65535, Jinjja.parsePort(new String[] {"--api", "65535"}, 4922));
+    }
+
+    @Test
+    public void parsePort_notAPort_rejected() {
+        assertEquals(-1, Jinjja.parsePort(new String[] {"--server", "http"}, 4921));
+        assertEquals(-1, Jinjja.parsePort(new String[] {"--server", "-1"}, 4921));
+        assertEquals(-1, Jinjja.parsePort(new String[] {"--api", "65536"}, 4922));
+    }
+}
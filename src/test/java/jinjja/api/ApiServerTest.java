@@ -0,0 +1,118 @@
+package jinjja.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.storage.Storage;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+
+/**
+ * Test class for ApiServer. Sends real HTTP requests to a server on a free port.
+ */
+public class ApiServerTest {
+    @TempDir
+    Path tempDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TaskList taskList;
+    private ApiServer server;
+    private String base;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskList = new TaskList();
+        for (int i = 1; i <= 5; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        server = new ApiServer(new JinjjaEngine(taskList, new Storage(tempDir.resolve("jinjja.txt").toString())));
+        base = "http://127.0.0.1:" + server.start(0) + "/tasks";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void list_withPage_returnsOnlyThatPage() throws Exception {
+        HttpResponse<String> response = get(base + "?page=2&size=2");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"total\":5,\"tasks\":["
+                + "{\"number\":3,\"type\":\"todo\",\"done\":false,\"description\":\"task 3\"},"
+                + "{\"number\":4,\"type\":\"todo\",\"done\":false,\"description\":\"task 4\"}]}", response.body());
+    }
+
+    @Test
+    public void list_withoutPage_returnsEveryTask() throws Exception {
+        taskList.removeTask(0);
+        HttpResponse<String> response = get(base);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"total\":4,\"tasks\":["
+                + "{\"number\":1,\"type\":\"todo\",\"done\":false,\"description\":\"task 2\"},"));
+        assertTrue(response.body().endsWith(
+                "{\"number\":4,\"type\":\"todo\",\"done\":false,\"description\":\"task 5\"}]}"));
+    }
+
+    @Test
+    public void list_pagePastEnd_returnsTotalAndNoTasks() throws Exception {
+        HttpResponse<String> response = get(base + "?page=4&size=2");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"total\":5,\"tasks\":[]}", response.body());
+    }
+
+    @Test
+    public void addThenMark_updatesTaskList() throws Exception {
+        HttpResponse<String> added = send(HttpRequest.newBuilder(URI.create(base))
+                .POST(HttpRequest.BodyPublishers.ofString("deadline return \"book\" /by 2025-12-31 23:59")).build());
+        assertEquals(201, added.statusCode());
+        assertEquals("{\"number\":6,\"type\":\"deadline\",\"done\":false,\"description\":\"return \\\"book\\\"\","
+                + "\"by\":\"2025-12-31T23:59\"}", added.body());
+
+        HttpResponse<String> marked = send(HttpRequest.newBuilder(URI.create(base + "/6/mark"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+        assertEquals(200, marked.statusCode());
+        assertTrue(taskList.getTask(5).getIsDone());
+    }
+
+    @Test
+    public void find_returnsOriginalTaskNumbers() throws Exception {
+        HttpResponse<String> response = get(base + "/find?q=TASK%204");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"keyword\":\"TASK 4\",\"tasks\":["
+                + "{\"number\":4,\"type\":\"todo\",\"done\":false,\"description\":\"task 4\"}]}", response.body());
+    }
+
+    @Test
+    public void deleteOutOfRange_returnsNotFound() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(base + "/9")).DELETE().build());
+
+        assertEquals(404, response.statusCode());
+        assertEquals(5, taskList.getSize());
+    }
+
+    private HttpResponse<String> get(String uri) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(uri)).GET().build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,71 @@
+package jinjja.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for CompletionTrie. Tests ranking by count and keeping counts right as words come and go.
+ */
+public class CompletionTrieTest {
+
+    private static CompletionTrie trieOf(String... words) {
+        CompletionTrie trie = new CompletionTrie();
+        for (String word : words) {
+            trie.add(word);
+        }
+        return trie;
+    }
+
+    @Test
+    public void complete_ranksByCountThenAlphabetically() {
+        CompletionTrie trie = trieOf("report", "read", "review", "report", "re", "rest", "read", "report");
+
+        assertEquals(List.of("report", "read", "re", "rest", "review"), trie.complete("re", 10));
+        assertEquals(List.of("report", "read"), trie.complete("re", 2));
+        assertEquals(List.of("rest"), trie.complete("res", 10));
+        assertEquals(List.of(), trie.complete("x", 10));
+    }
+
+    @Test
+    public void remove_updatesRankingAndDropsUnusedWords() {
+        CompletionTrie trie = trieOf("report", "report", "read");
+        trie.remove("report");
+        trie.remove("report");
+
+        assertEquals(0, trie.frequency("report"));
+        assertEquals(1, trie.size());
+        assertEquals(List.of("read"), trie.complete("re", 10));
+
+        trie.remove("missing");
+        trie.remove("rea");
+        assertEquals(1, trie.frequency("read"));
+    }
+
+    @Test
+    public void complete_manyWords_matchesBruteForce() {
+        CompletionTrie trie = new CompletionTrie();
+        Map<String, Integer> counts = new TreeMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            String word = Integer.toString(random.nextInt(400), 5);
+            trie.add(word);
+            counts.merge(word, 1, Integer::sum);
+        }
+
+        for (String prefix : List.of("", "1", "12", "3", "40")) {
+            List<String> expected = counts.entrySet().stream()
+                    .filter(entry->entry.getKey().startsWith(prefix))
+                    .sorted((a, b)->b.getValue() - a.getValue())
+                    .limit(8)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertEquals(expected, trie.complete(prefix, 8), prefix);
+        }
+    }
+}
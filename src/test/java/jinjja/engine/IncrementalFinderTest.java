@@ -0,0 +1,89 @@
+package jinjja.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jinjja.storage.Storage;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+
+/**
+ * Test class for IncrementalFinder. Checks that refined searches agree with the find command and that the finder
+ * notices changes to the task list.
+ */
+public class IncrementalFinderTest {
+    @TempDir
+    Path tempDir;
+
+    private TaskList taskList;
+    private JinjjaEngine engine;
+    private IncrementalFinder finder;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        for (int i = 0; i < 2000; i++) {
+            taskList.addTask(new Todo((i % 2 == 0 ? "Read " : "write ") + "chapter " + i));
+        }
+        engine = new JinjjaEngine(taskList, new Storage(tempDir.resolve("jinjja.txt").toString()));
+        finder = engine.newIncrementalFinder();
+    }
+
+    private List<TaskEntry> find(String keyword) {
+        return finder.find(keyword, ()->false).matches();
+    }
+
+    @Test
+    public void find_typingAndDeleting_matchesFindCommand() {
+        String[] typed = {"r", "re", "rea", "read", "read ", "read c", "read ch", "read c", "read", "r", "e", "er 19"};
+        for (String keyword : typed) {
+            assertEquals(engine.findTasks(keyword), find(keyword), keyword);
+        }
+    }
+
+    @Test
+    public void find_extendedKeyword_refinesEarlierResult() {
+        assertFalse(finder.find("chap", ()->false).isRefined());
+        assertTrue(finder.find("chapter 1", ()->false).isRefined());
+        assertTrue(finder.find("chap", ()->false).isRefined());
+    }
+
+    @Test
+    public void find_afterTasksChange_usesNewPositions() {
+        find("chapter 1999");
+        taskList.removeTask(0);
+        taskList.addTask(new Todo("chapter 1999 again"));
+
+        List<TaskEntry> matches = find("chapter 1999");
+        assertEquals(2, matches.size());
+        assertEquals(1999, matches.get(0).number());
+        assertEquals(2000, matches.get(1).number());
+    }
+
+    @Test
+    public void find_afterTasksAdded_keepsRefiningWithNewTasks() {
+        find("chapter 1");
+        taskList.addTask(new Todo("chapter 1 revisited"));
+
+        IncrementalFinder.Result result = finder.find("chapter 1 r", ()->false);
+        assertTrue(result.isRefined());
+        assertEquals(engine.findTasks("chapter 1 r"), result.matches());
+        assertEquals(engine.findTasks("chapter 1"), find("chapter 1"));
+    }
+
+    @Test
+    public void find_cancelled_returnsNullAndKeepsNothing() {
+        assertNull(finder.find("chapter", ()->true));
+        assertFalse(finder.find("chapter", ()->false).isRefined());
+    }
+}
@@ -0,0 +1,153 @@
+package jinjja.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jinjja.exception.InvalidTaskException;
+import jinjja.query.QueryParser;
+import jinjja.storage.SaveFileMerge;
+import jinjja.storage.Storage;
+import jinjja.task.Deadline;
+import jinjja.task.Task;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+
+/**
+ * Test class for JinjjaEngine. Checks that operations return typed results rather than display text.
+ */
+public class JinjjaEngineTest {
+    @TempDir
+    Path tempDir;
+
+    private JinjjaEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new JinjjaEngine(new TaskList(), new Storage(tempDir.resolve("jinjja.txt").toString()));
+        engine.addTask(new Todo("read book"));
+        engine.addTask(new Deadline("return book", LocalDateTime.of(2025, 12, 31, 23, 59)));
+        engine.addTask(new Todo("buy milk"));
+    }
+
+    @Test
+    public void addTask_returnsNumberAndCount() {
+        Task task = new Todo("write report");
+        TaskChange change = engine.addTask(task);
+
+        assertEquals(4, change.number());
+        assertSame(task, change.task());
+        assertEquals(4, change.taskCount());
+    }
+
+    @Test
+    public void findTasks_returnsOriginalNumbers() {
+        List<TaskEntry> matches = engine.findTasks("BOOK");
+
+        assertEquals(2, matches.size());
+        assertEquals(1, matches.get(0).number());
+        assertEquals(2, matches.get(1).number());
+        assertEquals("return book", matches.get(1).task().getDescription());
+    }
+
+    @Test
+    public void findTasks_threadInterrupted_cancelled() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, ()->engine.findTasks("book"));
+            assertThrows(CancellationException.class, ()->engine.query(QueryParser.parse("type = T")));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void save_savedByAnotherSinceLoad_mergesAndSaves() throws IOException {
+        String saveFile = tempDir.resolve("jinjja.txt").toString();
+        engine.save();
+        Storage ourStorage = new Storage(saveFile);
+        JinjjaEngine ours = new JinjjaEngine(ourStorage.loadTaskList(), ourStorage);
+        Storage otherStorage = new Storage(saveFile);
+        JinjjaEngine other = new JinjjaEngine(otherStorage.loadTaskList(), otherStorage);
+        other.deleteTask(3);
+        other.save();
+        List<SaveFileMerge> merges = new ArrayList<>();
+        ours.setMergeListener(merges::add);
+        ours.addTask(new Todo("write report"));
+
+        ours.save();
+
+        assertEquals(1, merges.size());
+        assertEquals("buy milk", merges.get(0).getRemovals().get(0).getDescription());
+        List<Task> saved = new Storage(saveFile).loadTasksFromFile();
+        assertEquals(List.of("read book", "return book", "write report"),
+                saved.stream().map(Task::getDescription).toList());
+    }
+
+    @Test
+    public void markAndDelete_returnChangedTask() {
+        TaskChange marked = engine.markTask(2, true);
+        assertTrue(marked.task().getIsDone());
+
+        TaskChange deleted = engine.deleteTask(1);
+        assertEquals("read book", deleted.task().getDescription());
+        assertEquals(2, deleted.taskCount());
+    }
+
+    @Test
+    public void completeWord_tasksChangedWhileBuilding_changesIncluded() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean stall = new AtomicBoolean();
+        engine.addTask(new Todo("stall") {
+            @Override
+            public String getDescription() {
+                if (stall.compareAndSet(true, false)) {
+                    building.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getDescription();
+            }
+        });
+        stall.set(true);
+
+        CompletableFuture<List<String>> words = CompletableFuture.supplyAsync(()->engine.completeWord("re", 10));
+        assertTrue(building.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(()-> {
+            engine.addTask(new Todo("repair bike"));
+            engine.deleteTask(1);
+        }).get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        List<String> completed = new ArrayList<>(words.get(5, TimeUnit.SECONDS));
+        completed.sort(null);
+        assertEquals(List.of("repair", "return"), completed);
+    }
+
+    @Test
+    public void confirmSlot_notTentative_throwsInvalidTaskException() {
+        InvalidTaskException e = assertThrows(InvalidTaskException.class, ()-> engine.confirmSlot(1, 1));
+        assertEquals("Task 1 is not a tentative event.", e.getMessage());
+    }
+}
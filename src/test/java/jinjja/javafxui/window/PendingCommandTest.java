@@ -0,0 +1,71 @@
+package jinjja.javafxui.window;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.FutureTask;
+
+import org.junit.jupiter.api.Test;
+
+import jinjja.parser.Parser;
+
+/**
+ * Test class for PendingCommand. Tests the hand-over between the worker thread and the window when commands finish
+ * or are cancelled.
+ */
+public class PendingCommandTest {
+
+    @Test
+    public void cancel_beforeStart_preventsRunning() {
+        PendingCommand pending = new PendingCommand("todo read", Parser.parse("todo read"));
+
+        assertTrue(pending.cancel());
+        assertFalse(pending.start());
+        assertTrue(pending.isSettled());
+        assertEquals("Cancelled: todo read", pending.getReply());
+    }
+
+    @Test
+    public void cancel_runningChange_letsItFinish() {
+        PendingCommand pending = new PendingCommand("todo read", Parser.parse("todo read"));
+
+        assertTrue(pending.start());
+        assertFalse(pending.cancel());
+        assertFalse(pending.isSettled());
+        pending.finish("added");
+        assertEquals("added", pending.getReply());
+    }
+
+    @Test
+    public void cancel_runningRead_abandonsIt() {
+        PendingCommand pending = new PendingCommand("list", Parser.parse("list"));
+
+        assertTrue(pending.start());
+        assertTrue(pending.cancel());
+        pending.finish("the whole list");
+        assertEquals("Cancelled: list", pending.getReply());
+    }
+
+    @Test
+    public void cancel_runningRead_interruptsRun() {
+        PendingCommand pending = new PendingCommand("find book", Parser.parse("find book"));
+        FutureTask<Void> run = new FutureTask<>(()->null);
+        pending.setRun(run);
+
+        assertTrue(pending.start());
+        assertTrue(pending.cancel());
+        assertTrue(run.isCancelled());
+    }
+
+    @Test
+    public void cancel_runningChange_leavesRunAlone() {
+        PendingCommand pending = new PendingCommand("delete 1", Parser.parse("delete 1"));
+        FutureTask<Void> run = new FutureTask<>(()->null);
+        pending.setRun(run);
+
+        assertTrue(pending.start());
+        assertFalse(pending.cancel());
+        assertFalse(run.isCancelled());
+    }
+}
@@ -0,0 +1,58 @@
+package jinjja.javafxui.window;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.storage.Storage;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+
+/**
+ * Test class for TabCompletion. Tests completing commands and description words, and cycling through suggestions.
+ */
+public class TabCompletionTest {
+    @TempDir
+    Path tempDir;
+
+    private TabCompletion completion;
+
+    @BeforeEach
+    public void setUp() {
+        JinjjaEngine engine = new JinjjaEngine(new TaskList(), new Storage(tempDir.resolve("jinjja.txt").toString()));
+        engine.addTask(new Todo("review report"));
+        engine.addTask(new Todo("write report"));
+        engine.addTask(new Todo("read chapter"));
+        completion = new TabCompletion(engine);
+    }
+
+    @Test
+    public void complete_firstWord_completesCommand() {
+        assertEquals("todo ", completion.complete("to"));
+        assertEquals("tentative ", completion.complete("te"));
+    }
+
+    @Test
+    public void complete_laterWord_keepsTypedCase() {
+        assertEquals("todo write Report", completion.complete("todo write Re"));
+    }
+
+    @Test
+    public void complete_repeated_cyclesSuggestions() {
+        assertEquals("todo report", completion.complete("todo re"));
+        assertEquals("todo read", completion.complete("todo report"));
+        assertEquals("todo review", completion.complete("todo read"));
+        assertEquals("todo report", completion.complete("todo review"));
+    }
+
+    @Test
+    public void complete_noSuggestion_returnsInput() {
+        assertEquals("todo xyz", completion.complete("todo xyz"));
+        assertEquals("todo ", completion.complete("todo "));
+    }
+}
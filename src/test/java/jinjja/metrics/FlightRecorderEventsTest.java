@@ -0,0 +1,88 @@
+package jinjja.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jinjja.engine.JinjjaEngine;
+import jinjja.parser.Parser;
+import jinjja.storage.RecordStore;
+import jinjja.storage.Storage;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+import jinjja.ui.Gui;
+
+/**
+ * Test class for the flight recorder events. Records a short session with the shipped settings and checks what it
+ * captured.
+ */
+public class FlightRecorderEventsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shippedSettings_recordCommandsStorageAndIndexRebuilds() throws Exception {
+        Configuration settings = Configuration.create(Path.of("config/jfr/jinjja.jfc"));
+        Path saveFile = tempDir.resolve("jinjja.txt");
+        Path recordingFile = tempDir.resolve("session.jfr");
+
+        try (Recording recording = new Recording(settings)) {
+            recording.start();
+            Storage storage = new Storage(saveFile.toString());
+            JinjjaEngine engine = new JinjjaEngine(new TaskList(), storage);
+            engine.addTask(new Todo("read book"));
+            engine.addTask(new Todo("write report"));
+            Parser.parse("delete 1").run(engine, new Gui());
+            Parser.parse("query done=false").run(engine, new Gui());
+            engine.save();
+            storage.loadTasksFromFile();
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event->event.getEventType().getName().startsWith("jinjja."))
+                .collect(Collectors.toList());
+        List<RecordedEvent> commands = ofType(events, "jinjja.Command");
+        assertEquals(2, commands.size());
+        assertEquals("DELETE", commands.get(0).getString("commandType"));
+        assertEquals(1, commands.get(0).getInt("taskCount"));
+        assertEquals("QUERY", commands.get(1).getString("commandType"));
+
+        List<RecordedEvent> storage = ofType(events, "jinjja.Storage");
+        assertEquals(4, storage.size());
+        assertEquals("save", storage.get(0).getString("operation"));
+        assertEquals(saveFile.toString(), storage.get(0).getString("path"));
+        assertEquals(1, storage.get(0).getInt("taskCount"));
+        assertTrue(storage.get(0).getLong("bytes") > 0);
+        assertEquals("save records", storage.get(1).getString("operation"));
+        assertEquals(saveFile + RecordStore.RECORDS_SUFFIX, storage.get(1).getString("path"));
+        assertEquals(1, storage.get(1).getInt("taskCount"));
+        assertEquals("save index", storage.get(2).getString("operation"));
+        assertEquals(saveFile + Storage.INDEX_SUFFIX, storage.get(2).getString("path"));
+        assertEquals("load", storage.get(3).getString("operation"));
+        assertEquals(storage.get(0).getLong("bytes"), storage.get(3).getLong("bytes"));
+
+        List<RecordedEvent> rebuilds = ofType(events, "jinjja.IndexRebuild");
+        assertEquals(1, rebuilds.size());
+        assertEquals("invalidated", rebuilds.get(0).getString("reason"));
+        assertEquals(1, rebuilds.get(0).getInt("taskCount"));
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event->event.getEventType().getName().equals(name))
+                .sorted((a, b)->a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
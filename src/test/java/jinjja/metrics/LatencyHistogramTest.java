@@ -0,0 +1,103 @@
+package jinjja.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jinjja.command.Command;
+import jinjja.parser.CommandType;
+import jinjja.parser.Parser;
+import jinjja.ui.Gui;
+
+/**
+ * Test class for LatencyHistogram and Metrics. Tests bucket precision, percentiles, concurrent recording and what the
+ * stats command reports.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverEveryValueWithinAnEighth() {
+        for (long value = 0; value < 100_000; value++) {
+            long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+            assertTrue(upperBound >= value && upperBound <= value + value / 8, "value " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void getPercentile_isWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500, histogram.getMean(), 0.001);
+        assertEquals(1_000_000, histogram.getMax());
+        assertInRange(500_000, histogram.getPercentile(0.5));
+        assertInRange(990_000, histogram.getPercentile(0.99));
+        assertEquals(1_000_000, histogram.getPercentile(1));
+        assertEquals(0, new LatencyHistogram().getPercentile(0.5));
+    }
+
+    private static void assertInRange(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 8, actual + " is not near " + expected);
+    }
+
+    @Test
+    public void record_fromManyThreads_losesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(()-> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(9_999, histogram.getMax());
+        assertEquals(4L * 9_999 * 10_000 / 2, histogram.getTotal());
+    }
+
+    @Test
+    public void parseAndRun_areRecordedUnderTheCommandType() {
+        LatencyHistogram parseTimes = Metrics.global().getParseTimes(CommandType.STATS);
+        LatencyHistogram runTimes = Metrics.global().getExecuteTimes(CommandType.STATS);
+        long parsedBefore = parseTimes.getCount();
+        long ranBefore = runTimes.getCount();
+
+        Command command = Parser.parse("stats");
+        String reply = command.run(null, new Gui());
+
+        assertEquals(parsedBefore + 1, parseTimes.getCount());
+        assertEquals(ranBefore + 1, runTimes.getCount());
+        assertTrue(reply.startsWith("command"));
+        assertTrue(reply.contains("Saves: "));
+    }
+
+    @Test
+    public void format_listsOnlyCommandsThatRan() {
+        Metrics metrics = new Metrics();
+        assertTrue(metrics.format().contains("No commands run yet."));
+
+        metrics.recordExecute(CommandType.TODO, 2_000);
+        metrics.recordSave(3_000_000, 1234);
+        String text = metrics.format();
+
+        assertTrue(text.lines().anyMatch(line->line.matches("todo +1 +2\\.0 .*")));
+        assertFalse(text.contains("deadline"));
+        assertTrue(text.contains("Saves: 1, p50 3.0 ms, max 3.0 ms, 1234 bytes in total"));
+    }
+}
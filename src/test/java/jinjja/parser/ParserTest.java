@@ -1,10 +1,14 @@
 package jinjja.parser;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import jinjja.command.AddCommand;
 import jinjja.command.Command;
@@ -14,6 +18,11 @@ import jinjja.command.InvalidCommand;
 import jinjja.command.ListCommand;
 import jinjja.command.MarkCommand;
 import jinjja.command.UnmarkCommand;
+import jinjja.engine.JinjjaEngine;
+import jinjja.storage.Storage;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+import jinjja.ui.Gui;
 
 /**
  * Test class for Parser functionality. Tests parsing of various command types and edge cases.
@@ -232,6 +241,34 @@ public class ParserTest {
         assertFalse(command.canExit());
     }
 
+    @Test
+    public void parse_listWithOptions_returnsListCommand() {
+        assertTrue(Parser.parse("list page 2 /size 5 /undone /type deadline") instanceof ListCommand);
+        assertTrue(Parser.parse("list /before 2025-01-01") instanceof ListCommand);
+        assertTrue(Parser.parse("list /before 2025-01-01 18:00 /done") instanceof ListCommand);
+        assertTrue(Parser.parse("list 123") instanceof ListCommand);
+    }
+
+    @Test
+    public void parse_listPagePastEnd_rejectedWhenRun(@TempDir Path tempDir) {
+        JinjjaEngine engine = new JinjjaEngine(new TaskList(), new Storage(tempDir.resolve("jinjja.txt").toString()));
+        for (int i = 1; i <= 3; i++) {
+            engine.addTask(new Todo("task " + i));
+        }
+
+        assertEquals("There is only 1 page.", Parser.parse("list page 5").run(engine, new Gui()));
+        assertEquals("There are only 2 pages.", Parser.parse("list page 3 /size 2").run(engine, new Gui()));
+    }
+
+    @Test
+    public void parse_listWithMalformedOptions_returnsInvalidCommand() {
+        assertTrue(Parser.parse("list page") instanceof InvalidCommand);
+        assertTrue(Parser.parse("list page zero") instanceof InvalidCommand);
+        assertTrue(Parser.parse("list /size 0") instanceof InvalidCommand);
+        assertTrue(Parser.parse("list /type chore") instanceof InvalidCommand);
+        assertTrue(Parser.parse("list /before tomorrow") instanceof InvalidCommand);
+    }
+
     @Test
     public void parse_byeCommand_returnsExitCommand() {
         Command command = Parser.parse("bye");
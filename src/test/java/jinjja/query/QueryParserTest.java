@@ -0,0 +1,76 @@
+package jinjja.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import jinjja.exception.InvalidQueryException;
+import jinjja.task.TaskType;
+
+/**
+ * Test class for QueryParser. Tests the query grammar, operator precedence and error reporting.
+ */
+public class QueryParserTest {
+
+    @Test
+    public void parse_fullQuery_buildsConditionSortAndLimit() {
+        Query query = QueryParser.parse("done=false and type=E and from>=2025-01-01 sort by from limit 20");
+
+        AndCondition where = (AndCondition) query.where();
+        assertEquals(3, where.parts().size());
+        assertEquals(new Comparison(QueryField.DONE, Operator.EQUAL, false), where.parts().get(0));
+        assertEquals(new Comparison(QueryField.TYPE, Operator.EQUAL, TaskType.EVENT), where.parts().get(1));
+        assertEquals(new Comparison(QueryField.FROM, Operator.GREATER_OR_EQUAL, LocalDateTime.of(2025, 1, 1, 0, 0)),
+                where.parts().get(2));
+        assertEquals(QueryField.FROM, query.sortField());
+        assertFalse(query.isDescending());
+        assertEquals(20, query.limit());
+    }
+
+    @Test
+    public void parse_andBindsTighterThanOr() {
+        Query query = QueryParser.parse("type=T or type=D and not done=true");
+
+        OrCondition where = (OrCondition) query.where();
+        assertTrue(where.parts().get(0) instanceof Comparison);
+        assertTrue(where.parts().get(1) instanceof AndCondition);
+        assertEquals("type = T or type = D and not done = true", where.toString());
+    }
+
+    @Test
+    public void parse_dateWithTimeAndQuotedText_parsesValues() {
+        Query query = QueryParser.parse("by < 2025-03-01 18:30 and (desc ~ \"read book\" or desc = x) sort by by desc");
+
+        AndCondition where = (AndCondition) query.where();
+        assertEquals(LocalDateTime.of(2025, 3, 1, 18, 30), ((Comparison) where.parts().get(0)).value());
+        assertTrue(where.parts().get(1) instanceof OrCondition);
+        assertTrue(query.isDescending());
+        assertEquals(Query.NO_LIMIT, query.limit());
+    }
+
+    @Test
+    public void parse_sortOnly_hasNoCondition() {
+        Query query = QueryParser.parse("sort by type");
+
+        assertNull(query.where());
+        assertEquals(QueryField.TYPE, query.sortField());
+    }
+
+    @Test
+    public void parse_malformedQueries_throwInvalidQueryException() {
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("colour = red"));
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("done > true"));
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("type = chore"));
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("by >= someday"));
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("(done = true"));
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("done = true limit 0"));
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("desc ~ \"unterminated"));
+        assertThrows(InvalidQueryException.class, ()-> QueryParser.parse("done => true"));
+    }
+}
@@ -0,0 +1,143 @@
+package jinjja.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jinjja.task.Deadline;
+import jinjja.task.Event;
+import jinjja.task.Task;
+import jinjja.task.TaskEntry;
+import jinjja.task.TaskList;
+import jinjja.task.Tentative;
+import jinjja.task.Todo;
+
+/**
+ * Test class for QueryPlanner. Checks that the planner picks the cheapest index and that every plan returns the same
+ * tasks as checking each task by hand.
+ */
+public class QueryPlannerTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private TaskList taskList;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        for (int i = 0; i < 400; i++) {
+            Task task;
+            switch (i % 4) {
+            case 0:
+                task = new Todo("read chapter " + i);
+                break;
+            case 1:
+                task = new Deadline("submit report " + i, START.plusDays(i));
+                break;
+            case 2:
+                task = new Event("team meeting " + i, START.plusHours(i), START.plusHours(i + 1));
+                break;
+            default:
+                Tentative tentative = new Tentative("maybe lunch " + i);
+                tentative.addTentativeSlot(START.plusDays(i), START.plusDays(i).plusHours(1));
+                if (i % 8 == 3) {
+                    tentative.confirmSlot(0);
+                }
+                task = tentative;
+                break;
+            }
+            taskList.addTask(task);
+            if (i % 3 == 0) {
+                taskList.markTask(true, i);
+            }
+        }
+    }
+
+    private QueryPlan plan(String text) {
+        return taskList.readIndexed(view->QueryPlanner.plan(QueryParser.parse(text), view));
+    }
+
+    private List<TaskEntry> run(String text) {
+        return taskList.readIndexed(view->QueryPlanner.plan(QueryParser.parse(text), view).execute(view));
+    }
+
+    private List<TaskEntry> bruteForce(Query query) {
+        List<TaskEntry> matches = new ArrayList<>();
+        List<Task> tasks = taskList.getTasks();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (query.where() == null || query.where().matches(tasks.get(i))) {
+                matches.add(new TaskEntry(i + 1, tasks.get(i)));
+            }
+        }
+        if (query.sortField() != null) {
+            Comparator<Comparable<?>> byValue = query.sortField()::compare;
+            if (query.isDescending()) {
+                byValue = byValue.reversed();
+            }
+            Comparator<TaskEntry> order = Comparator.comparing(entry->query.sortField().valueOf(entry.task()),
+                    Comparator.nullsLast(byValue));
+            matches.sort(order.thenComparingInt(TaskEntry::number));
+        }
+        return matches.stream().limit(query.limit()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void plan_selectiveConjunct_drivesTheQuery() {
+        assertEquals(AccessPath.TIME_INDEX, plan("done=false and by < 2025-01-10").getAccessPath());
+        assertEquals(AccessPath.KEYWORD_INDEX, plan("type=E and desc ~ meeting and desc ~ 42").getAccessPath());
+        assertEquals(AccessPath.TYPE_BITSET, plan("type=D and by >= 2025-01-01").getAccessPath());
+        assertEquals(AccessPath.DONE_BITSET, plan("done=true and from > 2000-01-01").getAccessPath());
+    }
+
+    @Test
+    public void plan_unindexableOrUnselective_usesFullScan() {
+        assertEquals(AccessPath.FULL_SCAN, plan("type=T or type=D").getAccessPath());
+        assertEquals(AccessPath.FULL_SCAN, plan("by != 2025-01-02 09:00").getAccessPath());
+        assertEquals(AccessPath.FULL_SCAN, plan("desc ~ \"--\"").getAccessPath());
+        assertEquals(AccessPath.FULL_SCAN, plan("sort by by limit 3").getAccessPath());
+    }
+
+    @Test
+    public void execute_everyPlan_matchesBruteForce() {
+        String[] queries = {
+            "done=false and type=E and from>=2025-01-05 sort by from limit 20",
+            "by < 2025-02-01 sort by by desc",
+            "from >= 2025-03-01 and to <= 2025-12-31",
+            "desc ~ lunch and done = false",
+            "desc = \"team meeting 6\"",
+            "not done=true and (type=TE or type=T) limit 7",
+            "sort by by limit 5",
+            "type=TE sort by from desc limit 10",
+        };
+        for (String text : queries) {
+            assertEquals(bruteForce(QueryParser.parse(text)), run(text), text);
+        }
+    }
+
+    @Test
+    public void execute_afterDeleteAndDirectMark_seesCurrentTasks() {
+        Task first = taskList.getTask(1);
+        taskList.removeTask(0);
+        first.setDone(true);
+
+        List<TaskEntry> done = run("done = true and type = D limit 1");
+        assertEquals(1, done.get(0).number());
+        assertEquals(first, done.get(0).task());
+    }
+
+    @Test
+    public void explain_describesAccessFilterAndOrder() {
+        String explanation = plan("done=false and by < 2025-01-10 sort by by limit 3").explain();
+
+        assertTrue(explanation.contains("Access: time index on by < 2025-01-10 00:00"), explanation);
+        assertTrue(explanation.contains("Filter: done = false"), explanation);
+        assertTrue(explanation.contains("top 3 by by asc, kept in a bounded heap"), explanation);
+    }
+}
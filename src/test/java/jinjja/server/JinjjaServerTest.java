@@ -0,0 +1,158 @@
+package jinjja.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jinjja.engine.JinjjaEngine;
+import jinjja.storage.Storage;
+import jinjja.task.TaskList;
+import jinjja.task.Todo;
+
+/**
+ * Test class for JinjjaServer. Talks to a real server over loopback sockets.
+ */
+public class JinjjaServerTest {
+    @TempDir
+    Path tempDir;
+
+    private TaskList taskList;
+    private JinjjaServer server;
+    private Thread serverThread;
+    private int port;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskList = new TaskList();
+        server = new JinjjaServer(new JinjjaEngine(taskList, new Storage(tempDir.resolve("jinjja.txt").toString())));
+        port = server.bind(0);
+        serverThread = new Thread(()-> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        server.close();
+        serverThread.join(5000);
+    }
+
+    @Test
+    public void singleClient_addThenList_repliesFramed() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            BufferedReader in = reader(socket);
+            PrintWriter out = writer(socket);
+
+            assertTrue(readReply(in).startsWith("Hello! I'm Jinjja"));
+
+            out.println("todo read book");
+            assertTrue(readReply(in).contains("[T][ ] read book"));
+
+            out.println("list");
+            assertEquals("1.[T][ ] read book", readReply(in));
+
+            out.println("bye");
+            assertEquals("Bye. Hope to see you again soon!", readReply(in));
+        }
+    }
+
+    @Test
+    public void manyClients_sharedTaskList_noLostUpdates() throws IOException {
+        int clientCount = 200;
+        List<Socket> sockets = new ArrayList<>();
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            for (int i = 0; i < clientCount; i++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                sockets.add(socket);
+                readers.add(reader(socket));
+                readReply(readers.get(i));
+            }
+            for (int i = 0; i < clientCount; i++) {
+                writer(sockets.get(i)).println("todo task from client " + i);
+            }
+            for (BufferedReader in : readers) {
+                assertTrue(readReply(in).startsWith("Got it."));
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+        assertEquals(clientCount, taskList.getSize());
+    }
+
+    @Test
+    public void clientNotReadingReplies_stopsRunningItsCommands() throws Exception {
+        int listSize = 5000;
+        int commandPairs = 1000;
+        for (int i = 0; i < listSize; i++) {
+            taskList.addTask(new Todo("task number " + i));
+        }
+        try (Socket slow = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter slowOut = writer(slow);
+            for (int i = 0; i < commandPairs; i++) {
+                slowOut.println("list");
+                slowOut.println("todo marker");
+            }
+
+            int size = taskList.getSize();
+            int settled;
+            do {
+                settled = size;
+                Thread.sleep(500);
+                size = taskList.getSize();
+            } while (size != settled);
+            assertTrue(size - listSize < commandPairs / 2,
+                    "Ran " + (size - listSize) + " command pairs with no replies read");
+
+            try (Socket other = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                BufferedReader in = reader(other);
+                readReply(in);
+                writer(other).println("todo from another client");
+                assertTrue(readReply(in).startsWith("Got it."));
+            }
+        }
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static PrintWriter writer(Socket socket) throws IOException {
+        return new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    private static String readReply(BufferedReader in) throws IOException {
+        StringBuilder reply = new StringBuilder();
+        String line = in.readLine();
+        while (line != null && !line.equals(SocketUi.END_OF_REPLY)) {
+            if (reply.length() > 0) {
+                reply.append('\n');
+            }
+            reply.append(line);
+            line = in.readLine();
+        }
+        return reply.toString();
+    }
+}
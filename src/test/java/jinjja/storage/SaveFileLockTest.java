@@ -0,0 +1,177 @@
+package jinjja.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for SaveFileLock. Another Jinjja holding the lock is stood in for by a process of its own, since file
+ * locks held within one process cannot be told apart from each other, with a lease written by hand.
+ */
+public class SaveFileLockTest {
+    @TempDir
+    Path tempDir;
+
+    private Path saveFile;
+
+    /**
+     * Holds the lock in a process of its own, as another Jinjja would, until its input ends. Takes the lock file,
+     * "shared" or "exclusive", and the generation and lease end to write first.
+     */
+    public static class Holder {
+        public static void main(String[] args) throws IOException {
+            try (FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                SaveFileLock.writeLease(channel, Long.parseLong(args[2]), Long.parseLong(args[3]));
+                channel.lock(SaveFileLock.LOCKED_AT, 1, "shared".equals(args[1]));
+                System.out.println("held");
+                System.out.flush();
+                while (System.in.read() >= 0) {
+                    // Hold the lock until the test is done with it
+                }
+            }
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        saveFile = tempDir.resolve("data").resolve("jinjja.txt");
+        Files.createDirectories(saveFile.getParent());
+    }
+
+    /**
+     * Starts a process holding the lock, and waits until it does.
+     */
+    private Process holdElsewhere(Path lockFile, boolean isShared, long generation, long leaseEnd)
+            throws IOException {
+        String classPath;
+        try {
+            classPath = Path.of(Holder.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    + File.pathSeparator
+                    + Path.of(SaveFileLock.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classPath, Holder.class.getName(), lockFile.toString(), isShared ? "shared" : "exclusive",
+                Long.toString(generation), Long.toString(leaseEnd)).redirectErrorStream(true).start();
+        String line = new BufferedReader(new InputStreamReader(process.getInputStream())).readLine();
+        assertEquals("held", line);
+        return process;
+    }
+
+    private static void release(Process process) throws IOException, InterruptedException {
+        process.getOutputStream().close();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private static Object fileKeyOf(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    @Test
+    public void write_completed_bumpsGeneration() throws IOException {
+        SaveFileLock lock = new SaveFileLock(saveFile);
+        assertEquals(0L, (long) lock.read(generation->generation));
+
+        assertEquals(0L, (long) lock.write(generation->generation));
+        assertThrows(IOException.class, ()->lock.write(generation-> {
+            throw new IOException("disk full");
+        }));
+
+        assertEquals(1L, (long) lock.read(generation->generation));
+        assertEquals(1L, (long) new SaveFileLock(saveFile).read(generation->generation));
+    }
+
+    @Test
+    public void write_heldWithLiveLease_refusedNamingOwner() throws Exception {
+        SaveFileLock lock = new SaveFileLock(saveFile, 100);
+        Process other = holdElsewhere(lock.getLockFile(), false, 7,
+                System.currentTimeMillis() + SaveFileLock.LEASE_MILLIS);
+        try {
+            Object lockFileKey = fileKeyOf(lock.getLockFile());
+
+            IOException e = assertThrows(IOException.class, ()->lock.write(generation->generation));
+
+            assertTrue(e.getMessage().contains(" is held by "));
+            assertEquals(lockFileKey, fileKeyOf(lock.getLockFile()));
+        } finally {
+            release(other);
+        }
+        assertEquals(7L, (long) lock.write(generation->generation));
+    }
+
+    @Test
+    public void write_heldWithLeaseRunOut_breaksLockKeepingGenerationAndClaim() throws Exception {
+        SaveFileLock lock = new SaveFileLock(saveFile, 100);
+        FileLock claim = lock.claimRecords();
+        Process other = holdElsewhere(lock.getLockFile(), false, 7, System.currentTimeMillis() - 1);
+        try {
+            assertEquals(7L, (long) lock.write(generation->generation));
+
+            assertEquals(8L, (long) lock.read(generation->generation));
+            // The claim is kept in a file of its own, so breaking the lock does not release it
+            assertTrue(claim.isValid());
+            assertNull(new SaveFileLock(saveFile).claimRecords());
+        } finally {
+            release(other);
+            claim.channel().close();
+        }
+    }
+
+    @Test
+    public void write_heldLongByReader_waitsWithoutBreaking() throws Exception {
+        SaveFileLock lock = new SaveFileLock(saveFile, 100);
+        // Even an expired lease left behind by a writer that died is not taken for the reader's
+        Process other = holdElsewhere(lock.getLockFile(), true, 7, System.currentTimeMillis() - 1);
+        try {
+            Object lockFileKey = fileKeyOf(lock.getLockFile());
+
+            assertThrows(IOException.class, ()->lock.write(generation->generation));
+
+            assertEquals(lockFileKey, fileKeyOf(lock.getLockFile()));
+            // Readers still share it
+            assertEquals(7L, (long) lock.read(generation->generation));
+        } finally {
+            release(other);
+        }
+        assertEquals(7L, (long) lock.write(generation->generation));
+    }
+
+    @Test
+    public void claimRecords_claimedElsewhere_null() throws IOException {
+        SaveFileLock lock = new SaveFileLock(saveFile);
+        FileLock claim = lock.claimRecords();
+        assertNotNull(claim);
+
+        assertNull(new SaveFileLock(saveFile).claimRecords());
+        // Claiming does not hold up loads and saves
+        assertEquals(0L, (long) lock.write(generation->generation));
+
+        claim.channel().close();
+        FileLock again = lock.claimRecords();
+        assertNotNull(again);
+        again.channel().close();
+    }
+}
@@ -0,0 +1,141 @@
+package jinjja.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jinjja.task.Deadline;
+import jinjja.task.Task;
+import jinjja.task.Tentative;
+import jinjja.task.Todo;
+
+/**
+ * Test class for SaveFileMerge. Checks which side's change wins for each way the two sides can differ.
+ */
+public class SaveFileMergeTest {
+    private List<String> baseLines;
+    private List<Task> ours;
+
+    @BeforeEach
+    public void setUp() {
+        baseLines = List.of("T | 0 | read book", "D | 0 | return book | 2024-12-20 18:30", "T | 0 | read book");
+        ours = tasksOf(baseLines);
+    }
+
+    @Test
+    public void of_changesOnlyElsewhere_allBroughtIn() {
+        List<Task> theirs = tasksOf(List.of("T | 0 | read book", "D | 1 | return book | 2024-12-20 18:30",
+                "T | 0 | write review"));
+
+        SaveFileMerge merge = SaveFileMerge.of(baseLines, theirs, ours);
+
+        // The second "read book" is the one deleted, since repeats are matched in order
+        assertEquals(List.of(ours.get(2)), merge.getRemovals());
+        assertEquals(Map.of(ours.get(1), true), merge.getMarks());
+        assertEquals(List.of(theirs.get(2)), merge.getAdditions());
+        assertTrue(merge.getConflicts().isEmpty());
+        assertEquals("Picked up changes made to your tasks elsewhere: 1 added, 1 deleted, 1 marked.", merge.format());
+    }
+
+    @Test
+    public void of_changesOnlyHere_nothingToDo() {
+        ours.get(0).setDone(true);
+        ours.remove(1);
+        ours.add(new Todo("write review"));
+
+        SaveFileMerge merge = SaveFileMerge.of(baseLines, tasksOf(baseLines), ours);
+
+        assertTrue(merge.getRemovals().isEmpty());
+        assertTrue(merge.getMarks().isEmpty());
+        assertTrue(merge.getAdditions().isEmpty());
+    }
+
+    @Test
+    public void of_sameChangeOnBothSides_nothingToDo() {
+        ours.get(1).setDone(true);
+        ours.add(new Todo("write review"));
+        List<Task> theirs = tasksOf(List.of("T | 0 | read book", "D | 1 | return book | 2024-12-20 18:30",
+                "T | 0 | read book", "T | 0 | write review"));
+
+        SaveFileMerge merge = SaveFileMerge.of(baseLines, theirs, ours);
+
+        assertTrue(merge.getMarks().isEmpty());
+        assertTrue(merge.getAdditions().isEmpty());
+    }
+
+    @Test
+    public void of_markedAndDeleted_changeHereWinsAndIsReported() {
+        List<String> base = baseLines.subList(0, 2);
+        ours = tasksOf(base);
+        // Marked here, deleted elsewhere
+        ours.get(1).setDone(true);
+        // Deleted here, marked elsewhere
+        ours.remove(0);
+        List<Task> theirs = tasksOf(List.of("T | 1 | read book"));
+
+        SaveFileMerge merge = SaveFileMerge.of(base, theirs, ours);
+
+        assertTrue(merge.getRemovals().isEmpty());
+        assertTrue(merge.getMarks().isEmpty());
+        assertEquals(2, merge.getConflicts().size());
+        assertTrue(merge.format().contains("2 changes clash with changes made here:\n  \"read book\" was marked "
+                + "elsewhere but deleted here, so it stays deleted."));
+        assertTrue(merge.format().contains("\"return book\" was deleted elsewhere but marked here, so it was kept."));
+    }
+
+    @Test
+    public void of_tentativeSlotsReordered_sameTask() {
+        Tentative tentative = new Tentative("book club");
+        tentative.addTentativeSlot(LocalDateTime.of(2025, 2, 1, 19, 0), LocalDateTime.of(2025, 2, 1, 21, 0));
+        tentative.addTentativeSlot(LocalDateTime.of(2025, 2, 8, 19, 0), LocalDateTime.of(2025, 2, 8, 21, 0));
+        tentative.confirmSlot(2);
+        List<String> base = List.of(tentative.toFileFormat());
+        // As loading the line gives it back, with the confirmed slot first
+        List<Task> theirs = tasksOf(List.of("TE | 0 | book club | 2025-02-08 19:00|2025-02-08 21:00 | 2 "
+                + "| 2025-02-08 19:00|2025-02-08 21:00 | 2025-02-01 19:00|2025-02-01 21:00"));
+
+        SaveFileMerge merge = SaveFileMerge.of(base, theirs, List.of(tentative));
+
+        assertTrue(merge.getRemovals().isEmpty());
+        assertTrue(merge.getAdditions().isEmpty());
+    }
+
+    /**
+     * Makes tasks from save file lines of todos, deadlines and tentative events.
+     */
+    private static List<Task> tasksOf(List<String> lines) {
+        List<Task> tasks = new ArrayList<>();
+        for (String line : lines) {
+            String[] parts = line.split(" \\| ");
+            Task task;
+            switch (parts[0]) {
+            case "D":
+                task = new Deadline(parts[2], LocalDateTime.parse(parts[3].replace(' ', 'T')));
+                break;
+            case "TE":
+                Tentative tentative = new Tentative(parts[2]);
+                for (int i = 5; i < parts.length; i++) {
+                    String[] slot = parts[i].split("\\|");
+                    tentative.addTentativeSlot(LocalDateTime.parse(slot[0].replace(' ', 'T')),
+                            LocalDateTime.parse(slot[1].replace(' ', 'T')));
+                }
+                tentative.confirmSlot(1);
+                task = tentative;
+                break;
+            default:
+                task = new Todo(parts[2]);
+                break;
+            }
+            task.setDone(parts[1].equals("1"));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
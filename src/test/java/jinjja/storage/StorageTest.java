@@ -0,0 +1,382 @@
+package jinjja.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jinjja.task.Deadline;
+import jinjja.task.Event;
+import jinjja.task.IndexedTasks;
+import jinjja.task.Task;
+import jinjja.task.TaskList;
+import jinjja.task.Tentative;
+import jinjja.task.Todo;
+
+/**
+ * Test class for Storage. Checks when a load uses the records and index and when it falls back to the save
+ * file, and that changes reach the records without a full save.
+ */
+public class StorageTest {
+    @TempDir
+    Path tempDir;
+
+    private Path saveFile;
+    private Storage storage;
+    private TaskList taskList;
+
+    @BeforeEach
+    public void setUp() {
+        saveFile = tempDir.resolve("data").resolve("jinjja.txt");
+        storage = new Storage(saveFile.toString());
+        taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Deadline("return book", LocalDateTime.of(2024, 12, 20, 18, 30)));
+    }
+
+    @Test
+    public void saveTaskList_writesSaveFileRecordsAndIndex() throws IOException {
+        storage.saveTaskList(taskList);
+
+        List<String> lines = Files.readAllLines(saveFile);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("T \\| 0 \\| read book \\| crc:[0-9a-f]{8}"));
+        assertTrue(lines.get(1).startsWith("D | 0 | return book | 2024-12-20 18:30 | crc:"));
+        assertTrue(Files.isRegularFile(storage.getRecordsPath()));
+        assertTrue(Files.isRegularFile(storage.getIndexPath()));
+    }
+
+    @Test
+    public void loadTaskList_saveFileUnchanged_usesRecordsAndIndex() throws IOException {
+        storage.saveTaskList(taskList);
+        // Swap in different text of the same size and time, which only a load from the records ignores
+        FileTime modified = Files.getLastModifiedTime(saveFile);
+        Files.writeString(saveFile, Files.readString(saveFile).replace("read", "lend"));
+        Files.setLastModifiedTime(saveFile, modified);
+        storage.close();
+
+        TaskList loaded = new Storage(saveFile.toString()).loadTaskList();
+
+        assertEquals("read book", loaded.getTask(0).getDescription());
+        assertEquals(2, loaded.getSize());
+    }
+
+    @Test
+    public void loadTaskList_recordsInUseByAnother_loadsSaveFile() throws IOException {
+        storage.saveTaskList(taskList);
+
+        Storage other = new Storage(saveFile.toString());
+        TaskList loaded = other.loadTaskList();
+
+        assertEquals(saveFile.toString(), other.getLastLoadReport().getSource());
+        assertEquals(2, loaded.getSize());
+        storage.close();
+        Storage next = new Storage(saveFile.toString());
+        next.loadTaskList();
+        assertEquals(storage.getRecordsPath().toString(), next.getLastLoadReport().getSource());
+    }
+
+    @Test
+    public void saveTaskList_savedByAnotherSinceLoad_refusedWithTheirChanges() throws IOException {
+        storage.saveTaskList(taskList);
+        TaskList ours = storage.loadTaskList();
+        Storage other = new Storage(saveFile.toString());
+        TaskList theirs = other.loadTaskList();
+        theirs.addTask(new Todo("write review"));
+        other.saveTaskList(theirs);
+        ours.markTask(true, 0);
+
+        SaveConflictException e = assertThrows(SaveConflictException.class, ()->storage.saveTaskList(ours));
+
+        assertTrue(Files.readString(saveFile).contains("write review"));
+        SaveFileMerge merge = e.getChange().merge(ours.getTasks());
+        assertEquals("write review", merge.getAdditions().get(0).getDescription());
+        assertTrue(merge.getRemovals().isEmpty());
+        ours.applyChanges(merge.getMarks(), merge.getRemovals(), merge.getAdditions());
+        storage.saveTaskList(ours);
+        List<Task> saved = new Storage(saveFile.toString()).loadTasksFromFile();
+        assertEquals(3, saved.size());
+        assertTrue(saved.get(0).getIsDone());
+        // Having merged, the other is refused in turn
+        assertThrows(SaveConflictException.class, ()->other.saveTaskList(theirs));
+    }
+
+    @Test
+    public void loadTaskList_saveFileEdited_loadsSaveFile() throws IOException {
+        storage.saveTaskList(taskList);
+        Files.writeString(saveFile, "T | 1 | write report\n", StandardOpenOption.APPEND);
+
+        TaskList loaded = new Storage(saveFile.toString()).loadTaskList();
+
+        assertEquals(3, loaded.getSize());
+        assertEquals("write report", loaded.getTask(2).getDescription());
+        assertTrue(loaded.getTask(2).getIsDone());
+    }
+
+    @Test
+    public void loadTasksFromFile_nonAsciiDescription_roundTripsWithChecksum() throws IOException {
+        taskList.addTask(new Todo("buy kimchi \uAE40\uCE58"));
+        storage.saveTaskList(taskList);
+
+        Storage reloaded = new Storage(saveFile.toString());
+        List<Task> loaded = reloaded.loadTasksFromFile();
+
+        assertEquals(3, loaded.size());
+        assertEquals("buy kimchi \uAE40\uCE58", loaded.get(2).getDescription());
+        assertTrue(reloaded.getLastLoadReport().getDamage().isEmpty());
+        assertEquals(0, reloaded.getLastLoadReport().getUncheckedCount());
+        // Written as UTF-8 whatever the platform's default charset
+        assertTrue(Files.readString(saveFile, StandardCharsets.UTF_8).contains("buy kimchi \uAE40\uCE58 | crc:"));
+    }
+
+    @Test
+    public void loadTaskList_lineWithoutChecksum_loadedUnchecked() throws IOException {
+        Files.createDirectories(saveFile.getParent());
+        Files.writeString(saveFile, "T | 0 | read book\nD | 1 | return book | 2024-12-20 18:30\n");
+
+        TaskList loaded = storage.loadTaskList();
+
+        assertEquals(2, loaded.getSize());
+        assertTrue(loaded.getTask(1).getIsDone());
+        assertEquals(2, storage.getLastLoadReport().getUncheckedCount());
+        assertTrue(storage.getLastLoadReport().getDamage().isEmpty());
+        assertFalse(Files.exists(storage.getQuarantinePath()));
+    }
+
+    @Test
+    public void loadTaskList_flippedByte_dropsOnlyThatLineAndQuarantinesIt() throws IOException {
+        taskList.addTask(new Todo("write review"));
+        storage.saveTasksToFile(taskList.getTasks());
+        byte[] text = Files.readAllBytes(saveFile);
+        // Marks the deadline on the second line as done, which its checksum catches
+        int doneAt = Files.readString(saveFile).indexOf("D | 0") + 4;
+        text[doneAt] = '1';
+        Files.write(saveFile, text);
+
+        TaskList loaded = storage.loadTaskList();
+
+        assertEquals(2, loaded.getSize());
+        assertEquals("read book", loaded.getTask(0).getDescription());
+        assertEquals("write review", loaded.getTask(1).getDescription());
+        LoadReport report = storage.getLastLoadReport();
+        assertEquals(2, report.getLoadedCount());
+        assertEquals(1, report.getDamage().size());
+        assertEquals("line 2", report.getDamage().get(0).location());
+        assertEquals("its checksum does not match", report.getDamage().get(0).reason());
+        assertTrue(report.format().contains("Recovered 2 of 3 tasks"));
+        List<String> quarantined = Files.readAllLines(storage.getQuarantinePath());
+        assertEquals(2, quarantined.size());
+        assertTrue(quarantined.get(0).endsWith("line 2: its checksum does not match"));
+        assertTrue(quarantined.get(1).startsWith("D | 1 | return book | 2024-12-20 18:30 | crc:"));
+        // The recovered tasks were saved, so the damage is not found again
+        new Storage(saveFile.toString()).loadTasksFromFile();
+        assertEquals(2, Files.readAllLines(saveFile).size());
+    }
+
+    @Test
+    public void loadTasksFromFile_malformedLines_keepsLoadingAfterThem() throws IOException {
+        Files.createDirectories(saveFile.getParent());
+        Files.write(saveFile, List.of("D | 0 | return book | 2024-13-20 18:30", "X | 0 | what", "E | 0 | fair",
+                "TE | 0 | club |  | 2 | 2025-02-01 19:00|2025-02-01 21:00", "T | 0 | read \u00ff\u00fe book",
+                "T | 0 | write review"));
+        // An invalid byte, as a damaged disk might leave
+        byte[] text = Files.readAllBytes(saveFile);
+        text[Files.readString(saveFile).indexOf("\u00ff")] = (byte) 0xff;
+        Files.write(saveFile, text);
+
+        List<Task> loaded = storage.loadTasksFromFile();
+
+        assertEquals(2, loaded.size());
+        assertEquals("write review", loaded.get(1).getDescription());
+        List<LoadReport.Damage> damage = storage.getLastLoadReport().getDamage();
+        assertEquals(4, damage.size());
+        assertEquals("its task type X is unknown", damage.get(1).reason());
+        assertEquals("it has 3 fields instead of 5", damage.get(2).reason());
+        assertEquals("it has 6 fields instead of 7", damage.get(3).reason());
+    }
+
+    @Test
+    public void loadTaskList_recordDamaged_dropsOnlyThatRecord() throws IOException {
+        storage.saveTaskList(taskList);
+        taskList.addTask(new Todo("write review"));
+        try (FileChannel channel = FileChannel.open(storage.getRecordsPath(), StandardOpenOption.WRITE)) {
+            // Marks the second record done, after the 64-byte header and a 40-byte record, without its checksum
+            channel.write(ByteBuffer.wrap(new byte[] {1}), 64 + 40 + 1);
+        }
+        storage.close();
+
+        Storage reloaded = new Storage(saveFile.toString());
+        TaskList loaded = reloaded.loadTaskList();
+
+        assertEquals(2, loaded.getSize());
+        assertEquals("write review", loaded.getTask(1).getDescription());
+        assertEquals("record 2", reloaded.getLastLoadReport().getDamage().get(0).location());
+        assertTrue(Files.readString(reloaded.getQuarantinePath()).contains("description return book"));
+        // The recovered tasks were saved in full, records and all
+        assertEquals(2, Files.readAllLines(saveFile).size());
+        loaded.markTask(true, 1);
+        reloaded.close();
+        assertTrue(new Storage(saveFile.toString()).loadTaskList().getTask(1).getIsDone());
+    }
+
+    @Test
+    public void loadTaskList_removalCutShort_finishesIt() throws IOException {
+        taskList.addTask(new Todo("write review"));
+        taskList.addTask(new Todo("buy milk"));
+        storage.saveTaskList(taskList);
+        storage.close();
+        try (FileChannel channel = FileChannel.open(storage.getRecordsPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Stands in for a crash while deleting task 2 of 4, once the third 40-byte record has been moved up
+            // over it: the 64-byte header then notes record 3 as the next to fill, and 3 tasks left
+            ByteBuffer third = ByteBuffer.allocate(40);
+            channel.read(third, 64 + 2 * 40);
+            channel.write(third.flip(), 64 + 40);
+            channel.write(ByteBuffer.allocate(8).putInt(3).putInt(3).flip(), 56);
+        }
+
+        Storage reloaded = new Storage(saveFile.toString());
+        TaskList loaded = reloaded.loadTaskList();
+
+        assertEquals(reloaded.getRecordsPath().toString(), reloaded.getLastLoadReport().getSource());
+        assertEquals(3, loaded.getSize());
+        assertEquals("read book", loaded.getTask(0).getDescription());
+        assertEquals("write review", loaded.getTask(1).getDescription());
+        assertEquals("buy milk", loaded.getTask(2).getDescription());
+        reloaded.close();
+    }
+
+    @Test
+    public void loadTaskList_indexDamaged_usesRecordsWithoutIndex() throws IOException {
+        storage.saveTaskList(taskList);
+        byte[] index = Files.readAllBytes(storage.getIndexPath());
+        index[index.length - 1] ^= 1;
+        Files.write(storage.getIndexPath(), index);
+        storage.close();
+
+        TaskList loaded = new Storage(saveFile.toString()).loadTaskList();
+
+        assertEquals(2, loaded.getSize());
+        assertEquals(2, (int) loaded.readIndexed(tasks->tasks.countWithKeyword("book")));
+    }
+
+    @Test
+    public void loadTaskList_noFiles_emptyList() throws IOException {
+        assertEquals(0, storage.loadTaskList().getSize());
+    }
+
+    @Test
+    public void markTask_afterSave_writesOnlyThatRecord() throws IOException {
+        storage.saveTaskList(taskList);
+        byte[] before = Files.readAllBytes(storage.getRecordsPath());
+
+        taskList.markTask(true, 1);
+
+        byte[] after = Files.readAllBytes(storage.getRecordsPath());
+        assertEquals(before.length, after.length);
+        for (int i = 0; i < before.length; i++) {
+            // The second record is after the 64-byte header and a 40-byte record
+            boolean isInRecord = i >= 64 + 40 && i < 64 + 2 * 40;
+            assertTrue(isInRecord || before[i] == after[i], "Byte " + i + " changed");
+        }
+        storage.close();
+        TaskList loaded = new Storage(saveFile.toString()).loadTaskList();
+        assertTrue(loaded.getTask(1).getIsDone());
+        assertEquals(1, (int) loaded.readIndexed(IndexedTasks::countDone));
+    }
+
+    @Test
+    public void addAndRemoveTask_afterSave_keptWithoutFullSave() throws IOException {
+        storage.saveTaskList(taskList);
+        String text = Files.readString(saveFile);
+
+        taskList.addTask(new Todo("write review"));
+        taskList.removeTask(0);
+        taskList.addTask(new Event("book fair", LocalDateTime.of(2025, 1, 10, 14, 0),
+                LocalDateTime.of(2025, 1, 10, 16, 0)));
+
+        assertEquals(text, Files.readString(saveFile));
+        storage.close();
+        TaskList loaded = new Storage(saveFile.toString()).loadTaskList();
+        assertEquals(3, loaded.getSize());
+        assertEquals("return book", loaded.getTask(0).getDescription());
+        assertEquals("write review", loaded.getTask(1).getDescription());
+        assertEquals(taskList.getTask(2).toFileFormat(), loaded.getTask(2).toFileFormat());
+        assertEquals(1, (int) loaded.readIndexed(tasks->tasks.countWithKeyword("fair")));
+    }
+
+    @Test
+    public void loadTaskList_tentative_confirmedSlotFirstAsInSaveFile() throws IOException {
+        Tentative tentative = new Tentative("book club");
+        tentative.addTentativeSlot(LocalDateTime.of(2025, 2, 1, 19, 0), LocalDateTime.of(2025, 2, 1, 21, 0));
+        tentative.addTentativeSlot(LocalDateTime.of(2025, 2, 8, 19, 0), LocalDateTime.of(2025, 2, 8, 21, 0));
+        tentative.confirmSlot(2);
+        taskList.addTask(tentative);
+        storage.saveTaskList(taskList);
+        storage.close();
+
+        TaskList fromRecords = new Storage(saveFile.toString()).loadTaskList();
+        TaskList fromText = new TaskList(new Storage(saveFile.toString()).loadTasksFromFile());
+
+        Tentative loaded = (Tentative) fromRecords.getTask(2);
+        assertEquals(LocalDateTime.of(2025, 2, 8, 19, 0), loaded.getTentativeSlots().get(0).getFrom());
+        assertEquals(loaded.getConfirmedSlot(), loaded.getTentativeSlots().get(0));
+        assertEquals(fromText.getTask(2).toFileFormat(), loaded.toFileFormat());
+    }
+
+    @Test
+    public void saveTasksToFile_deletesRecordsAndIndex() throws IOException {
+        storage.saveTaskList(taskList);
+
+        storage.saveTasksToFile(taskList.getTasks());
+
+        assertFalse(Files.exists(storage.getRecordsPath()));
+        assertFalse(Files.exists(storage.getIndexPath()));
+        assertEquals(2, new Storage(saveFile.toString()).loadTaskList().getSize());
+    }
+
+    @Test
+    public void watch_changedElsewhere_handsOverChangeButNotOwnSaves() throws Exception {
+        storage.saveTaskList(taskList);
+        BlockingQueue<ExternalChange> changes = new LinkedBlockingQueue<>();
+        SaveFileWatcher watcher = storage.watch(changes::add);
+        try {
+            storage.saveTaskList(taskList);
+            assertNull(changes.poll(1, TimeUnit.SECONDS));
+
+            ArrayList<Task> elsewhere = new ArrayList<>(List.of(new Todo("read book"), new Todo("write review")));
+            new Storage(saveFile.toString()).saveTasksToFile(elsewhere);
+            ExternalChange change = changes.poll(10, TimeUnit.SECONDS);
+
+            assertNotNull(change);
+            assertEquals(List.of("T | 0 | read book", "D | 0 | return book | 2024-12-20 18:30"), change.baseLines());
+            assertEquals(2, change.tasks().size());
+            SaveFileMerge merge = change.merge(taskList.getTasks());
+            assertEquals(1, merge.getRemovals().size());
+            assertEquals("write review", merge.getAdditions().get(0).getDescription());
+        } finally {
+            watcher.close();
+        }
+    }
+}
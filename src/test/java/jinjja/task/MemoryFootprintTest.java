@@ -0,0 +1,107 @@
+package jinjja.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for MemoryFootprint. Checks the per-type accounting against a heap measurement of a large list.
+ */
+public class MemoryFootprintTest {
+    private static final int TASK_COUNT = 40_000;
+
+    @Test
+    public void estimateMemory_emptyList_onlyListAndIndex() {
+        MemoryFootprint footprint = new TaskList().estimateMemory();
+
+        for (TaskType type : TaskType.values()) {
+            assertEquals(0, footprint.getCount(type));
+            assertEquals(0, footprint.getBytes(type));
+        }
+        assertTrue(footprint.getListBytes() > 0);
+        assertEquals(footprint.getListBytes() + footprint.getIndexBytes(), footprint.getTotal());
+    }
+
+    @Test
+    public void estimateMemory_onTheHourTimes_costLessThanOtherTimes() {
+        TaskList onTheHour = new TaskList();
+        onTheHour.addTask(new Deadline("a", LocalDateTime.of(2025, 1, 1, 9, 0)));
+        TaskList offTheHour = new TaskList();
+        offTheHour.addTask(new Deadline("a", LocalDateTime.of(2025, 1, 1, 9, 30)));
+
+        long shared = onTheHour.estimateMemory().getBytes(TaskType.DEADLINE, MemoryFootprint.Part.DATES);
+        long own = offTheHour.estimateMemory().getBytes(TaskType.DEADLINE, MemoryFootprint.Part.DATES);
+
+        assertTrue(shared < own);
+    }
+
+    @Test
+    public void estimateMemory_mixedTasks_countsEachType() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read"));
+        taskList.addTask(new Todo("write"));
+        taskList.addTask(new Deadline("submit", LocalDateTime.of(2025, 1, 1, 9, 0)));
+
+        MemoryFootprint footprint = taskList.estimateMemory();
+
+        assertEquals(2, footprint.getCount(TaskType.TODO));
+        assertEquals(1, footprint.getCount(TaskType.DEADLINE));
+        assertEquals(0, footprint.getCount(TaskType.EVENT));
+        assertTrue(footprint.format().contains("todo           2"));
+    }
+
+    @Test
+    public void estimateMemory_largeList_withinTenPercentOfHeapGrowth() {
+        long before = usedHeap();
+        TaskList taskList = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            String description = "task " + i + " review chapter " + (i % 97);
+            LocalDateTime time = start.plusMinutes(7L * i);
+            switch (i % 4) {
+            case 0:
+                taskList.addTask(new Todo(description));
+                break;
+            case 1:
+                taskList.addTask(new Deadline(description, time));
+                break;
+            case 2:
+                taskList.addTask(new Event(description, time, time.plusHours(1)));
+                break;
+            default:
+                Tentative tentative = new Tentative(description);
+                tentative.addTentativeSlot(time, time.plusHours(1));
+                tentative.addTentativeSlot(time.plusDays(1), time.plusDays(1).plusHours(2));
+                tentative.confirmSlot(1);
+                taskList.addTask(tentative);
+                break;
+            }
+        }
+        for (int i = 0; i < TASK_COUNT; i++) {
+            taskList.getTask(i).toString();
+        }
+        taskList.readIndexed(IndexedTasks::size);
+        long measured = usedHeap() - before;
+
+        MemoryFootprint footprint = taskList.estimateMemory();
+
+        assertEquals(TASK_COUNT / 4, footprint.getCount(TaskType.TENTATIVE));
+        double error = Math.abs(footprint.getTotal() - measured) / (double) measured;
+        assertTrue(error < 0.1, "Estimated " + footprint.getTotal() + " bytes, measured " + measured);
+        // Keep the list reachable until after the measurement
+        assertEquals(TASK_COUNT, taskList.getSize());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,183 @@
+package jinjja.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for TaskListSnapshot. Checks that a restored index matches the captured one and needs no rebuild, and
+ * that a save does not hold up changes made while it writes.
+ */
+public class TaskListSnapshotTest {
+    private TaskList taskList;
+
+    /**
+     * Writes down the changes it hears of.
+     */
+    private static class RecordingListener implements TaskListListener {
+        private final List<String> changes = new ArrayList<>();
+
+        @Override
+        public void taskAdded(int position, Task task) {
+            changes.add("add " + position + " " + task.getDescription());
+        }
+
+        @Override
+        public void taskRemoved(int position) {
+            changes.add("remove " + position);
+        }
+
+        @Override
+        public void taskMarked(int position, boolean isDone) {
+            changes.add("mark " + position + " " + isDone);
+        }
+    }
+
+    /**
+     * Changes the list from another thread, as the user would while a save is being written, and waits for it.
+     */
+    private void changeElsewhere(Runnable change) {
+        try {
+            CompletableFuture.runAsync(change).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("The list stayed locked while the snapshot was written", e);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        Deadline deadline = new Deadline("return book", LocalDateTime.of(2024, 12, 20, 18, 30));
+        deadline.setDone(true);
+        taskList.addTask(deadline);
+        taskList.addTask(new Event("book fair", LocalDateTime.of(2025, 1, 10, 14, 0),
+                LocalDateTime.of(2025, 1, 10, 16, 0)));
+        Tentative tentative = new Tentative("book club");
+        tentative.addTentativeSlot(LocalDateTime.of(2025, 2, 1, 19, 0), LocalDateTime.of(2025, 2, 1, 21, 0));
+        tentative.addTentativeSlot(LocalDateTime.of(2025, 2, 8, 19, 0), LocalDateTime.of(2025, 2, 8, 21, 0));
+        tentative.confirmSlot(2);
+        taskList.addTask(tentative);
+        taskList.addTask(new Todo("caf\u00e9 visit"));
+    }
+
+    @Test
+    public void restoreIndex_sameTasks_indexCurrentWithoutRebuild() throws IOException {
+        TaskListSnapshot snapshot = TaskListSnapshot.capture(taskList);
+        TaskList restored = new TaskList(taskList.getTasks());
+
+        TaskListSnapshot.restoreIndex(restored, ByteBuffer.wrap(snapshot.getIndexImage()));
+
+        assertEquals(5, snapshot.getTaskCount());
+        assertTrue(restored.isIndexCurrent());
+        assertEquals(1, (int) restored.readIndexed(IndexedTasks::countDone));
+        assertEquals(4, (int) restored.readIndexed(index->index.countWithKeyword("book")));
+        assertEquals(1, (int) restored.readIndexed(index->index.countWithKeyword("caf\u00e9")));
+        assertEquals(1, (int) restored.readIndexed(index->index.countInRange(IndexedTasks.TimeKey.BY, null, false,
+                LocalDateTime.of(2025, 1, 1, 0, 0), false)));
+    }
+
+    @Test
+    public void restoreIndex_taskMarkedSinceCapture_doneReadFromTasks() throws IOException {
+        byte[] image = TaskListSnapshot.capture(taskList).getIndexImage();
+        taskList.getTask(0).setDone(true);
+        TaskList restored = new TaskList(taskList.getTasks());
+
+        TaskListSnapshot.restoreIndex(restored, ByteBuffer.wrap(image));
+
+        assertEquals(2, (int) restored.readIndexed(IndexedTasks::countDone));
+    }
+
+    @Test
+    public void restoreIndex_thenAdd_indexStaysCurrent() throws IOException {
+        byte[] image = TaskListSnapshot.capture(taskList).getIndexImage();
+        TaskList restored = new TaskList(taskList.getTasks());
+        TaskListSnapshot.restoreIndex(restored, ByteBuffer.wrap(image));
+
+        restored.addTask(new Todo("buy bookmark"));
+
+        assertTrue(restored.isIndexCurrent());
+        assertEquals(1, (int) restored.readIndexed(index->index.countWithKeyword("bookmark")));
+    }
+
+    @Test
+    public void restoreIndex_truncatedImage_throwsIoException() {
+        byte[] image = TaskListSnapshot.capture(taskList).getIndexImage();
+        TaskList restored = new TaskList(taskList.getTasks());
+
+        assertThrows(IOException.class, ()->TaskListSnapshot.restoreIndex(restored,
+                ByteBuffer.wrap(Arrays.copyOf(image, image.length - 3))));
+        assertFalse(restored.isIndexCurrent());
+    }
+
+    @Test
+    public void restoreIndex_trailingBytes_throwsIoException() {
+        byte[] image = TaskListSnapshot.capture(taskList).getIndexImage();
+        TaskList restored = new TaskList(taskList.getTasks());
+
+        assertThrows(IOException.class, ()->TaskListSnapshot.restoreIndex(restored,
+                ByteBuffer.wrap(Arrays.copyOf(image, image.length + 1))));
+    }
+
+    @Test
+    public void capture_staleIndex_rebuildsBeforeWriting() {
+        TaskListSnapshot.capture(taskList);
+        // Marked other than through the list, so the index cannot tell which task changed
+        taskList.getTask(0).setDone(true);
+        assertFalse(taskList.isIndexCurrent());
+
+        TaskListSnapshot snapshot = TaskListSnapshot.capture(taskList);
+
+        assertEquals(5, snapshot.getTaskCount());
+        assertTrue(taskList.isIndexCurrent());
+    }
+
+    @Test
+    public void save_changedWhileWriting_changesReplayedToNewListener() throws IOException {
+        RecordingListener earlier = new RecordingListener();
+        RecordingListener next = new RecordingListener();
+        TaskListSnapshot.save(taskList, snapshot->earlier);
+        taskList.addTask(new Todo("before"));
+
+        TaskListSnapshot.save(taskList, snapshot-> {
+            assertEquals(6, snapshot.getTaskCount());
+            changeElsewhere(()-> {
+                taskList.addTask(new Todo("during"));
+                taskList.markTask(true, 0);
+                taskList.removeTask(1);
+            });
+            return next;
+        });
+        taskList.addTask(new Todo("after"));
+
+        assertEquals(List.of("add 5 before"), earlier.changes);
+        assertEquals(List.of("add 6 during", "mark 0 true", "remove 1", "add 6 after"), next.changes);
+    }
+
+    @Test
+    public void save_writerFails_earlierListenerCaughtUp() throws IOException {
+        RecordingListener earlier = new RecordingListener();
+        TaskListSnapshot.save(taskList, snapshot->earlier);
+
+        assertThrows(IOException.class, ()->TaskListSnapshot.save(taskList, snapshot-> {
+            changeElsewhere(()->taskList.addTask(new Todo("during")));
+            throw new IOException("disk full");
+        }));
+        taskList.removeTask(0);
+
+        assertEquals(List.of("add 5 during", "remove 0"), earlier.changes);
+    }
+}
@@ -2,11 +2,20 @@ package jinjja.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +47,15 @@ public class TaskListTest {
         assertFalse(taskList.isEmpty());
     }
 
+    @Test
+    public void addTaskAndMarkTask_returnPositionAndTask() {
+        assertEquals(0, taskList.addTask(todoTask));
+        assertEquals(1, taskList.addTask(deadlineTask));
+
+        assertSame(deadlineTask, taskList.markTask(true, 1));
+        assertTrue(deadlineTask.getIsDone());
+    }
+
     @Test
     public void addTask_multipleTasks_correctOrder() {
         taskList.addTask(todoTask);
@@ -193,4 +211,159 @@ public class TaskListTest {
         assertEquals(todoTask, tasks.get(0));
         assertEquals(deadlineTask, tasks.get(1));
     }
+
+    @Test
+    public void concurrentWritersAndReaders_noLostUpdates() throws InterruptedException {
+        int writerCount = 8;
+        int tasksPerWriter = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(writerCount + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger readerErrors = new AtomicInteger();
+
+        for (int w = 0; w < writerCount; w++) {
+            int writer = w;
+            pool.execute(()-> {
+                awaitQuietly(start);
+                for (int i = 0; i < tasksPerWriter; i++) {
+                    Task task = new Todo("writer " + writer + " task " + i);
+                    taskList.addTask(task);
+                    task.setDone(true);
+                }
+            });
+        }
+        for (int r = 0; r < 2; r++) {
+            pool.execute(()-> {
+                awaitQuietly(start);
+                for (int i = 0; i < 200; i++) {
+                    ArrayList<Task> snapshot = taskList.getTasks();
+                    if (snapshot.contains(null) || taskList.findTasks(task->task == null).size() != 0) {
+                        readerErrors.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(0, readerErrors.get());
+        assertEquals(writerCount * tasksPerWriter, taskList.getSize());
+        assertEquals(writerCount * tasksPerWriter, taskList.findTasks(Task::getIsDone).size());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void select_filterByTypeAndStatus_keepsOriginalNumbers() {
+        taskList.addTask(todoTask);
+        taskList.addTask(deadlineTask);
+        taskList.addTask(eventTask);
+        taskList.addTask(new Deadline("Pay rent", LocalDateTime.of(2025, 10, 1, 9, 0)));
+        taskList.markTask(true, 3);
+
+        TaskPage deadlines = taskList.select(new TaskFilter(null, TaskType.DEADLINE, null), 1, 10);
+        assertEquals(2, deadlines.matchCount());
+        assertEquals(2, deadlines.entries().get(0).number());
+        assertEquals(4, deadlines.entries().get(1).number());
+
+        TaskPage done = taskList.select(new TaskFilter(true, null, null), 1, 10);
+        assertEquals(1, done.matchCount());
+        assertEquals(4, done.entries().get(0).number());
+
+        TaskPage dueSoon = taskList.select(new TaskFilter(false, null, LocalDateTime.of(2025, 11, 1, 0, 0)), 1, 10);
+        assertEquals(0, dueSoon.matchCount());
+    }
+
+    @Test
+    public void select_pages_splitsMatchesInOrder() {
+        for (int i = 1; i <= 25; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+
+        TaskPage second = taskList.select(TaskFilter.ALL, 2, 10);
+        assertEquals(25, second.matchCount());
+        assertEquals(3, second.pageCount());
+        assertEquals(10, second.entries().size());
+        assertEquals(11, second.entries().get(0).number());
+
+        TaskPage last = taskList.select(TaskFilter.ALL, 3, 10);
+        assertEquals(5, last.entries().size());
+        assertTrue(taskList.select(TaskFilter.ALL, 4, 10).entries().isEmpty());
+    }
+
+    @Test
+    public void select_afterDeleteAndDirectMark_staysConsistent() {
+        taskList.addTask(todoTask);
+        taskList.addTask(deadlineTask);
+        taskList.addTask(eventTask);
+        assertEquals(3, taskList.select(TaskFilter.ALL, 1, 10).matchCount());
+
+        taskList.removeTask(0);
+        todoTask.setDone(true);
+        eventTask.setDone(true);
+
+        TaskPage done = taskList.select(new TaskFilter(true, null, null), 1, 10);
+        assertEquals(1, done.matchCount());
+        assertEquals(2, done.entries().get(0).number());
+        assertEquals(eventTask, done.entries().get(0).task());
+    }
+
+    @Test
+    public void removeTask_indexCurrent_shiftsPositionsWithoutRebuild() {
+        taskList.addTask(todoTask);
+        taskList.addTask(deadlineTask);
+        taskList.addTask(eventTask);
+        taskList.addTask(new Deadline("Return book", LocalDateTime.of(2024, 12, 1, 9, 0)));
+        taskList.markTask(true, 2);
+        assertEquals(4, taskList.select(TaskFilter.ALL, 1, 10).matchCount());
+
+        taskList.removeTask(1);
+
+        assertTrue(taskList.isIndexCurrent());
+        TaskPage done = taskList.select(new TaskFilter(true, null, null), 1, 10);
+        assertEquals(1, done.matchCount());
+        assertEquals(2, done.entries().get(0).number());
+        assertEquals(1, (int) taskList.readIndexed(index->index.countOfType(TaskType.DEADLINE)));
+        BitSet deadlines = taskList.readIndexed(index->index.inRange(IndexedTasks.TimeKey.BY, null, false, null,
+                false));
+        assertEquals(2, deadlines.nextSetBit(0));
+        assertEquals(0, (int) taskList.readIndexed(index->index.countWithKeyword("submit")));
+    }
+
+    @Test
+    public void markTask_sameTaskInOtherList_otherIndexUnaffected() {
+        taskList.addTask(todoTask);
+        TaskList other = new TaskList();
+        other.addTask(new Todo("Water plants"));
+        assertEquals(1, taskList.select(TaskFilter.ALL, 1, 10).matchCount());
+
+        other.markTask(true, 0);
+
+        assertTrue(taskList.isIndexCurrent());
+    }
+
+    @Test
+    public void applyChanges_marksRemovalsAndAdditions_appliedByIdentity() {
+        taskList.addTask(todoTask);
+        taskList.addTask(deadlineTask);
+        taskList.addTask(eventTask);
+        Task gone = new Todo("Already gone");
+        Task added = new Todo("Water plants");
+
+        List<Task> removed = taskList.applyChanges(Map.of(eventTask, true), List.of(deadlineTask, gone),
+                List.of(added));
+
+        assertEquals(List.of(deadlineTask), removed);
+        assertEquals(List.of(todoTask, eventTask, added), taskList.getTasks());
+        assertTrue(eventTask.getIsDone());
+        assertEquals(1, (int) taskList.readIndexed(IndexedTasks::countDone));
+        assertEquals(1, (int) taskList.readIndexed(index->index.countWithKeyword("plants")));
+    }
 }
@@ -2,6 +2,7 @@ package jinjja.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
@@ -132,4 +133,23 @@ public class TaskTest {
         assertTrue(longEvent.toString().contains("Dec 26 2025"));
         assertEquals("E | 0 | Christmas celebration | 2025-12-24 18:00 | 2025-12-26 10:00", longEvent.toFileFormat());
     }
+
+    @Test
+    public void toString_repeatedCalls_reuseCachedLine() {
+        String first = deadlineTask.toString();
+
+        assertSame(first, deadlineTask.toString());
+    }
+
+    @Test
+    public void toString_afterSetDone_rendersNewStatus() {
+        String before = eventTask.toString();
+        eventTask.setDone(true);
+        String after = eventTask.toString();
+
+        assertTrue(before.startsWith("[E][ ]"));
+        assertTrue(after.startsWith("[E][X]"));
+        eventTask.setDone(false);
+        assertEquals(before, eventTask.toString());
+    }
 }
@@ -104,4 +104,22 @@ public class TentativeTest {
         assertTrue(result.contains("CONFIRMED:"));
         assertTrue(result.contains("Sep 15 2025"));
     }
+
+    @Test
+    public void toString_afterSlotChanges_reflectsEachChange() {
+        tentative.addTentativeSlot(slot1From, slot1To);
+        String oneSlot = tentative.toString();
+        tentative.addTentativeSlot(slot2From, slot2To);
+        String twoSlots = tentative.toString();
+        tentative.confirmSlot(2);
+        String confirmed = tentative.toString();
+        tentative.removeTentativeSlot(2);
+        String removed = tentative.toString();
+
+        assertFalse(oneSlot.contains("2. "));
+        assertTrue(twoSlots.contains("2. "));
+        assertTrue(confirmed.contains("CONFIRMED"));
+        assertFalse(removed.contains("CONFIRMED"));
+        assertEquals(oneSlot, removed);
+    }
 }
@@ -0,0 +1,92 @@
+package jinjja.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for Cli. Tests when replies are flushed for interactive and piped input.
+ */
+public class CliTest {
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void showMessage_interactive_flushesEachReply() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Cli cli = new Cli(input("list\n"), output, true);
+
+        cli.showMessage("hello");
+        assertEquals("hello" + System.lineSeparator(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readCommand_piped_flushesOnlyWhenNoCommandIsWaiting() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Cli cli = new Cli(input("list\nbye\n"), output, false);
+
+        assertEquals("list", cli.readCommand());
+        cli.showMessage("first");
+        assertEquals("bye", cli.readCommand());
+        assertEquals("", output.toString(StandardCharsets.UTF_8));
+
+        cli.showMessage("second");
+        assertNull(cli.readCommand());
+        assertEquals("first" + System.lineSeparator() + "second" + System.lineSeparator(),
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void showReply_pipedReplyThrows_earlierOutputFlushed() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Cli cli = new Cli(input("todo a\nmark 99\n"), output, false);
+
+        assertEquals("todo a", cli.readCommand());
+        cli.showReply(()->cli.showMessage("added"));
+        assertEquals("mark 99", cli.readCommand());
+        assertEquals("", output.toString(StandardCharsets.UTF_8));
+
+        assertThrows(NumberFormatException.class, ()->cli.showReply(()-> {
+            throw new NumberFormatException("99");
+        }));
+        assertEquals("added" + System.lineSeparator(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void showNotice_piped_flushedStraightAway() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Cli cli = new Cli(input("list\n"), output, false);
+
+        cli.showNotice("picked up 1 task");
+        assertEquals("picked up 1 task" + System.lineSeparator(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void showNotice_duringReply_waitsUntilReplyDone() throws InterruptedException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Cli cli = new Cli(input("list\n"), output, true);
+        Thread watcher = new Thread(()->cli.showNotice("notice"));
+
+        cli.showReply(()-> {
+            cli.showMessage("first half");
+            watcher.start();
+            while (watcher.getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            cli.showMessage("second half");
+        });
+        watcher.join();
+
+        String newline = System.lineSeparator();
+        assertEquals("first half" + newline + "second half" + newline + "notice" + newline,
+                output.toString(StandardCharsets.UTF_8));
+    }
+}
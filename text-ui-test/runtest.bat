@@ -3,19 +3,24 @@
 REM create bin directory if it doesn't exist
 if not exist ..\bin mkdir ..\bin
 
-REM delete output from previous run
+REM delete output and saved tasks from previous run
 if exist ACTUAL.TXT del ACTUAL.TXT
+if exist ip rmdir /s /q ip
 
-REM compile the code into the bin folder
-javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\*.java
+REM compile the text UI into the bin folder, leaving out the JavaFX GUI
+dir /s /b ..\src\main\java\*.java | findstr /v /i "\\javafxui\\ \\Launcher.java" > sources.txt
+javac  -cp ..\src\main\java -Xlint:none -d ..\bin @sources.txt
 IF ERRORLEVEL 1 (
+    del sources.txt
     echo ********** BUILD FAILURE **********
     exit /b 1
 )
+del sources.txt
 REM no error here, errorlevel == 0
 
 REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ..\bin Jinjja < input.txt > ACTUAL.TXT
+java -Duser.language=en -Duser.country=US -classpath ..\bin jinjja.Jinjja < input.txt > ACTUAL.TXT
+if exist ip rmdir /s /q ip
 
 REM compare the output to the expected output
 FC ACTUAL.TXT EXPECTED.TXT
@@ -6,21 +6,23 @@ then
     mkdir ../bin
 fi
 
-# delete output from previous run
+# delete output and saved tasks from previous run
 if [ -e "./ACTUAL.TXT" ]
 then
     rm ACTUAL.TXT
 fi
+rm -rf ./ip
 
-# compile the code into the bin folder, terminates if error occurred
-if ! javac -cp ../src/main/java -Xlint:none -d ../bin ../src/main/java/*.java
+# compile the text UI into the bin folder, leaving out the JavaFX GUI, terminates if error occurred
+if ! javac -cp ../src/main/java -Xlint:none -d ../bin $(find ../src/main/java -name '*.java' -not -path '*/javafxui/*' -not -name 'Launcher.java')
 then
     echo "********** BUILD FAILURE **********"
     exit 1
 fi
 
 # run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ../bin Jinjja < input.txt > ACTUAL.TXT
+java -Duser.language=en -Duser.country=US -classpath ../bin jinjja.Jinjja < input.txt > ACTUAL.TXT
+rm -rf ./ip
 
 # convert to UNIX format
 cp EXPECTED.TXT EXPECTED-UNIX.TXT
@@ -35,4 +37,4 @@ then
 else
     echo "Test result: FAILED"
     exit 1
-fi
\ No newline at end of file
+fi